@@ -0,0 +1,48 @@
+package com.example.jwt_authentication.batch;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// A job BatchJobRunner runs as chunked read-process-write over a numeric key (usually the id).
+// Each scope's key range is split into partitions that run in parallel; a partition reads a
+// chunk after its last key, processes each item, writes the results and commits, then
+// records the chunk's last key as its checkpoint. The checkpoint is saved after the chunk
+// commits, so after a crash the last chunk may run again: write must be idempotent.
+public interface BatchJob<I, O> {
+
+    // Unique across every application sharing the database; names the lease and the runs
+    String getName();
+
+    default int getChunkSize() {
+        return 500;
+    }
+
+    default int getPartitions() {
+        return 4;
+    }
+
+    // Separate places the data lives, e.g. shards; each is split into partitions on its own
+    default int getScopeCount() {
+        return 1;
+    }
+
+    // Runs work against the given scope's data
+    default <T> T inScope(int scope, Supplier<T> work) {
+        return work.get();
+    }
+
+    // null when there is nothing to do; called in scope
+    KeyRange keyRange();
+
+    // Up to limit items with afterKey < key <= toKey, in key order; called in scope, inside
+    // the chunk's transaction
+    List<I> read(long afterKey, long toKey, int limit);
+
+    long keyOf(I item);
+
+    // null drops the item
+    O process(I item);
+
+    // Returns how many items it changed
+    int write(List<O> items);
+}
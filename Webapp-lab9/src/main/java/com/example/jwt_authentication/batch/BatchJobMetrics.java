@@ -0,0 +1,101 @@
+package com.example.jwt_authentication.batch;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Throughput and duration of one job's runs on this node
+public class BatchJobMetrics {
+
+    private final String jobName;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Current (or last) run; partitions add to these concurrently
+    private final LongAdder itemsRead = new LongAdder();
+    private final LongAdder itemsWritten = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private volatile long startedAtMillis;
+    private volatile long finishedAtMillis;
+    private volatile Long executionId;
+    private volatile String lastOutcome;
+    private volatile LocalDateTime lastStartedAt;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalItemsWritten = new AtomicLong();
+
+    public BatchJobMetrics(String jobName) {
+        this.jobName = jobName;
+    }
+
+    // false when a run of this job is already going on this node
+    boolean tryStart() {
+        return running.compareAndSet(false, true);
+    }
+
+    // The lease went to another node; the last run's figures stay
+    void skipped() {
+        running.set(false);
+    }
+
+    // The lease is ours and the run begins
+    void begin() {
+        itemsRead.reset();
+        itemsWritten.reset();
+        chunks.reset();
+        executionId = null;
+        startedAtMillis = System.currentTimeMillis();
+        finishedAtMillis = 0;
+        lastStartedAt = LocalDateTime.now();
+    }
+
+    void executing(Long id) {
+        executionId = id;
+    }
+
+    void chunkDone(long read, long written) {
+        itemsRead.add(read);
+        itemsWritten.add(written);
+        chunks.increment();
+    }
+
+    void finished(String outcome) {
+        finishedAtMillis = System.currentTimeMillis();
+        lastOutcome = outcome;
+        runs.incrementAndGet();
+        if ("FAILED".equals(outcome)) {
+            failures.incrementAndGet();
+        }
+        totalItemsWritten.addAndGet(itemsWritten.sum());
+        running.set(false);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Object> toMap() {
+        boolean active = running.get();
+        long end = active || finishedAtMillis == 0 ? System.currentTimeMillis() : finishedAtMillis;
+        long elapsed = startedAtMillis == 0 ? 0 : end - startedAtMillis;
+        long read = itemsRead.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("job", jobName);
+        stats.put("running", active);
+        stats.put("executionId", executionId);
+        stats.put("lastStartedAt", lastStartedAt);
+        stats.put("lastOutcome", active ? null : lastOutcome);
+        stats.put("durationMillis", elapsed);
+        stats.put("itemsRead", read);
+        stats.put("itemsWritten", itemsWritten.sum());
+        stats.put("chunks", chunks.sum());
+        stats.put("itemsPerSecond", elapsed == 0 ? 0 : read * 1000 / elapsed);
+        stats.put("runs", runs.get());
+        stats.put("failures", failures.get());
+        stats.put("totalItemsWritten", totalItemsWritten.get() + (active ? itemsWritten.sum() : 0));
+        return stats;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.jwt_authentication.batch;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// When each batch job runs by itself. Every node triggers it; the lease lets one node run it.
+// A cron of "-" turns the schedule off.
+@Component
+public class BatchJobSchedule {
+
+    private final BatchJobRunner runner;
+
+    public BatchJobSchedule(BatchJobRunner runner) {
+        this.runner = runner;
+    }
+
+    @Scheduled(cron = "${batch.jobs.refresh-token-purge.cron:0 0 3 * * *}")
+    public void refreshTokenPurge() {
+        runner.launchIfFree(RefreshTokenPurgeJob.NAME);
+    }
+}
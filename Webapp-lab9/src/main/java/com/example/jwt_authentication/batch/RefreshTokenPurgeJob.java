@@ -0,0 +1,72 @@
+package com.example.jwt_authentication.batch;
+
+import com.example.jwt_authentication.repository.RefreshTokenRepository;
+import com.example.jwt_authentication.repository.RefreshTokenRepository.IdRange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Deletes refresh tokens past their expiry date, one DELETE per chunk of ids. Tokens are
+// only replaced at login, so without this the table keeps every token ever issued.
+@Component
+public class RefreshTokenPurgeJob implements BatchJob<Long, Long> {
+
+    public static final String NAME = "refresh-token-purge";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${batch.jobs.refresh-token-purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${batch.jobs.refresh-token-purge.partitions:4}")
+    private int partitions;
+
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public int getPartitions() {
+        return partitions;
+    }
+
+    @Override
+    public KeyRange keyRange() {
+        IdRange range = refreshTokenRepository.findIdRange();
+        return KeyRange.of(range.getMinId(), range.getMaxId());
+    }
+
+    @Override
+    public List<Long> read(long afterKey, long toKey, int limit) {
+        return refreshTokenRepository.findExpiredIds(afterKey, toKey, LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public long keyOf(Long id) {
+        return id;
+    }
+
+    @Override
+    public Long process(Long id) {
+        return id;
+    }
+
+    // Deleting an id twice is harmless, so a repeated chunk is too
+    @Override
+    public int write(List<Long> ids) {
+        return refreshTokenRepository.deleteExpired(ids, LocalDateTime.now());
+    }
+}
@@ -1,17 +1,23 @@
 package com.example.jwt_authentication.controller;
 
+import com.example.jwt_authentication.batch.BatchJobRunner;
 import com.example.jwt_authentication.dto.UpdateRoleDTO;
 import com.example.jwt_authentication.dto.UserResponseDTO;
+import com.example.jwt_authentication.limiter.ConcurrencyLimitFilter;
+import com.example.jwt_authentication.replica.ReplicaRoutingDataSource;
 import com.example.jwt_authentication.service.AdminService;
 
 import jakarta.validation.Valid;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -21,6 +27,16 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    // Only present when customer.replicas.enabled=true
+    @Autowired
+    private ObjectProvider<ReplicaRoutingDataSource> replicaRouting;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
@@ -43,4 +59,43 @@ public class AdminController {
 
         return ResponseEntity.ok(adminService.toggleUserStatus(id));
     }
+
+    // Per-pool connection counts, replica lag and the share of reads served by replicas
+    @GetMapping("/replicas/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getReplicaStats() {
+        ReplicaRoutingDataSource routing = replicaRouting.getIfAvailable();
+        if (routing == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(routing.getStats());
+    }
+
+    // Current limit, in-flight count and rejections per endpoint group; never shed by the limiter
+    @GetMapping("/limits")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getLimits() {
+        return ResponseEntity.ok(concurrencyLimitFilter.getStats());
+    }
+
+    // Throughput and duration of every batch job on this node
+    @GetMapping("/batch/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getBatchJobs() {
+        return ResponseEntity.ok(batchJobRunner.getStats());
+    }
+
+    // One job's metrics and its recent runs on any node
+    @GetMapping("/batch/jobs/{name}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getBatchJob(@PathVariable String name) {
+        return ResponseEntity.ok(batchJobRunner.getJob(name));
+    }
+
+    // Runs a job now; 409 while it is running on any node
+    @PostMapping("/batch/jobs/{name}/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> runBatchJob(@PathVariable String name) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(batchJobRunner.start(name));
+    }
 }
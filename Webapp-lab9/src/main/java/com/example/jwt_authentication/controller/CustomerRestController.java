@@ -3,8 +3,10 @@ package com.example.jwt_authentication.controller;
 import com.example.jwt_authentication.dto.CustomerRequestDTO;
 import com.example.jwt_authentication.dto.CustomerResponseDTO;
 import com.example.jwt_authentication.service.CustomerService;
+import com.example.jwt_authentication.service.UpsertOutcome;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -33,7 +35,7 @@ public class CustomerRestController {
     @GetMapping("/{id}")
     public ResponseEntity<CustomerResponseDTO> getCustomerById(@PathVariable Long id) {
         CustomerResponseDTO customer = customerService.getCustomerById(id);
-        return ResponseEntity.ok(customer);
+        return ResponseEntity.ok().eTag(String.valueOf(customer.getVersion())).body(customer);
     }
     
     // POST - Only ADMIN can create
@@ -49,9 +51,30 @@ public class CustomerRestController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CustomerResponseDTO> updateCustomer(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
             @Valid @RequestBody CustomerRequestDTO requestDTO) {
-        CustomerResponseDTO updated = customerService.updateCustomer(id, requestDTO);
-        return ResponseEntity.ok(updated);
+        // "Prefer: return=minimal" skips reading the row back after the single UPDATE
+        boolean minimal = prefer != null && prefer.contains("return=minimal");
+        CustomerResponseDTO updated = customerService.updateCustomer(id, requestDTO, parseIfMatch(ifMatch), !minimal);
+        if (minimal) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(updated.getVersion())).body(updated);
+    }
+    
+    // PUT by code - Only ADMIN can sync (create or update in one statement)
+    @PutMapping("/code/{customerCode}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> upsertCustomerByCode(
+            @PathVariable String customerCode,
+            @Valid @RequestBody CustomerRequestDTO requestDTO) {
+        UpsertOutcome outcome = customerService.upsertCustomerByCode(customerCode, requestDTO);
+        Map<String, String> response = new HashMap<>();
+        response.put("customerCode", customerCode);
+        response.put("result", outcome.name());
+        HttpStatus status = outcome == UpsertOutcome.CREATED ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(response);
     }
     
     // DELETE - Only ADMIN can delete
@@ -70,4 +93,21 @@ public class CustomerRestController {
         List<CustomerResponseDTO> customers = customerService.searchCustomers(keyword);
         return ResponseEntity.ok(customers);
     }
+
+    // Accepts "3", "\"3\"" or W/"3"; "*" or no header means unconditional
+    private Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must carry a customer version: " + ifMatch);
+        }
+    }
 }
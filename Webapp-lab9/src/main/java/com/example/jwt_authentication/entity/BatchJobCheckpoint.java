@@ -0,0 +1,153 @@
+package com.example.jwt_authentication.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Progress of one partition of a batch job run: the key range (rangeStart, rangeEnd] it
+// covers and the last key whose chunk has committed. Fixed when the run starts, so a
+// resumed run splits the work exactly as the crashed one did.
+@Entity
+@Table(name = "batch_job_checkpoints", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_batch_job_checkpoints_partition", columnNames = {"execution_id", "partition_no"})
+})
+public class BatchJobCheckpoint {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "execution_id", nullable = false)
+    private Long executionId;
+    
+    @Column(name = "partition_no", nullable = false)
+    private int partitionNo;
+    
+    // Where the partition's data lives, e.g. the shard; 0 when the job has one scope
+    @Column(name = "scope_no", nullable = false)
+    private int scopeNo;
+    
+    @Column(name = "range_start", nullable = false)
+    private long rangeStart;
+    
+    @Column(name = "range_end", nullable = false)
+    private long rangeEnd;
+    
+    @Column(name = "last_key", nullable = false)
+    private long lastKey;
+    
+    @Column(name = "items_read", nullable = false)
+    private long itemsRead;
+    
+    @Column(name = "items_written", nullable = false)
+    private long itemsWritten;
+    
+    @Column(nullable = false)
+    private boolean done;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public BatchJobCheckpoint() {
+    }
+    
+    public BatchJobCheckpoint(Long executionId, int partitionNo, int scopeNo, long rangeStart, long rangeEnd) {
+        this.executionId = executionId;
+        this.partitionNo = partitionNo;
+        this.scopeNo = scopeNo;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.lastKey = rangeStart;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getExecutionId() {
+        return executionId;
+    }
+    
+    public void setExecutionId(Long executionId) {
+        this.executionId = executionId;
+    }
+    
+    public int getPartitionNo() {
+        return partitionNo;
+    }
+    
+    public void setPartitionNo(int partitionNo) {
+        this.partitionNo = partitionNo;
+    }
+    
+    public int getScopeNo() {
+        return scopeNo;
+    }
+    
+    public void setScopeNo(int scopeNo) {
+        this.scopeNo = scopeNo;
+    }
+    
+    public long getRangeStart() {
+        return rangeStart;
+    }
+    
+    public void setRangeStart(long rangeStart) {
+        this.rangeStart = rangeStart;
+    }
+    
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
+    
+    public void setRangeEnd(long rangeEnd) {
+        this.rangeEnd = rangeEnd;
+    }
+    
+    public long getLastKey() {
+        return lastKey;
+    }
+    
+    public void setLastKey(long lastKey) {
+        this.lastKey = lastKey;
+    }
+    
+    public long getItemsRead() {
+        return itemsRead;
+    }
+    
+    public void setItemsRead(long itemsRead) {
+        this.itemsRead = itemsRead;
+    }
+    
+    public long getItemsWritten() {
+        return itemsWritten;
+    }
+    
+    public void setItemsWritten(long itemsWritten) {
+        this.itemsWritten = itemsWritten;
+    }
+    
+    public boolean isDone() {
+        return done;
+    }
+    
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.jwt_authentication.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One run of a batch job. A run that did not complete is resumed from its checkpoints by
+// the next run of the same job instead of starting over.
+@Entity
+@Table(name = "batch_job_executions", indexes = {
+    // Latest run per job
+    @Index(name = "idx_batch_job_executions_job_name_id", columnList = "job_name, id")
+})
+public class BatchJobExecution {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BatchJobStatus status = BatchJobStatus.RUNNING;
+    
+    // Node that last worked on the run
+    @Column(nullable = false, length = 100)
+    private String owner;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+    
+    @Column(name = "items_read", nullable = false)
+    private long itemsRead;
+    
+    @Column(name = "items_written", nullable = false)
+    private long itemsWritten;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+    
+    // Constructors
+    public BatchJobExecution() {
+    }
+    
+    public BatchJobExecution(String jobName, String owner) {
+        this.jobName = jobName;
+        this.owner = owner;
+        this.startedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getJobName() {
+        return jobName;
+    }
+    
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+    
+    public BatchJobStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(BatchJobStatus status) {
+        this.status = status;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public long getItemsRead() {
+        return itemsRead;
+    }
+    
+    public void setItemsRead(long itemsRead) {
+        this.itemsRead = itemsRead;
+    }
+    
+    public long getItemsWritten() {
+        return itemsWritten;
+    }
+    
+    public void setItemsWritten(long itemsWritten) {
+        this.itemsWritten = itemsWritten;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.jwt_authentication.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Who may run a batch job right now. A node holds the lease until expiresAt and renews it
+// while it works; once it lapses (crash, lost connection) any node may take it over.
+@Entity
+@Table(name = "batch_job_leases")
+public class BatchJobLease {
+    
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+    
+    @Column(nullable = false, length = 100)
+    private String owner;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Constructors
+    public BatchJobLease() {
+    }
+    
+    // Getters and Setters
+    public String getJobName() {
+        return jobName;
+    }
+    
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.jwt_authentication.entity;
+
+public enum BatchJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
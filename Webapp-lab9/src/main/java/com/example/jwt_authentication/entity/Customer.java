@@ -4,20 +4,29 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", uniqueConstraints = {
+    // Named so DuplicateKeyTranslator can tell which column collided
+    @UniqueConstraint(name = "uk_customers_customer_code", columnNames = "customer_code"),
+    @UniqueConstraint(name = "uk_customers_email", columnNames = "email")
+}, indexes = {
+    // Shared with customer-api's change feed (updated_at + id tiebreaker)
+    @Index(name = "idx_customers_updated_at_id", columnList = "updated_at, id"),
+    // Backs customer-api's customer_daily_stats backfill
+    @Index(name = "idx_customers_created_at", columnList = "created_at")
+})
 public class Customer {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(name = "customer_code", unique = true, nullable = false, length = 20)
+    @Column(name = "customer_code", nullable = false, length = 20)
     private String customerCode;
     
     @Column(name = "full_name", nullable = false, length = 100)
     private String fullName;
     
-    @Column(unique = true, nullable = false, length = 100)
+    @Column(nullable = false, length = 100)
     private String email;
     
     @Column(length = 20)
@@ -36,6 +45,11 @@ public class Customer {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic lock; bumped by every write, including the single-statement updates
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -131,4 +145,12 @@ public class Customer {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,62 @@
+package com.example.jwt_authentication.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Marker left behind when a customer row is deleted (read by customer-api's change feed)
+@Entity
+@Table(name = "customer_tombstones", indexes = {
+    @Index(name = "idx_customer_tombstones_deleted_at_id", columnList = "deleted_at, customer_id")
+})
+public class CustomerTombstone {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    
+    // Constructors
+    public CustomerTombstone() {
+    }
+    
+    public CustomerTombstone(Long customerId) {
+        this.customerId = customerId;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        if (this.deletedAt == null) {
+            this.deletedAt = LocalDateTime.now();
+        }
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getCustomerId() {
+        return customerId;
+    }
+    
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
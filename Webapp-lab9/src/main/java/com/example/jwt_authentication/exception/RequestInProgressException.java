@@ -0,0 +1,12 @@
+package com.example.jwt_authentication.exception;
+
+public class RequestInProgressException extends RuntimeException {
+    
+    public RequestInProgressException(String message) {
+        super(message);
+    }
+    
+    public RequestInProgressException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.jwt_authentication.limiter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-flight cap for one endpoint group. Requests over the current limit are refused at once
+// rather than queued, so a slow database costs the excess requests a fast 503 instead of
+// making every request wait for a pool connection.
+public class ConcurrencyLimiter {
+
+    private final String group;
+    private final GradientLimit limit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ConcurrencyLimiter(String group, GradientLimit limit) {
+        this.group = group;
+        this.limit = limit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    public void release(long startedNanos) {
+        int current = inFlight.getAndDecrement();
+        limit.onSample(System.nanoTime() - startedNanos, current);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("group", group);
+        stats.put("limit", limit.getLimit());
+        stats.put("inFlight", inFlight.get());
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("baselineLatencyMillis", limit.getBaselineMillis());
+        return stats;
+    }
+}
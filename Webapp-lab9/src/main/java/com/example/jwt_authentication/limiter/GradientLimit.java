@@ -0,0 +1,81 @@
+package com.example.jwt_authentication.limiter;
+
+// Concurrency limit driven by latency, after Netflix's Gradient2 and TCP Vegas. Each window of
+// samples compares the window's average latency with a baseline of unloaded latency: when
+// requests get slower than the baseline (times the tolerance) the limit shrinks in proportion,
+// otherwise it grows by about sqrt(limit), so it settles just below the point where the
+// database starts queueing.
+public class GradientLimit {
+
+    // The baseline follows faster windows at once but slower ones only by this weight, so a
+    // slowdown shrinks the limit for a good while and only a lasting one becomes the new normal
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final int windowSize;
+
+    private volatile double limit;
+
+    private double baselineNanos;
+    private long windowSumNanos;
+    private int windowCount;
+    private int windowMaxInFlight;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit,
+                         double smoothing, double tolerance, int windowSize) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.windowSize = windowSize;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized double getBaselineMillis() {
+        return baselineNanos / 1_000_000.0;
+    }
+
+    // rttNanos: how long the request took; inFlight: requests running when it finished, itself included
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        windowSumNanos += rttNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        if (windowCount < windowSize) {
+            return;
+        }
+        double shortNanos = (double) windowSumNanos / windowCount;
+        int maxInFlight = windowMaxInFlight;
+        windowSumNanos = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+
+        if (baselineNanos == 0) {
+            baselineNanos = shortNanos;
+            return;
+        }
+        if (shortNanos < baselineNanos) {
+            baselineNanos = shortNanos;
+        } else {
+            baselineNanos += (shortNanos - baselineNanos) * BASELINE_DRIFT;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / shortNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        double next = limit * (1 - smoothing) + target * smoothing;
+        // Traffic that never came near the limit says nothing about whether a higher one is safe
+        if (next > limit && maxInFlight < limit / 2) {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
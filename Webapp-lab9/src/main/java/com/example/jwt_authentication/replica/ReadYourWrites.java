@@ -0,0 +1,24 @@
+package com.example.jwt_authentication.replica;
+
+// Per-thread "read from the primary until" deadline. ReadYourWritesFilter sets it for clients
+// that wrote recently; ReplicaRoutingDataSource honours it when choosing a pool for a read.
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Long> PINNED_UNTIL = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pinUntil(long epochMillis) {
+        PINNED_UNTIL.set(epochMillis);
+    }
+
+    public static boolean isPinned() {
+        Long until = PINNED_UNTIL.get();
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public static void clear() {
+        PINNED_UNTIL.remove();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.jwt_authentication.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Measures replica lag without replication-specific privileges: the primary stamps
+// replica_heartbeat with the current time, and a replica's lag is how old its copy of that
+// stamp is. Both stamps come from this instance's clock, so host clock skew does not matter.
+@Component
+@ConditionalOnProperty(name = "customer.replicas.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final ReplicaRoutingDataSource routing;
+    private final ReplicaProperties properties;
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> replicas;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routing, ReplicaProperties properties) {
+        this.routing = routing;
+        this.properties = properties;
+        this.primary = new JdbcTemplate(routing.getPrimary());
+        this.replicas = routing.getReplicas().stream().map(JdbcTemplate::new).toList();
+    }
+
+    @PostConstruct
+    void init() {
+        primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat " +
+                        "(id INT NOT NULL PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        Integer rows = primary.queryForObject("SELECT COUNT(*) FROM replica_heartbeat", Integer.class);
+        if (rows != null && rows == 0) {
+            primary.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", System.currentTimeMillis());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.replicas.heartbeat-millis:500}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariDataSource pool = routing.getReplicas().get(i);
+            try {
+                Long beat = replicas.get(i).queryForObject(
+                        "SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+                long lag = beat == null ? Long.MAX_VALUE : now - beat;
+                boolean fresh = lag <= properties.getMaxLagMillis();
+                routing.reportLag(i, lag, fresh);
+            } catch (DataAccessException e) {
+                // Unreachable, or replication has not created the table yet
+                routing.reportLag(i, -1, false);
+                log.debug("Replica {} heartbeat check failed: {}", pool.getPoolName(), e.getMessage());
+            }
+        }
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", now);
+        } catch (DataAccessException e) {
+            log.warn("Replica heartbeat write failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.jwt_authentication.repository;
+
+import com.example.jwt_authentication.entity.BatchJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BatchJobCheckpointRepository extends JpaRepository<BatchJobCheckpoint, Long> {
+    
+    List<BatchJobCheckpoint> findByExecutionIdOrderByPartitionNo(Long executionId);
+    
+    // Records a committed chunk
+    @Modifying
+    @Query("UPDATE BatchJobCheckpoint c SET c.lastKey = :lastKey, c.itemsRead = c.itemsRead + :read, " +
+           "c.itemsWritten = c.itemsWritten + :written, c.done = :done, c.updatedAt = :now WHERE c.id = :id")
+    int advance(@Param("id") Long id,
+                @Param("lastKey") long lastKey,
+                @Param("read") long read,
+                @Param("written") long written,
+                @Param("done") boolean done,
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,16 @@
+package com.example.jwt_authentication.repository;
+
+import com.example.jwt_authentication.entity.BatchJobExecution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BatchJobExecutionRepository extends JpaRepository<BatchJobExecution, Long> {
+    
+    Optional<BatchJobExecution> findFirstByJobNameOrderByIdDesc(String jobName);
+    
+    List<BatchJobExecution> findTop10ByJobNameOrderByIdDesc(String jobName);
+}
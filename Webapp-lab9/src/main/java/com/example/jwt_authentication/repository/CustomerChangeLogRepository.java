@@ -0,0 +1,38 @@
+package com.example.jwt_authentication.repository;
+
+import com.example.jwt_authentication.entity.CustomerChangeLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CustomerChangeLogRepository extends JpaRepository<CustomerChangeLog, Long> {
+    
+    // For writes that only know the customer code (the upsert)
+    @Modifying
+    @Query(value = "INSERT INTO customer_change_log (customer_id, changed_at) " +
+                   "SELECT id, :now FROM customers WHERE customer_code = :customerCode",
+           nativeQuery = true)
+    int logChangeByCode(@Param("customerCode") String customerCode, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT COALESCE(MAX(l.id), 0) FROM CustomerChangeLog l")
+    Long findMaxId();
+    
+    List<CustomerChangeLog> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    // Re-check ids skipped by an earlier poll; their transactions may have committed since
+    List<CustomerChangeLog> findByIdIn(Collection<Long> ids);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CustomerChangeLog l WHERE l.changedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
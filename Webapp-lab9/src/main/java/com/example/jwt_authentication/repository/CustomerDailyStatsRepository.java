@@ -0,0 +1,35 @@
+package com.example.jwt_authentication.repository;
+
+import com.example.jwt_authentication.entity.CustomerDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+// Written alongside customer writes; customer-api serves the growth analytics from it
+@Repository
+public interface CustomerDailyStatsRepository extends JpaRepository<CustomerDailyStats, Long> {
+    
+    // Adds to one (day, slot) row, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO customer_daily_stats " +
+                   "(stat_date, slot, created, deactivated, reactivated, deleted, deleted_active) " +
+                   "VALUES (:day, :slot, :created, :deactivated, :reactivated, :deleted, :deletedActive) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "created = created + VALUES(created), " +
+                   "deactivated = deactivated + VALUES(deactivated), " +
+                   "reactivated = reactivated + VALUES(reactivated), " +
+                   "deleted = deleted + VALUES(deleted), " +
+                   "deleted_active = deleted_active + VALUES(deleted_active)",
+           nativeQuery = true)
+    int increment(@Param("day") LocalDate day,
+                  @Param("slot") int slot,
+                  @Param("created") long created,
+                  @Param("deactivated") long deactivated,
+                  @Param("reactivated") long reactivated,
+                  @Param("deleted") long deleted,
+                  @Param("deletedActive") long deletedActive);
+}
@@ -2,17 +2,21 @@ package com.example.jwt_authentication.repository;
 
 import com.example.jwt_authentication.entity.Customer;
 import com.example.jwt_authentication.entity.CustomerStatus;
+import jakarta.persistence.LockModeType;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerWriteRepository {
     
     Optional<Customer> findByCustomerCode(String customerCode);
     
@@ -42,4 +46,39 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
         @Param("status") CustomerStatus status
     );
 
+    // One DELETE instead of existsById + deleteById (which selects before deleting)
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id = :id")
+    int deleteCustomerById(@Param("id") Long id);
+
+    // The status a delete is about to remove, row-locked so it cannot change before the DELETE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.status FROM Customer c WHERE c.id = :id")
+    Optional<CustomerStatus> findStatusForUpdate(@Param("id") Long id);
+
+    // True when an upsert hits this customer's own row and actually changes it
+    String UPSERT_CHANGES_ROW = "customer_code = VALUES(customer_code) AND NOT (" +
+                                "full_name <=> VALUES(full_name) AND email <=> VALUES(email) AND " +
+                                "phone <=> VALUES(phone) AND address <=> VALUES(address))";
+
+    // Single-statement sync by customer code; same statement as customer-api's
+    // CustomerRepository.upsertByCustomerCode (1 = inserted, 2 = updated, 0 = unchanged)
+    @Modifying
+    @Query(value = "INSERT INTO customers " +
+                   "(customer_code, full_name, email, phone, address, status, created_at, updated_at) " +
+                   "VALUES (:customerCode, :fullName, :email, :phone, :address, 'ACTIVE', :now, :now) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "version = IF(" + UPSERT_CHANGES_ROW + ", version + 1, version), " +
+                   "updated_at = IF(" + UPSERT_CHANGES_ROW + ", VALUES(updated_at), updated_at), " +
+                   "full_name = IF(customer_code = VALUES(customer_code), VALUES(full_name), full_name), " +
+                   "email = IF(customer_code = VALUES(customer_code), VALUES(email), email), " +
+                   "phone = IF(customer_code = VALUES(customer_code), VALUES(phone), phone), " +
+                   "address = IF(customer_code = VALUES(customer_code), VALUES(address), address)",
+           nativeQuery = true)
+    int upsertByCustomerCode(@Param("customerCode") String customerCode,
+                             @Param("fullName") String fullName,
+                             @Param("email") String email,
+                             @Param("phone") String phone,
+                             @Param("address") String address,
+                             @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,10 @@
+package com.example.jwt_authentication.repository;
+
+import com.example.jwt_authentication.entity.CustomerTombstone;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustomerTombstoneRepository extends JpaRepository<CustomerTombstone, Long> {
+}
@@ -0,0 +1,11 @@
+package com.example.jwt_authentication.repository;
+
+import java.util.Map;
+
+// Fragment of CustomerRepository for writes that must run as one statement
+public interface CustomerWriteRepository {
+    
+    // UPDATE customers SET <columns>, updated_at, version = version + 1 WHERE id = ? [AND version = ?]
+    // Keys are Customer attribute names; returns the number of rows updated (0 or 1).
+    int updateColumns(Long id, Long expectedVersion, Map<String, Object> columns);
+}
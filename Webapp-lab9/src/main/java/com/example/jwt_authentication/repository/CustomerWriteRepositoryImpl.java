@@ -0,0 +1,44 @@
+package com.example.jwt_authentication.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+public class CustomerWriteRepositoryImpl implements CustomerWriteRepository {
+    
+    // Only these attributes may be written through the dynamic update
+    private static final Set<String> UPDATABLE = Set.of("fullName", "email", "phone", "address", "status");
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional
+    public int updateColumns(Long id, Long expectedVersion, Map<String, Object> columns) {
+        StringBuilder jpql = new StringBuilder("UPDATE Customer c SET ");
+        for (String attribute : columns.keySet()) {
+            if (!UPDATABLE.contains(attribute)) {
+                throw new IllegalArgumentException("Attribute cannot be updated: " + attribute);
+            }
+            jpql.append("c.").append(attribute).append(" = :").append(attribute).append(", ");
+        }
+        jpql.append("c.updatedAt = :updatedAt, c.version = c.version + 1 WHERE c.id = :id");
+        if (expectedVersion != null) {
+            jpql.append(" AND c.version = :version");
+        }
+        
+        Query query = entityManager.createQuery(jpql.toString());
+        columns.forEach(query::setParameter);
+        query.setParameter("updatedAt", LocalDateTime.now());
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return query.executeUpdate();
+    }
+}
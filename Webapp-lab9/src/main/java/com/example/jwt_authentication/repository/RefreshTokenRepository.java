@@ -1,8 +1,14 @@
 package com.example.jwt_authentication.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.jwt_authentication.entity.RefreshToken;
 
@@ -11,4 +17,24 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     Optional<RefreshToken> findByToken(String token);
 
     void deleteByUserId(Long userId);
+
+    // Key range for RefreshTokenPurgeJob
+    interface IdRange {
+        Long getMinId();
+        Long getMaxId();
+    }
+
+    @Query("SELECT MIN(t.id) AS minId, MAX(t.id) AS maxId FROM RefreshToken t")
+    IdRange findIdRange();
+
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.id > :afterId AND t.id <= :toId " +
+           "AND t.expiryDate < :now ORDER BY t.id")
+    List<Long> findExpiredIds(@Param("afterId") long afterId,
+                              @Param("toId") long toId,
+                              @Param("now") LocalDateTime now,
+                              Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.id IN :ids AND t.expiryDate < :now")
+    int deleteExpired(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
 }
@@ -20,6 +20,7 @@ public class AdminServiceImpl implements AdminService {
     private UserRepository userRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserResponseDTO> getAllUsers() {
         return userRepository.findAll()
                 .stream()
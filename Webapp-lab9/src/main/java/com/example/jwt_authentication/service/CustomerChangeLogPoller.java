@@ -0,0 +1,114 @@
+package com.example.jwt_authentication.service;
+
+import com.example.jwt_authentication.entity.CustomerChangeLog;
+import com.example.jwt_authentication.repository.CustomerChangeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Tails customer_change_log and evicts every customer another app (or this one) changed.
+// customer-api runs the same poller against the same table.
+@Component
+public class CustomerChangeLogPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerChangeLogPoller.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    // Beyond this many skipped ids we stop tracking gaps and rely on the cache TTL
+    private static final int MAX_TRACKED_GAPS = 1000;
+
+    private final CustomerChangeLogRepository changeLogRepository;
+    private final CustomerCache customerCache;
+
+    @Value("${customer.cache.max-staleness-millis:5000}")
+    private long maxStalenessMillis;
+
+    @Value("${customer.cache.change-log-retention-minutes:60}")
+    private long retentionMinutes;
+
+    // Highest change-log id seen so far; null until the first poll
+    private Long cursor;
+
+    // Ids below the cursor that were missing when we passed them: either rolled back or
+    // still uncommitted (auto-increment ids are handed out before commit). id -> first seen.
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    private long lastCleanupAt;
+
+    public CustomerChangeLogPoller(CustomerChangeLogRepository changeLogRepository, CustomerCache customerCache) {
+        this.changeLogRepository = changeLogRepository;
+        this.customerCache = customerCache;
+    }
+
+    @Scheduled(fixedDelayString = "${customer.cache.poll-interval-millis:200}")
+    public void poll() {
+        long started = System.currentTimeMillis();
+        try {
+            if (cursor == null) {
+                // Nothing is cached yet, so history before now is irrelevant
+                cursor = changeLogRepository.findMaxId();
+            } else {
+                recheckGaps(started);
+                readNewEntries(started);
+            }
+            customerCache.purgeExpired(started);
+            customerCache.markSynced(started);
+        } catch (DataAccessException e) {
+            // The cache stops serving once max-staleness passes without a successful poll
+            log.warn("Customer change-log poll failed: {}", e.getMessage());
+            return;
+        }
+        cleanup(started);
+    }
+
+    private void recheckGaps(long now) {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        for (CustomerChangeLog entry : changeLogRepository.findByIdIn(gaps.keySet())) {
+            customerCache.evict(entry.getCustomerId());
+            gaps.remove(entry.getId());
+        }
+        // Anything older than the staleness bound has expired from the cache anyway
+        gaps.values().removeIf(firstSeen -> now - firstSeen > maxStalenessMillis);
+    }
+
+    private void readNewEntries(long now) {
+        List<CustomerChangeLog> page;
+        do {
+            page = changeLogRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, PAGE_SIZE));
+            for (CustomerChangeLog entry : page) {
+                for (long missing = cursor + 1; missing < entry.getId() && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                customerCache.evict(entry.getCustomerId());
+                cursor = entry.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    // Both apps trim the log; the DELETE is idempotent so running it twice is harmless
+    private void cleanup(long now) {
+        long retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+        if (now - lastCleanupAt < retentionMillis / 10) {
+            return;
+        }
+        lastCleanupAt = now;
+        try {
+            changeLogRepository.deleteOlderThan(LocalDateTime.now().minusMinutes(retentionMinutes));
+        } catch (DataAccessException e) {
+            log.warn("Customer change-log cleanup failed: {}", e.getMessage());
+        }
+    }
+}
@@ -16,7 +16,9 @@ public interface CustomerService {
     
     CustomerResponseDTO createCustomer(CustomerRequestDTO requestDTO);
     
-    CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO);
+    // expectedVersion (nullable) turns the update into a compare-and-set on Customer.version.
+    // With readBack the updated row is read in the same transaction and returned; null otherwise.
+    CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO, Long expectedVersion, boolean readBack);
     
     void deleteCustomer(Long id);
     
@@ -30,5 +32,7 @@ public interface CustomerService {
 
     Page<CustomerResponseDTO> getAllCustomers(int page, int size, String sortBy, String sortDir);
 
-    CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO);
+    CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO, Long expectedVersion, boolean readBack);
+
+    UpsertOutcome upsertCustomerByCode(String customerCode, CustomerRequestDTO requestDTO);
 }
@@ -4,10 +4,17 @@ import com.example.jwt_authentication.dto.CustomerRequestDTO;
 import com.example.jwt_authentication.dto.CustomerResponseDTO;
 import com.example.jwt_authentication.dto.CustomerUpdateDTO;
 import com.example.jwt_authentication.entity.Customer;
+import com.example.jwt_authentication.entity.CustomerChangeLog;
 import com.example.jwt_authentication.entity.CustomerStatus;
+import com.example.jwt_authentication.entity.CustomerTombstone;
+import com.example.jwt_authentication.exception.DuplicateKeyTranslator;
 import com.example.jwt_authentication.exception.DuplicateResourceException;
 import com.example.jwt_authentication.exception.ResourceNotFoundException;
+import com.example.jwt_authentication.exception.VersionConflictException;
+import com.example.jwt_authentication.repository.CustomerChangeLogRepository;
 import com.example.jwt_authentication.repository.CustomerRepository;
+import com.example.jwt_authentication.repository.CustomerTombstoneRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,7 +22,10 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,12 +33,26 @@ import java.util.stream.Collectors;
 public class CustomerServiceImpl implements CustomerService {
     
     private final CustomerRepository customerRepository;
+    private final CustomerTombstoneRepository tombstoneRepository;
+    private final CustomerChangeLogRepository changeLogRepository;
+    private final CustomerCache customerCache;
+    private final CustomerGrowthRollup growthRollup;
     
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository,
+                               CustomerTombstoneRepository tombstoneRepository,
+                               CustomerChangeLogRepository changeLogRepository,
+                               CustomerCache customerCache,
+                               CustomerGrowthRollup growthRollup) {
         this.customerRepository = customerRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.customerCache = customerCache;
+        this.growthRollup = growthRollup;
     }
     
+    // Read-only transactions may be served by a replica when customer.replicas is enabled
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerResponseDTO> getAllCustomers() {
         return customerRepository.findAll()
                 .stream()
@@ -37,6 +61,7 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CustomerResponseDTO> getAllCustomers(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return customerRepository.findAll(pageable)
@@ -44,6 +69,7 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CustomerResponseDTO> getAllCustomers(int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
@@ -58,65 +84,61 @@ public class CustomerServiceImpl implements CustomerService {
 
     
     @Override
+    @Transactional(readOnly = true)
     public CustomerResponseDTO getCustomerById(Long id) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
-        return convertToResponseDTO(customer);
+        return customerCache.get(id, () -> {
+            Customer customer = customerRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+            return convertToResponseDTO(customer);
+        });
     }
     
     @Override
     public CustomerResponseDTO createCustomer(CustomerRequestDTO requestDTO) {
-        // Check for duplicates
-        if (customerRepository.existsByCustomerCode(requestDTO.getCustomerCode())) {
-            throw new DuplicateResourceException("Customer code already exists: " + requestDTO.getCustomerCode());
-        }
-        
-        if (customerRepository.existsByEmail(requestDTO.getEmail())) {
-            throw new DuplicateResourceException("Email already exists: " + requestDTO.getEmail());
-        }
-        
         // Convert DTO to Entity
         Customer customer = convertToEntity(requestDTO);
         
-        // Save to database
-        Customer savedCustomer = customerRepository.save(customer);
+        // Save to database; the unique keys on customer_code and email reject duplicates
+        Customer savedCustomer;
+        try {
+            savedCustomer = customerRepository.saveAndFlush(customer);
+        } catch (DataIntegrityViolationException e) {
+            throw DuplicateKeyTranslator.translate(e, requestDTO.getCustomerCode(), requestDTO.getEmail());
+        }
+        growthRollup.recordCreated(1);
         
         // Convert Entity to Response DTO
         return convertToResponseDTO(savedCustomer);
     }
     
     @Override
-    public CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO) {
-        Customer existingCustomer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
-        
-        // Check if email is being changed to an existing one
-        if (!existingCustomer.getEmail().equals(requestDTO.getEmail()) 
-            && customerRepository.existsByEmail(requestDTO.getEmail())) {
-            throw new DuplicateResourceException("Email already exists: " + requestDTO.getEmail());
-        }
-        
-        // Update fields
-        existingCustomer.setFullName(requestDTO.getFullName());
-        existingCustomer.setEmail(requestDTO.getEmail());
-        existingCustomer.setPhone(requestDTO.getPhone());
-        existingCustomer.setAddress(requestDTO.getAddress());
+    public CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO, Long expectedVersion, boolean readBack) {
+        // customerCode is immutable
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("fullName", requestDTO.getFullName());
+        columns.put("email", requestDTO.getEmail());
+        columns.put("phone", requestDTO.getPhone());
+        columns.put("address", requestDTO.getAddress());
         
-        // Don't update customerCode (immutable)
-        
-        Customer updatedCustomer = customerRepository.save(existingCustomer);
-        return convertToResponseDTO(updatedCustomer);
+        applyUpdate(id, expectedVersion, columns, requestDTO.getEmail());
+        return readBack ? readUpdated(id) : null;
     }
     
     @Override
     public void deleteCustomer(Long id) {
-        if (!customerRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Customer not found with id: " + id);
-        }
-        customerRepository.deleteById(id);
+        // One locking read by primary key for the rollup's status, then exactly one DELETE
+        CustomerStatus status = customerRepository.findStatusForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+        customerRepository.deleteCustomerById(id);
+        boolean wasActive = status == CustomerStatus.ACTIVE;
+        // customer-api's change feed reads these to report deletes made from this app
+        tombstoneRepository.save(new CustomerTombstone(id));
+        recordChange(id);
+        growthRollup.recordDeleted(wasActive);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerResponseDTO> searchCustomers(String keyword) {
         return customerRepository.searchCustomers(keyword)
                 .stream()
@@ -125,6 +147,7 @@ public class CustomerServiceImpl implements CustomerService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerResponseDTO> getCustomersByStatus(String status) {
         CustomerStatus customerStatus;
         try {
@@ -139,6 +162,7 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerResponseDTO> advancedSearch(String name, String email, String status) {
         CustomerStatus customerStatus = null;
         if (status != null && !status.isBlank()) {
@@ -155,26 +179,100 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
-
+    public CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO, Long expectedVersion, boolean readBack) {
         // Only update non-null fields
+        Map<String, Object> columns = new LinkedHashMap<>();
         if (updateDTO.getFullName() != null) {
-            customer.setFullName(updateDTO.getFullName());
+            columns.put("fullName", updateDTO.getFullName());
         }
         if (updateDTO.getEmail() != null) {
-            customer.setEmail(updateDTO.getEmail());
+            columns.put("email", updateDTO.getEmail());
         }
         if (updateDTO.getPhone() != null) {
-            customer.setPhone(updateDTO.getPhone());
+            columns.put("phone", updateDTO.getPhone());
         }
         if (updateDTO.getAddress() != null) {
-            customer.setAddress(updateDTO.getAddress());
+            columns.put("address", updateDTO.getAddress());
         }
 
-        Customer updatedCustomer = customerRepository.save(customer);
-        return convertToResponseDTO(updatedCustomer);
+        // Nothing to write, but the caller still expects a 404 for an unknown id
+        if (columns.isEmpty()) {
+            if (!readBack && !customerRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Customer not found with id: " + id);
+            }
+            return readBack ? readUpdated(id) : null;
+        }
+
+        applyUpdate(id, expectedVersion, columns, updateDTO.getEmail());
+        return readBack ? readUpdated(id) : null;
+    }
+
+    // The row as this transaction left it, read on the connection that wrote it: never a
+    // replica or the cache, and no second transaction
+    private CustomerResponseDTO readUpdated(Long id) {
+        return customerRepository.findById(id)
+                .map(this::convertToResponseDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+    }
+
+    // One UPDATE ... WHERE id = ? [AND version = ?]; the affected-row count decides 404 vs 409
+    private void applyUpdate(Long id, Long expectedVersion, Map<String, Object> columns, String email) {
+        int updated;
+        try {
+            updated = customerRepository.updateColumns(id, expectedVersion, columns);
+        } catch (DataIntegrityViolationException e) {
+            throw DuplicateKeyTranslator.translate(e, null, email);
+        }
+
+        if (updated == 0) {
+            if (expectedVersion != null && customerRepository.existsById(id)) {
+                throw new VersionConflictException("Customer " + id + " was modified concurrently; expected version " + expectedVersion);
+            }
+            throw new ResourceNotFoundException("Customer not found with id: " + id);
+        }
+        recordChange(id);
+    }
+
+    // Logged in the same transaction as the write; customer-api polls the same table.
+    // Creates are not logged: a customer that did not exist cannot be in anyone's cache.
+    private void recordChange(Long id) {
+        changeLogRepository.save(new CustomerChangeLog(id));
+        customerCache.evictAfterCommit(id);
+    }
+
+    @Override
+    public UpsertOutcome upsertCustomerByCode(String customerCode, CustomerRequestDTO requestDTO) {
+        if (!customerCode.equals(requestDTO.getCustomerCode())) {
+            throw new IllegalArgumentException("Customer code in body does not match path: " + requestDTO.getCustomerCode());
+        }
+
+        int affected;
+        try {
+            affected = customerRepository.upsertByCustomerCode(customerCode, requestDTO.getFullName(),
+                    requestDTO.getEmail(), requestDTO.getPhone(), requestDTO.getAddress(), LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            throw DuplicateKeyTranslator.translate(e, customerCode, requestDTO.getEmail());
+        }
+
+        if (affected == 1) {
+            growthRollup.recordCreated(1);
+            return UpsertOutcome.CREATED;
+        }
+        if (affected == 2) {
+            changeLogRepository.logChangeByCode(customerCode, LocalDateTime.now());
+            customerRepository.findByCustomerCode(customerCode)
+                    .ifPresent(c -> customerCache.evictAfterCommit(c.getId()));
+            return UpsertOutcome.UPDATED;
+        }
+
+        // 0 rows: either already up to date, or the email belongs to a different customer
+        boolean unchanged = customerRepository.findByCustomerCode(customerCode)
+                .map(c -> c.getEmail().equalsIgnoreCase(requestDTO.getEmail()))
+                .orElse(false);
+        if (!unchanged) {
+            throw new DuplicateResourceException("Email already exists: " + requestDTO.getEmail());
+        }
+        return UpsertOutcome.UNCHANGED;
     }
 
 
@@ -191,6 +289,7 @@ public class CustomerServiceImpl implements CustomerService {
         dto.setAddress(customer.getAddress());
         dto.setStatus(customer.getStatus().toString());
         dto.setCreatedAt(customer.getCreatedAt());
+        dto.setVersion(customer.getVersion());
         return dto;
     }
     
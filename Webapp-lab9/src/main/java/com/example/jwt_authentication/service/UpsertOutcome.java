@@ -0,0 +1,7 @@
+package com.example.jwt_authentication.service;
+
+public enum UpsertOutcome {
+    CREATED,
+    UPDATED,
+    UNCHANGED
+}
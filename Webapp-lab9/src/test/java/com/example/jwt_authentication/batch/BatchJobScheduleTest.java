@@ -0,0 +1,47 @@
+package com.example.jwt_authentication.batch;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.jwt_authentication.repository.BatchJobCheckpointRepository;
+import com.example.jwt_authentication.repository.BatchJobExecutionRepository;
+import com.example.jwt_authentication.repository.BatchJobLeaseRepository;
+
+// The scheduler thread is shared with the change-log poller and the replica heartbeat
+class BatchJobScheduleTest {
+
+    @Test
+    void scheduledTriggerReturnsWhileTheJobRuns() throws InterruptedException {
+        BatchJob<?, ?> job = mock(BatchJob.class);
+        when(job.getName()).thenReturn(RefreshTokenPurgeJob.NAME);
+        BatchJobRunner runner = spy(new BatchJobRunner(List.of(job),
+                mock(BatchJobLeaseRepository.class), mock(BatchJobExecutionRepository.class),
+                mock(BatchJobCheckpointRepository.class), mock(PlatformTransactionManager.class), 1));
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(10, TimeUnit.SECONDS)).when(runner).runIfFree(RefreshTokenPurgeJob.NAME);
+
+        try {
+            long started = System.nanoTime();
+            new BatchJobSchedule(runner).refreshTokenPurge();
+            long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            assertTrue(tookMillis < 1000, "trigger blocked for " + tookMillis + " ms");
+            verify(runner, timeout(5000)).runIfFree(RefreshTokenPurgeJob.NAME);
+        } finally {
+            release.countDown();
+            runner.shutdown();
+        }
+    }
+}
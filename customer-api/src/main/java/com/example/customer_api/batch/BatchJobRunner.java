@@ -0,0 +1,378 @@
+package com.example.customer_api.batch;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customer_api.entity.BatchJobCheckpoint;
+import com.example.customer_api.entity.BatchJobExecution;
+import com.example.customer_api.entity.BatchJobStatus;
+import com.example.customer_api.exception.RequestInProgressException;
+import com.example.customer_api.exception.ResourceNotFoundException;
+import com.example.customer_api.repository.BatchJobCheckpointRepository;
+import com.example.customer_api.repository.BatchJobExecutionRepository;
+import com.example.customer_api.repository.BatchJobLeaseRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Runs BatchJobs. Per run:
+//   1. take the job's row in batch_job_leases, so one node runs the job at a time,
+//   2. resume the job's last run if it did not complete, else start a run and fix its
+//      partitions (key ranges) in batch_job_checkpoints,
+//   3. run the unfinished partitions on the worker pool, one transaction per chunk,
+//      renewing the lease as chunks complete,
+//   4. record the outcome and release the lease.
+// A node that loses its lease (it stalled past lease-seconds) stops after the current chunk
+// and leaves the run to the node that took the lease over.
+@Component
+public class BatchJobRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchJobRunner.class);
+
+    private final Map<String, BatchJob<?, ?>> jobs = new LinkedHashMap<>();
+    private final Map<String, BatchJobMetrics> metrics = new LinkedHashMap<>();
+    private final BatchJobLeaseRepository leaseRepository;
+    private final BatchJobExecutionRepository executionRepository;
+    private final BatchJobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate tx;
+    private final ExecutorService workers;
+    private final ExecutorService launcher;
+
+    // Identifies this node in batch_job_leases
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Value("${batch.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Autowired
+    public BatchJobRunner(List<BatchJob<?, ?>> jobList,
+                          BatchJobLeaseRepository leaseRepository,
+                          BatchJobExecutionRepository executionRepository,
+                          BatchJobCheckpointRepository checkpointRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${batch.worker-threads:4}") int workerThreads) {
+        for (BatchJob<?, ?> job : jobList) {
+            if (jobs.put(job.getName(), job) != null) {
+                throw new IllegalStateException("Two batch jobs are named " + job.getName());
+            }
+            metrics.put(job.getName(), new BatchJobMetrics(job.getName()));
+        }
+        this.leaseRepository = leaseRepository;
+        this.executionRepository = executionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread thread = new Thread(r, "batch-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.launcher = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "batch-launcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        launcher.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // Scheduled runs: runs the job on the calling thread unless it is already running here or
+    // another node holds the lease. Returns whether it ran.
+    public boolean runIfFree(String jobName) {
+        BatchJob<?, ?> job = job(jobName);
+        BatchJobMetrics jobMetrics = metrics.get(jobName);
+        if (!jobMetrics.tryStart()) {
+            return false;
+        }
+        if (!acquire(jobName, jobMetrics)) {
+            log.debug("Batch job {} is running on another node", jobName);
+            return false;
+        }
+        execute(job, jobMetrics);
+        return true;
+    }
+
+    // Scheduled triggers: runIfFree on a launcher thread, so the trigger returns at once and a
+    // long run does not hold Spring's scheduler thread, which the pollers and refreshes share
+    public void launchIfFree(String jobName) {
+        job(jobName);
+        launcher.execute(() -> {
+            try {
+                runIfFree(jobName);
+            } catch (RuntimeException e) {
+                log.error("Scheduled run of batch job {} could not start", jobName, e);
+            }
+        });
+    }
+
+    // Manual runs: starts the job in the background; 409 when it is already running
+    public Map<String, Object> start(String jobName) {
+        BatchJob<?, ?> job = job(jobName);
+        BatchJobMetrics jobMetrics = metrics.get(jobName);
+        if (!jobMetrics.tryStart()) {
+            throw new RequestInProgressException("Batch job " + jobName + " is already running on this node");
+        }
+        if (!acquire(jobName, jobMetrics)) {
+            throw new RequestInProgressException("Batch job " + jobName + " is running on another node");
+        }
+        launcher.execute(() -> execute(job, jobMetrics));
+        return jobMetrics.toMap();
+    }
+
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (BatchJobMetrics jobMetrics : metrics.values()) {
+            stats.add(jobMetrics.toMap());
+        }
+        return stats;
+    }
+
+    // This node's metrics plus the job's recent runs on any node
+    public Map<String, Object> getJob(String jobName) {
+        job(jobName);
+        Map<String, Object> result = metrics.get(jobName).toMap();
+        result.put("recentExecutions", executionRepository.findTop10ByJobNameOrderByIdDesc(jobName));
+        return result;
+    }
+
+    private BatchJob<?, ?> job(String jobName) {
+        BatchJob<?, ?> job = jobs.get(jobName);
+        if (job == null) {
+            throw new ResourceNotFoundException("Batch job not found: " + jobName);
+        }
+        return job;
+    }
+
+    // On false (or an exception) the run is over before it started
+    private boolean acquire(String jobName, BatchJobMetrics jobMetrics) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusSeconds(leaseSeconds);
+        try {
+            Integer taken = tx.execute(status -> leaseRepository.takeOver(jobName, owner, now, until));
+            if (taken != null && taken == 1) {
+                return true;
+            }
+            tx.executeWithoutResult(status -> leaseRepository.create(jobName, owner, until));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // The row exists and someone else holds it
+            jobMetrics.skipped();
+            return false;
+        } catch (RuntimeException e) {
+            jobMetrics.skipped();
+            throw e;
+        }
+    }
+
+    private <I, O> void execute(BatchJob<I, O> job, BatchJobMetrics jobMetrics) {
+        jobMetrics.begin();
+        Lease lease = new Lease(job.getName());
+        String outcome = BatchJobStatus.FAILED.name();
+        BatchJobExecution execution = null;
+        try {
+            execution = resumeOrCreate(job);
+            jobMetrics.executing(execution.getId());
+
+            List<BatchJobCheckpoint> pending = new ArrayList<>();
+            for (BatchJobCheckpoint checkpoint : checkpointRepository.findByExecutionIdOrderByPartitionNo(execution.getId())) {
+                if (!checkpoint.isDone()) {
+                    pending.add(checkpoint);
+                }
+            }
+
+            AtomicBoolean abort = new AtomicBoolean();
+            List<Future<?>> partitions = new ArrayList<>(pending.size());
+            for (BatchJobCheckpoint checkpoint : pending) {
+                partitions.add(workers.submit(() -> runPartition(job, checkpoint, lease, abort, jobMetrics)));
+            }
+            Throwable failure = null;
+            for (Future<?> partition : partitions) {
+                try {
+                    partition.get();
+                } catch (ExecutionException e) {
+                    // Let the other partitions stop after their current chunk
+                    abort.set(true);
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+
+            if (lease.lost) {
+                outcome = "LEASE_LOST";
+                log.warn("Batch job {} lost its lease; run {} is left to the new holder", job.getName(), execution.getId());
+                return;
+            }
+            if (failure != null) {
+                log.error("Batch job {} run {} failed; the next run resumes it", job.getName(), execution.getId(), failure);
+                finish(execution.getId(), BatchJobStatus.FAILED, failure.toString());
+                return;
+            }
+            finish(execution.getId(), BatchJobStatus.COMPLETED, null);
+            outcome = BatchJobStatus.COMPLETED.name();
+            log.info("Batch job {} run {} completed: {}", job.getName(), execution.getId(), jobMetrics.toMap());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Batch job {} interrupted", job.getName());
+        } catch (RuntimeException e) {
+            log.error("Batch job {} failed", job.getName(), e);
+            if (execution != null) {
+                finish(execution.getId(), BatchJobStatus.FAILED, e.toString());
+            }
+        } finally {
+            if (!lease.lost) {
+                tx.executeWithoutResult(status -> leaseRepository.release(job.getName(), owner, LocalDateTime.now()));
+            }
+            jobMetrics.finished(outcome);
+        }
+    }
+
+    private BatchJobExecution resumeOrCreate(BatchJob<?, ?> job) {
+        BatchJobExecution last = executionRepository.findFirstByJobNameOrderByIdDesc(job.getName()).orElse(null);
+        if (last != null && last.getStatus() != BatchJobStatus.COMPLETED) {
+            last.setStatus(BatchJobStatus.RUNNING);
+            last.setOwner(owner);
+            last.setLastError(null);
+            log.info("Batch job {} resuming run {}", job.getName(), last.getId());
+            return tx.execute(status -> executionRepository.save(last));
+        }
+
+        // Key ranges are read outside the transaction below: each scope may be another database
+        List<KeyRange> ranges = new ArrayList<>();
+        for (int scope = 0; scope < job.getScopeCount(); scope++) {
+            ranges.add(job.inScope(scope, job::keyRange));
+        }
+        return tx.execute(status -> {
+            BatchJobExecution execution = executionRepository.save(new BatchJobExecution(job.getName(), owner));
+            int partitionNo = 0;
+            for (int scope = 0; scope < ranges.size(); scope++) {
+                if (ranges.get(scope) == null) {
+                    continue;
+                }
+                for (long[] range : ranges.get(scope).split(job.getPartitions())) {
+                    checkpointRepository.save(new BatchJobCheckpoint(execution.getId(), partitionNo++, scope, range[0], range[1]));
+                }
+            }
+            return execution;
+        });
+    }
+
+    private <I, O> void runPartition(BatchJob<I, O> job, BatchJobCheckpoint checkpoint, Lease lease,
+                                     AtomicBoolean abort, BatchJobMetrics jobMetrics) {
+        long lastKey = checkpoint.getLastKey();
+        int chunkSize = job.getChunkSize();
+        while (!abort.get()) {
+            if (!lease.renewIfDue()) {
+                abort.set(true);
+                return;
+            }
+            long after = lastKey;
+            Chunk chunk = job.inScope(checkpoint.getScopeNo(),
+                    () -> tx.execute(status -> runChunk(job, after, checkpoint.getRangeEnd(), chunkSize)));
+            boolean done = chunk.read < chunkSize;
+            lastKey = chunk.lastKey;
+            long key = lastKey;
+            tx.executeWithoutResult(status -> checkpointRepository.advance(
+                    checkpoint.getId(), key, chunk.read, chunk.written, done, LocalDateTime.now()));
+            jobMetrics.chunkDone(chunk.read, chunk.written);
+            if (done) {
+                return;
+            }
+        }
+    }
+
+    private <I, O> Chunk runChunk(BatchJob<I, O> job, long afterKey, long toKey, int chunkSize) {
+        List<I> items = job.read(afterKey, toKey, chunkSize);
+        List<O> outputs = new ArrayList<>(items.size());
+        for (I item : items) {
+            O output = job.process(item);
+            if (output != null) {
+                outputs.add(output);
+            }
+        }
+        int written = outputs.isEmpty() ? 0 : job.write(outputs);
+        long lastKey = items.isEmpty() ? afterKey : job.keyOf(items.get(items.size() - 1));
+        return new Chunk(items.size(), written, lastKey);
+    }
+
+    private void finish(Long executionId, BatchJobStatus status, String error) {
+        tx.executeWithoutResult(s -> {
+            BatchJobExecution execution = executionRepository.findById(executionId).orElseThrow();
+            long read = 0;
+            long written = 0;
+            for (BatchJobCheckpoint checkpoint : checkpointRepository.findByExecutionIdOrderByPartitionNo(executionId)) {
+                read += checkpoint.getItemsRead();
+                written += checkpoint.getItemsWritten();
+            }
+            execution.setStatus(status);
+            execution.setItemsRead(read);
+            execution.setItemsWritten(written);
+            execution.setFinishedAt(LocalDateTime.now());
+            execution.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 500)));
+        });
+    }
+
+    private static final class Chunk {
+        final int read;
+        final int written;
+        final long lastKey;
+
+        Chunk(int read, int written, long lastKey) {
+            this.read = read;
+            this.written = written;
+            this.lastKey = lastKey;
+        }
+    }
+
+    // This node's hold on a job's lease, shared by the run's partitions
+    private final class Lease {
+        private final String jobName;
+        private long renewedAtMillis = System.currentTimeMillis();
+        private volatile boolean lost;
+
+        Lease(String jobName) {
+            this.jobName = jobName;
+        }
+
+        // Renews once a third of the lease has passed; false once another node has it
+        synchronized boolean renewIfDue() {
+            if (lost) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            if (now - renewedAtMillis < leaseSeconds * 1000 / 3) {
+                return true;
+            }
+            Integer renewed = tx.execute(status -> leaseRepository.renew(jobName, owner, LocalDateTime.now().plusSeconds(leaseSeconds)));
+            if (renewed == null || renewed == 0) {
+                lost = true;
+                return false;
+            }
+            renewedAtMillis = now;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.customer_api.batch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// When each batch job runs by itself. Every node triggers it; the lease lets one node run it.
+// A cron of "-" turns the schedule off.
+@Component
+public class BatchJobSchedule {
+
+    private final BatchJobRunner runner;
+
+    @Autowired
+    public BatchJobSchedule(BatchJobRunner runner) {
+        this.runner = runner;
+    }
+
+    @Scheduled(cron = "${batch.jobs.dormant-customers.cron:0 30 2 * * *}")
+    public void dormantCustomers() {
+        runner.launchIfFree(DormantCustomerJob.NAME);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.customer_api.batch;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.customer_api.entity.CustomerStatus;
+import com.example.customer_api.repository.CustomerRepository;
+import com.example.customer_api.repository.CustomerRepository.IdRange;
+import com.example.customer_api.service.CustomerServiceImpl;
+import com.example.customer_api.sharding.ShardContext;
+import com.example.customer_api.sharding.ShardRouter;
+
+// Marks ACTIVE customers INACTIVE once nobody has updated them for inactive-after-months.
+// Partitions by id range on every shard; each chunk is one UPDATE, which also bumps
+// version and updated_at, logs the change for other apps' caches and counts the
+// deactivations in customer_daily_stats.
+@Component
+public class DormantCustomerJob implements BatchJob<Long, Long> {
+
+    public static final String NAME = "dormant-customers";
+
+    private final CustomerRepository customerRepository;
+    private final CustomerServiceImpl customerService;
+    private final ShardRouter shardRouter;
+
+    @Value("${batch.jobs.dormant-customers.inactive-after-months:18}")
+    private int inactiveAfterMonths;
+
+    @Value("${batch.jobs.dormant-customers.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${batch.jobs.dormant-customers.partitions:4}")
+    private int partitions;
+
+    @Autowired
+    public DormantCustomerJob(CustomerRepository customerRepository, CustomerServiceImpl customerService,
+                              ShardRouter shardRouter) {
+        this.customerRepository = customerRepository;
+        this.customerService = customerService;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public int getPartitions() {
+        return partitions;
+    }
+
+    @Override
+    public int getScopeCount() {
+        return shardRouter.getShardCount();
+    }
+
+    @Override
+    public <T> T inScope(int scope, Supplier<T> work) {
+        return ShardContext.call(scope, work);
+    }
+
+    @Override
+    public KeyRange keyRange() {
+        IdRange range = customerRepository.findIdRange();
+        return KeyRange.of(range.getMinId(), range.getMaxId());
+    }
+
+    @Override
+    public List<Long> read(long afterKey, long toKey, int limit) {
+        return customerRepository.findIdsNotUpdatedSince(afterKey, toKey, CustomerStatus.ACTIVE, cutoff(),
+                PageRequest.of(0, limit));
+    }
+
+    @Override
+    public long keyOf(Long id) {
+        return id;
+    }
+
+    @Override
+    public Long process(Long id) {
+        return id;
+    }
+
+    @Override
+    public int write(List<Long> ids) {
+        return customerService.deactivateNotUpdatedSince(ids, cutoff());
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusMonths(inactiveAfterMonths);
+    }
+}
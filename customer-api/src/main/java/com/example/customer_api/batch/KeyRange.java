@@ -0,0 +1,40 @@
+package com.example.customer_api.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Smallest and largest key of a job's data when the run starts
+public final class KeyRange {
+
+    private final long min;
+    private final long max;
+
+    private KeyRange(long min, long max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    // null when there are no rows (MIN/MAX of an empty table)
+    public static KeyRange of(Long min, Long max) {
+        return min == null || max == null ? null : new KeyRange(min, max);
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    // At most "parts" contiguous ranges as {afterKey, toKey} pairs: keys k with afterKey < k <= toKey
+    public List<long[]> split(int parts) {
+        long span = max - min + 1;
+        long width = Math.max(1, (span + parts - 1) / parts);
+        List<long[]> ranges = new ArrayList<>(parts);
+        for (long after = min - 1; after < max; after += width) {
+            ranges.add(new long[] {after, Math.min(after + width, max)});
+        }
+        return ranges;
+    }
+}
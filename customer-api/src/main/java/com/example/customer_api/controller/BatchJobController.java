@@ -0,0 +1,45 @@
+package com.example.customer_api.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.customer_api.batch.BatchJobRunner;
+
+@RestController
+@RequestMapping("/api/batch/jobs")
+public class BatchJobController {
+    
+    private final BatchJobRunner runner;
+    
+    @Autowired
+    public BatchJobController(BatchJobRunner runner) {
+        this.runner = runner;
+    }
+    
+    // GET throughput and duration of every job on this node
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getJobs() {
+        return ResponseEntity.ok(runner.getStats());
+    }
+    
+    // GET one job's metrics and its recent runs on any node
+    @GetMapping("/{name}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String name) {
+        return ResponseEntity.ok(runner.getJob(name));
+    }
+    
+    // POST run a job now; 409 while it is running on any node
+    @PostMapping("/{name}/runs")
+    public ResponseEntity<Map<String, Object>> run(@PathVariable String name) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(runner.start(name));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.customer_api.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.customer_api.dto.CustomerGrowthDTO;
+import com.example.customer_api.service.CustomerGrowthService;
+
+@RestController
+@RequestMapping("/api/customers/analytics")
+public class CustomerAnalyticsController {
+    
+    private final CustomerGrowthService growthService;
+    
+    @Autowired
+    public CustomerAnalyticsController(CustomerGrowthService growthService) {
+        this.growthService = growthService;
+    }
+    
+    // GET created / deactivated / net growth per day, week or month
+    @GetMapping("/growth")
+    public ResponseEntity<List<CustomerGrowthDTO>> getGrowth(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(growthService.getGrowth(granularity, from, to));
+    }
+    
+    // POST rebuild rollup days from before the rollup existed
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean overwrite) {
+        return ResponseEntity.ok(growthService.backfill(from, to, overwrite));
+    }
+}
@@ -4,9 +4,11 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -18,14 +20,25 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.customer_api.degraded.CustomerSnapshot;
+import com.example.customer_api.degraded.DegradedReads;
 import com.example.customer_api.dto.AdvancedSearchDTO;
+import com.example.customer_api.dto.CustomerChangeFeedDTO;
 import com.example.customer_api.dto.CustomerRequestDTO;
 import com.example.customer_api.dto.CustomerResponseDTO;
 import com.example.customer_api.dto.CustomerUpdateDTO;
+import com.example.customer_api.dto.IngestionStatusDTO;
+import com.example.customer_api.entity.CustomerStatus;
+import com.example.customer_api.service.CustomerCache;
+import com.example.customer_api.service.CustomerIngestionService;
 import com.example.customer_api.service.CustomerService;
+import com.example.customer_api.service.IdempotencyService;
+import com.example.customer_api.service.RequestCoalescer;
+import com.example.customer_api.service.UpsertOutcome;
 
 import jakarta.validation.Valid;
 
@@ -34,41 +47,127 @@ import jakarta.validation.Valid;
 @CrossOrigin(origins = "*")  // Allow CORS for frontend
 public class CustomerRestController {
     
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String PREFER_HEADER = "Prefer";
+    
     private final CustomerService customerService;
+    private final IdempotencyService idempotencyService;
+    private final CustomerIngestionService ingestionService;
+    private final CustomerCache customerCache;
+    private final RequestCoalescer requestCoalescer;
+    private final DegradedReads degradedReads;
     
     @Autowired
-    public CustomerRestController(CustomerService customerService) {
+    public CustomerRestController(CustomerService customerService, IdempotencyService idempotencyService,
+                                  CustomerIngestionService ingestionService, CustomerCache customerCache,
+                                  RequestCoalescer requestCoalescer, DegradedReads degradedReads) {
         this.customerService = customerService;
+        this.idempotencyService = idempotencyService;
+        this.ingestionService = ingestionService;
+        this.customerCache = customerCache;
+        this.requestCoalescer = requestCoalescer;
+        this.degradedReads = degradedReads;
     }
     
     // GET all customers
     @GetMapping
     public ResponseEntity<List<CustomerResponseDTO>> getAllCustomers() {
-        List<CustomerResponseDTO> customers = customerService.getAllCustomers();
+        List<CustomerResponseDTO> customers = degradedReads.read(customerService::getAllCustomers, CustomerSnapshot::all);
         return ResponseEntity.ok(customers);
     }
     
     // GET customer by ID
     @GetMapping("/{id}")
     public ResponseEntity<CustomerResponseDTO> getCustomerById(@PathVariable Long id) {
-        CustomerResponseDTO customer = customerService.getCustomerById(id);
-        return ResponseEntity.ok(customer);
+        CustomerResponseDTO customer = degradedReads.read(() -> customerService.getCustomerById(id),
+                snapshot -> snapshot.byId(id));
+        return ResponseEntity.ok().eTag(eTag(customer)).body(customer);
     }
     
     // POST create new customer
     @PostMapping
-    public ResponseEntity<CustomerResponseDTO> createCustomer(@Valid @RequestBody CustomerRequestDTO requestDTO) {
-        CustomerResponseDTO createdCustomer = customerService.createCustomer(requestDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdCustomer);
+    public ResponseEntity<CustomerResponseDTO> createCustomer(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CustomerRequestDTO requestDTO) {
+        return idempotent(idempotencyKey, "POST", "/api/customers", List.of(), requestDTO, HttpStatus.CREATED,
+                () -> customerService.createCustomer(requestDTO));
     }
     
     // PUT update customer
     @PutMapping("/{id}")
     public ResponseEntity<CustomerResponseDTO> updateCustomer(
             @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+            @Valid @RequestBody CustomerRequestDTO requestDTO) {
+        Long expectedVersion = parseIfMatch(ifMatch);
+        boolean minimal = prefersMinimal(prefer);
+        return idempotent(idempotencyKey, "PUT", "/api/customers/" + id,
+                outcomeHeaders(minimal, expectedVersion), requestDTO,
+                minimal ? HttpStatus.NO_CONTENT : HttpStatus.OK,
+                () -> customerService.updateCustomer(id, requestDTO, expectedVersion, !minimal));
+    }
+    
+    // GET customer by code
+    @GetMapping("/code/{customerCode}")
+    public ResponseEntity<CustomerResponseDTO> getCustomerByCode(@PathVariable String customerCode) {
+        CustomerResponseDTO customer = degradedReads.read(() -> customerService.getCustomerByCode(customerCode),
+                snapshot -> snapshot.byCode(customerCode));
+        return ResponseEntity.ok().eTag(eTag(customer)).body(customer);
+    }
+    
+    // PUT create-or-update by customer code (one INSERT ... ON DUPLICATE KEY UPDATE)
+    @PutMapping("/code/{customerCode}")
+    public ResponseEntity<Map<String, String>> upsertCustomerByCode(
+            @PathVariable String customerCode,
             @Valid @RequestBody CustomerRequestDTO requestDTO) {
-        CustomerResponseDTO updatedCustomer = customerService.updateCustomer(id, requestDTO);
-        return ResponseEntity.ok(updatedCustomer);
+        UpsertOutcome outcome = customerService.upsertCustomerByCode(customerCode, requestDTO);
+        Map<String, String> response = new HashMap<>();
+        response.put("customerCode", customerCode);
+        response.put("result", outcome.name());
+        HttpStatus status = outcome == UpsertOutcome.CREATED ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(response);
+    }
+    
+    // POST queue a customer for write-behind insert; 202 + tracking id, 429 when the queue is full
+    @PostMapping("/ingest")
+    public ResponseEntity<IngestionStatusDTO> ingestCustomer(@Valid @RequestBody CustomerRequestDTO requestDTO) {
+        IngestionStatusDTO status = ingestionService.submit(requestDTO);
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, "/api/customers/ingest/" + status.getTrackingId())
+                .body(status);
+    }
+    
+    // GET ingestion queue metrics
+    @GetMapping("/ingest/metrics")
+    public ResponseEntity<Map<String, Object>> getIngestionMetrics() {
+        return ResponseEntity.ok(ingestionService.getMetrics());
+    }
+    
+    // GET by-id cache statistics
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(customerCache.getStats());
+    }
+    
+    // GET read coalescing statistics
+    @GetMapping("/coalescing/stats")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        return ResponseEntity.ok(requestCoalescer.getStats());
+    }
+    
+    // GET circuit breaker state and snapshot freshness for stale-if-error reads
+    @GetMapping("/degraded/stats")
+    public ResponseEntity<Map<String, Object>> getDegradedStats() {
+        return ResponseEntity.ok(degradedReads.getStats());
+    }
+    
+    // GET status of a queued customer
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<IngestionStatusDTO> getIngestionStatus(@PathVariable String trackingId) {
+        return ResponseEntity.ok(ingestionService.getStatus(trackingId));
     }
     
     // DELETE customer
@@ -83,14 +182,31 @@ public class CustomerRestController {
     // GET search customers
     @GetMapping("/search")
     public ResponseEntity<List<CustomerResponseDTO>> searchCustomers(@RequestParam String keyword) {
-        List<CustomerResponseDTO> customers = customerService.searchCustomers(keyword);
+        List<CustomerResponseDTO> customers = degradedReads.read(() -> customerService.searchCustomers(keyword),
+                snapshot -> snapshot.search(keyword));
         return ResponseEntity.ok(customers);
     }
     
+    // GET incremental change feed (opaque cursor from the previous page's nextCursor)
+    @GetMapping("/changes")
+    public ResponseEntity<CustomerChangeFeedDTO> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        CustomerChangeFeedDTO feed = customerService.getChangesSince(since, limit);
+        return ResponseEntity.ok(feed);
+    }
+    
     // GET customers by status
     @GetMapping("/status/{status}")
     public ResponseEntity<List<CustomerResponseDTO>> getCustomersByStatus(@PathVariable String status) {
-        List<CustomerResponseDTO> customers = customerService.getCustomersByStatus(status);
+        // Checked up front so the database and the snapshot reject the same values
+        try {
+            CustomerStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status value. Must be ACTIVE or INACTIVE");
+        }
+        List<CustomerResponseDTO> customers = degradedReads.read(() -> customerService.getCustomersByStatus(status),
+                snapshot -> snapshot.byStatus(status));
         return ResponseEntity.ok(customers);
     }
 
@@ -106,7 +222,8 @@ public class CustomerRestController {
             @RequestParam(required = false) String customerCode) {
         
         AdvancedSearchDTO searchDTO = new AdvancedSearchDTO(name, email, status, phone, customerCode);
-        List<CustomerResponseDTO> customers = customerService.advancedSearch(searchDTO);
+        List<CustomerResponseDTO> customers = degradedReads.read(() -> customerService.advancedSearch(searchDTO),
+                snapshot -> snapshot.advancedSearch(searchDTO));
         return ResponseEntity.ok(customers);
     }
 
@@ -116,7 +233,8 @@ public class CustomerRestController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        Page<CustomerResponseDTO> customerPage = customerService.getAllCustomersPaginated(page, size);
+        Page<CustomerResponseDTO> customerPage = degradedReads.read(() -> customerService.getAllCustomersPaginated(page, size),
+                snapshot -> snapshot.page(page, size, "id", "asc"));
         
         Map<String, Object> response = new HashMap<>();
         response.put("customers", customerPage.getContent());
@@ -145,7 +263,10 @@ public class CustomerRestController {
             sortDir = "asc";
         }
         
-        List<CustomerResponseDTO> customers = customerService.getAllCustomersSorted(sortBy, sortDir);
+        String field = sortBy;
+        String direction = sortDir;
+        List<CustomerResponseDTO> customers = degradedReads.read(() -> customerService.getAllCustomersSorted(field, direction),
+                snapshot -> snapshot.sorted(field, direction));
         return ResponseEntity.ok(customers);
     }
 
@@ -168,7 +289,11 @@ public class CustomerRestController {
             sortDir = "asc";
         }
         
-        Page<CustomerResponseDTO> customerPage = customerService.getAllCustomersPaginatedAndSorted(page, size, sortBy, sortDir);
+        String field = sortBy;
+        String direction = sortDir;
+        Page<CustomerResponseDTO> customerPage = degradedReads.read(
+                () -> customerService.getAllCustomersPaginatedAndSorted(page, size, field, direction),
+                snapshot -> snapshot.page(page, size, field, direction));
         
         Map<String, Object> response = new HashMap<>();
         response.put("customers", customerPage.getContent());
@@ -186,10 +311,70 @@ public class CustomerRestController {
     @PatchMapping("/{id}")
     public ResponseEntity<CustomerResponseDTO> partialUpdateCustomer(
             @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
             @Valid @RequestBody CustomerUpdateDTO updateDTO) {
         
-        CustomerResponseDTO updatedCustomer = customerService.partialUpdateCustomer(id, updateDTO);
-        return ResponseEntity.ok(updatedCustomer);
+        Long expectedVersion = parseIfMatch(ifMatch);
+        boolean minimal = prefersMinimal(prefer);
+        return idempotent(idempotencyKey, "PATCH", "/api/customers/" + id,
+                outcomeHeaders(minimal, expectedVersion), updateDTO,
+                minimal ? HttpStatus.NO_CONTENT : HttpStatus.OK,
+                () -> customerService.partialUpdateCustomer(id, updateDTO, expectedVersion, !minimal));
+    }
+    
+    // Runs a write once per Idempotency-Key; retries get the stored response back
+    private <T> ResponseEntity<T> idempotent(String idempotencyKey, String method, String path, List<String> headers,
+                                             Object body, HttpStatus status, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            T value = action.get();
+            return ResponseEntity.status(status).eTag(eTag(value)).body(value);
+        }
+        
+        IdempotencyService.Outcome<T> outcome =
+                idempotencyService.execute(idempotencyKey, method, path, headers, body, action);
+        return ResponseEntity.status(status)
+                .eTag(eTag(outcome.getValue()))
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(outcome.isReplayed()))
+                .body(outcome.getValue());
+    }
+    
+    // Part of the idempotency fingerprint: a replay must not hand a full body to a
+    // return=minimal retry, or the reverse, nor skip the If-Match check the retry asks for
+    private List<String> outcomeHeaders(boolean minimal, Long expectedVersion) {
+        return List.of(PREFER_HEADER + ": " + (minimal ? "return=minimal" : "return=representation"),
+                       HttpHeaders.IF_MATCH + ": " + (expectedVersion == null ? "*" : expectedVersion));
+    }
+    
+    // ETag carries Customer.version so clients can send it back in If-Match
+    private String eTag(Object body) {
+        if (body instanceof CustomerResponseDTO customer && customer.getVersion() != null) {
+            return "\"" + customer.getVersion() + "\"";
+        }
+        return null;
+    }
+    
+    // Accepts "3", "\"3\"" or W/"3"; "*" or no header means unconditional
+    private Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must carry a customer version: " + ifMatch);
+        }
+    }
+    
+    // RFC 7240: "Prefer: return=minimal" skips reading the row back after a write
+    private boolean prefersMinimal(String prefer) {
+        return prefer != null && prefer.contains("return=minimal");
     }
 }
 
@@ -0,0 +1,60 @@
+package com.example.customer_api.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.customer_api.dedup.DuplicateDetectionJob;
+import com.example.customer_api.dedup.DuplicateReviewService;
+import com.example.customer_api.dto.CustomerDuplicateDTO;
+
+@RestController
+@RequestMapping("/api/customers/duplicates")
+public class DuplicateController {
+    
+    private final DuplicateDetectionJob detectionJob;
+    private final DuplicateReviewService reviewService;
+    
+    @Autowired
+    public DuplicateController(DuplicateDetectionJob detectionJob, DuplicateReviewService reviewService) {
+        this.detectionJob = detectionJob;
+        this.reviewService = reviewService;
+    }
+    
+    // POST start a detection run; 409 while one is running
+    @PostMapping("/detection")
+    public ResponseEntity<Map<String, Object>> startDetection() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(detectionJob.start());
+    }
+    
+    // GET progress and throughput of the current (or last) run
+    @GetMapping("/detection")
+    public ResponseEntity<Map<String, Object>> getDetectionProgress() {
+        return ResponseEntity.ok(detectionJob.getProgress());
+    }
+    
+    // GET review queue, best matches first
+    @GetMapping
+    public ResponseEntity<Page<CustomerDuplicateDTO>> getDuplicates(
+            @RequestParam(defaultValue = "PENDING") String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(reviewService.getDuplicates(status, page, size));
+    }
+    
+    // PATCH mark a pair CONFIRMED or REJECTED
+    @PatchMapping("/{id}")
+    public ResponseEntity<CustomerDuplicateDTO> review(@PathVariable Long id, @RequestParam String status) {
+        return ResponseEntity.ok(reviewService.review(id, status));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.customer_api.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.customer_api.limiter.ConcurrencyLimitFilter;
+
+@RestController
+@RequestMapping("/api/limits")
+public class LimiterController {
+    
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    
+    @Autowired
+    public LimiterController(ConcurrencyLimitFilter concurrencyLimitFilter) {
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+    }
+    
+    // GET current limit, in-flight count and rejections per endpoint group
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getLimits() {
+        return ResponseEntity.ok(concurrencyLimitFilter.getStats());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.customer_api.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.customer_api.replica.ReplicaRoutingDataSource;
+
+@RestController
+@RequestMapping("/api/replicas")
+@ConditionalOnProperty(name = "customer.replicas.enabled", havingValue = "true")
+public class ReplicaAdminController {
+    
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+    
+    @Autowired
+    public ReplicaAdminController(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+    
+    // GET per-pool connection counts, replica lag and the share of reads served by replicas
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(replicaRoutingDataSource.getStats());
+    }
+}
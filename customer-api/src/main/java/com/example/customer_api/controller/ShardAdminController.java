@@ -0,0 +1,80 @@
+package com.example.customer_api.controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.customer_api.sharding.ShardFanOut;
+import com.example.customer_api.sharding.ShardRebalancer;
+import com.example.customer_api.sharding.ShardRouter;
+
+@RestController
+@RequestMapping("/api/shards")
+@ConditionalOnProperty(name = "customer.sharding.enabled", havingValue = "true")
+public class ShardAdminController {
+    
+    private final ShardRouter shardRouter;
+    private final ShardFanOut fanOut;
+    private final ShardRebalancer rebalancer;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public ShardAdminController(ShardRouter shardRouter, ShardFanOut fanOut,
+                                ShardRebalancer rebalancer, JdbcTemplate jdbcTemplate) {
+        this.shardRouter = shardRouter;
+        this.fanOut = fanOut;
+        this.rebalancer = rebalancer;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // GET bucket ranges per shard and customer counts
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getShards() {
+        int[] assignments = shardRouter.getAssignments();
+        List<Long> counts = fanOut.onEveryShard(
+                shard -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Long.class));
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("buckets", ShardRouter.BUCKETS);
+        response.put("customersPerShard", counts);
+        response.put("ranges", ranges(assignments));
+        return ResponseEntity.ok(response);
+    }
+    
+    // POST move buckets [fromBucket, toBucket] to targetShard
+    @PostMapping("/rebalance")
+    public ResponseEntity<Map<String, Object>> rebalance(
+            @RequestParam int fromBucket,
+            @RequestParam int toBucket,
+            @RequestParam int targetShard) throws InterruptedException {
+        return ResponseEntity.ok(rebalancer.moveBuckets(fromBucket, toBucket, targetShard));
+    }
+    
+    // Collapses the bucket map into "from-to: shard" runs
+    private List<Map<String, Integer>> ranges(int[] assignments) {
+        List<Map<String, Integer>> ranges = new ArrayList<>();
+        int start = 0;
+        for (int bucket = 1; bucket <= assignments.length; bucket++) {
+            if (bucket == assignments.length || assignments[bucket] != assignments[start]) {
+                Map<String, Integer> range = new LinkedHashMap<>();
+                range.put("fromBucket", start);
+                range.put("toBucket", bucket - 1);
+                range.put("shard", assignments[start]);
+                ranges.add(range);
+                start = bucket;
+            }
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.customer_api.dedup;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Normalization and blocking keys for duplicate detection. Two customers are only compared
+// when they share a key, so each key must map the usual variants of a value to one string.
+public final class BlockingKeys {
+
+    // No key; never matches anything
+    public static final long NONE = 0L;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^a-z0-9]+");
+
+    // Phones are compared on their last digits, so "+84 912 345 678" and "0912-345-678" agree
+    private static final int PHONE_DIGITS = 9;
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    //                                       a  b  c  d  e  f  g  h  i  j  k  l  m  n  o  p  q  r  s  t  u  v  w  x  y  z
+    private static final char[] SOUNDEX = "01230120022455012623010202".toCharArray();
+
+    private BlockingKeys() {
+    }
+
+    // Lower case, no "+tag"; Gmail also ignores dots in the local part
+    public static String email(String email) {
+        if (email == null) {
+            return null;
+        }
+        String value = email.trim().toLowerCase(Locale.ROOT);
+        int at = value.lastIndexOf('@');
+        if (at <= 0 || at == value.length() - 1) {
+            return null;
+        }
+        String local = value.substring(0, at);
+        String domain = value.substring(at + 1);
+        int plus = local.indexOf('+');
+        if (plus > 0) {
+            local = local.substring(0, plus);
+        }
+        if (domain.equals("gmail.com") || domain.equals("googlemail.com")) {
+            local = local.replace(".", "");
+            domain = "gmail.com";
+        }
+        return local + "@" + domain;
+    }
+
+    public static String phone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return null;
+        }
+        return digits.length() <= PHONE_DIGITS ? digits.toString() : digits.substring(digits.length() - PHONE_DIGITS);
+    }
+
+    // ASCII, lower case, single spaces: "Nguyễn  Văn Đức" -> "nguyen van duc"
+    public static String text(String value) {
+        if (value == null) {
+            return null;
+        }
+        String folded = Normalizer.normalize(value.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD);
+        String cleaned = NON_LETTERS.matcher(MARKS.matcher(folded).replaceAll("").toLowerCase(Locale.ROOT))
+                .replaceAll(" ")
+                .trim();
+        return cleaned.isEmpty() ? null : cleaned;
+    }
+
+    // Soundex of every word of a normalized name, so spelling variants share a block
+    public static String nameKey(String normalizedName) {
+        if (normalizedName == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        for (String word : normalizedName.split(" ")) {
+            String code = soundex(word);
+            if (code != null) {
+                key.append(key.length() == 0 ? "" : "-").append(code);
+            }
+        }
+        return key.length() == 0 ? null : key.toString();
+    }
+
+    static String soundex(String word) {
+        char[] code = new char[] {0, '0', '0', '0'};
+        int length = 0;
+        char previous = 0;
+        for (int i = 0; i < word.length() && length < 4; i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') {
+                continue;
+            }
+            char digit = SOUNDEX[c - 'a'];
+            if (length == 0) {
+                code[length++] = Character.toUpperCase(c);
+            } else if (digit != '0' && digit != previous) {
+                code[length++] = digit;
+            }
+            // h and w do not separate letters with the same code; vowels do
+            if (c != 'h' && c != 'w') {
+                previous = digit;
+            }
+        }
+        return length == 0 ? null : new String(code);
+    }
+
+    // 64-bit FNV-1a; the job keeps hashes instead of key strings to fit millions of rows in memory
+    public static long hash(String key) {
+        if (key == null) {
+            return NONE;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == NONE ? 1L : hash;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.customer_api.dedup;
+
+import java.util.Arrays;
+
+// Every customer the job scanned, as parallel arrays rather than one object per row.
+// Blocking keys are kept as hashes; only the fields the scorer reads are kept as text.
+final class CandidateTable {
+
+    // Long addresses add nothing to the comparison but memory
+    private static final int MAX_ADDRESS_LENGTH = 60;
+
+    long[] ids = new long[1024];
+    long[] emailKeys = new long[1024];
+    long[] phoneKeys = new long[1024];
+    long[] nameKeys = new long[1024];
+    String[] names = new String[1024];
+    String[] addresses = new String[1024];
+    int size;
+
+    void add(long id, String email, String phone, String fullName, String address) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            emailKeys = Arrays.copyOf(emailKeys, capacity);
+            phoneKeys = Arrays.copyOf(phoneKeys, capacity);
+            nameKeys = Arrays.copyOf(nameKeys, capacity);
+            names = Arrays.copyOf(names, capacity);
+            addresses = Arrays.copyOf(addresses, capacity);
+        }
+        String name = BlockingKeys.text(fullName);
+        String place = BlockingKeys.text(address);
+        ids[size] = id;
+        emailKeys[size] = BlockingKeys.hash(BlockingKeys.email(email));
+        phoneKeys[size] = BlockingKeys.hash(BlockingKeys.phone(phone));
+        nameKeys[size] = BlockingKeys.hash(BlockingKeys.nameKey(name));
+        names[size] = name;
+        addresses[size] = place != null && place.length() > MAX_ADDRESS_LENGTH ? place.substring(0, MAX_ADDRESS_LENGTH) : place;
+        size++;
+    }
+}
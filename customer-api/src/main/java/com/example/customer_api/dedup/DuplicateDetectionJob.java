@@ -0,0 +1,453 @@
+package com.example.customer_api.dedup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customer_api.exception.RequestInProgressException;
+import com.example.customer_api.sharding.ShardContext;
+import com.example.customer_api.sharding.ShardRouter;
+
+import jakarta.annotation.PreDestroy;
+
+// Finds likely duplicate customers without a self-join:
+//   1. stream every customer once (keyset pages, every shard) into a compact in-memory table,
+//   2. group rows by blocking key (normalized email, phone, name soundex) by sorting key hashes,
+//   3. score the pairs inside each block on a fork-join pool,
+//   4. upsert pairs scoring at least min-score into customer_duplicates for review.
+// A pair sharing several keys is only scored in the first block type it shares that was
+// compared; blocks larger than max-block-size (placeholder values such as a shared office
+// phone) are skipped, so a pair in one of them is scored in its next shared block instead.
+@Component
+public class DuplicateDetectionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetectionJob.class);
+
+    private static final int EMAIL = 0;
+    private static final int PHONE = 1;
+    private static final int NAME = 2;
+    private static final String[] KEY_NAMES = {"email", "phone", "name"};
+
+    // Pairs a fork-join leaf scores before it stops splitting
+    private static final long LEAF_PAIRS = 20_000;
+
+    public enum Phase { IDLE, SCANNING, BLOCKING, COMPARING, COMPLETED, FAILED }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTx;
+    private final ForkJoinPool pool;
+    private final ExecutorService runner;
+
+    @Value("${customer.dedup.page-size:5000}")
+    private int pageSize;
+
+    @Value("${customer.dedup.max-block-size:1000}")
+    private int maxBlockSize;
+
+    @Value("${customer.dedup.min-score:0.6}")
+    private double minScore;
+
+    @Value("${customer.dedup.write-batch-size:500}")
+    private int writeBatchSize;
+
+    private volatile Run current = new Run(null);
+
+    @Autowired
+    public DuplicateDetectionJob(JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${customer.dedup.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                p -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                    thread.setName("customer-dedup-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "customer-dedup-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    // Starts a run in the background; only one runs at a time
+    public synchronized Map<String, Object> start() {
+        Phase phase = current.phase;
+        if (phase == Phase.SCANNING || phase == Phase.BLOCKING || phase == Phase.COMPARING) {
+            throw new RequestInProgressException("Duplicate detection run " + current.runId + " is still running");
+        }
+        Run run = new Run(UUID.randomUUID().toString());
+        run.phase = Phase.SCANNING;
+        current = run;
+        runner.execute(() -> execute(run));
+        return getProgress();
+    }
+
+    private void execute(Run run) {
+        try {
+            CandidateTable table = scan(run);
+
+            run.phase = Phase.BLOCKING;
+            List<Block> blocks = new ArrayList<>();
+            long[][] oversizedKeys = new long[NAME + 1][];
+            for (int type = EMAIL; type <= NAME; type++) {
+                oversizedKeys[type] = addBlocks(table, type, blocks, run);
+            }
+
+            run.phase = Phase.COMPARING;
+            run.comparingStartedAt = System.currentTimeMillis();
+            compareAndWrite(table, blocks, oversizedKeys, run);
+
+            run.phase = Phase.COMPLETED;
+            log.info("Duplicate detection {} finished: {}", run.runId, getProgress());
+        } catch (RuntimeException | InterruptedException e) {
+            fail(run, e);
+        } catch (Error e) {
+            // Recorded before it reaches the executor, so the run does not stay in progress
+            // and refuse every later start()
+            fail(run, e);
+            throw e;
+        } finally {
+            run.finishedAt = System.currentTimeMillis();
+        }
+    }
+
+    private void fail(Run run, Throwable e) {
+        run.error = e.getMessage() != null ? e.getMessage() : e.toString();
+        run.phase = Phase.FAILED;
+        log.error("Duplicate detection {} failed", run.runId, e);
+    }
+
+    private CandidateTable scan(Run run) {
+        CandidateTable table = new CandidateTable();
+        String sql = "SELECT id, full_name, email, phone, address FROM customers WHERE id > ? ORDER BY id LIMIT " + pageSize;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long lastId = 0;
+            while (true) {
+                long after = lastId;
+                int before = table.size;
+                // One short read-only transaction per page, so replicas can serve the scan
+                ShardContext.run(shard, () -> readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(sql,
+                        rs -> {
+                            table.add(rs.getLong("id"), rs.getString("email"), rs.getString("phone"),
+                                      rs.getString("full_name"), rs.getString("address"));
+                        }, after)));
+                int read = table.size - before;
+                run.rowsScanned.addAndGet(read);
+                if (read < pageSize) {
+                    break;
+                }
+                lastId = table.ids[table.size - 1];
+            }
+        }
+        run.scanFinishedAt = System.currentTimeMillis();
+        return table;
+    }
+
+    // Sorting by key hash puts every block in one contiguous run. Returns the keys of the blocks
+    // skipped as oversized, ascending.
+    private long[] addBlocks(CandidateTable table, int type, List<Block> blocks, Run run) {
+        long[] keys = type == EMAIL ? table.emailKeys : type == PHONE ? table.phoneKeys : table.nameKeys;
+        Integer[] order = new Integer[table.size];
+        int keyed = 0;
+        for (int i = 0; i < table.size; i++) {
+            if (keys[i] != BlockingKeys.NONE) {
+                order[keyed++] = i;
+            }
+        }
+        Integer[] sorted = Arrays.copyOf(order, keyed);
+        Arrays.parallelSort(sorted, Comparator.comparingLong(i -> keys[i]));
+        int[] members = new int[keyed];
+        for (int i = 0; i < keyed; i++) {
+            members[i] = sorted[i];
+        }
+
+        long[] oversized = new long[8];
+        int oversizedCount = 0;
+        for (int start = 0; start < keyed; ) {
+            int end = start + 1;
+            while (end < keyed && keys[members[end]] == keys[members[start]]) {
+                end++;
+            }
+            int size = end - start;
+            if (size > maxBlockSize) {
+                run.oversizedBlocks.incrementAndGet();
+                if (oversizedCount == oversized.length) {
+                    oversized = Arrays.copyOf(oversized, oversizedCount * 2);
+                }
+                oversized[oversizedCount++] = keys[members[start]];
+                log.debug("Skipping {} block of {} customers", KEY_NAMES[type], size);
+            } else if (size > 1) {
+                blocks.add(new Block(type, members, start, end));
+                run.blocks.incrementAndGet();
+                run.pairsToCompare += (long) size * (size - 1) / 2;
+            }
+            start = end;
+        }
+        return Arrays.copyOf(oversized, oversizedCount);
+    }
+
+    // Fork-join workers score pairs and hand matches to this thread, which batches them into the table
+    private void compareAndWrite(CandidateTable table, List<Block> blocks, long[][] oversizedKeys, Run run)
+            throws InterruptedException {
+        long[] work = new long[blocks.size() + 1];
+        for (int i = 0; i < blocks.size(); i++) {
+            work[i + 1] = work[i] + blocks.get(i).pairs();
+        }
+        BlockingQueue<ScoredPair> found = new LinkedBlockingQueue<>(writeBatchSize * 20);
+        ForkJoinTask<Void> task = pool.submit(new CompareBlocks(table, blocks, oversizedKeys, work, 0, blocks.size(), found, run));
+
+        List<ScoredPair> batch = new ArrayList<>(writeBatchSize);
+        try {
+            while (!task.isDone() || !found.isEmpty()) {
+                ScoredPair pair = found.poll(100, TimeUnit.MILLISECONDS);
+                if (pair != null) {
+                    batch.add(pair);
+                    found.drainTo(batch, writeBatchSize - batch.size());
+                }
+                if (batch.size() >= writeBatchSize || (task.isDone() && found.isEmpty() && !batch.isEmpty())) {
+                    write(batch, run);
+                    batch.clear();
+                }
+            }
+        } catch (RuntimeException | InterruptedException | Error e) {
+            // Nobody drains the queue any more; release workers waiting on it
+            run.aborted = true;
+            throw e;
+        }
+        // Rethrows anything a worker failed with
+        task.join();
+    }
+
+    private void write(List<ScoredPair> pairs, Run run) {
+        String values = String.join(", ", Collections.nCopies(pairs.size(), "(?, ?, ?, ?, 'PENDING', ?, ?)"));
+        Object[] args = new Object[pairs.size() * 6];
+        LocalDateTime now = LocalDateTime.now();
+        int position = 0;
+        for (ScoredPair pair : pairs) {
+            args[position++] = pair.customerIdA;
+            args[position++] = pair.customerIdB;
+            args[position++] = pair.score;
+            args[position++] = pair.reasons;
+            args[position++] = run.runId;
+            args[position++] = now;
+        }
+        // A pair found again keeps its review status
+        jdbcTemplate.update("INSERT INTO customer_duplicates " +
+                "(customer_id_a, customer_id_b, score, reasons, status, run_id, detected_at) VALUES " + values +
+                " ON DUPLICATE KEY UPDATE score = VALUES(score), reasons = VALUES(reasons), " +
+                "run_id = VALUES(run_id), detected_at = VALUES(detected_at)", args);
+        run.pairsWritten.addAndGet(pairs.size());
+    }
+
+    public Map<String, Object> getProgress() {
+        Run run = current;
+        long now = run.finishedAt > 0 ? run.finishedAt : System.currentTimeMillis();
+        long scanEnd = run.scanFinishedAt > 0 ? run.scanFinishedAt : now;
+        long comparisons = run.comparisons.sum();
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("runId", run.runId);
+        progress.put("phase", run.phase);
+        progress.put("elapsedMillis", run.startedAt == 0 ? 0 : now - run.startedAt);
+        progress.put("rowsScanned", run.rowsScanned.get());
+        progress.put("scanRowsPerSecond", perSecond(run.rowsScanned.get(), scanEnd - run.startedAt));
+        progress.put("blocks", run.blocks.get());
+        progress.put("oversizedBlocksSkipped", run.oversizedBlocks.get());
+        progress.put("pairsToCompare", run.pairsToCompare);
+        progress.put("comparisons", comparisons);
+        progress.put("comparisonsPerSecond", run.comparingStartedAt == 0 ? 0
+                : perSecond(comparisons, now - run.comparingStartedAt));
+        progress.put("pairsFound", run.pairsFound.sum());
+        progress.put("pairsWritten", run.pairsWritten.get());
+        progress.put("error", run.error);
+        return progress;
+    }
+
+    private static long perSecond(long count, long millis) {
+        return millis <= 0 ? 0 : count * 1000 / millis;
+    }
+
+    // Scores a range of blocks, splitting it in two by pair count until a leaf is small enough
+    private final class CompareBlocks extends RecursiveAction {
+
+        private final CandidateTable table;
+        private final List<Block> blocks;
+        private final long[][] oversizedKeys;
+        private final long[] work;
+        private final int from;
+        private final int to;
+        private final BlockingQueue<ScoredPair> found;
+        private final Run run;
+
+        private CompareBlocks(CandidateTable table, List<Block> blocks, long[][] oversizedKeys, long[] work,
+                              int from, int to, BlockingQueue<ScoredPair> found, Run run) {
+            this.table = table;
+            this.blocks = blocks;
+            this.oversizedKeys = oversizedKeys;
+            this.work = work;
+            this.from = from;
+            this.to = to;
+            this.found = found;
+            this.run = run;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && work[to] - work[from] > LEAF_PAIRS) {
+                long half = work[from] + (work[to] - work[from]) / 2;
+                int mid = Arrays.binarySearch(work, from + 1, to, half);
+                mid = mid >= 0 ? mid : -mid - 1;
+                mid = Math.min(Math.max(mid, from + 1), to - 1);
+                invokeAll(new CompareBlocks(table, blocks, oversizedKeys, work, from, mid, found, run),
+                          new CompareBlocks(table, blocks, oversizedKeys, work, mid, to, found, run));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                compare(blocks.get(i));
+            }
+        }
+
+        private void compare(Block block) {
+            long compared = 0;
+            for (int i = block.start; i < block.end; i++) {
+                int a = block.members[i];
+                for (int j = i + 1; j < block.end; j++) {
+                    int b = block.members[j];
+                    compared++;
+                    if (scoredInEarlierBlock(block.type, a, b)) {
+                        continue;
+                    }
+                    StringBuilder reasons = new StringBuilder();
+                    double score = DuplicateScorer.score(table, a, b, reasons);
+                    if (score >= minScore) {
+                        run.pairsFound.increment();
+                        offer(new ScoredPair(table.ids[a], table.ids[b], score, reasons.toString()));
+                    }
+                }
+            }
+            run.comparisons.add(compared);
+        }
+
+        // Only a block that was actually compared counts; an oversized one was skipped
+        private boolean scoredInEarlierBlock(int type, int a, int b) {
+            boolean sameEmail = comparedTogether(EMAIL, table.emailKeys, a, b);
+            boolean samePhone = comparedTogether(PHONE, table.phoneKeys, a, b);
+            return (type == PHONE && sameEmail) || (type == NAME && (sameEmail || samePhone));
+        }
+
+        private boolean comparedTogether(int type, long[] keys, int a, int b) {
+            return keys[a] != BlockingKeys.NONE && keys[a] == keys[b]
+                    && Arrays.binarySearch(oversizedKeys[type], keys[a]) < 0;
+        }
+
+        private void offer(ScoredPair pair) {
+            try {
+                // Waits while the writer catches up, which bounds memory
+                while (!found.offer(pair, 100, TimeUnit.MILLISECONDS)) {
+                    if (run.aborted) {
+                        throw new CancellationException("Duplicate detection run " + run.runId + " was aborted");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing a duplicate pair", e);
+            }
+        }
+    }
+
+    private static final class Block {
+        private final int type;
+        private final int[] members;
+        private final int start;
+        private final int end;
+
+        private Block(int type, int[] members, int start, int end) {
+            this.type = type;
+            this.members = members;
+            this.start = start;
+            this.end = end;
+        }
+
+        private long pairs() {
+            long size = end - start;
+            return size * (size - 1) / 2;
+        }
+    }
+
+    private static final class ScoredPair {
+        private final long customerIdA;
+        private final long customerIdB;
+        private final double score;
+        private final String reasons;
+
+        // Stored with the lower id first so each pair has one row
+        private ScoredPair(long first, long second, double score, String reasons) {
+            this.customerIdA = Math.min(first, second);
+            this.customerIdB = Math.max(first, second);
+            this.score = score;
+            this.reasons = reasons;
+        }
+    }
+
+    // Progress of one run; counters are written by the runner and the fork-join workers
+    private static final class Run {
+        private final String runId;
+        private final long startedAt;
+        private volatile Phase phase = Phase.IDLE;
+        private volatile long scanFinishedAt;
+        private volatile long comparingStartedAt;
+        private volatile long finishedAt;
+        private volatile long pairsToCompare;
+        private volatile String error;
+        private volatile boolean aborted;
+        private final AtomicLong rowsScanned = new AtomicLong();
+        private final AtomicLong blocks = new AtomicLong();
+        private final AtomicLong oversizedBlocks = new AtomicLong();
+        private final LongAdder comparisons = new LongAdder();
+        private final LongAdder pairsFound = new LongAdder();
+        private final AtomicLong pairsWritten = new AtomicLong();
+
+        private Run(String runId) {
+            this.runId = runId;
+            this.startedAt = runId == null ? 0 : System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.customer_api.dedup;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.customer_api.dto.CustomerDuplicateDTO;
+import com.example.customer_api.entity.CustomerDuplicate;
+import com.example.customer_api.entity.DuplicateStatus;
+import com.example.customer_api.exception.ResourceNotFoundException;
+import com.example.customer_api.repository.CustomerDuplicateRepository;
+
+// The review queue over customer_duplicates. Merging confirmed duplicates is left to the reviewer.
+@Service
+@Transactional
+public class DuplicateReviewService {
+
+    private final CustomerDuplicateRepository duplicateRepository;
+
+    @Autowired
+    public DuplicateReviewService(CustomerDuplicateRepository duplicateRepository) {
+        this.duplicateRepository = duplicateRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<CustomerDuplicateDTO> getDuplicates(String status, int page, int size) {
+        return duplicateRepository.findByStatusOrderByScoreDesc(parseStatus(status), PageRequest.of(page, size))
+                .map(this::convertToDTO);
+    }
+
+    public CustomerDuplicateDTO review(Long id, String status) {
+        CustomerDuplicate duplicate = duplicateRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Duplicate pair not found with id: " + id));
+        duplicate.setStatus(parseStatus(status));
+        duplicate.setReviewedAt(LocalDateTime.now());
+        return convertToDTO(duplicate);
+    }
+
+    private DuplicateStatus parseStatus(String status) {
+        try {
+            return DuplicateStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status value. Must be PENDING, CONFIRMED or REJECTED");
+        }
+    }
+
+    private CustomerDuplicateDTO convertToDTO(CustomerDuplicate duplicate) {
+        CustomerDuplicateDTO dto = new CustomerDuplicateDTO();
+        dto.setId(duplicate.getId());
+        dto.setCustomerIdA(duplicate.getCustomerIdA());
+        dto.setCustomerIdB(duplicate.getCustomerIdB());
+        dto.setScore(duplicate.getScore());
+        dto.setReasons(duplicate.getReasons());
+        dto.setStatus(duplicate.getStatus().toString());
+        dto.setDetectedAt(duplicate.getDetectedAt());
+        dto.setReviewedAt(duplicate.getReviewedAt());
+        return dto;
+    }
+}
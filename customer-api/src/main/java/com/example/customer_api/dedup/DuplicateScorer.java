@@ -0,0 +1,110 @@
+package com.example.customer_api.dedup;
+
+// Scores a candidate pair from 0 to 1. A shared email is enough on its own; a shared phone
+// (families share one) or a similar name is not, unless something else agrees as well.
+final class DuplicateScorer {
+
+    static final double EMAIL_WEIGHT = 0.6;
+    static final double PHONE_WEIGHT = 0.35;
+    static final double NAME_WEIGHT = 0.4;
+    static final double ADDRESS_WEIGHT = 0.3;
+
+    // Jaro-Winkler similarity below this counts as "different"
+    static final double MIN_TEXT_SIMILARITY = 0.85;
+
+    private DuplicateScorer() {
+    }
+
+    // Returns the score; reasons receives a short explanation for the reviewer
+    static double score(CandidateTable t, int a, int b, StringBuilder reasons) {
+        double score = 0;
+        if (t.emailKeys[a] != BlockingKeys.NONE && t.emailKeys[a] == t.emailKeys[b]) {
+            score += EMAIL_WEIGHT;
+            reasons.append("email");
+        }
+        if (t.phoneKeys[a] != BlockingKeys.NONE && t.phoneKeys[a] == t.phoneKeys[b]) {
+            score += PHONE_WEIGHT;
+            reasons.append(reasons.length() == 0 ? "" : ",").append("phone");
+        }
+        double name = t.names[a] == null || t.names[b] == null ? 0 : wordSimilarity(t.names[a], t.names[b]);
+        if (name >= MIN_TEXT_SIMILARITY) {
+            score += NAME_WEIGHT * name;
+            reasons.append(reasons.length() == 0 ? "" : ",").append("name");
+        }
+        double address = similarity(t.addresses[a], t.addresses[b]);
+        if (address >= MIN_TEXT_SIMILARITY) {
+            score += ADDRESS_WEIGHT * address;
+            reasons.append(reasons.length() == 0 ? "" : ",").append("address");
+        }
+        return Math.min(1.0, score);
+    }
+
+    private static double similarity(String a, String b) {
+        return a == null || b == null ? 0 : jaroWinkler(a, b);
+    }
+
+    // Word by word, so a shared family name ("pham minh tuan" / "pham thu ha") is not a match.
+    // Each word of the shorter name takes its best match; missing words count as zero.
+    static double wordSimilarity(String a, String b) {
+        String[] shorter = a.split(" ");
+        String[] longer = b.split(" ");
+        if (shorter.length > longer.length) {
+            String[] swap = shorter;
+            shorter = longer;
+            longer = swap;
+        }
+        double total = 0;
+        for (String word : shorter) {
+            double best = 0;
+            for (String other : longer) {
+                best = Math.max(best, jaroWinkler(word, other));
+            }
+            total += best;
+        }
+        return total / longer.length;
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] matchedA = new boolean[a.length()];
+        boolean[] matchedB = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length() - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (matchedA[i]) {
+                while (!matchedB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(a.length(), b.length())) && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.customer_api.degraded;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.example.customer_api.dto.AdvancedSearchDTO;
+import com.example.customer_api.dto.CustomerResponseDTO;
+import com.example.customer_api.entity.CustomerStatus;
+import com.example.customer_api.exception.ResourceNotFoundException;
+import com.example.customer_api.service.CustomerOrdering;
+import com.example.customer_api.service.SearchKeys;
+
+// Read-only copy of the customers table, answering the same read queries as CustomerService
+// from memory. Kept column by column in id order, so a row costs its strings and a few
+// primitives rather than a DTO and two map entries; ids are binary searched, codes through a
+// sorted index, and response DTOs are only built for the rows a query returns.
+// Immutable once built; a refresh replaces the whole snapshot.
+public class CustomerSnapshot {
+
+    private static final CustomerStatus[] STATUSES = CustomerStatus.values();
+
+    private final int size;
+    private final long[] ids;
+    private final String[] codes;
+    private final String[] names;
+    private final String[] emails;
+    private final String[] phones;
+    private final String[] addresses;
+    private final byte[] statuses;
+    // Nanoseconds since the epoch in UTC; Long.MIN_VALUE for null
+    private final long[] createdAt;
+    private final long[] versions;
+    // Rows in customerCode order
+    private final int[] byCode;
+    private final LocalDateTime takenAt;
+
+    // customers must be in id order
+    public CustomerSnapshot(List<CustomerResponseDTO> customers, LocalDateTime takenAt) {
+        this.size = customers.size();
+        this.ids = new long[size];
+        this.codes = new String[size];
+        this.names = new String[size];
+        this.emails = new String[size];
+        this.phones = new String[size];
+        this.addresses = new String[size];
+        this.statuses = new byte[size];
+        this.createdAt = new long[size];
+        this.versions = new long[size];
+        for (int row = 0; row < size; row++) {
+            CustomerResponseDTO customer = customers.get(row);
+            ids[row] = customer.getId();
+            codes[row] = customer.getCustomerCode();
+            names[row] = customer.getFullName();
+            emails[row] = customer.getEmail();
+            phones[row] = customer.getPhone();
+            addresses[row] = customer.getAddress();
+            statuses[row] = (byte) CustomerStatus.valueOf(customer.getStatus()).ordinal();
+            createdAt[row] = toNanos(customer.getCreatedAt());
+            versions[row] = customer.getVersion() == null ? 0 : customer.getVersion();
+        }
+        Integer[] order = new Integer[size];
+        for (int row = 0; row < size; row++) {
+            order[row] = row;
+        }
+        Arrays.sort(order, Comparator.comparing(row -> codes[row]));
+        this.byCode = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        this.takenAt = takenAt;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<CustomerResponseDTO> all() {
+        return filter(row -> true);
+    }
+
+    public CustomerResponseDTO byId(Long id) {
+        int row = Arrays.binarySearch(ids, id);
+        if (row < 0) {
+            throw new ResourceNotFoundException("Customer not found with id: " + id);
+        }
+        return toDTO(row);
+    }
+
+    public CustomerResponseDTO byCode(String customerCode) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = codes[byCode[mid]].compareTo(customerCode);
+            if (cmp == 0) {
+                return toDTO(byCode[mid]);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        throw new ResourceNotFoundException("Customer not found with code: " + customerCode);
+    }
+
+    // Same prefix semantics as the search-key queries in CustomerRepository
+    public List<CustomerResponseDTO> search(String keyword) {
+        if (SearchKeys.isDomainQuery(keyword)) {
+            String domain = keyword.trim().substring(SearchKeys.DOMAIN_MARKER.length());
+            return filter(row -> SearchKeys.startsWithIgnoreCase(domainOf(emails[row]), domain));
+        }
+        return filter(row -> SearchKeys.startsWithIgnoreCase(names[row], keyword)
+                || SearchKeys.startsWithIgnoreCase(emails[row], keyword)
+                || SearchKeys.startsWithIgnoreCase(codes[row], keyword));
+    }
+
+    // status must be valid, as CustomerService requires
+    public List<CustomerResponseDTO> byStatus(String status) {
+        int ordinal = CustomerStatus.valueOf(status.toUpperCase()).ordinal();
+        return filter(row -> statuses[row] == ordinal);
+    }
+
+    // Same rules as CustomerServiceImpl.advancedSearch: an unknown status is no filter, a phone
+    // filter without digits is rejected
+    public List<CustomerResponseDTO> advancedSearch(AdvancedSearchDTO search) {
+        int status = -1;
+        if (!blank(search.getStatus())) {
+            try {
+                status = CustomerStatus.valueOf(search.getStatus().toUpperCase()).ordinal();
+            } catch (IllegalArgumentException e) {
+                // no filter
+            }
+        }
+        String phone = null;
+        if (!blank(search.getPhone())) {
+            phone = SearchKeys.digits(search.getPhone());
+            if (phone.isEmpty()) {
+                throw new IllegalArgumentException("Phone filter must contain digits");
+            }
+        }
+        String email = blank(search.getEmail()) ? null : search.getEmail().trim();
+        int statusFilter = status;
+        String phoneFilter = phone;
+        return filter(row -> (blank(search.getName()) || SearchKeys.startsWithIgnoreCase(names[row], search.getName()))
+                && (email == null || (SearchKeys.isDomainQuery(email)
+                        ? SearchKeys.startsWithIgnoreCase(domainOf(emails[row]), email.substring(SearchKeys.DOMAIN_MARKER.length()))
+                        : SearchKeys.startsWithIgnoreCase(emails[row], email)))
+                && (statusFilter < 0 || statuses[row] == statusFilter)
+                && (phoneFilter == null || matchesPhone(phones[row], phoneFilter))
+                && (blank(search.getCustomerCode()) || SearchKeys.startsWithIgnoreCase(codes[row], search.getCustomerCode())));
+    }
+
+    public List<CustomerResponseDTO> sorted(String sortBy, String sortDir) {
+        List<CustomerResponseDTO> sorted = all();
+        sorted.sort(CustomerOrdering.of(sortBy, sortDir));
+        return sorted;
+    }
+
+    public Page<CustomerResponseDTO> page(int page, int size, String sortBy, String sortDir) {
+        int from = (int) Math.min((long) page * size, this.size);
+        int to = Math.min(from + size, this.size);
+        List<CustomerResponseDTO> content;
+        if ("id".equals(sortBy) && sortDir.equalsIgnoreCase("asc")) {
+            // Rows are already in id order: build only the page
+            content = new ArrayList<>(to - from);
+            for (int row = from; row < to; row++) {
+                content.add(toDTO(row));
+            }
+        } else {
+            content = new ArrayList<>(sorted(sortBy, sortDir).subList(from, to));
+        }
+        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        return new PageImpl<>(content, PageRequest.of(page, size, sort), this.size);
+    }
+
+    private List<CustomerResponseDTO> filter(IntPredicate predicate) {
+        List<CustomerResponseDTO> matches = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (predicate.test(row)) {
+                matches.add(toDTO(row));
+            }
+        }
+        return matches;
+    }
+
+    private CustomerResponseDTO toDTO(int row) {
+        CustomerResponseDTO dto = new CustomerResponseDTO(ids[row], codes[row], names[row], emails[row],
+                phones[row], addresses[row], STATUSES[statuses[row]].toString(), fromNanos(createdAt[row]));
+        dto.setVersion(versions[row]);
+        return dto;
+    }
+
+    private static long toNanos(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        if (nanos == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String domainOf(String email) {
+        return email.substring(email.indexOf('@') + 1);
+    }
+
+    // Digits start or end with the given digits
+    private static boolean matchesPhone(String phone, String digits) {
+        if (phone == null || digits.isEmpty()) {
+            return false;
+        }
+        String phoneDigits = SearchKeys.digits(phone);
+        return phoneDigits.startsWith(digits) || phoneDigits.endsWith(digits);
+    }
+}
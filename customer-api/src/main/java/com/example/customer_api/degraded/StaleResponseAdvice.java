@@ -0,0 +1,39 @@
+package com.example.customer_api.degraded;
+
+import java.time.LocalDateTime;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Marks responses answered from the customer snapshot:
+//   Warning: 110 customer-api "Response is Stale"
+//   X-Snapshot-Taken-At: when the data was read from the database
+@ControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String SNAPSHOT_HEADER = "X-Snapshot-Taken-At";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(DegradedReads.STALE_SINCE) instanceof LocalDateTime takenAt) {
+            response.getHeaders().add(HttpHeaders.WARNING, "110 customer-api \"Response is Stale\"");
+            response.getHeaders().add(SNAPSHOT_HEADER, takenAt.toString());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.customer_api.dto;
+
+import java.time.LocalDateTime;
+
+public class CustomerChangeDTO {
+    
+    public static final String TYPE_UPSERT = "UPSERT";
+    public static final String TYPE_DELETE = "DELETE";
+    
+    private String type;
+    private Long customerId;
+    private LocalDateTime changedAt;
+    private CustomerResponseDTO customer;   // null for DELETE
+    
+    // Constructors
+    public CustomerChangeDTO() {
+    }
+    
+    public CustomerChangeDTO(String type, Long customerId, LocalDateTime changedAt, CustomerResponseDTO customer) {
+        this.type = type;
+        this.customerId = customerId;
+        this.changedAt = changedAt;
+        this.customer = customer;
+    }
+    
+    // Getters and Setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+    
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+    
+    public CustomerResponseDTO getCustomer() { return customer; }
+    public void setCustomer(CustomerResponseDTO customer) { this.customer = customer; }
+}
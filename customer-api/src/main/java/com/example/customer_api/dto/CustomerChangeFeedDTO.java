@@ -0,0 +1,30 @@
+package com.example.customer_api.dto;
+
+import java.util.List;
+
+public class CustomerChangeFeedDTO {
+    
+    private List<CustomerChangeDTO> changes;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    // Constructors
+    public CustomerChangeFeedDTO() {
+    }
+    
+    public CustomerChangeFeedDTO(List<CustomerChangeDTO> changes, String nextCursor, boolean hasMore) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<CustomerChangeDTO> getChanges() { return changes; }
+    public void setChanges(List<CustomerChangeDTO> changes) { this.changes = changes; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
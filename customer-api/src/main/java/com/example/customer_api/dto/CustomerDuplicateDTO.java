@@ -0,0 +1,44 @@
+package com.example.customer_api.dto;
+
+import java.time.LocalDateTime;
+
+public class CustomerDuplicateDTO {
+    
+    private Long id;
+    private Long customerIdA;
+    private Long customerIdB;
+    private double score;
+    private String reasons;
+    private String status;
+    private LocalDateTime detectedAt;
+    private LocalDateTime reviewedAt;
+    
+    // Constructors
+    public CustomerDuplicateDTO() {
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getCustomerIdA() { return customerIdA; }
+    public void setCustomerIdA(Long customerIdA) { this.customerIdA = customerIdA; }
+    
+    public Long getCustomerIdB() { return customerIdB; }
+    public void setCustomerIdB(Long customerIdB) { this.customerIdB = customerIdB; }
+    
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+    
+    public String getReasons() { return reasons; }
+    public void setReasons(String reasons) { this.reasons = reasons; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public LocalDateTime getDetectedAt() { return detectedAt; }
+    public void setDetectedAt(LocalDateTime detectedAt) { this.detectedAt = detectedAt; }
+    
+    public LocalDateTime getReviewedAt() { return reviewedAt; }
+    public void setReviewedAt(LocalDateTime reviewedAt) { this.reviewedAt = reviewedAt; }
+}
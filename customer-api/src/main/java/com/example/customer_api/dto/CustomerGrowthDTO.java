@@ -0,0 +1,48 @@
+package com.example.customer_api.dto;
+
+import java.time.LocalDate;
+
+// Customer growth for one day, week (starting Monday) or month
+public class CustomerGrowthDTO {
+    
+    private LocalDate periodStart;
+    private long created;
+    private long deactivated;
+    private long reactivated;
+    private long deleted;
+    // Change in the number of ACTIVE customers over the period
+    private long netGrowth;
+    
+    // Constructors
+    public CustomerGrowthDTO() {
+    }
+    
+    public CustomerGrowthDTO(LocalDate periodStart, long created, long deactivated, long reactivated,
+                             long deleted, long netGrowth) {
+        this.periodStart = periodStart;
+        this.created = created;
+        this.deactivated = deactivated;
+        this.reactivated = reactivated;
+        this.deleted = deleted;
+        this.netGrowth = netGrowth;
+    }
+    
+    // Getters and Setters
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+    
+    public long getCreated() { return created; }
+    public void setCreated(long created) { this.created = created; }
+    
+    public long getDeactivated() { return deactivated; }
+    public void setDeactivated(long deactivated) { this.deactivated = deactivated; }
+    
+    public long getReactivated() { return reactivated; }
+    public void setReactivated(long reactivated) { this.reactivated = reactivated; }
+    
+    public long getDeleted() { return deleted; }
+    public void setDeleted(long deleted) { this.deleted = deleted; }
+    
+    public long getNetGrowth() { return netGrowth; }
+    public void setNetGrowth(long netGrowth) { this.netGrowth = netGrowth; }
+}
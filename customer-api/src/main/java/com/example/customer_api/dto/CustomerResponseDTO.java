@@ -12,6 +12,7 @@ public class CustomerResponseDTO {
     private String address;
     private String status;
     private LocalDateTime createdAt;
+    private Long version;
     
     // Constructors
     public CustomerResponseDTO() {
@@ -93,4 +94,12 @@ public class CustomerResponseDTO {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
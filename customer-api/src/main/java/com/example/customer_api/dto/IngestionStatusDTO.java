@@ -0,0 +1,45 @@
+package com.example.customer_api.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.customer_api.service.IngestionState;
+
+public class IngestionStatusDTO {
+    
+    private String trackingId;
+    private String customerCode;
+    private IngestionState state;
+    private String error;
+    private LocalDateTime acceptedAt;
+    private LocalDateTime completedAt;
+    
+    // Constructors
+    public IngestionStatusDTO() {
+    }
+    
+    public IngestionStatusDTO(String trackingId, String customerCode, IngestionState state, LocalDateTime acceptedAt) {
+        this.trackingId = trackingId;
+        this.customerCode = customerCode;
+        this.state = state;
+        this.acceptedAt = acceptedAt;
+    }
+    
+    // Getters and Setters
+    public String getTrackingId() { return trackingId; }
+    public void setTrackingId(String trackingId) { this.trackingId = trackingId; }
+    
+    public String getCustomerCode() { return customerCode; }
+    public void setCustomerCode(String customerCode) { this.customerCode = customerCode; }
+    
+    public IngestionState getState() { return state; }
+    public void setState(IngestionState state) { this.state = state; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    
+    public LocalDateTime getAcceptedAt() { return acceptedAt; }
+    public void setAcceptedAt(LocalDateTime acceptedAt) { this.acceptedAt = acceptedAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,7 @@
+package com.example.customer_api.entity;
+
+public enum BatchJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -4,20 +4,35 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", uniqueConstraints = {
+    // Named so DuplicateKeyTranslator can tell which column collided
+    @UniqueConstraint(name = "uk_customers_customer_code", columnNames = "customer_code"),
+    @UniqueConstraint(name = "uk_customers_email", columnNames = "email")
+}, indexes = {
+    // Backs the incremental change feed (updated_at + id tiebreaker)
+    @Index(name = "idx_customers_updated_at_id", columnList = "updated_at, id"),
+    // Backs the customer_daily_stats backfill
+    @Index(name = "idx_customers_created_at", columnList = "created_at"),
+    // Back the prefix searches on the generated search keys below
+    @Index(name = "idx_customers_full_name_lc", columnList = "full_name_lc"),
+    @Index(name = "idx_customers_email_lc", columnList = "email_lc"),
+    @Index(name = "idx_customers_email_domain", columnList = "email_domain"),
+    @Index(name = "idx_customers_phone_digits", columnList = "phone_digits"),
+    @Index(name = "idx_customers_phone_digits_reversed", columnList = "phone_digits_reversed")
+})
 public class Customer {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(name = "customer_code", unique = true, nullable = false, length = 20)
+    @Column(name = "customer_code", nullable = false, length = 20)
     private String customerCode;
     
     @Column(name = "full_name", nullable = false, length = 100)
     private String fullName;
     
-    @Column(unique = true, nullable = false, length = 100)
+    @Column(nullable = false, length = 100)
     private String email;
     
     @Column(length = 20)
@@ -36,6 +51,35 @@ public class Customer {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Search keys: generated columns the database keeps in step with full_name, email and
+    // phone, whichever application or statement writes them. Each expression may only
+    // reference base columns (Hibernate orders columns by name). Never written from Java.
+    @Column(name = "full_name_lc", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(100) GENERATED ALWAYS AS (LOWER(full_name))")
+    private String fullNameLc;
+    
+    @Column(name = "email_lc", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(100) GENERATED ALWAYS AS (LOWER(email))")
+    private String emailLc;
+    
+    @Column(name = "email_domain", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(100) GENERATED ALWAYS AS (SUBSTRING(LOWER(email), LOCATE('@', email) + 1))")
+    private String emailDomain;
+    
+    @Column(name = "phone_digits", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(20) GENERATED ALWAYS AS (REGEXP_REPLACE(phone, '[^0-9]', ''))")
+    private String phoneDigits;
+    
+    // Reversed so "ends with" becomes an indexable prefix match
+    @Column(name = "phone_digits_reversed", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(20) GENERATED ALWAYS AS (REVERSE(REGEXP_REPLACE(phone, '[^0-9]', '')))")
+    private String phoneDigitsReversed;
+    
+    // Optimistic lock; bumped by every write, including the single-statement updates
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -131,6 +175,34 @@ public class Customer {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public String getFullNameLc() {
+        return fullNameLc;
+    }
+    
+    public String getEmailLc() {
+        return emailLc;
+    }
+    
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+    
+    public String getPhoneDigits() {
+        return phoneDigits;
+    }
+    
+    public String getPhoneDigitsReversed() {
+        return phoneDigitsReversed;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
 
 // Enum for status
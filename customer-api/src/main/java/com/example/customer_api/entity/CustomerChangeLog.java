@@ -0,0 +1,63 @@
+package com.example.customer_api.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One row per customer update/delete, written in the same transaction as the change.
+// Every app sharing the customers table polls it to evict its cached copies.
+@Entity
+@Table(name = "customer_change_log", indexes = {
+    @Index(name = "idx_customer_change_log_changed_at", columnList = "changed_at")
+})
+public class CustomerChangeLog {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+    
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+    
+    // Constructors
+    public CustomerChangeLog() {
+    }
+    
+    public CustomerChangeLog(Long customerId) {
+        this.customerId = customerId;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        if (this.changedAt == null) {
+            this.changedAt = LocalDateTime.now();
+        }
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getCustomerId() {
+        return customerId;
+    }
+    
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.customer_api.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Pre-aggregated customer growth, maintained in the same transaction as each write.
+// Every day is split over a few slots so concurrent writers rarely wait on the same row;
+// readers sum the slots.
+@Entity
+@Table(name = "customer_daily_stats", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_customer_daily_stats_date_slot", columnNames = {"stat_date", "slot"})
+})
+public class CustomerDailyStats {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+    
+    @Column(nullable = false)
+    private int slot;
+    
+    @Column(nullable = false)
+    private long created;
+    
+    // ACTIVE -> INACTIVE
+    @Column(nullable = false)
+    private long deactivated;
+    
+    // INACTIVE -> ACTIVE
+    @Column(nullable = false)
+    private long reactivated;
+    
+    @Column(nullable = false)
+    private long deleted;
+    
+    // Deleted while ACTIVE; deleting an inactive customer does not change the active count
+    @Column(name = "deleted_active", nullable = false)
+    private long deletedActive;
+    
+    // Constructors
+    public CustomerDailyStats() {
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+    
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+    
+    public int getSlot() {
+        return slot;
+    }
+    
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+    
+    public long getCreated() {
+        return created;
+    }
+    
+    public void setCreated(long created) {
+        this.created = created;
+    }
+    
+    public long getDeactivated() {
+        return deactivated;
+    }
+    
+    public void setDeactivated(long deactivated) {
+        this.deactivated = deactivated;
+    }
+    
+    public long getReactivated() {
+        return reactivated;
+    }
+    
+    public void setReactivated(long reactivated) {
+        this.reactivated = reactivated;
+    }
+    
+    public long getDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(long deleted) {
+        this.deleted = deleted;
+    }
+    
+    public long getDeletedActive() {
+        return deletedActive;
+    }
+    
+    public void setDeletedActive(long deletedActive) {
+        this.deletedActive = deletedActive;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.customer_api.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A pair of customers the duplicate detection job thinks are the same person, awaiting review.
+// customerIdA is always the lower id, so a pair has exactly one row.
+@Entity
+@Table(name = "customer_duplicates", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_customer_duplicates_pair", columnNames = {"customer_id_a", "customer_id_b"})
+}, indexes = {
+    // Review queue: pending pairs, best matches first
+    @Index(name = "idx_customer_duplicates_status_score", columnList = "status, score")
+})
+public class CustomerDuplicate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "customer_id_a", nullable = false)
+    private Long customerIdA;
+    
+    @Column(name = "customer_id_b", nullable = false)
+    private Long customerIdB;
+    
+    @Column(nullable = false)
+    private double score;
+    
+    // What matched, e.g. "email,name"
+    @Column(nullable = false, length = 50)
+    private String reasons;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DuplicateStatus status = DuplicateStatus.PENDING;
+    
+    // The run that last found this pair
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;
+    
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+    
+    @Column(name = "reviewed_at")
+    private LocalDateTime reviewedAt;
+    
+    // Constructors
+    public CustomerDuplicate() {
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getCustomerIdA() {
+        return customerIdA;
+    }
+    
+    public void setCustomerIdA(Long customerIdA) {
+        this.customerIdA = customerIdA;
+    }
+    
+    public Long getCustomerIdB() {
+        return customerIdB;
+    }
+    
+    public void setCustomerIdB(Long customerIdB) {
+        this.customerIdB = customerIdB;
+    }
+    
+    public double getScore() {
+        return score;
+    }
+    
+    public void setScore(double score) {
+        this.score = score;
+    }
+    
+    public String getReasons() {
+        return reasons;
+    }
+    
+    public void setReasons(String reasons) {
+        this.reasons = reasons;
+    }
+    
+    public DuplicateStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(DuplicateStatus status) {
+        this.status = status;
+    }
+    
+    public String getRunId() {
+        return runId;
+    }
+    
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+    
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+    
+    public void setDetectedAt(LocalDateTime detectedAt) {
+        this.detectedAt = detectedAt;
+    }
+    
+    public LocalDateTime getReviewedAt() {
+        return reviewedAt;
+    }
+    
+    public void setReviewedAt(LocalDateTime reviewedAt) {
+        this.reviewedAt = reviewedAt;
+    }
+}
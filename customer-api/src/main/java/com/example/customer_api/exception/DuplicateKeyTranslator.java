@@ -0,0 +1,67 @@
+package com.example.customer_api.exception;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+// Maps a unique-key violation raised by the database back to the same
+// DuplicateResourceException messages the old pre-insert exists checks produced.
+public final class DuplicateKeyTranslator {
+
+    // MySQL ER_DUP_ENTRY
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
+    private DuplicateKeyTranslator() {
+    }
+
+    public static RuntimeException translate(DataIntegrityViolationException ex, String customerCode, String email) {
+        String constraint = constraintName(ex);
+        String detail = duplicateDetail(ex);
+
+        if (mentions(constraint, "customer_code")) {
+            return new DuplicateResourceException("Customer code already exists: " + customerCode, ex);
+        }
+        if (mentions(constraint, "email")) {
+            return new DuplicateResourceException("Email already exists: " + email, ex);
+        }
+        // Legacy schemas carry generated key names (UK...), so fall back to the duplicated value
+        if (matchesValue(detail, customerCode)) {
+            return new DuplicateResourceException("Customer code already exists: " + customerCode, ex);
+        }
+        if (matchesValue(detail, email)) {
+            return new DuplicateResourceException("Email already exists: " + email, ex);
+        }
+        return ex;
+    }
+
+    private static String constraintName(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof org.hibernate.exception.ConstraintViolationException cve
+                    && cve.getConstraintName() != null) {
+                return cve.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    // "Duplicate entry 'C001' for key 'customers.uk_customers_customer_code'" on MySQL
+    private static String duplicateDetail(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql
+                    && (sql.getErrorCode() == MYSQL_DUPLICATE_ENTRY || "23505".equals(sql.getSQLState()))) {
+                return sql.getMessage();
+            }
+        }
+        return null;
+    }
+
+    private static boolean mentions(String constraint, String column) {
+        return constraint != null && constraint.contains(column);
+    }
+
+    private static boolean matchesValue(String detail, String value) {
+        return detail != null && value != null
+            && detail.toLowerCase(Locale.ROOT).contains("'" + value.toLowerCase(Locale.ROOT) + "'");
+    }
+}
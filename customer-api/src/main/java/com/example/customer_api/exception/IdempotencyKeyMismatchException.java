@@ -0,0 +1,12 @@
+package com.example.customer_api.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+    
+    public IdempotencyKeyMismatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
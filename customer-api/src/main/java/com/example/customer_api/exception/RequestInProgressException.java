@@ -0,0 +1,12 @@
+package com.example.customer_api.exception;
+
+public class RequestInProgressException extends RuntimeException {
+    
+    public RequestInProgressException(String message) {
+        super(message);
+    }
+    
+    public RequestInProgressException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.customer_api.limiter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.customer_api.dto.ErrorResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Caps in-flight requests per endpoint group (reads, writes, auth), each with its own
+// adaptive limit, and answers the excess with 503 + Retry-After. Runs before everything else
+// that might touch the database.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final String READ = "read";
+    public static final String WRITE = "write";
+    public static final String AUTH = "auth";
+
+    // Always answered, so the limits can be watched during an overload
+    private static final String STATS_PATH = "/api/limits";
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, ConcurrencyLimiter> limiters = new LinkedHashMap<>();
+
+    @Value("${customer.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${customer.limiter.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  @Value("${customer.limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${customer.limiter.min-limit:4}") int minLimit,
+                                  @Value("${customer.limiter.max-limit:200}") int maxLimit,
+                                  @Value("${customer.limiter.smoothing:0.2}") double smoothing,
+                                  @Value("${customer.limiter.rtt-tolerance:1.5}") double tolerance,
+                                  @Value("${customer.limiter.window-size:20}") int windowSize) {
+        this.objectMapper = objectMapper;
+        for (String group : List.of(READ, WRITE, AUTH)) {
+            limiters.put(group, new ConcurrencyLimiter(group,
+                    new GradientLimit(initialLimit, minLimit, maxLimit, smoothing, tolerance, windowSize)));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith(STATS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ConcurrencyLimiter limiter = limiters.get(groupOf(request));
+        if (!limiter.tryAcquire()) {
+            reject(request, response);
+            return;
+        }
+        long started = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            // An async request is still in flight when this thread returns; it frees its slot
+            // when the async work completes, fails or times out
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(limiter, started));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limiter.release(started);
+            }
+        }
+    }
+
+    static String groupOf(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return READ;
+        }
+        return WRITE;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponseDTO error = new ErrorResponseDTO(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            "Too many concurrent requests, please retry",
+            request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        limiters.values().forEach(limiter -> stats.add(limiter.getStats()));
+        return stats;
+    }
+
+    // onComplete also follows an error or timeout, so the slot is released exactly once
+    private static final class ReleaseOnCompletion implements AsyncListener {
+
+        private final ConcurrencyLimiter limiter;
+        private final long started;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnCompletion(ConcurrencyLimiter limiter, long started) {
+            this.limiter = limiter;
+            this.started = started;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A restarted async cycle drops its listeners unless they register again
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(started);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.customer_api.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+// Chooses the pool for read-only transactions: a replica that is within the lag bound
+// (round robin), or the primary when the client must read its own writes or no replica is
+// fresh enough. Read-write transactions never come here; they use forWrites().
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+
+    // Updated by ReplicaLagMonitor; -1 until a replica has reported a heartbeat
+    private final long[] lagMillis;
+    private volatile boolean[] healthy;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong pinnedReads = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+    private final AtomicLong[] replicaReads;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.lagMillis = new long[replicas.size()];
+        this.healthy = new boolean[replicas.size()];
+        this.replicaReads = new AtomicLong[replicas.size()];
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            lagMillis[i] = -1;
+            replicaReads[i] = new AtomicLong();
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReadYourWrites.isPinned()) {
+            pinnedReads.incrementAndGet();
+            return PRIMARY;
+        }
+        boolean[] fresh = healthy;
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(fresh.length, 1));
+        for (int i = 0; i < fresh.length; i++) {
+            int candidate = (start + i) % fresh.length;
+            if (fresh[candidate]) {
+                replicaReads[candidate].incrementAndGet();
+                return candidate;
+            }
+        }
+        fallbackReads.incrementAndGet();
+        return PRIMARY;
+    }
+
+    // The primary pool, counting every connection handed to a read-write transaction
+    public DataSource forWrites() {
+        return new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                writes.incrementAndGet();
+                return super.getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                writes.incrementAndGet();
+                return super.getConnection(username, password);
+            }
+        };
+    }
+
+    HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    List<HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    synchronized void reportLag(int replica, long lag, boolean fresh) {
+        lagMillis[replica] = lag;
+        boolean[] updated = healthy.clone();
+        updated[replica] = fresh;
+        healthy = updated;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> primaryStats = poolStats(primary);
+        primaryStats.put("writeConnections", writes.get());
+        primaryStats.put("pinnedReads", pinnedReads.get());
+        primaryStats.put("fallbackReads", fallbackReads.get());
+
+        long readsOnReplicas = 0;
+        List<Map<String, Object>> replicaStats = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            Map<String, Object> stats = poolStats(replicas.get(i));
+            stats.put("healthy", healthy[i]);
+            stats.put("lagMillis", lagMillis[i]);
+            stats.put("reads", replicaReads[i].get());
+            replicaStats.add(stats);
+            readsOnReplicas += replicaReads[i].get();
+        }
+
+        long reads = readsOnReplicas + pinnedReads.get() + fallbackReads.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("primary", primaryStats);
+        result.put("replicas", replicaStats);
+        // Share of read-only transactions served by a replica
+        result.put("replicaReadRatio", reads == 0 ? 0.0 : (double) readsOnReplicas / reads);
+        return result;
+    }
+
+    private static Map<String, Object> poolStats(HikariDataSource pool) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pool", pool.getPoolName());
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        if (bean != null) {
+            stats.put("activeConnections", bean.getActiveConnections());
+            stats.put("idleConnections", bean.getIdleConnections());
+            stats.put("threadsAwaitingConnection", bean.getThreadsAwaitingConnection());
+        }
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        primary.close();
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.customer_api.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.customer_api.entity.BatchJobCheckpoint;
+
+@Repository
+public interface BatchJobCheckpointRepository extends JpaRepository<BatchJobCheckpoint, Long> {
+    
+    List<BatchJobCheckpoint> findByExecutionIdOrderByPartitionNo(Long executionId);
+    
+    // Records a committed chunk
+    @Modifying
+    @Query("UPDATE BatchJobCheckpoint c SET c.lastKey = :lastKey, c.itemsRead = c.itemsRead + :read, " +
+           "c.itemsWritten = c.itemsWritten + :written, c.done = :done, c.updatedAt = :now WHERE c.id = :id")
+    int advance(@Param("id") Long id,
+                @Param("lastKey") long lastKey,
+                @Param("read") long read,
+                @Param("written") long written,
+                @Param("done") boolean done,
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,17 @@
+package com.example.customer_api.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.customer_api.entity.BatchJobExecution;
+
+@Repository
+public interface BatchJobExecutionRepository extends JpaRepository<BatchJobExecution, Long> {
+    
+    Optional<BatchJobExecution> findFirstByJobNameOrderByIdDesc(String jobName);
+    
+    List<BatchJobExecution> findTop10ByJobNameOrderByIdDesc(String jobName);
+}
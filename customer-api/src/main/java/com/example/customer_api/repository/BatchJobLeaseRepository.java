@@ -0,0 +1,46 @@
+package com.example.customer_api.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.customer_api.entity.BatchJobLease;
+
+// Each statement is a single-row conditional UPDATE, so the row lock decides between nodes
+@Repository
+public interface BatchJobLeaseRepository extends JpaRepository<BatchJobLease, String> {
+    
+    // Takes the lease if it has expired or is already ours
+    @Modifying
+    @Query("UPDATE BatchJobLease l SET l.owner = :owner, l.expiresAt = :until " +
+           "WHERE l.jobName = :jobName AND (l.owner = :owner OR l.expiresAt < :now)")
+    int takeOver(@Param("jobName") String jobName,
+                 @Param("owner") String owner,
+                 @Param("now") LocalDateTime now,
+                 @Param("until") LocalDateTime until);
+    
+    // First use of a job; a concurrent first use fails on the primary key
+    @Modifying
+    @Query(value = "INSERT INTO batch_job_leases (job_name, owner, expires_at) VALUES (:jobName, :owner, :until)",
+           nativeQuery = true)
+    int create(@Param("jobName") String jobName,
+               @Param("owner") String owner,
+               @Param("until") LocalDateTime until);
+    
+    // Fails once another node has taken the lease over
+    @Modifying
+    @Query("UPDATE BatchJobLease l SET l.expiresAt = :until WHERE l.jobName = :jobName AND l.owner = :owner")
+    int renew(@Param("jobName") String jobName,
+              @Param("owner") String owner,
+              @Param("until") LocalDateTime until);
+    
+    @Modifying
+    @Query("UPDATE BatchJobLease l SET l.expiresAt = :now WHERE l.jobName = :jobName AND l.owner = :owner")
+    int release(@Param("jobName") String jobName,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,62 @@
+package com.example.customer_api.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.customer_api.entity.CustomerDailyStats;
+
+@Repository
+public interface CustomerDailyStatsRepository extends JpaRepository<CustomerDailyStats, Long> {
+    
+    // Per-day totals over all slots
+    interface DailyTotals {
+        LocalDate getStatDate();
+        long getCreated();
+        long getDeactivated();
+        long getReactivated();
+        long getDeleted();
+        long getDeletedActive();
+    }
+    
+    // Adds to one (day, slot) row, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO customer_daily_stats " +
+                   "(stat_date, slot, created, deactivated, reactivated, deleted, deleted_active) " +
+                   "VALUES (:day, :slot, :created, :deactivated, :reactivated, :deleted, :deletedActive) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "created = created + VALUES(created), " +
+                   "deactivated = deactivated + VALUES(deactivated), " +
+                   "reactivated = reactivated + VALUES(reactivated), " +
+                   "deleted = deleted + VALUES(deleted), " +
+                   "deleted_active = deleted_active + VALUES(deleted_active)",
+           nativeQuery = true)
+    int increment(@Param("day") LocalDate day,
+                  @Param("slot") int slot,
+                  @Param("created") long created,
+                  @Param("deactivated") long deactivated,
+                  @Param("reactivated") long reactivated,
+                  @Param("deleted") long deleted,
+                  @Param("deletedActive") long deletedActive);
+    
+    // Reads at most (slots x days) rows, whatever the size of the customers table
+    @Query("SELECT s.statDate AS statDate, SUM(s.created) AS created, SUM(s.deactivated) AS deactivated, " +
+           "SUM(s.reactivated) AS reactivated, SUM(s.deleted) AS deleted, SUM(s.deletedActive) AS deletedActive " +
+           "FROM CustomerDailyStats s WHERE s.statDate BETWEEN :from AND :to " +
+           "GROUP BY s.statDate ORDER BY s.statDate")
+    List<DailyTotals> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Query("SELECT DISTINCT s.statDate FROM CustomerDailyStats s WHERE s.statDate BETWEEN :from AND :to")
+    List<LocalDate> findDaysBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CustomerDailyStats s WHERE s.statDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
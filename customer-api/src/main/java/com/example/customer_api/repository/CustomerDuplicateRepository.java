@@ -0,0 +1,16 @@
+package com.example.customer_api.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.customer_api.entity.CustomerDuplicate;
+import com.example.customer_api.entity.DuplicateStatus;
+
+// Written by DuplicateDetectionJob with multi-row native upserts; read here for review
+@Repository
+public interface CustomerDuplicateRepository extends JpaRepository<CustomerDuplicate, Long> {
+    
+    Page<CustomerDuplicate> findByStatusOrderByScoreDesc(DuplicateStatus status, Pageable pageable);
+}
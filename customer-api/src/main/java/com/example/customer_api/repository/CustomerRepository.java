@@ -1,9 +1,13 @@
 package com.example.customer_api.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,8 +15,10 @@ import org.springframework.stereotype.Repository;
 import com.example.customer_api.entity.Customer;
 import com.example.customer_api.entity.CustomerStatus;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerWriteRepository {
     
     Optional<Customer> findByCustomerCode(String customerCode);
     
@@ -24,21 +30,129 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     
     List<Customer> findByStatus(CustomerStatus status);
     
+    // Patterns come from SearchKeys: prefixes on the generated search-key columns, so each
+    // branch is an index range scan (MySQL merges the three with index_merge union)
     @Query("SELECT c FROM Customer c WHERE " +
-           "LOWER(c.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(c.customerCode) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Customer> searchCustomers(@Param("keyword") String keyword);
+           "c.fullNameLc LIKE :prefix ESCAPE '!' OR " +
+           "c.emailLc LIKE :prefix ESCAPE '!' OR " +
+           "c.customerCode LIKE :codePrefix ESCAPE '!'")
+    List<Customer> searchCustomers(@Param("prefix") String prefix,
+                                   @Param("codePrefix") String codePrefix);
+
+    @Query("SELECT c FROM Customer c WHERE c.emailDomain LIKE :domainPrefix ESCAPE '!'")
+    List<Customer> searchByEmailDomain(@Param("domainPrefix") String domainPrefix);
 
+    // Phone matches when the digits start or end with the given digits
     @Query("SELECT c FROM Customer c WHERE " +
-        "(:name IS NULL OR LOWER(c.fullName) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-        "(:email IS NULL OR LOWER(c.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
+        "(:name IS NULL OR c.fullNameLc LIKE :name ESCAPE '!') AND " +
+        "(:email IS NULL OR c.emailLc LIKE :email ESCAPE '!') AND " +
+        "(:emailDomain IS NULL OR c.emailDomain LIKE :emailDomain ESCAPE '!') AND " +
         "(:status IS NULL OR c.status = :status) AND " +
-        "(:phone IS NULL OR c.phone LIKE CONCAT('%', :phone, '%')) AND " +
-        "(:customerCode IS NULL OR LOWER(c.customerCode) LIKE LOWER(CONCAT('%', :customerCode, '%')))")
+        "(:phone IS NULL OR c.phoneDigits LIKE :phone OR c.phoneDigitsReversed LIKE :phoneReversed) AND " +
+        "(:customerCode IS NULL OR c.customerCode LIKE :customerCode ESCAPE '!')")
     List<Customer> advancedSearch(@Param("name") String name,
                                 @Param("email") String email,
+                                @Param("emailDomain") String emailDomain,
                                 @Param("status") CustomerStatus status,
                                 @Param("phone") String phone,
+                                @Param("phoneReversed") String phoneReversed,
                                 @Param("customerCode") String customerCode);
+
+    // Change feed: rows touched after the (updatedAt, id) cursor, bounded by :until
+    @Query("SELECT c FROM Customer c WHERE " +
+           "(c.updatedAt > :since OR (c.updatedAt = :since AND c.id > :lastId)) " +
+           "AND c.updatedAt <= :until " +
+           "ORDER BY c.updatedAt ASC, c.id ASC")
+    List<Customer> findChangedSince(@Param("since") LocalDateTime since,
+                                    @Param("lastId") Long lastId,
+                                    @Param("until") LocalDateTime until,
+                                    Pageable pageable);
+
+    // One DELETE instead of existsById + deleteById (which selects before deleting)
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id = :id")
+    int deleteCustomerById(@Param("id") Long id);
+
+    // The status a delete is about to remove, row-locked so it cannot change before the DELETE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.status FROM Customer c WHERE c.id = :id")
+    Optional<CustomerStatus> findStatusForUpdate(@Param("id") Long id);
+
+    // Affects a row only on a real transition; the row lock makes exactly one writer see it
+    @Modifying
+    @Query("UPDATE Customer c SET c.status = :status WHERE c.id = :id AND c.status <> :status")
+    int changeStatus(@Param("id") Long id, @Param("status") CustomerStatus status);
+
+    // Key range for batch jobs
+    interface IdRange {
+        Long getMinId();
+        Long getMaxId();
+    }
+
+    @Query("SELECT MIN(c.id) AS minId, MAX(c.id) AS maxId FROM Customer c")
+    IdRange findIdRange();
+
+    // DegradedReads snapshot: only the columns a CustomerResponseDTO carries, in id order
+    @Query("SELECT c.id, c.customerCode, c.fullName, c.email, c.phone, c.address, c.status, c.createdAt, c.version " +
+           "FROM Customer c ORDER BY c.id")
+    List<Object[]> findSnapshotRows(Pageable pageable);
+
+    // DormantCustomerJob: active customers untouched since the cutoff, by id within a range
+    @Query("SELECT c.id FROM Customer c WHERE c.id > :afterId AND c.id <= :toId " +
+           "AND c.status = :status AND c.updatedAt < :cutoff ORDER BY c.id")
+    List<Long> findIdsNotUpdatedSince(@Param("afterId") long afterId,
+                                      @Param("toId") long toId,
+                                      @Param("status") CustomerStatus status,
+                                      @Param("cutoff") LocalDateTime cutoff,
+                                      Pageable pageable);
+
+    // Re-checks the condition, so a customer updated since it was read stays active
+    @Modifying
+    @Query("UPDATE Customer c SET c.status = :inactive, c.updatedAt = :now, c.version = c.version + 1 " +
+           "WHERE c.id IN :ids AND c.status = :active AND c.updatedAt < :cutoff")
+    int deactivateNotUpdatedSince(@Param("ids") List<Long> ids,
+                                  @Param("cutoff") LocalDateTime cutoff,
+                                  @Param("now") LocalDateTime now,
+                                  @Param("active") CustomerStatus active,
+                                  @Param("inactive") CustomerStatus inactive);
+
+    // Backfill of customer_daily_stats: [day, count] rows
+    @Query(value = "SELECT CAST(created_at AS DATE), COUNT(*) FROM customers " +
+                   "WHERE created_at >= :from AND created_at < :to GROUP BY CAST(created_at AS DATE)",
+           nativeQuery = true)
+    List<Object[]> countCreatedPerDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(value = "SELECT CAST(updated_at AS DATE), COUNT(*) FROM customers " +
+                   "WHERE status = 'INACTIVE' AND updated_at >= :from AND updated_at < :to " +
+                   "GROUP BY CAST(updated_at AS DATE)",
+           nativeQuery = true)
+    List<Object[]> countInactivePerDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // True when an upsert hits this customer's own row and actually changes it
+    String UPSERT_CHANGES_ROW = "customer_code = VALUES(customer_code) AND NOT (" +
+                                "full_name <=> VALUES(full_name) AND email <=> VALUES(email) AND " +
+                                "phone <=> VALUES(phone) AND address <=> VALUES(address))";
+
+    // Single-statement sync by customer code. MySQL reports 1 row for an insert,
+    // 2 for an update and 0 when nothing changed. The IF(customer_code = ...) guards
+    // stop a collision on the email key from overwriting some other customer's row;
+    // version and updated_at are assigned first so they still see the old column values.
+    @Modifying
+    @Query(value = "INSERT INTO customers " +
+                   "(customer_code, full_name, email, phone, address, status, created_at, updated_at) " +
+                   "VALUES (:customerCode, :fullName, :email, :phone, :address, 'ACTIVE', :now, :now) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "version = IF(" + UPSERT_CHANGES_ROW + ", version + 1, version), " +
+                   "updated_at = IF(" + UPSERT_CHANGES_ROW + ", VALUES(updated_at), updated_at), " +
+                   "full_name = IF(customer_code = VALUES(customer_code), VALUES(full_name), full_name), " +
+                   "email = IF(customer_code = VALUES(customer_code), VALUES(email), email), " +
+                   "phone = IF(customer_code = VALUES(customer_code), VALUES(phone), phone), " +
+                   "address = IF(customer_code = VALUES(customer_code), VALUES(address), address)",
+           nativeQuery = true)
+    int upsertByCustomerCode(@Param("customerCode") String customerCode,
+                             @Param("fullName") String fullName,
+                             @Param("email") String email,
+                             @Param("phone") String phone,
+                             @Param("address") String address,
+                             @Param("now") LocalDateTime now);
 }
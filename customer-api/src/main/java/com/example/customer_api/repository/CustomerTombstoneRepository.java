@@ -0,0 +1,26 @@
+package com.example.customer_api.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.customer_api.entity.CustomerTombstone;
+
+@Repository
+public interface CustomerTombstoneRepository extends JpaRepository<CustomerTombstone, Long> {
+    
+    // Keyset scan ordered the same way as CustomerRepository.findChangedSince
+    @Query("SELECT t FROM CustomerTombstone t WHERE " +
+           "(t.deletedAt > :since OR (t.deletedAt = :since AND t.customerId > :lastId)) " +
+           "AND t.deletedAt <= :until " +
+           "ORDER BY t.deletedAt ASC, t.customerId ASC")
+    List<CustomerTombstone> findDeletedSince(@Param("since") LocalDateTime since,
+                                             @Param("lastId") Long lastId,
+                                             @Param("until") LocalDateTime until,
+                                             Pageable pageable);
+}
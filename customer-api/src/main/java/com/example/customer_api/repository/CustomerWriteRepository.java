@@ -0,0 +1,17 @@
+package com.example.customer_api.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.customer_api.entity.Customer;
+
+// Fragment of CustomerRepository for writes that must run as one statement
+public interface CustomerWriteRepository {
+    
+    // UPDATE customers SET <columns>, updated_at, version = version + 1 WHERE id = ? [AND version = ?]
+    // Keys are Customer attribute names; returns the number of rows updated (0 or 1).
+    int updateColumns(Long id, Long expectedVersion, Map<String, Object> columns);
+    
+    // One multi-row INSERT for new ACTIVE customers; all rows are written or none are
+    int insertAll(List<Customer> customers);
+}
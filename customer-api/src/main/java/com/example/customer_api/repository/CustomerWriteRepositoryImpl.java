@@ -0,0 +1,75 @@
+package com.example.customer_api.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.customer_api.entity.Customer;
+
+public class CustomerWriteRepositoryImpl implements CustomerWriteRepository {
+    
+    // Only these attributes may be written through the dynamic update
+    private static final Set<String> UPDATABLE = Set.of("fullName", "email", "phone", "address", "status");
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional
+    public int updateColumns(Long id, Long expectedVersion, Map<String, Object> columns) {
+        StringBuilder jpql = new StringBuilder("UPDATE Customer c SET ");
+        for (String attribute : columns.keySet()) {
+            if (!UPDATABLE.contains(attribute)) {
+                throw new IllegalArgumentException("Attribute cannot be updated: " + attribute);
+            }
+            jpql.append("c.").append(attribute).append(" = :").append(attribute).append(", ");
+        }
+        jpql.append("c.updatedAt = :updatedAt, c.version = c.version + 1 WHERE c.id = :id");
+        if (expectedVersion != null) {
+            jpql.append(" AND c.version = :version");
+        }
+        
+        Query query = entityManager.createQuery(jpql.toString());
+        columns.forEach(query::setParameter);
+        query.setParameter("updatedAt", LocalDateTime.now());
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return query.executeUpdate();
+    }
+    
+    @Override
+    @Transactional
+    public int insertAll(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO customers (customer_code, full_name, email, phone, address, status, created_at, updated_at, version) VALUES ");
+        for (int i = 0; i < customers.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, 'ACTIVE', ?, ?, 0)");
+        }
+        
+        Query query = entityManager.createNativeQuery(sql.toString());
+        LocalDateTime now = LocalDateTime.now();
+        int position = 1;
+        for (Customer customer : customers) {
+            query.setParameter(position++, customer.getCustomerCode());
+            query.setParameter(position++, customer.getFullName());
+            query.setParameter(position++, customer.getEmail());
+            query.setParameter(position++, customer.getPhone());
+            query.setParameter(position++, customer.getAddress());
+            query.setParameter(position++, now);
+            query.setParameter(position++, now);
+        }
+        return query.executeUpdate();
+    }
+}
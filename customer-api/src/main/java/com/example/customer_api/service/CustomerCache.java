@@ -0,0 +1,144 @@
+package com.example.customer_api.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.customer_api.dto.CustomerResponseDTO;
+import com.example.customer_api.replica.ReadYourWrites;
+import com.example.customer_api.replica.ReplicaProperties;
+
+// Customers by id, kept coherent with writes from every app on the shared database.
+// Local writes evict on commit; writes from other apps are evicted by CustomerChangeLogPoller.
+// No entry is ever served more than max-staleness-millis after the data it holds was read,
+// and the cache is bypassed entirely while the poller has not completed a poll within that
+// window. Entries loaded from a replica are dated by how far behind a replica may be.
+// Clients pinned to the primary after a write neither read nor fill the cache: a replica
+// read can put the pre-write row back right after the write's eviction.
+@Component
+public class CustomerCache {
+
+    @Value("${customer.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${customer.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${customer.cache.max-staleness-millis:5000}")
+    private long maxStalenessMillis;
+
+    // How old a read routed to a replica can be: the lag bound plus one heartbeat, since lag
+    // is only measured once per heartbeat. 0 when every read goes to the primary.
+    private final long readLagMillis;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped by every eviction; a load that raced with one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Start time of the last poll that completed; 0 until the poller has run once
+    private volatile long lastSyncedAt;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public CustomerCache(ReplicaProperties replicaProperties) {
+        this.readLagMillis = replicaProperties.isEnabled()
+                ? replicaProperties.getMaxLagMillis() + replicaProperties.getHeartbeatMillis()
+                : 0;
+    }
+
+    public CustomerResponseDTO get(Long id, Supplier<CustomerResponseDTO> loader) {
+        long now = System.currentTimeMillis();
+        if (!enabled || ReadYourWrites.isPinned() || now - lastSyncedAt > maxStalenessMillis) {
+            return loader.get();
+        }
+
+        Entry entry = entries.get(id);
+        if (entry != null && now - entry.loadedAt <= maxStalenessMillis) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+
+        misses.incrementAndGet();
+        long stamp = invalidations.get();
+        CustomerResponseDTO value = loader.get();
+        // A replica read that may already be past max-staleness is not cached at all
+        if (readLagMillis < maxStalenessMillis && (entries.size() < maxEntries || entries.containsKey(id))) {
+            entries.put(id, new Entry(value, now - readLagMillis));
+            // An eviction may have slipped in between the read and the put
+            if (invalidations.get() != stamp) {
+                entries.remove(id);
+            }
+        }
+        return value;
+    }
+
+    public void evict(Long id) {
+        invalidations.incrementAndGet();
+        if (entries.remove(id) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    // For writes inside a transaction: evicting before commit would let a concurrent
+    // read cache the old row again, so evict once the new row is visible
+    public void evictAfterCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(id);
+            }
+        });
+    }
+
+    public void clear() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    void purgeExpired(long now) {
+        entries.values().removeIf(e -> now - e.loadedAt > maxStalenessMillis);
+    }
+
+    void markSynced(long pollStartedAt) {
+        lastSyncedAt = pollStartedAt;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", entries.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("maxStalenessMillis", maxStalenessMillis);
+        stats.put("readLagMillis", readLagMillis);
+        stats.put("millisSinceLastSync", lastSyncedAt == 0 ? null : System.currentTimeMillis() - lastSyncedAt);
+        return stats;
+    }
+
+    private static final class Entry {
+        private final CustomerResponseDTO value;
+        private final long loadedAt;
+
+        private Entry(CustomerResponseDTO value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
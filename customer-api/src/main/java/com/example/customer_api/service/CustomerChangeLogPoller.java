@@ -0,0 +1,136 @@
+package com.example.customer_api.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.customer_api.entity.CustomerChangeLog;
+import com.example.customer_api.repository.CustomerChangeLogRepository;
+import com.example.customer_api.sharding.ShardContext;
+import com.example.customer_api.sharding.ShardRouter;
+
+// Tails customer_change_log and evicts every customer another app (or this one) changed.
+// Webapp-lab9 runs the same poller against the same table. With sharding each shard has
+// its own change log, tailed with its own cursor.
+@Component
+public class CustomerChangeLogPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerChangeLogPoller.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    // Beyond this many skipped ids we stop tracking gaps and rely on the cache TTL
+    private static final int MAX_TRACKED_GAPS = 1000;
+
+    private final CustomerChangeLogRepository changeLogRepository;
+    private final CustomerCache customerCache;
+    private final ShardRouter shardRouter;
+
+    @Value("${customer.cache.max-staleness-millis:5000}")
+    private long maxStalenessMillis;
+
+    @Value("${customer.cache.change-log-retention-minutes:60}")
+    private long retentionMinutes;
+
+    // Per shard: highest change-log id seen so far; absent until the first poll
+    private final Map<Integer, Long> cursors = new HashMap<>();
+
+    // Per shard: ids below the cursor that were missing when we passed them, either rolled
+    // back or still uncommitted (auto-increment ids are handed out before commit). id -> first seen.
+    private final Map<Integer, Map<Long, Long>> gaps = new HashMap<>();
+
+    private long lastCleanupAt;
+
+    @Autowired
+    public CustomerChangeLogPoller(CustomerChangeLogRepository changeLogRepository, CustomerCache customerCache,
+                                   ShardRouter shardRouter) {
+        this.changeLogRepository = changeLogRepository;
+        this.customerCache = customerCache;
+        this.shardRouter = shardRouter;
+    }
+
+    @Scheduled(fixedDelayString = "${customer.cache.poll-interval-millis:200}")
+    public void poll() {
+        long started = System.currentTimeMillis();
+        try {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                int target = shard;
+                ShardContext.run(target, () -> pollShard(target, started));
+            }
+            customerCache.purgeExpired(started);
+            customerCache.markSynced(started);
+        } catch (DataAccessException e) {
+            // The cache stops serving once max-staleness passes without a successful poll
+            log.warn("Customer change-log poll failed: {}", e.getMessage());
+            return;
+        }
+        cleanup(started);
+    }
+
+    private void pollShard(int shard, long now) {
+        Long cursor = cursors.get(shard);
+        if (cursor == null) {
+            // Nothing is cached yet, so history before now is irrelevant
+            cursors.put(shard, changeLogRepository.findMaxId());
+            return;
+        }
+        Map<Long, Long> shardGaps = gaps.computeIfAbsent(shard, s -> new HashMap<>());
+        recheckGaps(shardGaps, now);
+        cursors.put(shard, readNewEntries(cursor, shardGaps, now));
+    }
+
+    private void recheckGaps(Map<Long, Long> shardGaps, long now) {
+        if (shardGaps.isEmpty()) {
+            return;
+        }
+        for (CustomerChangeLog entry : changeLogRepository.findByIdIn(shardGaps.keySet())) {
+            customerCache.evict(entry.getCustomerId());
+            shardGaps.remove(entry.getId());
+        }
+        // Anything older than the staleness bound has expired from the cache anyway
+        shardGaps.values().removeIf(firstSeen -> now - firstSeen > maxStalenessMillis);
+    }
+
+    private long readNewEntries(long cursor, Map<Long, Long> shardGaps, long now) {
+        List<CustomerChangeLog> page;
+        do {
+            page = changeLogRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, PAGE_SIZE));
+            for (CustomerChangeLog entry : page) {
+                for (long missing = cursor + 1; missing < entry.getId() && shardGaps.size() < MAX_TRACKED_GAPS; missing++) {
+                    shardGaps.put(missing, now);
+                }
+                customerCache.evict(entry.getCustomerId());
+                cursor = entry.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return cursor;
+    }
+
+    // Both apps trim the log; the DELETE is idempotent so running it twice is harmless
+    private void cleanup(long now) {
+        long retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+        if (now - lastCleanupAt < retentionMillis / 10) {
+            return;
+        }
+        lastCleanupAt = now;
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        try {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                ShardContext.run(shard, () -> changeLogRepository.deleteOlderThan(cutoff));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Customer change-log cleanup failed: {}", e.getMessage());
+        }
+    }
+}
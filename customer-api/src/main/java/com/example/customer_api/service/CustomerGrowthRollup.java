@@ -0,0 +1,61 @@
+package com.example.customer_api.service;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.customer_api.entity.CustomerStatus;
+import com.example.customer_api.repository.CustomerDailyStatsRepository;
+
+// Keeps customer_daily_stats in step with the customers table. Must join the write's
+// transaction so a rolled-back write never shows up in the rollup.
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class CustomerGrowthRollup {
+
+    private final CustomerDailyStatsRepository statsRepository;
+
+    // Rows per day; a write locks one of them until it commits
+    @Value("${customer.analytics.rollup-slots:8}")
+    private int slots;
+
+    @Autowired
+    public CustomerGrowthRollup(CustomerDailyStatsRepository statsRepository) {
+        this.statsRepository = statsRepository;
+    }
+
+    public void recordCreated(int count) {
+        if (count > 0) {
+            add(count, 0, 0, 0, 0);
+        }
+    }
+
+    // Only called when the status actually changed
+    public void recordStatusChange(CustomerStatus newStatus) {
+        if (newStatus == CustomerStatus.INACTIVE) {
+            add(0, 1, 0, 0, 0);
+        } else {
+            add(0, 0, 1, 0, 0);
+        }
+    }
+
+    public void recordDeactivated(int count) {
+        if (count > 0) {
+            add(0, count, 0, 0, 0);
+        }
+    }
+
+    public void recordDeleted(boolean wasActive) {
+        add(0, 0, 0, 1, wasActive ? 1 : 0);
+    }
+
+    private void add(long created, long deactivated, long reactivated, long deleted, long deletedActive) {
+        statsRepository.increment(LocalDate.now(), ThreadLocalRandom.current().nextInt(slots),
+                created, deactivated, reactivated, deleted, deletedActive);
+    }
+}
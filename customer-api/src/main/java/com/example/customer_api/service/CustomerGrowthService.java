@@ -0,0 +1,197 @@
+package com.example.customer_api.service;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customer_api.dto.CustomerGrowthDTO;
+import com.example.customer_api.repository.CustomerDailyStatsRepository;
+import com.example.customer_api.repository.CustomerDailyStatsRepository.DailyTotals;
+import com.example.customer_api.repository.CustomerRepository;
+import com.example.customer_api.sharding.ShardContext;
+import com.example.customer_api.sharding.ShardFanOut;
+import com.example.customer_api.sharding.ShardRouter;
+
+// Growth analytics served from customer_daily_stats only, so a query costs the same for
+// 1,000 or 100 million customers. The backfill rebuilds days from before the rollup existed.
+@Service
+public class CustomerGrowthService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerGrowthService.class);
+
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+    public static final String MONTH = "month";
+
+    private final CustomerDailyStatsRepository statsRepository;
+    private final CustomerRepository customerRepository;
+    private final ShardRouter shardRouter;
+    private final ShardFanOut fanOut;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate writeTx;
+
+    @Value("${customer.analytics.max-range-days:3660}")
+    private int maxRangeDays;
+
+    @Value("${customer.analytics.backfill-chunk-days:31}")
+    private int backfillChunkDays;
+
+    @Autowired
+    public CustomerGrowthService(CustomerDailyStatsRepository statsRepository, CustomerRepository customerRepository,
+                                 ShardRouter shardRouter, ShardFanOut fanOut,
+                                 PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.customerRepository = customerRepository;
+        this.shardRouter = shardRouter;
+        this.fanOut = fanOut;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    // One entry per period in [from, to], including periods with no activity
+    public List<CustomerGrowthDTO> getGrowth(String granularity, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        String unit = granularity.toLowerCase();
+        if (!unit.equals(DAY) && !unit.equals(WEEK) && !unit.equals(MONTH)) {
+            throw new IllegalArgumentException("granularity must be day, week or month");
+        }
+
+        // period start -> created, deactivated, reactivated, deleted, deleted while active
+        Map<LocalDate, long[]> periods = new TreeMap<>();
+        for (LocalDate period = periodStart(from, unit); !period.isAfter(to); period = nextPeriod(period, unit)) {
+            periods.put(period, new long[5]);
+        }
+        // Read-only, so the rollup can be read from a replica
+        List<List<DailyTotals>> perShard = fanOut.onEveryShard(
+                shard -> readOnlyTx.execute(status -> statsRepository.sumByDay(from, to)));
+        for (List<DailyTotals> days : perShard) {
+            for (DailyTotals day : days) {
+                long[] sums = periods.get(periodStart(day.getStatDate(), unit));
+                sums[0] += day.getCreated();
+                sums[1] += day.getDeactivated();
+                sums[2] += day.getReactivated();
+                sums[3] += day.getDeleted();
+                sums[4] += day.getDeletedActive();
+            }
+        }
+
+        List<CustomerGrowthDTO> growth = new ArrayList<>(periods.size());
+        periods.forEach((start, s) -> growth.add(
+                new CustomerGrowthDTO(start, s[0], s[1], s[2], s[3], s[0] + s[2] - s[1] - s[4])));
+        return growth;
+    }
+
+    // Rebuilds days in [from, to] from the customers table, one chunk of days per transaction.
+    // Days that already have rollup rows are left alone unless overwrite is set. Only
+    // created and deactivated can be recovered: a deactivation is dated by the customer's
+    // last update, and deletions and reactivations leave nothing to count.
+    public Map<String, Object> backfill(LocalDate from, LocalDate to, boolean overwrite) {
+        checkRange(from, to);
+        if (!to.isBefore(LocalDate.now())) {
+            // Today's rows are still being written by live traffic
+            throw new IllegalArgumentException("Backfill must end before today");
+        }
+
+        int daysWritten = 0;
+        int daysSkipped = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            for (LocalDate chunk = from; !chunk.isAfter(to); chunk = chunk.plusDays(backfillChunkDays)) {
+                LocalDate chunkStart = chunk;
+                LocalDate chunkEnd = chunk.plusDays(backfillChunkDays - 1).isAfter(to)
+                        ? to : chunk.plusDays(backfillChunkDays - 1);
+                int[] result = ShardContext.call(shard,
+                        () -> writeTx.execute(status -> backfillChunk(chunkStart, chunkEnd, overwrite)));
+                daysWritten += result[0];
+                daysSkipped += result[1];
+            }
+        }
+        log.info("Customer growth backfill {} to {}: {} day rows written, {} days skipped",
+                 from, to, daysWritten, daysSkipped);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("from", from);
+        summary.put("to", to);
+        summary.put("overwrite", overwrite);
+        summary.put("daysWritten", daysWritten);
+        summary.put("daysSkipped", daysSkipped);
+        return summary;
+    }
+
+    private int[] backfillChunk(LocalDate from, LocalDate to, boolean overwrite) {
+        Set<LocalDate> existing = new HashSet<>();
+        if (overwrite) {
+            statsRepository.deleteBetween(from, to);
+        } else {
+            existing.addAll(statsRepository.findDaysBetween(from, to));
+        }
+
+        Map<LocalDate, long[]> days = new TreeMap<>();
+        for (Object[] row : customerRepository.countCreatedPerDay(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            days.computeIfAbsent(toLocalDate(row[0]), d -> new long[2])[0] = ((Number) row[1]).longValue();
+        }
+        for (Object[] row : customerRepository.countInactivePerDay(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            days.computeIfAbsent(toLocalDate(row[0]), d -> new long[2])[1] = ((Number) row[1]).longValue();
+        }
+
+        int written = 0;
+        int skipped = 0;
+        for (Map.Entry<LocalDate, long[]> day : days.entrySet()) {
+            if (existing.contains(day.getKey())) {
+                skipped++;
+                continue;
+            }
+            long[] counts = day.getValue();
+            statsRepository.increment(day.getKey(), 0, counts[0], counts[1], 0, 0, 0);
+            written++;
+        }
+        return new int[] {written, skipped};
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxRangeDays + " days");
+        }
+    }
+
+    private static LocalDate periodStart(LocalDate day, String unit) {
+        return switch (unit) {
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+            default -> day;
+        };
+    }
+
+    private static LocalDate nextPeriod(LocalDate start, String unit) {
+        return switch (unit) {
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+            default -> start.plusDays(1);
+        };
+    }
+
+    // MySQL's driver returns DATE columns as java.sql.Date, H2 as LocalDate
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.customer_api.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.dto.IngestionStatusDTO;
+import com.example.customer_api.entity.Customer;
+import com.example.customer_api.exception.DuplicateKeyTranslator;
+import com.example.customer_api.exception.IngestionQueueFullException;
+import com.example.customer_api.exception.ResourceNotFoundException;
+import com.example.customer_api.repository.CustomerRepository;
+import com.example.customer_api.sharding.ShardContext;
+import com.example.customer_api.sharding.ShardRouter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Write-behind ingestion for bulk partner feeds: requests are validated and queued,
+// and a single background writer turns whatever is queued into multi-row INSERTs.
+// Nothing here is durable; queued items are lost if the process dies.
+@Service
+public class CustomerIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerIngestionService.class);
+
+    // MySQL allows 65,535 placeholders per statement and each row binds 7
+    private static final int MAX_BATCH_SIZE = 9000;
+
+    private final CustomerRepository customerRepository;
+    private final ShardRouter shardRouter;
+    private final CustomerGrowthRollup growthRollup;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${customer.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${customer.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${customer.ingest.max-tracked:100000}")
+    private int maxTracked;
+
+    private BlockingQueue<Pending> queue;
+
+    // trackingId -> status; oldest entries are forgotten once maxTracked is reached
+    private Map<String, IngestionStatusDTO> statuses;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile long lastBatchMillis;
+
+    @Autowired
+    public CustomerIngestionService(CustomerRepository customerRepository, ShardRouter shardRouter,
+                                    CustomerGrowthRollup growthRollup, PlatformTransactionManager transactionManager) {
+        this.customerRepository = customerRepository;
+        this.shardRouter = shardRouter;
+        this.growthRollup = growthRollup;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void start() {
+        batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        statuses = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IngestionStatusDTO> eldest) {
+                return size() > maxTracked;
+            }
+        };
+        running = true;
+        writer = new Thread(this::drainLoop, "customer-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // The writer keeps draining until the queue is empty, then exits
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public IngestionStatusDTO submit(CustomerRequestDTO requestDTO) {
+        IngestionStatusDTO status = new IngestionStatusDTO(UUID.randomUUID().toString(),
+                requestDTO.getCustomerCode(), IngestionState.QUEUED, LocalDateTime.now());
+
+        // Register first so the writer can never finish an item nobody can look up
+        synchronized (statuses) {
+            statuses.put(status.getTrackingId(), status);
+        }
+        if (!running || !queue.offer(new Pending(status.getTrackingId(), requestDTO))) {
+            synchronized (statuses) {
+                statuses.remove(status.getTrackingId());
+            }
+            rejected.incrementAndGet();
+            throw new IngestionQueueFullException("Ingestion queue is full (" + queueCapacity + " items), retry later");
+        }
+        accepted.incrementAndGet();
+        synchronized (statuses) {
+            return snapshot(status);
+        }
+    }
+
+    public IngestionStatusDTO getStatus(String trackingId) {
+        synchronized (statuses) {
+            IngestionStatusDTO status = statuses.get(trackingId);
+            if (status == null) {
+                throw new ResourceNotFoundException("Unknown or expired ingestion tracking id: " + trackingId);
+            }
+            return snapshot(status);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long batchCount = batches.get();
+        long processed = written.get() + failed.get();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("accepted", accepted.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("written", written.get());
+        metrics.put("failed", failed.get());
+        metrics.put("batches", batchCount);
+        metrics.put("averageBatchSize", batchCount == 0 ? 0 : (double) processed / batchCount);
+        metrics.put("lastBatchMillis", lastBatchMillis);
+        return metrics;
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Keep the writer alive; whatever this batch did not finish is reported as FAILED
+                log.error("Customer ingestion batch failed", e);
+                batch.forEach(p -> complete(p, e.getMessage()));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        long started = System.currentTimeMillis();
+        try {
+            // One multi-row INSERT per shard
+            Map<Integer, List<Pending>> byShard = batch.stream()
+                    .collect(Collectors.groupingBy(p -> shardRouter.shardForCode(p.request.getCustomerCode())));
+            byShard.forEach((shard, items) -> ShardContext.run(shard, () -> writeShardBatch(items)));
+        } finally {
+            batches.incrementAndGet();
+            lastBatchMillis = System.currentTimeMillis() - started;
+        }
+    }
+
+    private void writeShardBatch(List<Pending> items) {
+        try {
+            insertCounted(items.stream().map(p -> toEntity(p.request)).toList());
+            items.forEach(p -> complete(p, null));
+        } catch (DataAccessException e) {
+            // One bad row (usually a duplicate code/email) rejects the whole statement;
+            // retry row by row so only the offending items fail
+            for (Pending pending : items) {
+                writeOne(pending);
+            }
+        }
+    }
+
+    private void writeOne(Pending pending) {
+        try {
+            insertCounted(List.of(toEntity(pending.request)));
+            complete(pending, null);
+        } catch (DataIntegrityViolationException e) {
+            RuntimeException translated = DuplicateKeyTranslator.translate(e,
+                    pending.request.getCustomerCode(), pending.request.getEmail());
+            complete(pending, translated.getMessage());
+        } catch (DataAccessException e) {
+            complete(pending, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // The rows and their count in customer_daily_stats commit together
+    private void insertCounted(List<Customer> customers) {
+        transactionTemplate.executeWithoutResult(
+                status -> growthRollup.recordCreated(customerRepository.insertAll(customers)));
+    }
+
+    private void complete(Pending pending, String error) {
+        if (pending.done) {
+            return;
+        }
+        pending.done = true;
+        (error == null ? written : failed).incrementAndGet();
+        synchronized (statuses) {
+            IngestionStatusDTO status = statuses.get(pending.trackingId);
+            if (status != null) {
+                status.setState(error == null ? IngestionState.WRITTEN : IngestionState.FAILED);
+                status.setError(error);
+                status.setCompletedAt(LocalDateTime.now());
+            }
+        }
+    }
+
+    private Customer toEntity(CustomerRequestDTO dto) {
+        Customer customer = new Customer();
+        customer.setCustomerCode(dto.getCustomerCode());
+        customer.setFullName(dto.getFullName());
+        customer.setEmail(dto.getEmail());
+        customer.setPhone(dto.getPhone());
+        customer.setAddress(dto.getAddress());
+        return customer;
+    }
+
+    // Callers get a copy so the writer can keep mutating the tracked instance
+    private IngestionStatusDTO snapshot(IngestionStatusDTO status) {
+        IngestionStatusDTO copy = new IngestionStatusDTO(status.getTrackingId(), status.getCustomerCode(),
+                status.getState(), status.getAcceptedAt());
+        copy.setError(status.getError());
+        copy.setCompletedAt(status.getCompletedAt());
+        return copy;
+    }
+
+    private static final class Pending {
+        private final String trackingId;
+        private final CustomerRequestDTO request;
+        // Only touched by the writer thread
+        private boolean done;
+
+        private Pending(String trackingId, CustomerRequestDTO request) {
+            this.trackingId = trackingId;
+            this.request = request;
+        }
+    }
+}
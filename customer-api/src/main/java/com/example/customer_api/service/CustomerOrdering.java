@@ -0,0 +1,29 @@
+package com.example.customer_api.service;
+
+import java.util.Comparator;
+
+import com.example.customer_api.dto.CustomerResponseDTO;
+
+// In-memory equivalent of the ORDER BY CustomerServiceImpl uses for sortBy/sortDir, ties by id.
+// Text is compared case-insensitively like MySQL's default collation.
+public final class CustomerOrdering {
+
+    public static final Comparator<CustomerResponseDTO> BY_ID = Comparator.comparing(CustomerResponseDTO::getId);
+
+    private CustomerOrdering() {
+    }
+
+    public static Comparator<CustomerResponseDTO> of(String sortBy, String sortDir) {
+        Comparator<CustomerResponseDTO> primary = switch (sortBy) {
+            case "customerCode" -> Comparator.comparing(CustomerResponseDTO::getCustomerCode, String.CASE_INSENSITIVE_ORDER);
+            case "fullName" -> Comparator.comparing(CustomerResponseDTO::getFullName, String.CASE_INSENSITIVE_ORDER);
+            case "email" -> Comparator.comparing(CustomerResponseDTO::getEmail, String.CASE_INSENSITIVE_ORDER);
+            case "createdAt" -> Comparator.comparing(CustomerResponseDTO::getCreatedAt);
+            default -> BY_ID;
+        };
+        if (sortDir.equalsIgnoreCase("desc")) {
+            primary = primary.reversed();
+        }
+        return primary.thenComparing(BY_ID);
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 
 import com.example.customer_api.dto.AdvancedSearchDTO;
+import com.example.customer_api.dto.CustomerChangeFeedDTO;
 import com.example.customer_api.dto.CustomerRequestDTO; 
 import com.example.customer_api.dto.CustomerResponseDTO;
 import com.example.customer_api.dto.CustomerUpdateDTO;
@@ -17,10 +18,14 @@ public interface CustomerService {
     
     CustomerResponseDTO createCustomer(CustomerRequestDTO requestDTO);
     
-    CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO);
+    // expectedVersion (nullable) turns the update into a compare-and-set on Customer.version.
+    // With readBack the updated row is read in the same transaction and returned; null otherwise.
+    CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO, Long expectedVersion, boolean readBack);
     
     void deleteCustomer(Long id);
     
+    CustomerResponseDTO getCustomerByCode(String customerCode);
+    
     List<CustomerResponseDTO> searchCustomers(String keyword);
     
     List<CustomerResponseDTO> getCustomersByStatus(String status);
@@ -31,7 +36,14 @@ public interface CustomerService {
 
     List<CustomerResponseDTO> getAllCustomersSorted(String sortBy, String sortDir);
 
+    // The first limit customers in id order, read as a column projection for the degraded-read snapshot
+    List<CustomerResponseDTO> getCustomersForSnapshot(int limit);
+
     Page<CustomerResponseDTO> getAllCustomersPaginatedAndSorted(int page, int size, String sortBy, String sortDir);
 
-    CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO);
+    CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO, Long expectedVersion, boolean readBack);
+
+    CustomerChangeFeedDTO getChangesSince(String cursor, int limit);
+
+    UpsertOutcome upsertCustomerByCode(String customerCode, CustomerRequestDTO requestDTO);
 }
@@ -1,39 +1,83 @@
 package com.example.customer_api.service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.customer_api.dto.AdvancedSearchDTO;
+import com.example.customer_api.dto.CustomerChangeDTO;
+import com.example.customer_api.dto.CustomerChangeFeedDTO;
 import com.example.customer_api.dto.CustomerRequestDTO;
 import com.example.customer_api.dto.CustomerResponseDTO;
 import com.example.customer_api.dto.CustomerUpdateDTO;
 import com.example.customer_api.entity.Customer;
+import com.example.customer_api.entity.CustomerChangeLog;
 import com.example.customer_api.entity.CustomerStatus;
+import com.example.customer_api.entity.CustomerTombstone;
+import com.example.customer_api.exception.DuplicateKeyTranslator;
 import com.example.customer_api.exception.DuplicateResourceException;
 import com.example.customer_api.exception.ResourceNotFoundException;
+import com.example.customer_api.exception.VersionConflictException;
+import com.example.customer_api.repository.CustomerChangeLogRepository;
 import com.example.customer_api.repository.CustomerRepository;
+import com.example.customer_api.repository.CustomerTombstoneRepository;
 
 @Service
 @Transactional
 public class CustomerServiceImpl implements CustomerService {
     
     private final CustomerRepository customerRepository;
+    private final CustomerTombstoneRepository tombstoneRepository;
+    private final CustomerChangeLogRepository changeLogRepository;
+    private final CustomerCache customerCache;
+    private final RequestCoalescer requestCoalescer;
+    private final CustomerGrowthRollup growthRollup;
+    private final TransactionTemplate readOnlyTx;
+    
+    // Changes younger than this are held back so in-flight transactions can commit first
+    @Value("${customer.changes.settle-millis:1000}")
+    private long changeSettleMillis;
+    
+    @Value("${customer.changes.max-page-size:1000}")
+    private int changeMaxPageSize;
     
     @Autowired
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository,
+                               CustomerTombstoneRepository tombstoneRepository,
+                               CustomerChangeLogRepository changeLogRepository,
+                               CustomerCache customerCache,
+                               RequestCoalescer requestCoalescer,
+                               CustomerGrowthRollup growthRollup,
+                               PlatformTransactionManager transactionManager) {
         this.customerRepository = customerRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.customerCache = customerCache;
+        this.requestCoalescer = requestCoalescer;
+        this.growthRollup = growthRollup;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
     }
     
+    // Read-only transactions may be served by a replica when customer.replicas is enabled
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerResponseDTO> getAllCustomers() {
         return customerRepository.findAll()
                 .stream()
@@ -41,74 +85,83 @@ public class CustomerServiceImpl implements CustomerService {
                 .collect(Collectors.toList());
     }
     
+    // The hot read paths run outside a service transaction: concurrent identical lookups
+    // wait in RequestCoalescer, and they must not each hold a pooled connection while waiting.
+    // Only the lookup that actually runs opens a transaction, read-only so it can use a replica.
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CustomerResponseDTO getCustomerById(Long id) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
-        return convertToResponseDTO(customer);
+        return customerCache.get(id, () -> requestCoalescer.execute("id:" + id, () -> readOnlyTx.execute(tx -> {
+            Customer customer = customerRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+            return convertToResponseDTO(customer);
+        })));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CustomerResponseDTO getCustomerByCode(String customerCode) {
+        return requestCoalescer.execute("code:" + customerCode, () -> readOnlyTx.execute(tx -> {
+            Customer customer = customerRepository.findByCustomerCode(customerCode)
+                    .orElseThrow(() -> new ResourceNotFoundException("Customer not found with code: " + customerCode));
+            return convertToResponseDTO(customer);
+        }));
     }
     
     @Override
     public CustomerResponseDTO createCustomer(CustomerRequestDTO requestDTO) {
-        // Check for duplicates
-        if (customerRepository.existsByCustomerCode(requestDTO.getCustomerCode())) {
-            throw new DuplicateResourceException("Customer code already exists: " + requestDTO.getCustomerCode());
-        }
-        
-        if (customerRepository.existsByEmail(requestDTO.getEmail())) {
-            throw new DuplicateResourceException("Email already exists: " + requestDTO.getEmail());
-        }
-        
         // Convert DTO to Entity
         Customer customer = convertToEntity(requestDTO);
         
-        // Save to database
-        Customer savedCustomer = customerRepository.save(customer);
+        // Save to database; the unique keys on customer_code and email reject duplicates
+        Customer savedCustomer;
+        try {
+            savedCustomer = customerRepository.saveAndFlush(customer);
+        } catch (DataIntegrityViolationException e) {
+            throw DuplicateKeyTranslator.translate(e, requestDTO.getCustomerCode(), requestDTO.getEmail());
+        }
+        growthRollup.recordCreated(1);
         
         // Convert Entity to Response DTO
         return convertToResponseDTO(savedCustomer);
     }
     
     @Override
-    public CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO) {
-        Customer existingCustomer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
-        
-        // Check if email is being changed to an existing one
-        if (!existingCustomer.getEmail().equals(requestDTO.getEmail()) 
-            && customerRepository.existsByEmail(requestDTO.getEmail())) {
-            throw new DuplicateResourceException("Email already exists: " + requestDTO.getEmail());
-        }
-        
-        // Update fields
-        existingCustomer.setFullName(requestDTO.getFullName());
-        existingCustomer.setEmail(requestDTO.getEmail());
-        existingCustomer.setPhone(requestDTO.getPhone());
-        existingCustomer.setAddress(requestDTO.getAddress());
-        
-        // Don't update customerCode (immutable)
-        
-        Customer updatedCustomer = customerRepository.save(existingCustomer);
-        return convertToResponseDTO(updatedCustomer);
+    public CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO, Long expectedVersion, boolean readBack) {
+        // customerCode is immutable; status is only changed through PATCH
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("fullName", requestDTO.getFullName());
+        columns.put("email", requestDTO.getEmail());
+        columns.put("phone", requestDTO.getPhone());
+        columns.put("address", requestDTO.getAddress());
+
+        applyUpdate(id, expectedVersion, columns, requestDTO.getEmail());
+        return readBack ? readUpdated(id) : null;
     }
     
     @Override
     public void deleteCustomer(Long id) {
-        if (!customerRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Customer not found with id: " + id);
-        }
-        customerRepository.deleteById(id);
+        // One locking read by primary key for the rollup's status, then exactly one DELETE
+        CustomerStatus status = customerRepository.findStatusForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+        customerRepository.deleteCustomerById(id);
+        boolean wasActive = status == CustomerStatus.ACTIVE;
+        tombstoneRepository.save(new CustomerTombstone(id));
+        growthRollup.recordDeleted(wasActive);
+        recordChange(id);
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<CustomerResponseDTO> searchCustomers(String keyword) {
-        return customerRepository.searchCustomers(keyword)
+        return requestCoalescer.execute("search:" + keyword, () -> readOnlyTx.execute(tx -> findByKeyword(keyword)
                 .stream()
                 .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList())));
     }
     
     @Override
+    @Transactional(readOnly = true)
 public List<CustomerResponseDTO> getCustomersByStatus(String status) {
     try {
         // Convert String to Enum
@@ -122,6 +175,18 @@ public List<CustomerResponseDTO> getCustomersByStatus(String status) {
         return new ArrayList<>();
     }
 }
+    // Name, email or code prefix; "@domain" searches by email domain
+    private List<Customer> findByKeyword(String keyword) {
+        if (SearchKeys.isDomainQuery(keyword)) {
+            return customerRepository.searchByEmailDomain(SearchKeys.domainPrefix(keyword));
+        }
+        return customerRepository.searchCustomers(SearchKeys.lowerPrefix(keyword), SearchKeys.codePrefix(keyword));
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+    
     // Helper Methods for DTO Conversion
     
     private CustomerResponseDTO convertToResponseDTO(Customer customer) {
@@ -135,6 +200,7 @@ public List<CustomerResponseDTO> getCustomersByStatus(String status) {
         // dto.setStatus(customer.getStatus().toString());
         dto.setStatus(customer.getStatus().toString());
         dto.setCreatedAt(customer.getCreatedAt());
+        dto.setVersion(customer.getVersion());
         return dto;
     }
     
@@ -151,6 +217,7 @@ public List<CustomerResponseDTO> getCustomersByStatus(String status) {
     // CustomerServiceImpl.java - Thêm method này
 
     @Override
+    @Transactional(readOnly = true)
 public List<CustomerResponseDTO> advancedSearch(AdvancedSearchDTO searchDTO) {
     CustomerStatus statusEnum = null;
     
@@ -163,12 +230,25 @@ public List<CustomerResponseDTO> advancedSearch(AdvancedSearchDTO searchDTO) {
         }
     }
     
+    // Every text filter is a prefix on a generated search-key column; an email starting
+    // with '@' filters by domain instead
+    String email = blankToNull(searchDTO.getEmail());
+    String phoneDigits = null;
+    if (blankToNull(searchDTO.getPhone()) != null) {
+        phoneDigits = SearchKeys.digits(searchDTO.getPhone());
+        if (phoneDigits.isEmpty()) {
+            throw new IllegalArgumentException("Phone filter must contain digits");
+        }
+    }
+    
     List<Customer> customers = customerRepository.advancedSearch(
-        searchDTO.getName(),
-        searchDTO.getEmail(),
+        blankToNull(searchDTO.getName()) == null ? null : SearchKeys.lowerPrefix(searchDTO.getName()),
+        email == null || SearchKeys.isDomainQuery(email) ? null : SearchKeys.lowerPrefix(email),
+        email != null && SearchKeys.isDomainQuery(email) ? SearchKeys.domainPrefix(email) : null,
         statusEnum,  // Truyền enum, có thể là null
-        searchDTO.getPhone(),
-        searchDTO.getCustomerCode()
+        phoneDigits == null ? null : phoneDigits + "%",
+        phoneDigits == null ? null : SearchKeys.reversed(phoneDigits) + "%",
+        blankToNull(searchDTO.getCustomerCode()) == null ? null : SearchKeys.codePrefix(searchDTO.getCustomerCode())
     );
     
     return customers.stream()
@@ -178,6 +258,7 @@ public List<CustomerResponseDTO> advancedSearch(AdvancedSearchDTO searchDTO) {
     // CustomerServiceImpl.java - Thêm method này
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CustomerResponseDTO> getAllCustomersPaginated(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Customer> customerPage = customerRepository.findAll(pageable);
@@ -186,10 +267,15 @@ public List<CustomerResponseDTO> advancedSearch(AdvancedSearchDTO searchDTO) {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerResponseDTO> getAllCustomersSorted(String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
+        // Ties in id order, so shard results can be merged and pages never overlap
+        if (!sortBy.equals("id")) {
+            sort = sort.and(Sort.by("id"));
+        }
         
         List<Customer> customers = customerRepository.findAll(sort);
         
@@ -199,10 +285,28 @@ public List<CustomerResponseDTO> advancedSearch(AdvancedSearchDTO searchDTO) {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<CustomerResponseDTO> getCustomersForSnapshot(int limit) {
+        List<CustomerResponseDTO> customers = new ArrayList<>();
+        for (Object[] row : customerRepository.findSnapshotRows(PageRequest.of(0, limit))) {
+            CustomerResponseDTO dto = new CustomerResponseDTO((Long) row[0], (String) row[1], (String) row[2],
+                    (String) row[3], (String) row[4], (String) row[5], row[6].toString(), (LocalDateTime) row[7]);
+            dto.setVersion((Long) row[8]);
+            customers.add(dto);
+        }
+        return customers;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<CustomerResponseDTO> getAllCustomersPaginatedAndSorted(int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
+        // Ties in id order, so shard results can be merged and pages never overlap
+        if (!sortBy.equals("id")) {
+            sort = sort.and(Sort.by("id"));
+        }
         
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<Customer> customerPage = customerRepository.findAll(pageable);
@@ -211,41 +315,184 @@ public List<CustomerResponseDTO> advancedSearch(AdvancedSearchDTO searchDTO) {
     }
 
     @Override
-    public CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO) {
-        Customer existingCustomer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
-        
-        // Check if email is being changed to an existing one
-        if (updateDTO.getEmail() != null && 
-            !existingCustomer.getEmail().equals(updateDTO.getEmail()) && 
-            customerRepository.existsByEmail(updateDTO.getEmail())) {
-            throw new DuplicateResourceException("Email already exists: " + updateDTO.getEmail());
-        }
-        
+    public CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO, Long expectedVersion, boolean readBack) {
         // Only update non-null fields
+        Map<String, Object> columns = new LinkedHashMap<>();
         if (updateDTO.getFullName() != null) {
-            existingCustomer.setFullName(updateDTO.getFullName());
+            columns.put("fullName", updateDTO.getFullName());
         }
         if (updateDTO.getEmail() != null) {
-            existingCustomer.setEmail(updateDTO.getEmail());
+            columns.put("email", updateDTO.getEmail());
         }
         if (updateDTO.getPhone() != null) {
-            existingCustomer.setPhone(updateDTO.getPhone());
+            columns.put("phone", updateDTO.getPhone());
         }
         if (updateDTO.getAddress() != null) {
-            existingCustomer.setAddress(updateDTO.getAddress());
+            columns.put("address", updateDTO.getAddress());
         }
+        CustomerStatus status = null;
         if (updateDTO.getStatus() != null) {
             try {
-                CustomerStatus status = CustomerStatus.valueOf(updateDTO.getStatus().toUpperCase());
-                existingCustomer.setStatus(status);
+                status = CustomerStatus.valueOf(updateDTO.getStatus().toUpperCase());
             } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Invalid status value. Must be ACTIVE or INACTIVE");
             }
         }
         
-        Customer updatedCustomer = customerRepository.save(existingCustomer);
-        return convertToResponseDTO(updatedCustomer);
+        // Nothing to write, but the caller still expects a 404 for an unknown id
+        if (columns.isEmpty() && status == null) {
+            if (!readBack && !customerRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Customer not found with id: " + id);
+            }
+            return readBack ? readUpdated(id) : null;
+        }
+
+        // changeStatus is the only statement that writes status; the UPDATE below sets the
+        // other columns and bumps the version, and if it fails the transition rolls back with it
+        boolean transitioned = status != null && customerRepository.changeStatus(id, status) == 1;
+        applyUpdate(id, expectedVersion, columns, updateDTO.getEmail());
+        if (transitioned) {
+            growthRollup.recordStatusChange(status);
+        }
+        return readBack ? readUpdated(id) : null;
+    }
+
+    // The row as this transaction left it, read on the connection that wrote it: never a
+    // replica or the cache, and no second transaction
+    private CustomerResponseDTO readUpdated(Long id) {
+        return customerRepository.findById(id)
+                .map(this::convertToResponseDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+    }
+    
+    // DormantCustomerJob's write: one UPDATE and one change-log INSERT per chunk, in the job's
+    // chunk transaction. Customers touched since the job read them are left alone; logging
+    // them anyway only costs other apps a needless cache eviction.
+    public int deactivateNotUpdatedSince(List<Long> ids, LocalDateTime cutoff) {
+        LocalDateTime now = LocalDateTime.now();
+        int changed = customerRepository.deactivateNotUpdatedSince(ids, cutoff, now,
+                CustomerStatus.ACTIVE, CustomerStatus.INACTIVE);
+        if (changed > 0) {
+            changeLogRepository.logChanges(ids, now);
+            ids.forEach(customerCache::evictAfterCommit);
+            growthRollup.recordDeactivated(changed);
+        }
+        return changed;
+    }
+    
+    // One UPDATE ... WHERE id = ? [AND version = ?]; the affected-row count decides 404 vs 409.
+    // Only a failed update pays for the extra existence check.
+    private void applyUpdate(Long id, Long expectedVersion, Map<String, Object> columns, String email) {
+        int updated;
+        try {
+            updated = customerRepository.updateColumns(id, expectedVersion, columns);
+        } catch (DataIntegrityViolationException e) {
+            throw DuplicateKeyTranslator.translate(e, null, email);
+        }
+        
+        if (updated == 0) {
+            if (expectedVersion != null && customerRepository.existsById(id)) {
+                throw new VersionConflictException("Customer " + id + " was modified concurrently; expected version " + expectedVersion);
+            }
+            throw new ResourceNotFoundException("Customer not found with id: " + id);
+        }
+        recordChange(id);
+    }
+    
+    // Same transaction as the write, so other apps see the log row exactly when they see the change.
+    // Creates are not logged: a customer that did not exist cannot be in anyone's cache.
+    private void recordChange(Long id) {
+        changeLogRepository.save(new CustomerChangeLog(id));
+        customerCache.evictAfterCommit(id);
+    }
+    
+    // Not read-only, so it always runs on the primary: a lagging replica could reveal changes
+    // older than a cursor the client has already moved past
+    @Override
+    public CustomerChangeFeedDTO getChangesSince(String cursor, int limit) {
+        if (limit < 1 || limit > changeMaxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + changeMaxPageSize);
+        }
+        
+        ChangeCursor from = ChangeCursor.decode(cursor);
+        LocalDateTime until = LocalDateTime.now().minusNanos(changeSettleMillis * 1_000_000L);
+        Pageable window = PageRequest.of(0, limit + 1);
+        
+        List<Customer> updated = customerRepository.findChangedSince(
+                from.getTimestamp(), from.getId(), until, window);
+        List<CustomerTombstone> deleted = tombstoneRepository.findDeletedSince(
+                from.getTimestamp(), from.getId(), until, window);
+        
+        // Both lists are sorted by (time, id); merge them and keep the first "limit" entries
+        List<CustomerChangeDTO> changes = new ArrayList<>(limit);
+        int u = 0;
+        int d = 0;
+        while (changes.size() < limit && (u < updated.size() || d < deleted.size())) {
+            boolean takeUpdate;
+            if (u >= updated.size()) {
+                takeUpdate = false;
+            } else if (d >= deleted.size()) {
+                takeUpdate = true;
+            } else {
+                Customer c = updated.get(u);
+                CustomerTombstone t = deleted.get(d);
+                int cmp = c.getUpdatedAt().compareTo(t.getDeletedAt());
+                takeUpdate = cmp < 0 || (cmp == 0 && c.getId() <= t.getCustomerId());
+            }
+            
+            if (takeUpdate) {
+                Customer c = updated.get(u++);
+                changes.add(new CustomerChangeDTO(CustomerChangeDTO.TYPE_UPSERT, c.getId(),
+                        c.getUpdatedAt(), convertToResponseDTO(c)));
+            } else {
+                CustomerTombstone t = deleted.get(d++);
+                changes.add(new CustomerChangeDTO(CustomerChangeDTO.TYPE_DELETE, t.getCustomerId(),
+                        t.getDeletedAt(), null));
+            }
+        }
+        
+        boolean hasMore = u < updated.size() || d < deleted.size();
+        String nextCursor = changes.isEmpty()
+                ? from.encode()
+                : new ChangeCursor(changes.get(changes.size() - 1).getChangedAt(),
+                                   changes.get(changes.size() - 1).getCustomerId()).encode();
+        
+        return new CustomerChangeFeedDTO(changes, nextCursor, hasMore);
     }
-}
 
+    @Override
+    public UpsertOutcome upsertCustomerByCode(String customerCode, CustomerRequestDTO requestDTO) {
+        if (!customerCode.equals(requestDTO.getCustomerCode())) {
+            throw new IllegalArgumentException("Customer code in body does not match path: " + requestDTO.getCustomerCode());
+        }
+        
+        int affected;
+        try {
+            affected = customerRepository.upsertByCustomerCode(customerCode, requestDTO.getFullName(),
+                    requestDTO.getEmail(), requestDTO.getPhone(), requestDTO.getAddress(), LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            throw DuplicateKeyTranslator.translate(e, customerCode, requestDTO.getEmail());
+        }
+        
+        if (affected == 1) {
+            growthRollup.recordCreated(1);
+            return UpsertOutcome.CREATED;
+        }
+        if (affected == 2) {
+            changeLogRepository.logChangeByCode(customerCode, LocalDateTime.now());
+            customerRepository.findByCustomerCode(customerCode)
+                    .ifPresent(c -> customerCache.evictAfterCommit(c.getId()));
+            return UpsertOutcome.UPDATED;
+        }
+        
+        // 0 rows: either already up to date, or the email belongs to a different customer
+        // and the guards left that row alone. Only this rare path pays for a lookup.
+        boolean unchanged = customerRepository.findByCustomerCode(customerCode)
+                .map(c -> c.getEmail().equalsIgnoreCase(requestDTO.getEmail()))
+                .orElse(false);
+        if (!unchanged) {
+            throw new DuplicateResourceException("Email already exists: " + requestDTO.getEmail());
+        }
+        return UpsertOutcome.UNCHANGED;
+    }
+}
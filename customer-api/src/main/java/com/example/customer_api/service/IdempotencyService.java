@@ -0,0 +1,209 @@
+package com.example.customer_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.customer_api.exception.DuplicateResourceException;
+import com.example.customer_api.exception.IdempotencyKeyMismatchException;
+import com.example.customer_api.exception.RequestInProgressException;
+import com.example.customer_api.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Bounded TTL store of Idempotency-Key -> (request fingerprint, outcome).
+// The first request for a key runs the action; concurrent and later requests with
+// the same key wait for (or replay) that outcome instead of running it again.
+// A key is kept while its action runs, however long that takes, and for ttl-seconds
+// after it completes.
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+
+    // Completed entries are moved to the end when they complete, so among them map order
+    // is expiry order; in-flight ones stay where they were added and never expire
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    @Value("${customer.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${customer.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${customer.idempotency.wait-timeout-millis:10000}")
+    private long waitTimeoutMillis;
+
+    @Autowired
+    public IdempotencyService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // headers: the request headers that change what the action does or returns, such as
+    // Prefer and If-Match, as "Name: value"; a retry must send the same ones
+    public <T> Outcome<T> execute(String key, String method, String path, List<String> headers, Object body,
+                                  Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(method, path, headers, body);
+
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            long now = System.currentTimeMillis();
+            purgeExpired(now);
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(fingerprint);
+                entries.put(key, entry);
+                evictOverflow();
+                owner = true;
+            } else if (!entry.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyMismatchException(
+                        "Idempotency-Key was already used with a different request: " + key);
+            }
+        }
+
+        if (owner) {
+            return runAsOwner(key, entry, action);
+        }
+        return awaitOutcome(key, entry);
+    }
+
+    private <T> Outcome<T> runAsOwner(String key, Entry entry, Supplier<T> action) {
+        try {
+            T result = action.get();
+            settle(key, entry, true);
+            entry.result.complete(result);
+            return new Outcome<>(result, false);
+        } catch (RuntimeException | Error e) {
+            // Client errors are deterministic and safe to replay; anything else may be
+            // transient, so forget the key and let the client retry for real.
+            settle(key, entry, isReplayableFailure(e));
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Before the result is published, so no waiter sees a completed entry without an expiry
+    private void settle(String key, Entry entry, boolean remember) {
+        synchronized (entries) {
+            if (entries.remove(key, entry) && remember) {
+                entry.expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds);
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Outcome<T> awaitOutcome(String key, Entry entry) {
+        try {
+            T result = (T) entry.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            return new Outcome<>(result, true);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RequestInProgressException("A request with this Idempotency-Key is still in progress: " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException("Interrupted while waiting for Idempotency-Key: " + key);
+        }
+    }
+
+    private boolean isReplayableFailure(Throwable e) {
+        return e instanceof DuplicateResourceException
+            || e instanceof ResourceNotFoundException
+            || e instanceof IllegalArgumentException;
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            // Dropping an in-flight key would let a retry run the action a second time
+            if (!e.result.isDone()) {
+                continue;
+            }
+            if (e.expiresAt > now) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            // Never drop an in-flight key, or a concurrent retry would run the action twice
+            if (it.next().getValue().result.isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    private String fingerprint(String method, String path, List<String> headers, Object body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+            for (String header : headers) {
+                digest.update((header + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(objectMapper.writeValueAsBytes(body));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        // Guarded by entries; set when the action completes
+        private long expiresAt = Long.MAX_VALUE;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    public static final class Outcome<T> {
+        private final T value;
+        private final boolean replayed;
+
+        public Outcome(T value, boolean replayed) {
+            this.value = value;
+            this.replayed = replayed;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.customer_api.service;
+
+public enum IngestionState {
+    QUEUED,
+    WRITTEN,
+    FAILED
+}
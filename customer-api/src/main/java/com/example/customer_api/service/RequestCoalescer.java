@@ -0,0 +1,107 @@
+package com.example.customer_api.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.customer_api.sharding.ShardContext;
+
+// Single-flight for read paths: while a lookup for a key is running, identical
+// lookups wait for it and share its result (or its exception) instead of querying again.
+// ConcurrentHashMap locks per bin, so unrelated keys never contend with each other.
+@Component
+public class RequestCoalescer {
+
+    @Value("${customer.coalescing.enabled:true}")
+    private boolean enabled;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong sharedFailures = new AtomicLong();
+
+    public <T> T execute(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        // The same lookup on different shards is a different query
+        String scopedKey = ShardContext.current() == null ? key : ShardContext.current() + "/" + key;
+        while (true) {
+            CompletableFuture<Object> mine = new CompletableFuture<>();
+            CompletableFuture<Object> leader = inFlight.putIfAbsent(scopedKey, mine);
+            if (leader == null) {
+                return lead(scopedKey, mine, loader);
+            }
+            coalesced.incrementAndGet();
+            try {
+                return follow(leader);
+            } catch (CancellationException e) {
+                coalesced.decrementAndGet();
+                // The leader was interrupted, which says nothing about this request: try again,
+                // becoming the leader if nobody else has
+            }
+        }
+    }
+
+    private <T> T lead(String key, CompletableFuture<Object> mine, Supplier<T> loader) {
+        executions.incrementAndGet();
+        try {
+            T value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            if (Thread.currentThread().isInterrupted()) {
+                mine.cancel(false);
+            } else {
+                mine.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            // Later callers must run their own lookup rather than reuse this result
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T follow(CompletableFuture<Object> leader) {
+        try {
+            return (T) leader.get();
+        } catch (ExecutionException e) {
+            sharedFailures.incrementAndGet();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            // Only this waiter gives up; the leader and the other waiters carry on
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared lookup", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long executed = executions.get();
+        long joined = coalesced.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("inFlight", inFlight.size());
+        stats.put("executions", executed);
+        stats.put("coalesced", joined);
+        stats.put("sharedFailures", sharedFailures.get());
+        // Share of lookups that were answered by another request's query
+        stats.put("coalescingRatio", executed + joined == 0 ? 0.0 : (double) joined / (executed + joined));
+        return stats;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.customer_api.service;
+
+import java.util.Locale;
+
+// Turns user input into LIKE patterns for the generated search-key columns on customers
+// (full_name_lc, email_lc, email_domain, phone_digits, phone_digits_reversed). Every
+// pattern is a prefix, so MySQL can range-scan the column's index. '!' is the LIKE escape
+// character: a backslash would need different quoting in MySQL and H2.
+public final class SearchKeys {
+
+    // A keyword starting with '@' searches by email domain
+    public static final String DOMAIN_MARKER = "@";
+
+    private SearchKeys() {
+    }
+
+    // Pattern for the lowercased columns
+    public static String lowerPrefix(String value) {
+        return escape(value.trim().toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    // Customer codes are stored upper case (C001), so the input is upper-cased to match
+    public static String codePrefix(String value) {
+        return escape(value.trim().toUpperCase(Locale.ROOT)) + "%";
+    }
+
+    public static boolean isDomainQuery(String value) {
+        return value.trim().startsWith(DOMAIN_MARKER);
+    }
+
+    public static String domainPrefix(String value) {
+        return lowerPrefix(value.trim().substring(DOMAIN_MARKER.length()));
+    }
+
+    // Same normalization as the phone_digits column
+    public static String digits(String phone) {
+        return phone.replaceAll("[^0-9]", "");
+    }
+
+    public static String reversed(String value) {
+        return new StringBuilder(value).reverse().toString();
+    }
+
+    // In-memory equivalent of "column LIKE lowerPrefix(part)"
+    public static boolean startsWithIgnoreCase(String value, String part) {
+        return value != null && value.toLowerCase(Locale.ROOT).startsWith(part.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String escape(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.customer_api.service;
+
+public enum UpsertOutcome {
+    CREATED,
+    UPDATED,
+    UNCHANGED
+}
@@ -0,0 +1,35 @@
+package com.example.customer_api.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Merges per-shard results that are each already sorted by the same comparator
+public final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    public static <T> List<T> merge(List<List<T>> sortedRuns, Comparator<? super T> order, int limit) {
+        // Heap entries are {run, position}; the head is the smallest unconsumed element
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sortedRuns.size()),
+                (a, b) -> order.compare(sortedRuns.get(a[0]).get(a[1]), sortedRuns.get(b[0]).get(b[1])));
+        for (int run = 0; run < sortedRuns.size(); run++) {
+            if (!sortedRuns.get(run).isEmpty()) {
+                heads.add(new int[] {run, 0});
+            }
+        }
+
+        List<T> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<T> run = sortedRuns.get(head[0]);
+            merged.add(run.get(head[1]));
+            if (head[1] + 1 < run.size()) {
+                heads.add(new int[] {head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.customer_api.sharding;
+
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Shard the current thread talks to; ShardRoutingDataSource reads it when a connection is opened.
+// No shard set means the default shard (0).
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        // A transaction keeps the connection it started with, so switching here would silently
+        // send the work to the old shard
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && (previous == null ? 0 : previous) != shard) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction");
+        }
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void run(int shard, Runnable work) {
+        call(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
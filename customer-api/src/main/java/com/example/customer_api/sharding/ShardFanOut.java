@@ -0,0 +1,75 @@
+package com.example.customer_api.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// Runs one piece of work per shard in parallel, each on a thread bound to that shard.
+// With a single shard the work runs inline on the caller's thread.
+@Component
+public class ShardFanOut {
+
+    private final ShardRouter shardRouter;
+    private final ExecutorService executor;
+
+    @Autowired
+    public ShardFanOut(ShardRouter shardRouter, ShardingProperties properties) {
+        this.shardRouter = shardRouter;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = shardRouter.getShardCount() == 1 ? null
+                : Executors.newFixedThreadPool(properties.getFanOutThreads(), r -> {
+                    Thread thread = new Thread(r, "customer-shard-fan-out-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Results are returned in shard order
+    public <T> List<T> onEveryShard(IntFunction<T> work) {
+        int shards = shardRouter.getShardCount();
+        if (executor == null) {
+            return List.of(ShardContext.call(0, () -> work.apply(0)));
+        }
+
+        List<Future<T>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> ShardContext.call(target, () -> work.apply(target))));
+        }
+
+        List<T> results = new ArrayList<>(shards);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.customer_api.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Bucket -> shard map, stored on shard 0 so every instance routes the same way.
+// Each instance re-reads it every customer.sharding.map-refresh-millis.
+@Component
+@ConditionalOnProperty(name = "customer.sharding.enabled", havingValue = "true")
+public class ShardMapStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    @Autowired
+    public ShardMapStore(JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    @PostConstruct
+    void init() {
+        ShardContext.run(0, () -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS customer_shard_map " +
+                                 "(bucket INT NOT NULL PRIMARY KEY, shard INT NOT NULL)");
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_shard_map", Integer.class);
+            if (rows != null && rows == 0) {
+                seed();
+            }
+        });
+        refresh();
+    }
+
+    private void seed() {
+        int[] defaults = ShardRouter.defaultAssignments(shardRouter.getShardCount());
+        List<Object[]> batch = new ArrayList<>(defaults.length);
+        for (int bucket = 0; bucket < defaults.length; bucket++) {
+            batch.add(new Object[] {bucket, defaults[bucket]});
+        }
+        try {
+            jdbcTemplate.batchUpdate("INSERT INTO customer_shard_map (bucket, shard) VALUES (?, ?)", batch);
+        } catch (DuplicateKeyException e) {
+            // Another instance seeded the map first; use theirs
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.sharding.map-refresh-millis:5000}")
+    public void refresh() {
+        int[] assignments = shardRouter.getAssignments();
+        ShardContext.run(0, () -> jdbcTemplate.query("SELECT bucket, shard FROM customer_shard_map",
+                rs -> {
+                    assignments[rs.getInt("bucket")] = rs.getInt("shard");
+                }));
+        shardRouter.setAssignments(assignments);
+    }
+
+    // Points buckets [fromBucket, toBucket] at the given shard
+    public void assign(int fromBucket, int toBucket, int shard) {
+        ShardContext.run(0, () -> jdbcTemplate.update(
+                "UPDATE customer_shard_map SET shard = ? WHERE bucket BETWEEN ? AND ?", shard, fromBucket, toBucket));
+        refresh();
+    }
+}
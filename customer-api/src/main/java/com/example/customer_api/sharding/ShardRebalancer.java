@@ -0,0 +1,211 @@
+package com.example.customer_api.sharding;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves a bucket range to another shard while the application keeps serving:
+//   1. copy the range's customers from their current shard(s) to the target,
+//   2. point the buckets at the target (other instances follow within map-refresh-millis),
+//   3. after that delay, copy again whatever changed or was deleted on the source meanwhile,
+//   4. delete the moved rows from the source, each only at the version last copied.
+// Copies never overwrite a row that already has a higher version on the target. By-id
+// writes still reach the source until step 4, so a row that changed after its last copy is
+// copied again before it is deleted, and one deleted meanwhile is removed from the target.
+@Component
+@ConditionalOnProperty(name = "customer.sharding.enabled", havingValue = "true")
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    private static final String COLUMNS =
+            "id, customer_code, full_name, email, phone, address, status, created_at, updated_at, version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardMapStore shardMapStore;
+    private final ShardingProperties properties;
+
+    @Autowired
+    public ShardRebalancer(JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+                           ShardMapStore shardMapStore, ShardingProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.shardMapStore = shardMapStore;
+        this.properties = properties;
+    }
+
+    // Only one move at a time per instance
+    public synchronized Map<String, Object> moveBuckets(int fromBucket, int toBucket, int targetShard)
+            throws InterruptedException {
+        if (fromBucket < 0 || toBucket >= ShardRouter.BUCKETS || fromBucket > toBucket) {
+            throw new IllegalArgumentException("Bucket range must be within 0-" + (ShardRouter.BUCKETS - 1));
+        }
+        if (targetShard < 0 || targetShard >= shardRouter.getShardCount()) {
+            throw new IllegalArgumentException("Unknown shard: " + targetShard);
+        }
+
+        int[] before = shardRouter.getAssignments();
+        boolean[] moving = new boolean[ShardRouter.BUCKETS];
+        List<Integer> sources = new ArrayList<>();
+        for (int bucket = fromBucket; bucket <= toBucket; bucket++) {
+            if (before[bucket] != targetShard) {
+                moving[bucket] = true;
+                if (!sources.contains(before[bucket])) {
+                    sources.add(before[bucket]);
+                }
+            }
+        }
+
+        // Rows touched after this point are copied again in the delta pass
+        LocalDateTime copyStartedAt = LocalDateTime.now().minusSeconds(1);
+        // Per source shard: id -> version copied
+        Map<Integer, Map<Long, Long>> copied = new LinkedHashMap<>();
+        int copiedRows = 0;
+        for (int source : sources) {
+            Map<Long, Long> versions = copyRows(source, targetShard, moving, null);
+            copiedRows += versions.size();
+            copied.put(source, versions);
+        }
+
+        shardMapStore.assign(fromBucket, toBucket, targetShard);
+        Thread.sleep(properties.getMapRefreshMillis() + 1000);
+
+        int deltaRows = 0;
+        int deletedMeanwhile = 0;
+        for (int source : sources) {
+            Map<Long, Long> delta = copyRows(source, targetShard, moving, copyStartedAt);
+            deltaRows += delta.size();
+            copied.get(source).putAll(delta);
+            deletedMeanwhile += dropDeletedSince(source, targetShard, copied.get(source), copyStartedAt);
+        }
+
+        int removed = 0;
+        int recopied = 0;
+        for (Map.Entry<Integer, Map<Long, Long>> entry : copied.entrySet()) {
+            int[] outcome = deleteFromSource(entry.getKey(), targetShard, entry.getValue());
+            removed += outcome[0];
+            recopied += outcome[1];
+            deletedMeanwhile += outcome[2];
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fromBucket", fromBucket);
+        result.put("toBucket", toBucket);
+        result.put("targetShard", targetShard);
+        result.put("sourceShards", sources);
+        result.put("copiedRows", copiedRows);
+        result.put("deltaRows", deltaRows);
+        result.put("recopiedBeforeDelete", recopied);
+        result.put("deletedDuringMove", deletedMeanwhile);
+        result.put("removedFromSource", removed);
+        log.info("Moved customer buckets {}-{} to shard {}: {}", fromBucket, toBucket, targetShard, result);
+        return result;
+    }
+
+    // Returns id -> version for the rows copied; "since" limits the scan to rows updated after that time
+    private Map<Long, Long> copyRows(int source, int target, boolean[] moving, LocalDateTime since) {
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        long lastId = 0;
+        while (true) {
+            long after = lastId;
+            List<Map<String, Object>> page = ShardContext.call(source, () -> since == null
+                    ? jdbcTemplate.queryForList("SELECT " + COLUMNS + " FROM customers WHERE id > ? ORDER BY id LIMIT " + PAGE_SIZE, after)
+                    : jdbcTemplate.queryForList("SELECT " + COLUMNS + " FROM customers WHERE id > ? AND updated_at >= ? ORDER BY id LIMIT " + PAGE_SIZE, after, since));
+            for (Map<String, Object> row : page) {
+                lastId = ((Number) row.get("id")).longValue();
+                if (moving[ShardRouter.bucketFor((String) row.get("customer_code"))]) {
+                    ShardContext.run(target, () -> upsert(row));
+                    versions.put(lastId, ((Number) row.get("version")).longValue());
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                return versions;
+            }
+        }
+    }
+
+    private void upsert(Map<String, Object> row) {
+        int updated = jdbcTemplate.update(
+                "UPDATE customers SET full_name = ?, email = ?, phone = ?, address = ?, status = ?, " +
+                "updated_at = ?, version = ? WHERE id = ? AND version < ?",
+                row.get("full_name"), row.get("email"), row.get("phone"), row.get("address"), row.get("status"),
+                row.get("updated_at"), row.get("version"), row.get("id"), row.get("version"));
+        if (updated == 0) {
+            Integer present = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM customers WHERE id = ?", Integer.class, row.get("id"));
+            if (present != null && present == 0) {
+                jdbcTemplate.update("INSERT INTO customers (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        row.get("id"), row.get("customer_code"), row.get("full_name"), row.get("email"),
+                        row.get("phone"), row.get("address"), row.get("status"), row.get("created_at"),
+                        row.get("updated_at"), row.get("version"));
+            }
+        }
+    }
+
+    // A copied customer deleted on the source before the flip must not survive on the target
+    private int dropDeletedSince(int source, int target, Map<Long, Long> copied, LocalDateTime since) {
+        List<Long> deleted = ShardContext.call(source, () -> jdbcTemplate.queryForList(
+                "SELECT customer_id FROM customer_tombstones WHERE deleted_at >= ?", Long.class, since));
+        deleted.retainAll(copied.keySet());
+        for (Long id : deleted) {
+            ShardContext.run(target, () -> jdbcTemplate.update("DELETE FROM customers WHERE id = ?", id));
+        }
+        copied.keySet().removeAll(deleted);
+        return deleted.size();
+    }
+
+    // Deletes each row only if it still has the version copied. A row written since is copied
+    // again and retried; a row deleted since is removed from the target too.
+    // Returns {removed, recopied, deleted on the source}.
+    private int[] deleteFromSource(int source, int target, Map<Long, Long> copied) {
+        int[] outcome = new int[3];
+        List<Map.Entry<Long, Long>> rows = new ArrayList<>(copied.entrySet());
+        for (int from = 0; from < rows.size(); from += PAGE_SIZE) {
+            List<Map.Entry<Long, Long>> chunk = rows.subList(from, Math.min(from + PAGE_SIZE, rows.size()));
+            List<Object[]> args = chunk.stream().map(row -> new Object[] {row.getKey(), row.getValue()}).toList();
+            int[] counts = ShardContext.call(source, () -> jdbcTemplate.batchUpdate(
+                    "DELETE FROM customers WHERE id = ? AND version = ?", args));
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    outcome[0]++;
+                } else {
+                    deleteChanged(source, target, chunk.get(i).getKey(), outcome);
+                }
+            }
+        }
+        return outcome;
+    }
+
+    private void deleteChanged(int source, int target, Long id, int[] outcome) {
+        while (true) {
+            List<Map<String, Object>> current = ShardContext.call(source, () -> jdbcTemplate.queryForList(
+                    "SELECT " + COLUMNS + " FROM customers WHERE id = ?", id));
+            if (current.isEmpty()) {
+                ShardContext.run(target, () -> jdbcTemplate.update("DELETE FROM customers WHERE id = ?", id));
+                outcome[2]++;
+                return;
+            }
+            Map<String, Object> row = current.get(0);
+            ShardContext.run(target, () -> upsert(row));
+            outcome[1]++;
+            int removed = ShardContext.call(source, () -> jdbcTemplate.update(
+                    "DELETE FROM customers WHERE id = ? AND version = ?", id, row.get("version")));
+            if (removed > 0) {
+                outcome[0]++;
+                return;
+            }
+        }
+    }
+}
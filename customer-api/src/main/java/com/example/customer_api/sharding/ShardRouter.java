@@ -0,0 +1,76 @@
+package com.example.customer_api.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Maps customers to shards. customerCode hashes to one of BUCKETS buckets and each bucket
+// belongs to a shard; the rebalancer moves contiguous bucket ranges between shards.
+// Ids are allocated from a per-shard range, so an id also names the shard the customer was
+// created on (its "home" shard); a customer only leaves it when its bucket is moved.
+@Component
+public class ShardRouter {
+
+    public static final int BUCKETS = 1024;
+
+    // Shard i allocates ids from i * ID_RANGE + 1
+    public static final long ID_RANGE = 1_000_000_000_000L;
+
+    private final int shardCount;
+
+    private volatile int[] bucketToShard;
+
+    @Autowired
+    public ShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        if (properties.isEnabled() && shardCount == 0) {
+            throw new IllegalStateException("customer.sharding.enabled is set but no customer.sharding.shards are configured");
+        }
+        this.bucketToShard = defaultAssignments(shardCount);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public static int bucketFor(String customerCode) {
+        CRC32 crc = new CRC32();
+        crc.update(customerCode.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % BUCKETS);
+    }
+
+    public int shardForCode(String customerCode) {
+        return bucketToShard[bucketFor(customerCode)];
+    }
+
+    public int homeShardForId(Long id) {
+        long shard = id / ID_RANGE;
+        return shard < shardCount ? (int) shard : 0;
+    }
+
+    public int[] getAssignments() {
+        return bucketToShard.clone();
+    }
+
+    // Contiguous, equal-sized bucket ranges: bucket b -> shard b * N / BUCKETS
+    public static int[] defaultAssignments(int shardCount) {
+        int[] assignments = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            assignments[bucket] = bucket * shardCount / BUCKETS;
+        }
+        return assignments;
+    }
+
+    void setAssignments(int[] assignments) {
+        if (assignments.length != BUCKETS) {
+            throw new IllegalArgumentException("Expected " + BUCKETS + " bucket assignments");
+        }
+        if (Arrays.stream(assignments).anyMatch(s -> s < 0 || s >= shardCount)) {
+            throw new IllegalArgumentException("Bucket assigned to an unknown shard");
+        }
+        this.bucketToShard = assignments.clone();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.customer_api.sharding;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+// Hibernate only applies spring.jpa.hibernate.ddl-auto to the connection it is handed,
+// which is shard 0. This repeats the schema update on every other shard and moves each
+// shard's customers id counter into its own range (see ShardRouter.ID_RANGE).
+public class ShardSchemaInitializer implements Integrator {
+
+    private final ShardRoutingDataSource dataSource;
+    private final int shardCount;
+
+    public ShardSchemaInitializer(ShardRoutingDataSource dataSource, int shardCount) {
+        this.dataSource = dataSource;
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        Map<String, Object> settings = sessionFactory.getProperties();
+        Object ddlAuto = settings.get("hibernate.hbm2ddl.auto");
+        boolean manageSchema = ddlAuto != null && !"none".equals(ddlAuto) && !"validate".equals(ddlAuto);
+
+        for (int shard = 1; shard < shardCount; shard++) {
+            int target = shard;
+            ShardContext.run(target, () -> {
+                if (manageSchema) {
+                    // Always "update" here: create/create-drop must not wipe the other shards
+                    Map<String, Object> update = new HashMap<>(settings);
+                    update.put("hibernate.hbm2ddl.auto", "update");
+                    update.remove("jakarta.persistence.schema-generation.database.action");
+                    SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                            update, action -> { });
+                }
+                reserveIdRange(target);
+            });
+        }
+    }
+
+    private void reserveIdRange(int shard) {
+        long start = shard * ShardRouter.ID_RANGE + 1;
+        DataSource target = dataSource.getResolvedDataSources().get(shard);
+        try (Connection connection = target.getConnection(); Statement statement = connection.createStatement()) {
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM customers")) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            if (maxId >= start) {
+                return;
+            }
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (product.toLowerCase().contains("mysql")) {
+                statement.execute("ALTER TABLE customers AUTO_INCREMENT = " + start);
+            } else {
+                statement.execute("ALTER TABLE customers ALTER COLUMN id RESTART WITH " + start);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot reserve id range for shard " + shard, e);
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory,
+                             SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.customer_api.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import com.example.customer_api.dto.AdvancedSearchDTO;
+import com.example.customer_api.dto.CustomerChangeDTO;
+import com.example.customer_api.dto.CustomerChangeFeedDTO;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.dto.CustomerResponseDTO;
+import com.example.customer_api.dto.CustomerUpdateDTO;
+import com.example.customer_api.entity.Customer;
+import com.example.customer_api.exception.DuplicateResourceException;
+import com.example.customer_api.exception.ResourceNotFoundException;
+import com.example.customer_api.repository.CustomerRepository;
+import com.example.customer_api.service.ChangeCursor;
+import com.example.customer_api.service.CustomerOrdering;
+import com.example.customer_api.service.CustomerService;
+import com.example.customer_api.service.CustomerServiceImpl;
+import com.example.customer_api.service.UpsertOutcome;
+
+// CustomerService over N shards. Picks the shard before CustomerServiceImpl opens its
+// transaction (the transaction's connection decides the shard), runs single-customer
+// operations on one shard, and fans list queries out to all shards in parallel.
+@Service
+@Primary
+@ConditionalOnProperty(name = "customer.sharding.enabled", havingValue = "true")
+public class ShardedCustomerService implements CustomerService {
+
+    private final CustomerServiceImpl shardLocal;
+    private final CustomerRepository customerRepository;
+    private final ShardRouter shardRouter;
+    private final ShardFanOut fanOut;
+
+    @Autowired
+    public ShardedCustomerService(CustomerServiceImpl shardLocal, CustomerRepository customerRepository,
+                                  ShardRouter shardRouter, ShardFanOut fanOut) {
+        this.shardLocal = shardLocal;
+        this.customerRepository = customerRepository;
+        this.shardRouter = shardRouter;
+        this.fanOut = fanOut;
+    }
+
+    @Override
+    public List<CustomerResponseDTO> getAllCustomers() {
+        return concat(shard -> shardLocal.getAllCustomers());
+    }
+
+    @Override
+    public CustomerResponseDTO getCustomerById(Long id) {
+        return byId(id, () -> shardLocal.getCustomerById(id));
+    }
+
+    @Override
+    public CustomerResponseDTO createCustomer(CustomerRequestDTO requestDTO) {
+        rejectEmailUsedElsewhere(requestDTO.getEmail(), c -> true);
+        return ShardContext.call(shardRouter.shardForCode(requestDTO.getCustomerCode()),
+                () -> shardLocal.createCustomer(requestDTO));
+    }
+
+    @Override
+    public CustomerResponseDTO updateCustomer(Long id, CustomerRequestDTO requestDTO, Long expectedVersion, boolean readBack) {
+        rejectEmailUsedElsewhere(requestDTO.getEmail(), c -> !c.getId().equals(id));
+        return byId(id, () -> shardLocal.updateCustomer(id, requestDTO, expectedVersion, readBack));
+    }
+
+    @Override
+    public void deleteCustomer(Long id) {
+        byId(id, () -> {
+            shardLocal.deleteCustomer(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CustomerResponseDTO getCustomerByCode(String customerCode) {
+        return ShardContext.call(shardRouter.shardForCode(customerCode),
+                () -> shardLocal.getCustomerByCode(customerCode));
+    }
+
+    @Override
+    public List<CustomerResponseDTO> searchCustomers(String keyword) {
+        return concat(shard -> shardLocal.searchCustomers(keyword));
+    }
+
+    @Override
+    public List<CustomerResponseDTO> getCustomersByStatus(String status) {
+        return concat(shard -> shardLocal.getCustomersByStatus(status));
+    }
+
+    @Override
+    public List<CustomerResponseDTO> advancedSearch(AdvancedSearchDTO searchDTO) {
+        return concat(shard -> shardLocal.advancedSearch(searchDTO));
+    }
+
+    @Override
+    public Page<CustomerResponseDTO> getAllCustomersPaginated(int page, int size) {
+        return getAllCustomersPaginatedAndSorted(page, size, "id", "asc");
+    }
+
+    @Override
+    public List<CustomerResponseDTO> getAllCustomersSorted(String sortBy, String sortDir) {
+        List<List<CustomerResponseDTO>> runs = fanOut.onEveryShard(shard -> shardLocal.getAllCustomersSorted(sortBy, sortDir));
+        return KWayMerge.merge(runs, CustomerOrdering.of(sortBy, sortDir), Integer.MAX_VALUE);
+    }
+
+    // The first limit ids overall are among the first limit of each shard
+    @Override
+    public List<CustomerResponseDTO> getCustomersForSnapshot(int limit) {
+        List<List<CustomerResponseDTO>> runs = fanOut.onEveryShard(shard -> shardLocal.getCustomersForSnapshot(limit));
+        return KWayMerge.merge(runs, CustomerOrdering.of("id", "asc"), limit);
+    }
+
+    // Page p of the merged order lies within the first (p + 1) * size rows of every shard,
+    // so each shard returns that prefix and the merge skips the first p * size rows
+    @Override
+    public Page<CustomerResponseDTO> getAllCustomersPaginatedAndSorted(int page, int size, String sortBy, String sortDir) {
+        int prefix = Math.multiplyExact(page + 1, size);
+        List<Page<CustomerResponseDTO>> shardPages = fanOut.onEveryShard(
+                shard -> shardLocal.getAllCustomersPaginatedAndSorted(0, prefix, sortBy, sortDir));
+
+        List<List<CustomerResponseDTO>> runs = new ArrayList<>();
+        long total = 0;
+        for (Page<CustomerResponseDTO> shardPage : shardPages) {
+            runs.add(shardPage.getContent());
+            total += shardPage.getTotalElements();
+        }
+        List<CustomerResponseDTO> merged = KWayMerge.merge(runs, CustomerOrdering.of(sortBy, sortDir), prefix);
+        List<CustomerResponseDTO> content = merged.subList(Math.min(page * size, merged.size()), merged.size());
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        return new PageImpl<>(new ArrayList<>(content), PageRequest.of(page, size, sort), total);
+    }
+
+    @Override
+    public CustomerResponseDTO partialUpdateCustomer(Long id, CustomerUpdateDTO updateDTO, Long expectedVersion, boolean readBack) {
+        if (updateDTO.getEmail() != null) {
+            rejectEmailUsedElsewhere(updateDTO.getEmail(), c -> !c.getId().equals(id));
+        }
+        return byId(id, () -> shardLocal.partialUpdateCustomer(id, updateDTO, expectedVersion, readBack));
+    }
+
+    // Each shard returns its first "limit" changes after the cursor; the first "limit" of
+    // their merge are exactly the next "limit" changes overall
+    @Override
+    public CustomerChangeFeedDTO getChangesSince(String cursor, int limit) {
+        List<CustomerChangeFeedDTO> feeds = fanOut.onEveryShard(shard -> shardLocal.getChangesSince(cursor, limit));
+
+        List<List<CustomerChangeDTO>> runs = new ArrayList<>();
+        boolean hasMore = false;
+        int available = 0;
+        for (CustomerChangeFeedDTO feed : feeds) {
+            runs.add(feed.getChanges());
+            hasMore |= feed.isHasMore();
+            available += feed.getChanges().size();
+        }
+        Comparator<CustomerChangeDTO> order = Comparator.comparing(CustomerChangeDTO::getChangedAt)
+                .thenComparing(CustomerChangeDTO::getCustomerId);
+        List<CustomerChangeDTO> changes = KWayMerge.merge(runs, order, limit);
+
+        String nextCursor = changes.isEmpty()
+                ? ChangeCursor.decode(cursor).encode()
+                : new ChangeCursor(changes.get(changes.size() - 1).getChangedAt(),
+                                   changes.get(changes.size() - 1).getCustomerId()).encode();
+        return new CustomerChangeFeedDTO(changes, nextCursor, hasMore || available > changes.size());
+    }
+
+    @Override
+    public UpsertOutcome upsertCustomerByCode(String customerCode, CustomerRequestDTO requestDTO) {
+        rejectEmailUsedElsewhere(requestDTO.getEmail(), c -> !c.getCustomerCode().equals(customerCode));
+        return ShardContext.call(shardRouter.shardForCode(customerCode),
+                () -> shardLocal.upsertCustomerByCode(customerCode, requestDTO));
+    }
+
+    // Try the shard the id was allocated on first; only customers moved by the rebalancer
+    // live elsewhere
+    private <T> T byId(Long id, Supplier<T> work) {
+        int home = shardRouter.homeShardForId(id);
+        try {
+            return ShardContext.call(home, work);
+        } catch (ResourceNotFoundException notHome) {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                if (shard == home) {
+                    continue;
+                }
+                try {
+                    return ShardContext.call(shard, work);
+                } catch (ResourceNotFoundException e) {
+                    // keep looking
+                }
+            }
+            throw notHome;
+        }
+    }
+
+    // Unique keys only hold within one shard, so check the others before writing.
+    // Best effort: two concurrent writes on different shards can still both succeed.
+    private void rejectEmailUsedElsewhere(String email, Predicate<Customer> conflicts) {
+        boolean taken = fanOut.onEveryShard(shard -> customerRepository.findByEmail(email)
+                        .filter(conflicts)
+                        .isPresent())
+                .contains(Boolean.TRUE);
+        if (taken) {
+            throw new DuplicateResourceException("Email already exists: " + email);
+        }
+    }
+
+    private List<CustomerResponseDTO> concat(IntFunction<List<CustomerResponseDTO>> query) {
+        List<CustomerResponseDTO> all = new ArrayList<>();
+        fanOut.onEveryShard(query).forEach(all::addAll);
+        all.sort(CustomerOrdering.BY_ID);
+        return all;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.customer_api.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// customer.sharding.* ; when disabled the single spring.datasource is used as before
+@ConfigurationProperties(prefix = "customer.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    // Threads used to query all shards in parallel
+    private int fanOutThreads = 16;
+
+    // How often each instance re-reads the bucket -> shard map written by the rebalancer
+    private long mapRefreshMillis = 5000;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getFanOutThreads() {
+        return fanOutThreads;
+    }
+
+    public void setFanOutThreads(int fanOutThreads) {
+        this.fanOutThreads = fanOutThreads;
+    }
+
+    public long getMapRefreshMillis() {
+        return mapRefreshMillis;
+    }
+
+    public void setMapRefreshMillis(long mapRefreshMillis) {
+        this.mapRefreshMillis = mapRefreshMillis;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
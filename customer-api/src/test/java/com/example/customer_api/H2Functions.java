@@ -0,0 +1,14 @@
+package com.example.customer_api;
+
+// MySQL functions H2 lacks, registered through INIT=CREATE ALIAS in the test datasource URLs
+public final class H2Functions {
+
+    public static final String INIT = ";INIT=CREATE ALIAS IF NOT EXISTS REVERSE FOR 'com.example.customer_api.H2Functions.reverse'";
+
+    private H2Functions() {
+    }
+
+    public static String reverse(String value) {
+        return value == null ? null : new StringBuilder(value).reverse().toString();
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.customer_api.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.H2Functions;
+import com.example.customer_api.dto.CustomerGrowthDTO;
+import com.example.customer_api.entity.BatchJobExecution;
+import com.example.customer_api.entity.BatchJobStatus;
+import com.example.customer_api.repository.BatchJobCheckpointRepository;
+import com.example.customer_api.repository.BatchJobExecutionRepository;
+import com.example.customer_api.repository.BatchJobLeaseRepository;
+import com.example.customer_api.service.CustomerGrowthService;
+
+class BatchJobRunnerTest {
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static BatchJobExecutionRepository executions;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:batch;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT,
+                        "batch.jobs.dormant-customers.cron=-",
+                        "batch.jobs.dormant-customers.chunk-size=4")
+                .run();
+        jdbc = app.getBean(JdbcTemplate.class);
+        executions = app.getBean(BatchJobExecutionRepository.class);
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void dormantCustomersJobDeactivatesOnlyCustomersUntouchedForMonths() {
+        LocalDateTime longAgo = LocalDateTime.now().minusMonths(19);
+        LocalDateTime recently = LocalDateTime.now().minusMonths(17);
+        for (int i = 0; i < 25; i++) {
+            insertCustomer("DRM" + i, "ACTIVE", longAgo);
+        }
+        insertCustomer("DRMI1", "INACTIVE", longAgo);
+        for (int i = 0; i < 3; i++) {
+            insertCustomer("DRMR" + i, "ACTIVE", recently);
+        }
+        // Contexts in this JVM can share the test database, so count every dormant customer, not just ours
+        int dormant = count("status = 'ACTIVE' AND updated_at < ?", LocalDateTime.now().minusMonths(18));
+        CustomerGrowthService growth = app.getBean(CustomerGrowthService.class);
+        LocalDate today = LocalDate.now();
+        CustomerGrowthDTO before = growth.getGrowth("day", today, today).get(0);
+
+        BatchJobRunner runner = app.getBean(BatchJobRunner.class);
+        assertTrue(runner.runIfFree(DormantCustomerJob.NAME));
+
+        assertEquals(0, count("customer_code LIKE 'DRM%' AND status = 'ACTIVE' AND updated_at < ?", longAgo.plusDays(1)));
+        assertEquals(3, count("customer_code LIKE 'DRMR%' AND status = 'ACTIVE'", null));
+        assertEquals(25, count("customer_code LIKE 'DRM%' AND status = 'INACTIVE' AND version = 1", null));
+        assertEquals(dormant, growth.getGrowth("day", today, today).get(0).getDeactivated() - before.getDeactivated());
+
+        BatchJobExecution run = executions.findFirstByJobNameOrderByIdDesc(DormantCustomerJob.NAME).orElseThrow();
+        assertEquals(BatchJobStatus.COMPLETED, run.getStatus());
+        assertEquals(dormant, run.getItemsWritten());
+        Map<String, Object> stats = runner.getJob(DormantCustomerJob.NAME);
+        assertEquals((long) dormant, stats.get("itemsWritten"));
+        assertEquals("COMPLETED", stats.get("lastOutcome"));
+
+        // Nothing left to do
+        assertTrue(runner.runIfFree(DormantCustomerJob.NAME));
+        assertEquals(0, executions.findFirstByJobNameOrderByIdDesc(DormantCustomerJob.NAME).orElseThrow().getItemsWritten());
+    }
+
+    @Test
+    void failedRunResumesFromItsCheckpoints() {
+        FlakyJob job = new FlakyJob("flaky", 100, 37);
+        BatchJobRunner runner = runnerFor(job);
+
+        assertTrue(runner.runIfFree("flaky"));
+        BatchJobExecution failed = executions.findFirstByJobNameOrderByIdDesc("flaky").orElseThrow();
+        assertEquals(BatchJobStatus.FAILED, failed.getStatus());
+        assertTrue(job.writes.get() < 100);
+
+        job.failAt = -1;
+        assertTrue(runner.runIfFree("flaky"));
+        BatchJobExecution resumed = executions.findFirstByJobNameOrderByIdDesc("flaky").orElseThrow();
+        assertEquals(failed.getId(), resumed.getId());
+        assertEquals(BatchJobStatus.COMPLETED, resumed.getStatus());
+        for (long key = 1; key <= 100; key++) {
+            assertTrue(job.written.containsKey(key), "key " + key + " never written");
+        }
+        // Committed chunks are not redone: only the chunks in flight when the run failed
+        assertTrue(job.writes.get() <= 100 + 2 * job.getChunkSize(), "writes: " + job.writes.get());
+    }
+
+    @Test
+    void leaseHeldByAnotherNodeSkipsTheRun() {
+        FlakyJob job = new FlakyJob("leased", 10, -1);
+        BatchJobRunner runner = runnerFor(job);
+        jdbc.update("INSERT INTO batch_job_leases (job_name, owner, expires_at) VALUES ('leased', 'other-node', ?)",
+                LocalDateTime.now().plusMinutes(5));
+
+        assertFalse(runner.runIfFree("leased"));
+        assertEquals(0, job.writes.get());
+
+        // The other node died: its lease lapses and this node takes over
+        jdbc.update("UPDATE batch_job_leases SET expires_at = ? WHERE job_name = 'leased'", LocalDateTime.now().minusSeconds(1));
+        assertTrue(runner.runIfFree("leased"));
+        assertEquals(10, job.writes.get());
+    }
+
+    @Test
+    void scheduledTriggerReturnsWhileTheJobRuns() throws InterruptedException {
+        FlakyJob job = new FlakyJob("slow", 10, -1);
+        job.gate = new CountDownLatch(1);
+        BatchJobRunner runner = runnerFor(job);
+
+        long started = System.nanoTime();
+        runner.launchIfFree("slow");
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertTrue(tookMillis < 1000, "trigger blocked for " + tookMillis + " ms");
+        assertEquals(0, job.writes.get());
+
+        job.gate.countDown();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.writes.get() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(10, job.writes.get());
+
+        BatchJobRunner scheduled = mock(BatchJobRunner.class);
+        new BatchJobSchedule(scheduled).dormantCustomers();
+        verify(scheduled).launchIfFree(DormantCustomerJob.NAME);
+        verify(scheduled, never()).runIfFree(DormantCustomerJob.NAME);
+    }
+
+    private static BatchJobRunner runnerFor(BatchJob<?, ?> job) {
+        BatchJobRunner runner = new BatchJobRunner(List.of(job),
+                app.getBean(BatchJobLeaseRepository.class), executions,
+                app.getBean(BatchJobCheckpointRepository.class),
+                app.getBean(PlatformTransactionManager.class), 2);
+        ReflectionTestUtils.setField(runner, "leaseSeconds", 60L);
+        return runner;
+    }
+
+    private static void insertCustomer(String code, String status, LocalDateTime updatedAt) {
+        jdbc.update("INSERT INTO customers (customer_code, full_name, email, status, created_at, updated_at, version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, 0)",
+                    code, "Dormant " + code, code.toLowerCase() + "@example.com", status, updatedAt, updatedAt);
+    }
+
+    private static int count(String where, Object arg) {
+        String sql = "SELECT COUNT(*) FROM customers WHERE " + where;
+        return arg == null ? jdbc.queryForObject(sql, Integer.class) : jdbc.queryForObject(sql, Integer.class, arg);
+    }
+
+    // Keys 1..size held in memory; throws when asked to write failAt
+    private static class FlakyJob implements BatchJob<Long, Long> {
+
+        final String name;
+        final List<Long> keys = new ArrayList<>();
+        final Map<Long, Boolean> written = new ConcurrentHashMap<>();
+        final AtomicInteger writes = new AtomicInteger();
+        final AtomicBoolean started = new AtomicBoolean();
+        volatile long failAt;
+        // When set, writes wait for it
+        volatile CountDownLatch gate;
+
+        FlakyJob(String name, int size, long failAt) {
+            this.name = name;
+            this.failAt = failAt;
+            for (long key = 1; key <= size; key++) {
+                keys.add(key);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getChunkSize() {
+            return 5;
+        }
+
+        @Override
+        public int getPartitions() {
+            return 2;
+        }
+
+        @Override
+        public KeyRange keyRange() {
+            return KeyRange.of(keys.get(0), keys.get(keys.size() - 1));
+        }
+
+        @Override
+        public List<Long> read(long afterKey, long toKey, int limit) {
+            return keys.stream().filter(k -> k > afterKey && k <= toKey).limit(limit).toList();
+        }
+
+        @Override
+        public long keyOf(Long item) {
+            return item;
+        }
+
+        @Override
+        public Long process(Long item) {
+            return item;
+        }
+
+        @Override
+        public int write(List<Long> items) {
+            if (gate != null) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (items.contains(failAt)) {
+                throw new IllegalStateException("Simulated crash at key " + failAt);
+            }
+            for (Long item : items) {
+                written.put(item, Boolean.TRUE);
+            }
+            writes.addAndGet(items.size());
+            return items.size();
+        }
+    }
+}
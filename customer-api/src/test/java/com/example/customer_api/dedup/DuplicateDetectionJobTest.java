@@ -0,0 +1,156 @@
+package com.example.customer_api.dedup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.H2Functions;
+import com.example.customer_api.sharding.ShardRouter;
+
+class DuplicateDetectionJobTest {
+
+    private static ConfigurableApplicationContext app;
+    private static DuplicateDetectionJob job;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:dedup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT,
+                        // Small pages and batches so the test crosses page and batch boundaries
+                        "customer.dedup.page-size=7",
+                        "customer.dedup.write-batch-size=2",
+                        "customer.dedup.max-block-size=5")
+                .run();
+        job = app.getBean(DuplicateDetectionJob.class);
+        jdbc = app.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void blockingKeysNormalizeCommonVariants() {
+        assertEquals(BlockingKeys.email("John.Smith+shop@GMail.com"), BlockingKeys.email(" johnsmith@googlemail.com"));
+        assertEquals(BlockingKeys.phone("+84 912-345-678"), BlockingKeys.phone("0912 345 678"));
+        assertEquals("nguyen van duc", BlockingKeys.text("Nguyễn  Văn Đức"));
+        assertEquals(BlockingKeys.nameKey("nguyen van duc"), BlockingKeys.nameKey("nguyen van dukk"));
+        assertEquals("R163", BlockingKeys.soundex("robert"));
+        assertEquals("R163", BlockingKeys.soundex("rupert"));
+    }
+
+    @Test
+    void findsScoredPairsAcrossBlocks() throws InterruptedException {
+        // Email variants of one person
+        insert("DUP01", "Tran Thi Mai", "Mai.Tran@gmail.com", "0901111111", "12 Le Loi, District 1");
+        insert("DUP02", "Tran Thi Mai", "maitran+promo@gmail.com", "0902222222", "99 Hai Ba Trung");
+        // Same phone in another format, same name and address
+        insert("DUP03", "Le Van Hung", "hung.le@example.com", "+84 903 333 333", "45 Nguyen Hue, District 1");
+        insert("DUP04", "Lê Văn Hùng", "hunglv@example.org", "0903-333-333", "45 Nguyen Hue District 1");
+        // Family sharing a phone: not enough on its own
+        insert("DUP05", "Pham Minh Tuan", "tuan.pham@example.com", "0904444444", "1 Tran Phu");
+        insert("DUP06", "Pham Thu Ha", "ha.pham@example.com", "0904444444", "8 Ly Thuong Kiet");
+        // Sound-alike name at the same address
+        insert("DUP07", "Hoang Anh Khoa", "khoa1@example.com", null, "77 Vo Van Tan, District 3");
+        insert("DUP08", "Hoang Anh Koa", "khoa2@example.net", null, "77 Vo Van Tan District 3");
+        // A placeholder phone shared by more customers than max-block-size is never compared
+        for (int i = 0; i < 6; i++) {
+            insert("OFC0" + i, "Office Staff " + (char) ('A' + i * 3), "staff" + i + "@example.com", "0281234567", null);
+        }
+        // A placeholder email block is skipped as oversized; two of its customers also share a
+        // phone, so they are still scored in the phone block
+        insert("NRP01", "Vo Thi Lan", "noreply+lan1@example.com", "0905555555", null);
+        insert("NRP02", "Vo Thi Lan", "noreply+lan2@example.com", "0905 555 555", null);
+        String[] others = {"Bui Quang", "Dang Thu", "Ngo Bao", "Trinh Son"};
+        for (int i = 0; i < others.length; i++) {
+            insert("NRP1" + i, others[i], "noreply+" + i + "@example.com", "09066666" + i + i, null);
+        }
+
+        job.start();
+        Map<String, Object> progress = awaitFinished();
+        assertEquals(DuplicateDetectionJob.Phase.COMPLETED, progress.get("phase"));
+        assertEquals(20L, progress.get("rowsScanned"));
+        assertEquals(2L, progress.get("oversizedBlocksSkipped"));
+
+        List<Map<String, Object>> pairs = jdbc.queryForList(
+                "SELECT a.customer_code AS code_a, b.customer_code AS code_b, d.reasons, d.status " +
+                "FROM customer_duplicates d JOIN customers a ON a.id = d.customer_id_a " +
+                "JOIN customers b ON b.id = d.customer_id_b ORDER BY a.customer_code");
+        assertEquals(4, pairs.size(), pairs.toString());
+        assertEquals("DUP02", pairs.get(0).get("code_b"));
+        assertTrue(((String) pairs.get(0).get("reasons")).startsWith("email,name"));
+        assertEquals("DUP04", pairs.get(1).get("code_b"));
+        assertEquals("phone,name,address", pairs.get(1).get("reasons"));
+        assertEquals("DUP08", pairs.get(2).get("code_b"));
+        assertEquals("NRP02", pairs.get(3).get("code_b"));
+        assertEquals("email,phone,name", pairs.get(3).get("reasons"));
+        assertEquals(4L, progress.get("pairsWritten"));
+
+        // A reviewed pair keeps its status when a later run finds it again
+        jdbc.update("UPDATE customer_duplicates SET status = 'REJECTED'");
+        job.start();
+        awaitFinished();
+        assertEquals(4, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM customer_duplicates WHERE status = 'REJECTED'", Integer.class));
+    }
+
+    @Test
+    void errorDuringARunMarksItFailed() throws InterruptedException {
+        JdbcTemplate broken = new JdbcTemplate() {
+            @Override
+            public void query(String sql, RowCallbackHandler handler, Object... args) {
+                throw new OutOfMemoryError("scan page");
+            }
+        };
+        DuplicateDetectionJob failing = new DuplicateDetectionJob(broken, app.getBean(ShardRouter.class),
+                app.getBean(PlatformTransactionManager.class), 1);
+        try {
+            failing.start();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (failing.getProgress().get("phase") == DuplicateDetectionJob.Phase.SCANNING
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(DuplicateDetectionJob.Phase.FAILED, failing.getProgress().get("phase"));
+            assertEquals("scan page", failing.getProgress().get("error"));
+            // Not stuck: another run can be started
+            failing.start();
+        } finally {
+            failing.shutdown();
+        }
+    }
+
+    private static Map<String, Object> awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Map<String, Object> progress = job.getProgress();
+            Object phase = progress.get("phase");
+            if (phase == DuplicateDetectionJob.Phase.COMPLETED || phase == DuplicateDetectionJob.Phase.FAILED) {
+                return progress;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Duplicate detection did not finish: " + job.getProgress());
+    }
+
+    private static void insert(String code, String name, String email, String phone, String address) {
+        jdbc.update("INSERT INTO customers (customer_code, full_name, email, phone, address, status, created_at, updated_at, version) " +
+                    "VALUES (?, ?, ?, ?, ?, 'ACTIVE', NOW(), NOW(), 0)", code, name, email, phone, address);
+    }
+}
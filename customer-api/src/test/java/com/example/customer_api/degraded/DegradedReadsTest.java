@@ -0,0 +1,137 @@
+package com.example.customer_api.degraded;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.customer_api.dto.CustomerResponseDTO;
+import com.example.customer_api.exception.ResourceNotFoundException;
+import com.example.customer_api.service.CustomerService;
+
+class DegradedReadsTest {
+
+    private static final long OPEN_MILLIS = 200;
+
+    private CustomerService customerService;
+    private DegradedReads degradedReads;
+
+    @BeforeEach
+    void setUp() {
+        customerService = mock(CustomerService.class);
+        degradedReads = new DegradedReads(customerService, 2, OPEN_MILLIS);
+        ReflectionTestUtils.setField(degradedReads, "enabled", true);
+        ReflectionTestUtils.setField(degradedReads, "latencyBudgetMillis", 1000L);
+        ReflectionTestUtils.setField(degradedReads, "snapshotMaxEntries", 1000);
+
+        when(customerService.getCustomersForSnapshot(1001)).thenReturn(List.of(customer(1L, "Snapshot Name")));
+        degradedReads.refreshSnapshot();
+    }
+
+    @Test
+    void failingReadsAreAnsweredFromTheSnapshot() {
+        when(customerService.getCustomerById(1L)).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        CustomerResponseDTO customer = degradedReads.read(() -> customerService.getCustomerById(1L), s -> s.byId(1L));
+
+        assertEquals("Snapshot Name", customer.getFullName());
+        assertEquals(1L, degradedReads.getStats().get("staleResponses"));
+    }
+
+    @Test
+    void openBreakerSkipsTheDatabaseThenRecovers() throws InterruptedException {
+        when(customerService.getCustomerById(1L))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(customer(1L, "Live Name"));
+
+        read();
+        read();
+        assertEquals(CircuitBreaker.State.OPEN, degradedReads.getStats().get("state"));
+
+        // Open: served from the snapshot without touching the database
+        assertEquals("Snapshot Name", read());
+        verify(customerService, times(2)).getCustomerById(1L);
+
+        // After open-millis one trial call goes through; it succeeds and closes the breaker
+        Thread.sleep(OPEN_MILLIS + 50);
+        assertEquals("Live Name", read());
+        assertEquals(CircuitBreaker.State.CLOSED, degradedReads.getStats().get("state"));
+    }
+
+    @Test
+    void errorInHalfOpenTrialReopensTheBreaker() throws InterruptedException {
+        when(customerService.getCustomerById(1L))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenThrow(new StackOverflowError())
+                .thenReturn(customer(1L, "Live Name"));
+        read();
+        read();
+
+        Thread.sleep(OPEN_MILLIS + 50);
+        assertThrows(StackOverflowError.class, this::read);
+        assertEquals(CircuitBreaker.State.OPEN, degradedReads.getStats().get("state"));
+
+        // Not stuck with a trial in flight: the next window lets a new trial through
+        Thread.sleep(OPEN_MILLIS + 50);
+        assertEquals("Live Name", read());
+    }
+
+    @Test
+    void snapshotSizeIsCapped() {
+        ReflectionTestUtils.setField(degradedReads, "snapshotMaxEntries", 1);
+        when(customerService.getCustomersForSnapshot(2))
+                .thenReturn(List.of(customer(1L, "First"), customer(2L, "Second")));
+
+        degradedReads.refreshSnapshot();
+
+        assertEquals(1, degradedReads.getStats().get("snapshotSize"));
+    }
+
+    @Test
+    void snapshotAnswersByIdCodeAndStatus() {
+        CustomerSnapshot snapshot = new CustomerSnapshot(
+                List.of(customer(3L, "Three"), customer(7L, "Seven"), customer(9L, "Nine")), LocalDateTime.now());
+
+        assertEquals("Seven", snapshot.byId(7L).getFullName());
+        assertEquals("Nine", snapshot.byCode("DEG9").getFullName());
+        assertEquals(3, snapshot.byStatus("active").size());
+        assertThrows(ResourceNotFoundException.class, () -> snapshot.byId(4L));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.byStatus("ARCHIVED"));
+    }
+
+    @Test
+    void missingFromSnapshotIsStillNotFound() {
+        when(customerService.getCustomerById(2L)).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> degradedReads.read(() -> customerService.getCustomerById(2L), s -> s.byId(2L)));
+    }
+
+    private String read() {
+        return degradedReads.read(() -> customerService.getCustomerById(1L), s -> s.byId(1L)).getFullName();
+    }
+
+    private static CustomerResponseDTO customer(Long id, String name) {
+        CustomerResponseDTO dto = new CustomerResponseDTO();
+        dto.setId(id);
+        dto.setCustomerCode("DEG" + id);
+        dto.setFullName(name);
+        dto.setEmail("deg" + id + "@example.com");
+        dto.setStatus("ACTIVE");
+        dto.setCreatedAt(LocalDateTime.now());
+        dto.setVersion(0L);
+        return dto;
+    }
+}
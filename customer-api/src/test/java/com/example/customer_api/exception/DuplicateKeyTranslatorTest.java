@@ -0,0 +1,68 @@
+package com.example.customer_api.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.sql.SQLException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// Violations shaped as Hibernate reports them from MySQL
+class DuplicateKeyTranslatorTest {
+
+    @Test
+    void createNamesTheKeyThatWasHit() {
+        DataIntegrityViolationException code = duplicate("uk_customers_customer_code", "C001");
+        DataIntegrityViolationException email = duplicate("uk_customers_email", "c001@example.com");
+
+        assertDuplicate("Customer code already exists: C001", code,
+                        DuplicateKeyTranslator.translate(code, "C001", "c001@example.com"));
+        assertDuplicate("Email already exists: c001@example.com", email,
+                        DuplicateKeyTranslator.translate(email, "C001", "c001@example.com"));
+    }
+
+    @Test
+    void updateKnowsOnlyTheEmail() {
+        // customer_code is not updatable, so the update path passes no code
+        DataIntegrityViolationException email = duplicate("uk_customers_email", "c002@example.com");
+
+        assertDuplicate("Email already exists: c002@example.com", email,
+                        DuplicateKeyTranslator.translate(email, null, "c002@example.com"));
+    }
+
+    @Test
+    void generatedKeyNamesFallBackToTheDuplicatedValue() {
+        DataIntegrityViolationException code = duplicate("UK6ycb8p7x1o1u4ct1gjmhrxcaj", "C003");
+        // MySQL compares emails case-insensitively, so the stored spelling may differ
+        DataIntegrityViolationException email = duplicate("UKrj4v8u8hqw5qyhb8v1hq7o6e2", "C004@Example.com");
+
+        assertDuplicate("Customer code already exists: C003", code,
+                        DuplicateKeyTranslator.translate(code, "C003", "c003@example.com"));
+        assertDuplicate("Email already exists: c004@example.com", email,
+                        DuplicateKeyTranslator.translate(email, null, "c004@example.com"));
+    }
+
+    @Test
+    void otherViolationsAreLeftAlone() {
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("Column 'full_name' cannot be null", "23000", 1048));
+
+        assertSame(notNull, DuplicateKeyTranslator.translate(notNull, "C005", "c005@example.com"));
+    }
+
+    private static void assertDuplicate(String message, Throwable cause, RuntimeException translated) {
+        assertInstanceOf(DuplicateResourceException.class, translated);
+        assertEquals(message, translated.getMessage());
+        assertSame(cause, translated.getCause());
+    }
+
+    private static DataIntegrityViolationException duplicate(String key, String value) {
+        SQLException sql = new SQLException("Duplicate entry '" + value + "' for key 'customers." + key + "'",
+                                            "23000", 1062);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sql, "customers." + key));
+    }
+}
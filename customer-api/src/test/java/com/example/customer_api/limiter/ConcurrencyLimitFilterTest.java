@@ -0,0 +1,166 @@
+package com.example.customer_api.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.FilterChain;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final int LIMIT = 2;
+    private static final FilterChain OK = (request, response) -> { };
+
+    private ConcurrencyLimitFilter filter;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        // A fixed limit, so the gradient never moves it during a test
+        filter = new ConcurrencyLimitFilter(Jackson2ObjectMapperBuilder.json().build(), LIMIT, LIMIT, LIMIT, 0.2, 1.5, 20);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "retryAfterSeconds", 1);
+        pool = Executors.newFixedThreadPool(LIMIT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void requestsAreGroupedByPathAndMethod() {
+        assertEquals(ConcurrencyLimitFilter.READ, ConcurrencyLimitFilter.groupOf(request("GET", "/api/customers/1")));
+        assertEquals(ConcurrencyLimitFilter.READ, ConcurrencyLimitFilter.groupOf(request("HEAD", "/api/customers")));
+        assertEquals(ConcurrencyLimitFilter.READ, ConcurrencyLimitFilter.groupOf(request("OPTIONS", "/api/customers")));
+        for (String method : List.of("POST", "PUT", "PATCH", "DELETE")) {
+            assertEquals(ConcurrencyLimitFilter.WRITE, ConcurrencyLimitFilter.groupOf(request(method, "/api/customers/1")));
+        }
+        assertEquals(ConcurrencyLimitFilter.AUTH, ConcurrencyLimitFilter.groupOf(request("POST", "/api/auth/login")));
+        assertEquals(ConcurrencyLimitFilter.AUTH, ConcurrencyLimitFilter.groupOf(request("GET", "/api/auth/me")));
+
+        run("GET", "/api/customers");
+        run("POST", "/api/customers");
+        run("PUT", "/api/customers/1");
+        run("POST", "/api/auth/login");
+
+        assertEquals(1L, stats(ConcurrencyLimitFilter.READ).get("accepted"));
+        assertEquals(2L, stats(ConcurrencyLimitFilter.WRITE).get("accepted"));
+        assertEquals(1L, stats(ConcurrencyLimitFilter.AUTH).get("accepted"));
+    }
+
+    @Test
+    void requestsOverTheLimitAreShedWith503() throws Exception {
+        CountDownLatch entered = new CountDownLatch(LIMIT);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain holding = (request, response) -> {
+            entered.countDown();
+            await(release);
+        };
+        List<Future<MockHttpServletResponse>> held = List.of(
+                pool.submit(() -> run(request("GET", "/api/customers/1"), holding)),
+                pool.submit(() -> run(request("GET", "/api/customers/2"), holding)));
+        await(entered);
+
+        MockHttpServletResponse shed = run("GET", "/api/customers/3");
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(shed.getContentAsString().contains("Too many concurrent requests"), shed.getContentAsString());
+        // Other groups keep their own slots, and the limits stay observable
+        assertEquals(200, run("POST", "/api/customers").getStatus());
+        assertEquals(200, run("GET", "/api/limits").getStatus());
+
+        release.countDown();
+        for (Future<MockHttpServletResponse> response : held) {
+            assertEquals(200, response.get(5, TimeUnit.SECONDS).getStatus());
+        }
+        assertEquals(0, stats(ConcurrencyLimitFilter.READ).get("inFlight"));
+        assertEquals(1L, stats(ConcurrencyLimitFilter.READ).get("rejected"));
+        assertEquals(200, run("GET", "/api/customers/3").getStatus());
+    }
+
+    @Test
+    void aFailingRequestFreesItsSlot() {
+        FilterChain failing = (request, response) -> {
+            throw new IllegalStateException("database unavailable");
+        };
+
+        for (int i = 0; i < LIMIT + 1; i++) {
+            assertThrows(IllegalStateException.class, () -> run(request("GET", "/api/customers/1"), failing));
+        }
+
+        assertEquals(0, stats(ConcurrencyLimitFilter.READ).get("inFlight"));
+        assertEquals(200, run("GET", "/api/customers/1").getStatus());
+    }
+
+    @Test
+    void anAsyncRequestHoldsItsSlotUntilItCompletes() {
+        List<MockHttpServletRequest> streams = List.of(request("GET", "/api/customers/export"),
+                                                       request("GET", "/api/customers/export"));
+        for (MockHttpServletRequest stream : streams) {
+            stream.setAsyncSupported(true);
+            run(stream, (request, response) -> request.startAsync());
+        }
+
+        // The filter threads have returned but both requests are still being served
+        assertEquals(LIMIT, stats(ConcurrencyLimitFilter.READ).get("inFlight"));
+        assertEquals(503, run("GET", "/api/customers/1").getStatus());
+
+        streams.get(0).getAsyncContext().complete();
+        assertEquals(LIMIT - 1, stats(ConcurrencyLimitFilter.READ).get("inFlight"));
+        assertEquals(200, run("GET", "/api/customers/1").getStatus());
+    }
+
+    private MockHttpServletResponse run(String method, String uri) {
+        return run(request(method, uri), OK);
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request, FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private Map<String, Object> stats(String group) {
+        return filter.getStats().stream()
+                .filter(stats -> group.equals(stats.get("group")))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.customer_api.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class GradientLimitTest {
+
+    private static final int WINDOW = 10;
+
+    @Test
+    void limitGrowsWhileLatencyHoldsSteady() {
+        GradientLimit limit = new GradientLimit(20, 4, 200, 0.2, 1.5, WINDOW);
+
+        feed(limit, 50, 10, 20);
+
+        assertTrue(limit.getLimit() > 20, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(100, 4, 200, 0.2, 1.5, WINDOW);
+        feed(limit, 5, 10, 100);
+        int before = limit.getLimit();
+
+        // The database slows down fourfold
+        feed(limit, 20, 40, 100);
+
+        assertTrue(limit.getLimit() < before / 2, before + " -> " + limit.getLimit());
+    }
+
+    @Test
+    void limitNeverLeavesItsBounds() {
+        GradientLimit limit = new GradientLimit(10, 4, 16, 0.5, 1.5, WINDOW);
+
+        feed(limit, 100, 10, 16);
+        assertEquals(16, limit.getLimit());
+
+        feed(limit, 30, 1000, 16);
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void lightTrafficDoesNotRaiseTheLimit() {
+        GradientLimit limit = new GradientLimit(50, 4, 200, 0.2, 1.5, WINDOW);
+
+        feed(limit, 50, 10, 3);
+
+        assertFalse(limit.getLimit() > 50);
+    }
+
+    @Test
+    void limiterRejectsOnceTheLimitIsReached() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("read", new GradientLimit(4, 4, 4, 0.2, 1.5, WINDOW));
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(System.nanoTime());
+        assertTrue(limiter.tryAcquire());
+        assertEquals(1L, limiter.getStats().get("rejected"));
+    }
+
+    private void feed(GradientLimit limit, int windows, long latencyMillis, int inFlight) {
+        for (int i = 0; i < windows * WINDOW; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(latencyMillis), inFlight);
+        }
+    }
+}
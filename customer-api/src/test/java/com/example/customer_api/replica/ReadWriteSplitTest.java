@@ -0,0 +1,150 @@
+package com.example.customer_api.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.H2Functions;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.service.CustomerService;
+
+// A primary and one replica as two in-memory databases. The test plays the part of
+// replication: it copies the schema and data once, then keeps only the heartbeat flowing.
+// The replica's copy of the customer is renamed, so each read shows which database served it.
+class ReadWriteSplitTest {
+
+    private static final long MAX_LAG_MILLIS = 300;
+    private static final long READ_YOUR_WRITES_MILLIS = 300;
+
+    private static ConfigurableApplicationContext app;
+    private static CustomerService service;
+    private static ReplicaRoutingDataSource routing;
+    private static JdbcTemplate primary;
+    private static JdbcTemplate replica;
+    private static ScheduledExecutorService replication;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:rw_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT,
+                        "customer.replicas.enabled=true",
+                        "customer.replicas.replicas[0].url=jdbc:h2:mem:rw_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT,
+                        "customer.replicas.replicas[0].username=sa",
+                        "customer.replicas.heartbeat-millis=50",
+                        "customer.replicas.max-lag-millis=" + MAX_LAG_MILLIS,
+                        "customer.replicas.read-your-writes-millis=" + READ_YOUR_WRITES_MILLIS)
+                .run();
+        service = app.getBean(CustomerService.class);
+        routing = app.getBean(ReplicaRoutingDataSource.class);
+        primary = new JdbcTemplate(routing.getPrimary());
+        replica = new JdbcTemplate(routing.getReplicas().get(0));
+        replication = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterAll
+    static void stopApp() {
+        replication.shutdownNow();
+        app.close();
+    }
+
+    @Test
+    void readsMoveToTheReplicaOnlyWhileItIsFresh() throws InterruptedException {
+        service.createCustomer(new CustomerRequestDTO(
+                "RW001", "Primary Name", "rw001@example.com", "0900000000", "1 Replica Road"));
+
+        // No heartbeat on the replica yet, so reads stay on the primary
+        assertEquals("Primary Name", nameOfRw001());
+        assertTrue((Long) primaryStats().get("fallbackReads") > 0);
+
+        copySchemaAndData();
+        replica.update("UPDATE customers SET full_name = 'Replica Name' WHERE customer_code = 'RW001'");
+        replication.scheduleWithFixedDelay(this::copyHeartbeat, 0, 20, TimeUnit.MILLISECONDS);
+
+        await(() -> "Replica Name".equals(nameOfRw001()));
+        assertTrue((Double) routing.getStats().get("replicaReadRatio") > 0);
+
+        // Lookups by code and searches run outside a service transaction, but their queries
+        // are still read-only and routed the same way; the by-id read fills the cache
+        Long id = service.getCustomerByCode("RW001").getId();
+        assertEquals("Replica Name", service.getCustomerByCode("RW001").getFullName());
+        assertEquals("Replica Name", service.searchCustomers("RW001").get(0).getFullName());
+        assertEquals("Replica Name", service.getCustomerById(id).getFullName());
+
+        // A client that just wrote reads from the primary until its window closes, and the
+        // cached replica copy is neither served to it nor replaced by what it read
+        ReadYourWrites.pinUntil(System.currentTimeMillis() + READ_YOUR_WRITES_MILLIS);
+        try {
+            assertEquals("Primary Name", nameOfRw001());
+            assertEquals("Primary Name", service.getCustomerByCode("RW001").getFullName());
+            assertEquals("Primary Name", service.searchCustomers("RW001").get(0).getFullName());
+            assertEquals("Primary Name", service.getCustomerById(id).getFullName());
+            assertTrue((Long) primaryStats().get("pinnedReads") > 0);
+        } finally {
+            ReadYourWrites.clear();
+        }
+        assertEquals("Replica Name", nameOfRw001());
+        assertEquals("Replica Name", service.getCustomerById(id).getFullName());
+
+        // Replication stalls: once the heartbeat is older than the lag bound, reads return to the primary
+        replication.shutdownNow();
+        await(() -> "Primary Name".equals(nameOfRw001()));
+    }
+
+    private String nameOfRw001() {
+        return service.getCustomersByStatus("ACTIVE").stream()
+                .filter(c -> c.getCustomerCode().equals("RW001"))
+                .findFirst()
+                .orElseThrow()
+                .getFullName();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> primaryStats() {
+        return (Map<String, Object>) routing.getStats().get("primary");
+    }
+
+    private void copySchemaAndData() {
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        // The replica's INIT may recreate the REVERSE alias on a new connection at any point
+        script.forEach(sql -> {
+            try {
+                replica.execute(sql.replace("CREATE FORCE ALIAS ", "CREATE FORCE ALIAS IF NOT EXISTS "));
+            } catch (DataAccessException e) {
+                if (!sql.startsWith("CREATE FORCE ALIAS ")) {
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private void copyHeartbeat() {
+        Long beat = primary.queryForObject("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+        replica.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", beat);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "routing never changed");
+            Thread.sleep(20);
+        }
+    }
+}
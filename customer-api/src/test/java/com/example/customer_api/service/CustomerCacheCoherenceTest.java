@@ -0,0 +1,112 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.dto.CustomerResponseDTO;
+import com.example.customer_api.exception.ResourceNotFoundException;
+
+// Two application instances share one database, the way customer-api and Webapp-lab9
+// share customer_management. A write through one must become visible through the
+// other's cache within customer.cache.max-staleness-millis.
+class CustomerCacheCoherenceTest {
+
+    private static final long MAX_STALENESS_MILLIS = 2000;
+
+    private static ConfigurableApplicationContext appA;
+    private static ConfigurableApplicationContext appB;
+
+    @BeforeAll
+    static void startApps() {
+        appA = start();
+        appB = start();
+    }
+
+    @AfterAll
+    static void stopApps() {
+        appA.close();
+        appB.close();
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties("server.port=0", "customer.cache.max-staleness-millis=" + MAX_STALENESS_MILLIS)
+                .run();
+    }
+
+    @Test
+    void updateInOtherAppIsVisibleWithinStalenessBound() throws InterruptedException {
+        CustomerService a = appA.getBean(CustomerService.class);
+        CustomerService b = appB.getBean(CustomerService.class);
+
+        Long id = a.createCustomer(request("COH001", "Original Name", "coh001@example.com")).getId();
+        warmCache(a, id);
+
+        b.updateCustomer(id, request("COH001", "Renamed Elsewhere", "coh001@example.com"), null, false);
+        long writtenAt = System.currentTimeMillis();
+
+        String seen = await(() -> a.getCustomerById(id).getFullName(), "Renamed Elsewhere");
+        assertEquals("Renamed Elsewhere", seen);
+        assertTrue(System.currentTimeMillis() - writtenAt <= MAX_STALENESS_MILLIS);
+    }
+
+    @Test
+    void deleteInOtherAppIsVisibleWithinStalenessBound() throws InterruptedException {
+        CustomerService a = appA.getBean(CustomerService.class);
+        CustomerService b = appB.getBean(CustomerService.class);
+
+        Long id = a.createCustomer(request("COH002", "To Be Deleted", "coh002@example.com")).getId();
+        warmCache(a, id);
+
+        b.deleteCustomer(id);
+
+        String seen = await(() -> {
+            try {
+                a.getCustomerById(id);
+                return "present";
+            } catch (ResourceNotFoundException e) {
+                return "gone";
+            }
+        }, "gone");
+        assertEquals("gone", seen);
+        assertThrows(ResourceNotFoundException.class, () -> a.getCustomerById(id));
+    }
+
+    // Reads until a cache hit is recorded, so the later assertions really exercise eviction
+    private void warmCache(CustomerService service, Long id) throws InterruptedException {
+        CustomerCache cache = appA.getBean(CustomerCache.class);
+        long deadline = System.currentTimeMillis() + MAX_STALENESS_MILLIS;
+        long hitsBefore = (Long) cache.getStats().get("hits");
+        while ((Long) cache.getStats().get("hits") == hitsBefore) {
+            assertTrue(System.currentTimeMillis() < deadline, "cache never served a hit");
+            CustomerResponseDTO customer = service.getCustomerById(id);
+            assertEquals(id, customer.getId());
+            Thread.sleep(20);
+        }
+    }
+
+    private String await(Supplier<String> read, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + MAX_STALENESS_MILLIS;
+        String value = read.get();
+        while (!expected.equals(value) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            value = read.get();
+        }
+        return value;
+    }
+
+    private CustomerRequestDTO request(String code, String fullName, String email) {
+        return new CustomerRequestDTO(code, fullName, email, "0900000000", "1 Test Street");
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.H2Functions;
+import com.example.customer_api.dto.CustomerChangeDTO;
+import com.example.customer_api.dto.CustomerChangeFeedDTO;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.dto.CustomerUpdateDTO;
+
+// Paging through more changes with one timestamp than fit on a page, updates and deletes
+// interleaved by id, must return each change exactly once in (time, id) order
+class CustomerChangeFeedTest {
+
+    private static final LocalDateTime BUSY = LocalDateTime.of(2021, 6, 1, 10, 0);
+    private static final LocalDateTime LATER = BUSY.plusSeconds(1);
+
+    private static ConfigurableApplicationContext app;
+    private static CustomerService customers;
+    private static final List<String> expected = new ArrayList<>();
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties("server.port=0")
+                // An argument, not a default property: the test application.properties would win over that
+                .run("--spring.datasource.url=jdbc:h2:mem:change_feed;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT);
+        customers = app.getBean(CustomerService.class);
+        JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+
+        // Ten customers; every third is deleted, the rest renamed. All but the last two
+        // changed at BUSY, so updates and tombstones share it and alternate by id.
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            String code = String.format("CHG%03d", i);
+            ids.add(customers.createCustomer(new CustomerRequestDTO(
+                    code, "Customer " + code, code.toLowerCase() + "@example.com", "0900000000", "1 Feed Street")).getId());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            LocalDateTime at = i < 8 ? BUSY : LATER;
+            if (i % 3 == 1) {
+                customers.deleteCustomer(id);
+                jdbc.update("UPDATE customer_tombstones SET deleted_at = ? WHERE customer_id = ?", at, id);
+                expected.add(CustomerChangeDTO.TYPE_DELETE + " " + id);
+            } else {
+                CustomerUpdateDTO rename = new CustomerUpdateDTO();
+                rename.setFullName("Renamed " + id);
+                customers.partialUpdateCustomer(id, rename, null, false);
+                jdbc.update("UPDATE customers SET updated_at = ? WHERE id = ?", at, id);
+                expected.add(CustomerChangeDTO.TYPE_UPSERT + " " + id);
+            }
+        }
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void pagesSmallerThanOneTimestampNeitherSkipNorRepeat() {
+        for (int limit : new int[] {1, 2, 3, 4}) {
+            assertEquals(expected, readAll(limit), "limit " + limit);
+        }
+    }
+
+    @Test
+    void deletedCustomersAreTombstones() {
+        int tombstones = 0;
+        for (CustomerChangeDTO change : customers.getChangesSince(null, 20).getChanges()) {
+            if (CustomerChangeDTO.TYPE_DELETE.equals(change.getType())) {
+                assertNull(change.getCustomer());
+                tombstones++;
+            } else {
+                assertEquals(change.getCustomerId(), change.getCustomer().getId());
+                assertEquals("Renamed " + change.getCustomerId(), change.getCustomer().getFullName());
+            }
+        }
+        assertEquals(3, tombstones);
+    }
+
+    private static List<String> readAll(int limit) {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        for (int page = 0; page <= expected.size(); page++) {
+            CustomerChangeFeedDTO feed = customers.getChangesSince(cursor, limit);
+            assertTrue(feed.getChanges().size() <= limit);
+            feed.getChanges().forEach(change -> seen.add(change.getType() + " " + change.getCustomerId()));
+            cursor = feed.getNextCursor();
+            if (!feed.isHasMore()) {
+                // Nothing left behind the last cursor either
+                assertTrue(customers.getChangesSince(cursor, limit).getChanges().isEmpty());
+                return seen;
+            }
+        }
+        return fail("feed did not end after " + expected.size() + " pages of " + limit);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.H2Functions;
+import com.example.customer_api.dto.CustomerGrowthDTO;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.dto.CustomerUpdateDTO;
+
+// The rollup must agree with what the write paths did, and the backfill with the customers table
+class CustomerGrowthServiceTest {
+
+    private static ConfigurableApplicationContext app;
+    private static CustomerService customers;
+    private static CustomerGrowthService growth;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:growth;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT)
+                .run();
+        customers = app.getBean(CustomerService.class);
+        growth = app.getBean(CustomerGrowthService.class);
+        jdbc = app.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void writePathsMaintainTodaysRollup() {
+        LocalDate today = LocalDate.now();
+        // Other tests in this JVM may also have written today
+        CustomerGrowthDTO before = growth.getGrowth("day", today, today).get(0);
+
+        Long kept = customers.createCustomer(request("GRW001", "grw001@example.com")).getId();
+        Long deleted = customers.createCustomer(request("GRW002", "grw002@example.com")).getId();
+        Long toggled = customers.createCustomer(request("GRW003", "grw003@example.com")).getId();
+        customers.partialUpdateCustomer(kept, status("INACTIVE"), null, false);
+        // Repeating a status is not a transition
+        customers.partialUpdateCustomer(kept, status("INACTIVE"), null, false);
+        customers.partialUpdateCustomer(toggled, status("INACTIVE"), null, false);
+        customers.partialUpdateCustomer(toggled, status("ACTIVE"), null, false);
+        customers.deleteCustomer(deleted);
+        customers.deleteCustomer(kept);
+
+        CustomerGrowthDTO after = growth.getGrowth("day", today, today).get(0);
+        assertEquals(3, after.getCreated() - before.getCreated());
+        assertEquals(2, after.getDeactivated() - before.getDeactivated());
+        assertEquals(1, after.getReactivated() - before.getReactivated());
+        assertEquals(2, after.getDeleted() - before.getDeleted());
+        // Only toggled is still active
+        assertEquals(1, after.getNetGrowth() - before.getNetGrowth());
+    }
+
+    @Test
+    void backfillRebuildsPastDaysFromCustomersTable() {
+        insertCustomer("BKF001", "2020-03-02 09:00:00", "ACTIVE", "2020-03-02 09:00:00");
+        insertCustomer("BKF002", "2020-03-02 17:30:00", "INACTIVE", "2020-03-20 12:00:00");
+        insertCustomer("BKF003", "2020-03-16 08:00:00", "ACTIVE", "2020-03-16 08:00:00");
+
+        LocalDate from = LocalDate.of(2020, 3, 1);
+        LocalDate to = LocalDate.of(2020, 3, 31);
+        Map<String, Object> first = growth.backfill(from, to, false);
+        assertEquals(3, first.get("daysWritten"));
+
+        // Days that already have rows are not counted twice
+        Map<String, Object> again = growth.backfill(from, to, false);
+        assertEquals(0, again.get("daysWritten"));
+        assertEquals(3, again.get("daysSkipped"));
+        growth.backfill(from, to, true);
+
+        List<CustomerGrowthDTO> months = growth.getGrowth("month", from, to);
+        assertEquals(1, months.size());
+        assertEquals(3, months.get(0).getCreated());
+        assertEquals(1, months.get(0).getDeactivated());
+        assertEquals(2, months.get(0).getNetGrowth());
+
+        // Weeks start on Monday and quiet weeks are still listed
+        List<CustomerGrowthDTO> weeks = growth.getGrowth("week", from, to);
+        assertEquals(LocalDate.of(2020, 2, 24), weeks.get(0).getPeriodStart());
+        assertEquals(6, weeks.size());
+        assertEquals(2, weeks.get(1).getCreated());
+        assertEquals(0, weeks.get(2).getCreated());
+    }
+
+    private static void insertCustomer(String code, String createdAt, String status, String updatedAt) {
+        jdbc.update("INSERT INTO customers (customer_code, full_name, email, status, created_at, updated_at, version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, 0)",
+                    code, "Backfill " + code, code.toLowerCase() + "@example.com", status, createdAt, updatedAt);
+    }
+
+    private static CustomerRequestDTO request(String code, String email) {
+        CustomerRequestDTO dto = new CustomerRequestDTO();
+        dto.setCustomerCode(code);
+        dto.setFullName("Growth " + code);
+        dto.setEmail(email);
+        return dto;
+    }
+
+    private static CustomerUpdateDTO status(String status) {
+        CustomerUpdateDTO dto = new CustomerUpdateDTO();
+        dto.setStatus(status);
+        return dto;
+    }
+}
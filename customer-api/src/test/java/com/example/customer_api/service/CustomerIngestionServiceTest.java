@@ -0,0 +1,285 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.customer_api.controller.CustomerRestController;
+import com.example.customer_api.degraded.DegradedReads;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.entity.Customer;
+import com.example.customer_api.exception.GlobalExceptionHandler;
+import com.example.customer_api.repository.CustomerRepository;
+import com.example.customer_api.sharding.ShardContext;
+import com.example.customer_api.sharding.ShardRouter;
+import com.example.customer_api.sharding.ShardingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// The writer against an in-memory stand-in for three shards' customers tables. Holding the
+// writer inside its first INSERT fixes what is queued and what the next batch contains.
+class CustomerIngestionServiceTest {
+
+    private static final int SHARDS = 3;
+
+    private CustomerRepository repository;
+    private CustomerGrowthRollup growthRollup;
+    private ShardRouter router;
+    private CustomerIngestionService ingestion;
+
+    // shard -> customer code -> email, as committed
+    private final Map<Integer, Map<String, String>> tables = new ConcurrentHashMap<>();
+    private final List<Insert> inserts = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch release;
+    private CountDownLatch writerHeld;
+
+    @BeforeEach
+    void setUp() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        for (int i = 0; i < SHARDS; i++) {
+            properties.getShards().add(new ShardingProperties.Shard());
+            tables.put(i, new ConcurrentHashMap<>());
+        }
+        router = new ShardRouter(properties);
+        repository = mock(CustomerRepository.class);
+        growthRollup = mock(CustomerGrowthRollup.class);
+        when(repository.insertAll(anyList())).thenAnswer(invocation -> {
+            CountDownLatch gate = release;
+            if (gate != null) {
+                release = null;
+                writerHeld.countDown();
+                await(gate);
+            }
+            List<Customer> rows = invocation.getArgument(0);
+            int shard = ShardContext.current() == null ? 0 : ShardContext.current();
+            inserts.add(new Insert(shard, rows.stream().map(Customer::getCustomerCode).toList()));
+            return insert(tables.get(shard), rows);
+        });
+
+        ingestion = new CustomerIngestionService(repository, router, growthRollup, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(ingestion, "queueCapacity", 100);
+        ReflectionTestUtils.setField(ingestion, "batchSize", 500);
+        ReflectionTestUtils.setField(ingestion, "maxTracked", 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        CountDownLatch gate = release;
+        if (gate != null) {
+            gate.countDown();
+        }
+        ingestion.stop();
+    }
+
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() throws Exception {
+        ReflectionTestUtils.setField(ingestion, "queueCapacity", 2);
+        ingestion.start();
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new CustomerRestController(
+                        mock(CustomerService.class), mock(IdempotencyService.class), ingestion,
+                        mock(CustomerCache.class), mock(RequestCoalescer.class), mock(DegradedReads.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        CountDownLatch gate = holdWriter();
+        String writing = ingestion.submit(request("C100", "c100@example.com")).getTrackingId();
+        await(writerHeld);
+        List<String> queued = List.of(ingestion.submit(request("C101", "c101@example.com")).getTrackingId(),
+                                      ingestion.submit(request("C102", "c102@example.com")).getTrackingId());
+
+        mvc.perform(post("/api/customers/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request("C103", "c103@example.com"))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        assertEquals(1L, ingestion.getMetrics().get("rejected"));
+
+        // Space frees up once the writer moves on, and nothing accepted was dropped
+        gate.countDown();
+        awaitDone(writing);
+        queued.forEach(this::awaitDone);
+        assertEquals(IngestionState.WRITTEN, ingestion.getStatus(queued.get(1)).getState());
+        assertEquals(Set.of("C100", "C101", "C102"), allCodes());
+        mvc.perform(post("/api/customers/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request("C103", "c103@example.com"))))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    void aBatchIsOneInsertPerShard() {
+        ingestion.start();
+        CountDownLatch gate = holdWriter();
+        String first = ingestion.submit(request("C200", "c200@example.com")).getTrackingId();
+        await(writerHeld);
+
+        Map<String, String> batch = new LinkedHashMap<>();
+        Map<Integer, Set<String>> expected = new LinkedHashMap<>();
+        for (int i = 201; i <= 230; i++) {
+            String code = "C" + i;
+            batch.put(ingestion.submit(request(code, code.toLowerCase() + "@example.com")).getTrackingId(), code);
+            expected.computeIfAbsent(router.shardForCode(code), shard -> new HashSet<>()).add(code);
+        }
+        assertEquals(SHARDS, expected.size(), "the batch should span every shard");
+        gate.countDown();
+        awaitDone(first);
+        batch.keySet().forEach(this::awaitDone);
+
+        // The held INSERT, then one statement per shard for the 30 rows queued behind it
+        List<Insert> batchInserts = inserts.subList(1, inserts.size());
+        assertEquals(SHARDS, batchInserts.size());
+        for (Insert insert : batchInserts) {
+            assertEquals(expected.get(insert.shard()), new HashSet<>(insert.codes()));
+            assertTrue(tables.get(insert.shard()).keySet().containsAll(insert.codes()));
+        }
+        assertEquals(2L, ingestion.getMetrics().get("batches"));
+        assertEquals(31L, ingestion.getMetrics().get("written"));
+    }
+
+    @Test
+    void aDuplicateInABatchFailsOnlyThatRow() {
+        ingestion.start();
+        // Already on the shard C302 routes to, under another code
+        tables.get(router.shardForCode("C302")).put("C399", "taken@example.com");
+        CountDownLatch gate = holdWriter();
+        String first = ingestion.submit(request("C300", "c300@example.com")).getTrackingId();
+        await(writerHeld);
+
+        Map<String, String> batch = new LinkedHashMap<>();
+        for (int i = 301; i <= 306; i++) {
+            String code = "C" + i;
+            String email = i == 302 ? "taken@example.com" : code.toLowerCase() + "@example.com";
+            batch.put(code, ingestion.submit(request(code, email)).getTrackingId());
+        }
+        gate.countDown();
+        awaitDone(first);
+        batch.values().forEach(this::awaitDone);
+
+        // The shard's multi-row INSERT was rejected as a whole and retried row by row
+        int badShard = router.shardForCode("C302");
+        assertTrue(inserts.stream().anyMatch(insert -> insert.shard() == badShard && insert.codes().size() > 1
+                                                       && insert.codes().contains("C302")),
+                   "C302 was not written as part of a batch");
+        batch.forEach((code, trackingId) -> {
+            if (code.equals("C302")) {
+                assertEquals(IngestionState.FAILED, ingestion.getStatus(trackingId).getState());
+                assertEquals("Email already exists: taken@example.com", ingestion.getStatus(trackingId).getError());
+            } else {
+                assertEquals(IngestionState.WRITTEN, ingestion.getStatus(trackingId).getState(), code);
+                assertNull(ingestion.getStatus(trackingId).getError());
+            }
+        });
+        assertEquals(Set.of("C300", "C301", "C303", "C304", "C305", "C306", "C399"), allCodes());
+        assertEquals(6L, ingestion.getMetrics().get("written"));
+        assertEquals(1L, ingestion.getMetrics().get("failed"));
+
+        // Only committed rows are counted in the rollup
+        ArgumentCaptor<Integer> counted = ArgumentCaptor.forClass(Integer.class);
+        verify(growthRollup, atLeastOnce()).recordCreated(counted.capture());
+        assertEquals(6, counted.getAllValues().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    // The next INSERT blocks until the returned latch is released
+    private CountDownLatch holdWriter() {
+        writerHeld = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        release = gate;
+        return gate;
+    }
+
+    // Unique customer_code and email per shard; a violation rejects the whole statement
+    private static int insert(Map<String, String> table, List<Customer> rows) {
+        synchronized (table) {
+            Set<String> codes = new HashSet<>(table.keySet());
+            Set<String> emails = new HashSet<>(table.values());
+            for (Customer row : rows) {
+                if (!codes.add(row.getCustomerCode())) {
+                    throw duplicate("uk_customers_customer_code", row.getCustomerCode());
+                }
+                if (!emails.add(row.getEmail())) {
+                    throw duplicate("uk_customers_email", row.getEmail());
+                }
+            }
+            rows.forEach(row -> table.put(row.getCustomerCode(), row.getEmail()));
+            return rows.size();
+        }
+    }
+
+    private static DataIntegrityViolationException duplicate(String constraint, String value) {
+        SQLException sql = new SQLException("Duplicate entry '" + value + "' for key 'customers." + constraint + "'",
+                                            "23000", 1062);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sql, constraint));
+    }
+
+    private Set<String> allCodes() {
+        Set<String> codes = new HashSet<>();
+        tables.values().forEach(table -> codes.addAll(table.keySet()));
+        return codes;
+    }
+
+    private void awaitDone(String trackingId) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ingestion.getStatus(trackingId).getState() == IngestionState.QUEUED) {
+            assertTrue(System.currentTimeMillis() < deadline, trackingId + " is still queued");
+            sleep(10);
+        }
+    }
+
+    private static CustomerRequestDTO request(String code, String email) {
+        return new CustomerRequestDTO(code, "Customer " + code, email, "0900000000", "1 Ingest Street");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Insert(int shard, List<String> codes) {
+    }
+}
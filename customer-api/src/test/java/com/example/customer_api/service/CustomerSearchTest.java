@@ -0,0 +1,108 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.H2Functions;
+import com.example.customer_api.dto.AdvancedSearchDTO;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.dto.CustomerResponseDTO;
+
+// Searches go through the generated search-key columns, which the database keeps up to date
+class CustomerSearchTest {
+
+    private static ConfigurableApplicationContext app;
+    private static CustomerService customers;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:search;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT)
+                .run();
+        customers = app.getBean(CustomerService.class);
+        jdbc = app.getBean(JdbcTemplate.class);
+
+        customers.createCustomer(request("C901", "Alice Nguyen", "Alice.N@Contoso.com", "+1 (555) 010-4477"));
+        customers.createCustomer(request("C902", "Bob Alison", "bob@fabrikam.io", "0903-555-123"));
+        customers.createCustomer(request("C910", "100% Real", "real_deal@contoso.org", null));
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void generatedColumnsHoldNormalizedKeys() {
+        Map<String, Object> row = jdbc.queryForMap(
+                "SELECT full_name_lc, email_lc, email_domain, phone_digits, phone_digits_reversed " +
+                "FROM customers WHERE customer_code = 'C901'");
+        assertEquals("alice nguyen", row.get("full_name_lc"));
+        assertEquals("alice.n@contoso.com", row.get("email_lc"));
+        assertEquals("contoso.com", row.get("email_domain"));
+        assertEquals("15550104477", row.get("phone_digits"));
+        assertEquals("77440105551", row.get("phone_digits_reversed"));
+
+        // Writes that bypass the entity are covered too
+        jdbc.update("UPDATE customers SET full_name = 'Alicia Nguyen' WHERE customer_code = 'C901'");
+        assertEquals("alicia nguyen", jdbc.queryForObject(
+                "SELECT full_name_lc FROM customers WHERE customer_code = 'C901'", String.class));
+        jdbc.update("UPDATE customers SET full_name = 'Alice Nguyen' WHERE customer_code = 'C901'");
+    }
+
+    @Test
+    void keywordSearchMatchesPrefixes() {
+        assertEquals(List.of("C901"), codes(customers.searchCustomers("ALI")));
+        assertEquals(List.of("C902"), codes(customers.searchCustomers("bob@")));
+        assertEquals(List.of("C901", "C902"), codes(customers.searchCustomers("c90")));
+        // Only prefixes: "Alison" is not the start of Bob's name
+        assertEquals(List.of(), codes(customers.searchCustomers("alison")));
+        assertEquals(List.of("C901", "C910"), codes(customers.searchCustomers("@contoso")));
+        // LIKE wildcards in the keyword are literal
+        assertEquals(List.of("C910"), codes(customers.searchCustomers("100%")));
+        assertEquals(List.of(), codes(customers.searchCustomers("real%")));
+        assertEquals(List.of("C910"), codes(customers.searchCustomers("real_")));
+    }
+
+    @Test
+    void advancedSearchMatchesPhonePrefixOrSuffix() {
+        assertEquals(List.of("C901"), codes(customers.advancedSearch(search(null, null, "1555"))));
+        assertEquals(List.of("C901"), codes(customers.advancedSearch(search(null, null, "04477"))));
+        assertEquals(List.of("C902"), codes(customers.advancedSearch(search(null, null, "555-123"))));
+        assertEquals(List.of(), codes(customers.advancedSearch(search(null, null, "0104"))));
+        assertEquals(List.of("C902"), codes(customers.advancedSearch(search("bob", "@fabrikam", "0903"))));
+        assertEquals(List.of("C910"), codes(customers.advancedSearch(search(null, "real", null))));
+        assertThrows(IllegalArgumentException.class, () -> customers.advancedSearch(search(null, null, "+-")));
+    }
+
+    private static List<String> codes(List<CustomerResponseDTO> found) {
+        return found.stream().map(CustomerResponseDTO::getCustomerCode).sorted().toList();
+    }
+
+    private static AdvancedSearchDTO search(String name, String email, String phone) {
+        return new AdvancedSearchDTO(name, email, null, phone, null);
+    }
+
+    private static CustomerRequestDTO request(String code, String name, String email, String phone) {
+        CustomerRequestDTO dto = new CustomerRequestDTO();
+        dto.setCustomerCode(code);
+        dto.setFullName(name);
+        dto.setEmail(email);
+        dto.setPhone(phone);
+        return dto;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.entity.Customer;
+import com.example.customer_api.exception.DuplicateResourceException;
+import com.example.customer_api.repository.CustomerChangeLogRepository;
+import com.example.customer_api.repository.CustomerRepository;
+import com.example.customer_api.repository.CustomerTombstoneRepository;
+
+// H2 cannot run the MySQL upsert (IF, <=>) nor report its useAffectedRows counts, so the
+// repository answers with the counts MySQL gives and the statement's guards are checked as text
+class CustomerUpsertTest {
+
+    private CustomerRepository repository;
+    private CustomerChangeLogRepository changeLog;
+    private CustomerCache cache;
+    private CustomerGrowthRollup growthRollup;
+    private CustomerServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CustomerRepository.class);
+        changeLog = mock(CustomerChangeLogRepository.class);
+        cache = mock(CustomerCache.class);
+        growthRollup = mock(CustomerGrowthRollup.class);
+        service = new CustomerServiceImpl(repository, mock(CustomerTombstoneRepository.class), changeLog, cache,
+                                          mock(RequestCoalescer.class), growthRollup,
+                                          mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void oneRowIsACreate() {
+        whenUpserted().thenReturn(1);
+
+        assertEquals(UpsertOutcome.CREATED, service.upsertCustomerByCode("C001", request("C001", "c001@example.com")));
+
+        verify(growthRollup).recordCreated(1);
+        verify(changeLog, never()).logChangeByCode(anyString(), any());
+    }
+
+    @Test
+    void twoRowsIsAnUpdate() {
+        whenUpserted().thenReturn(2);
+        when(repository.findByCustomerCode("C002")).thenReturn(Optional.of(customer(7L, "C002", "c002@example.com")));
+
+        assertEquals(UpsertOutcome.UPDATED, service.upsertCustomerByCode("C002", request("C002", "c002@example.com")));
+
+        verify(changeLog).logChangeByCode(eq("C002"), any());
+        verify(cache).evictAfterCommit(7L);
+        verify(growthRollup, never()).recordCreated(anyInt());
+    }
+
+    @Test
+    void zeroRowsOnTheCustomersOwnRowIsUnchanged() {
+        whenUpserted().thenReturn(0);
+        // Stored with different case: the email key compares case-insensitively
+        when(repository.findByCustomerCode("C003")).thenReturn(Optional.of(customer(8L, "C003", "C003@Example.com")));
+
+        assertEquals(UpsertOutcome.UNCHANGED, service.upsertCustomerByCode("C003", request("C003", "c003@example.com")));
+
+        verify(changeLog, never()).logChangeByCode(anyString(), any());
+        verify(cache, never()).evictAfterCommit(anyLong());
+        verify(growthRollup, never()).recordCreated(anyInt());
+    }
+
+    @Test
+    void newCodeWithAnotherCustomersEmailIsAConflict() {
+        // The INSERT hit the email key of C005's row and the guards left that row as it was
+        whenUpserted().thenReturn(0);
+        when(repository.findByCustomerCode("C004")).thenReturn(Optional.empty());
+
+        DuplicateResourceException conflict = assertThrows(DuplicateResourceException.class,
+                () -> service.upsertCustomerByCode("C004", request("C004", "c005@example.com")));
+
+        assertEquals("Email already exists: c005@example.com", conflict.getMessage());
+        verify(changeLog, never()).logChangeByCode(anyString(), any());
+        verify(cache, never()).evictAfterCommit(anyLong());
+        verify(growthRollup, never()).recordCreated(anyInt());
+    }
+
+    @Test
+    void existingCodeTakingAnotherCustomersEmailIsAConflict() {
+        // The update of C006's own row then violates the email key
+        whenUpserted().thenThrow(duplicate("uk_customers_email", "c007@example.com"));
+
+        DuplicateResourceException conflict = assertThrows(DuplicateResourceException.class,
+                () -> service.upsertCustomerByCode("C006", request("C006", "c007@example.com")));
+
+        assertEquals("Email already exists: c007@example.com", conflict.getMessage());
+        verify(changeLog, never()).logChangeByCode(anyString(), any());
+    }
+
+    @Test
+    void everyAssignmentIsGuardedByTheCustomerCode() throws NoSuchMethodException {
+        String sql = CustomerRepository.class.getMethod("upsertByCustomerCode", String.class, String.class,
+                String.class, String.class, String.class, LocalDateTime.class).getAnnotation(Query.class).value();
+        String update = sql.substring(sql.indexOf("ON DUPLICATE KEY UPDATE ") + "ON DUPLICATE KEY UPDATE ".length());
+
+        // Top-level "column = expression" pairs; the guard's own comparison follows "IF(", not ", "
+        Map<String, String> assignments = new LinkedHashMap<>();
+        Matcher matcher = Pattern.compile("(?:^|, )(\\w+) = (.+?)(?=, \\w+ = |$)").matcher(update);
+        while (matcher.find()) {
+            assignments.put(matcher.group(1), matcher.group(2));
+        }
+
+        assertEquals(List.of("version", "updated_at", "full_name", "email", "phone", "address"),
+                     List.copyOf(assignments.keySet()));
+        assignments.forEach((column, expression) -> assertTrue(
+                expression.startsWith("IF(customer_code = VALUES(customer_code)"), column + " = " + expression));
+        // Unchanged values must leave version and updated_at alone so MySQL reports 0 rows
+        assertTrue(assignments.get("version").contains("NOT (full_name <=> VALUES(full_name)"), assignments.get("version"));
+    }
+
+    private OngoingStubbing<Integer> whenUpserted() {
+        return when(repository.upsertByCustomerCode(anyString(), any(), any(), any(), any(), any()));
+    }
+
+    private static CustomerRequestDTO request(String code, String email) {
+        return new CustomerRequestDTO(code, "Customer " + code, email, "0900000000", "1 Upsert Street");
+    }
+
+    private static Customer customer(Long id, String code, String email) {
+        Customer customer = new Customer(code, "Customer " + code, email, "0900000000", "1 Upsert Street");
+        customer.setId(id);
+        return customer;
+    }
+
+    private static DataIntegrityViolationException duplicate(String key, String value) {
+        SQLException sql = new SQLException("Duplicate entry '" + value + "' for key 'customers." + key + "'",
+                                            "23000", 1062);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sql, "customers." + key));
+    }
+}
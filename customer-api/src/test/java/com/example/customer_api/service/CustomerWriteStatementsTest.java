@@ -0,0 +1,114 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.H2Functions;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.dto.CustomerUpdateDTO;
+
+// Status changes and deletes touch the customers row with as few statements as the rollup allows
+class CustomerWriteStatementsTest {
+
+    // Writes to the customers table seen by Hibernate; reads and other tables are ignored
+    public static class CustomerWrites implements StatementInspector {
+
+        static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            String lower = sql.toLowerCase();
+            if (lower.startsWith("update customers") || lower.startsWith("delete from customers")
+                    || (lower.startsWith("select") && lower.contains(" from customers") && lower.contains("for update"))) {
+                synchronized (statements) {
+                    statements.add(lower);
+                }
+            }
+            return sql;
+        }
+    }
+
+    private static ConfigurableApplicationContext app;
+    private static CustomerService customers;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:write_statements;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT,
+                        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" + CustomerWrites.class.getName())
+                .run();
+        customers = app.getBean(CustomerService.class);
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @BeforeEach
+    void clear() {
+        synchronized (CustomerWrites.statements) {
+            CustomerWrites.statements.clear();
+        }
+    }
+
+    @Test
+    void statusIsWrittenOnceByAPartialUpdate() {
+        Long id = customers.createCustomer(request("STM001")).getId();
+        clear();
+
+        CustomerUpdateDTO update = new CustomerUpdateDTO();
+        update.setFullName("Renamed STM001");
+        update.setStatus("INACTIVE");
+        customers.partialUpdateCustomer(id, update, null, false);
+
+        List<String> writes = writes();
+        assertEquals(2, writes.size(), writes.toString());
+        assertEquals(1, writes.stream().filter(sql -> sql.contains("status=") || sql.contains("status =")).count(),
+                writes.toString());
+    }
+
+    @Test
+    void inactiveCustomerIsDeletedWithOneDelete() {
+        Long id = customers.createCustomer(request("STM002")).getId();
+        CustomerUpdateDTO update = new CustomerUpdateDTO();
+        update.setStatus("INACTIVE");
+        customers.partialUpdateCustomer(id, update, null, false);
+        clear();
+
+        customers.deleteCustomer(id);
+
+        List<String> writes = writes();
+        assertEquals(1, writes.stream().filter(sql -> sql.startsWith("delete")).count(), writes.toString());
+        assertEquals(2, writes.size(), writes.toString());
+        assertFalse(customers.getAllCustomers().stream().anyMatch(c -> c.getId().equals(id)));
+    }
+
+    private static List<String> writes() {
+        synchronized (CustomerWrites.statements) {
+            return new ArrayList<>(CustomerWrites.statements);
+        }
+    }
+
+    private static CustomerRequestDTO request(String code) {
+        CustomerRequestDTO dto = new CustomerRequestDTO();
+        dto.setCustomerCode(code);
+        dto.setFullName("Statements " + code);
+        dto.setEmail(code.toLowerCase() + "@example.com");
+        return dto;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.exception.IdempotencyKeyMismatchException;
+import com.example.customer_api.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class IdempotencyServiceTest {
+
+    private static final List<String> FULL = List.of("Prefer: return=representation", "If-Match: *");
+    private static final List<String> MINIMAL = List.of("Prefer: return=minimal", "If-Match: *");
+
+    private IdempotencyService idempotency;
+    private ExecutorService pool;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotency = new IdempotencyService(new ObjectMapper());
+        ReflectionTestUtils.setField(idempotency, "ttlSeconds", 86400L);
+        ReflectionTestUtils.setField(idempotency, "maxEntries", 100);
+        ReflectionTestUtils.setField(idempotency, "waitTimeoutMillis", 5000L);
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void retryReplaysTheFirstOutcome() {
+        IdempotencyService.Outcome<String> first = create("key-1", body("C001"), () -> "created-" + runs.incrementAndGet());
+        IdempotencyService.Outcome<String> retry = create("key-1", body("C001"), () -> "created-" + runs.incrementAndGet());
+
+        assertEquals("created-1", first.getValue());
+        assertFalse(first.isReplayed());
+        assertEquals("created-1", retry.getValue());
+        assertTrue(retry.isReplayed());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheOwner() throws Exception {
+        CountDownLatch ownerStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<IdempotencyService.Outcome<String>> owner = pool.submit(() -> create("key-2", body("C002"), () -> {
+            runs.incrementAndGet();
+            ownerStarted.countDown();
+            await(release);
+            return "created";
+        }));
+        await(ownerStarted);
+        Future<IdempotencyService.Outcome<String>> duplicate = pool.submit(
+                () -> create("key-2", body("C002"), () -> "ran again-" + runs.incrementAndGet()));
+
+        assertThrows(TimeoutException.class, () -> duplicate.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertFalse(owner.get(5, TimeUnit.SECONDS).isReplayed());
+        IdempotencyService.Outcome<String> waited = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals("created", waited.getValue());
+        assertTrue(waited.isReplayed());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void reusingAKeyForADifferentRequestIsRejected() {
+        create("key-3", body("C003"), () -> "created");
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> create("key-3", body("C004"), () -> "other body"));
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotency.execute("key-3", "POST", "/api/customers/3", List.of(), body("C003"), () -> "other path"));
+        idempotency.execute("key-4", "PUT", "/api/customers/4", FULL, body("C004"), () -> "full");
+        // A return=minimal retry must not be handed the stored full body, nor the reverse
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotency.execute("key-4", "PUT", "/api/customers/4", MINIMAL, body("C004"), () -> null));
+    }
+
+    @Test
+    void transientFailuresAreForgottenAndClientErrorsReplayed() {
+        assertThrows(IllegalStateException.class, () -> create("key-5", body("C005"), () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("database unavailable");
+        }));
+        assertEquals("created", create("key-5", body("C005"), () -> {
+            runs.incrementAndGet();
+            return "created";
+        }).getValue());
+        assertEquals(2, runs.get());
+
+        ResourceNotFoundException notFound = new ResourceNotFoundException("Customer not found with id: 6");
+        assertThrows(ResourceNotFoundException.class, () -> create("key-6", body("C006"), () -> {
+            throw notFound;
+        }));
+        assertSame(notFound, assertThrows(ResourceNotFoundException.class,
+                () -> create("key-6", body("C006"), () -> "ran again")));
+    }
+
+    @Test
+    void inFlightKeysOutliveTheTtlAndTheSizeBound() throws Exception {
+        ReflectionTestUtils.setField(idempotency, "ttlSeconds", 0L);
+        ReflectionTestUtils.setField(idempotency, "maxEntries", 1);
+        CountDownLatch ownerStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<IdempotencyService.Outcome<String>> owner = pool.submit(() -> create("key-7", body("C007"), () -> {
+            runs.incrementAndGet();
+            ownerStarted.countDown();
+            await(release);
+            return "created";
+        }));
+        await(ownerStarted);
+
+        // Purges expired entries and overflows the map while key-7 is still running
+        create("key-8", body("C008"), () -> "other");
+        Future<IdempotencyService.Outcome<String>> retry = pool.submit(
+                () -> create("key-7", body("C007"), () -> "ran again-" + runs.incrementAndGet()));
+        assertThrows(TimeoutException.class, () -> retry.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertEquals("created", owner.get(5, TimeUnit.SECONDS).getValue());
+        assertEquals("created", retry.get(5, TimeUnit.SECONDS).getValue());
+        assertEquals(1, runs.get());
+    }
+
+    private IdempotencyService.Outcome<String> create(String key, CustomerRequestDTO body,
+                                                      Supplier<String> action) {
+        return idempotency.execute(key, "POST", "/api/customers", List.of(), body, action);
+    }
+
+    private static CustomerRequestDTO body(String code) {
+        return new CustomerRequestDTO(code, "Customer " + code, code.toLowerCase() + "@example.com",
+                                      "0900000000", "1 Idempotent Street");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.customer_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.customer_api.exception.ResourceNotFoundException;
+
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 20;
+
+    private RequestCoalescer coalescer;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new RequestCoalescer();
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        pool = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalLookupsShareOneExecution() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitAll(() -> coalescer.execute("id:1", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "customer-1";
+        }));
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("customer-1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, coalescer.getStats().get("inFlight"));
+    }
+
+    @Test
+    void failureIsPropagatedToEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ResourceNotFoundException failure = new ResourceNotFoundException("Customer not found with id: 2");
+
+        List<Future<String>> results = submitAll(() -> coalescer.execute("id:2", () -> {
+            await(release);
+            throw failure;
+        }));
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+                continue;
+            }
+            throw new AssertionError("expected the shared failure");
+        }
+        assertEquals(0, coalescer.getStats().get("inFlight"));
+    }
+
+    @Test
+    void waitersRetryWhenLeaderIsInterrupted() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<String> leader = pool.submit(() -> coalescer.execute("id:3", () -> {
+            loads.incrementAndGet();
+            leaderStarted.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("lookup cancelled", e);
+            }
+            return "never";
+        }));
+        await(leaderStarted);
+        Future<String> waiter = pool.submit(() -> coalescer.execute("id:3", () -> {
+            loads.incrementAndGet();
+            return "customer-3";
+        }));
+        awaitCoalesced(1);
+
+        leader.cancel(true);
+
+        assertEquals("customer-3", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+    }
+
+    private List<Future<String>> submitAll(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(pool.submit(call));
+        }
+        return results;
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) coalescer.getStats().get("coalesced") < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "callers never joined the in-flight lookup");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
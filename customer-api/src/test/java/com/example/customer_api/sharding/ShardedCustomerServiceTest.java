@@ -0,0 +1,201 @@
+package com.example.customer_api.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.customer_api.CustomerApiApplication;
+import com.example.customer_api.H2Functions;
+import com.example.customer_api.dto.CustomerRequestDTO;
+import com.example.customer_api.dto.CustomerResponseDTO;
+import com.example.customer_api.dto.CustomerUpdateDTO;
+import com.example.customer_api.service.CustomerService;
+
+// Three in-memory shards behind one application instance
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ShardedCustomerServiceTest {
+
+    private static final int SHARDS = 3;
+    private static final int CUSTOMERS = 60;
+
+    private static ConfigurableApplicationContext app;
+    private static CustomerService service;
+    private static final List<CustomerResponseDTO> created = new ArrayList<>();
+
+    @BeforeAll
+    static void startApp() {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "customer.sharding.enabled=true",
+                "customer.sharding.map-refresh-millis=100"));
+        for (int i = 0; i < SHARDS; i++) {
+            properties.add("customer.sharding.shards[" + i + "].url=jdbc:h2:mem:customer_shard_" + i
+                           + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" + H2Functions.INIT);
+            properties.add("customer.sharding.shards[" + i + "].username=sa");
+        }
+        app = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        service = app.getBean(CustomerService.class);
+
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String code = String.format("SHD%03d", i);
+            // Names sort in a different order than codes and ids
+            String name = "Customer " + (char) ('A' + (i * 7) % 26) + i;
+            created.add(service.createCustomer(new CustomerRequestDTO(
+                    code, name, code.toLowerCase() + "@example.com", "0900000000", "1 Shard Street")));
+        }
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    @Order(1)
+    void customersAreSpreadAcrossShards() {
+        assertTrue(service instanceof ShardedCustomerService);
+        int total = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            int count = countOn(shard);
+            assertTrue(count > 0, "shard " + shard + " holds no customers");
+            total += count;
+        }
+        assertEquals(CUSTOMERS, total);
+    }
+
+    @Test
+    @Order(2)
+    void lookupsFindTheOwningShard() {
+        for (CustomerResponseDTO customer : created) {
+            assertEquals(customer.getCustomerCode(), service.getCustomerById(customer.getId()).getCustomerCode());
+            assertEquals(customer.getId(), service.getCustomerByCode(customer.getCustomerCode()).getId());
+        }
+    }
+
+    @Test
+    @Order(3)
+    void pagesFollowTheGlobalSortOrder() {
+        List<CustomerResponseDTO> expected = new ArrayList<>(created);
+        expected.sort(Comparator.comparing(CustomerResponseDTO::getFullName, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(CustomerResponseDTO::getId));
+
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; page * 7 < CUSTOMERS; page++) {
+            Page<CustomerResponseDTO> result = service.getAllCustomersPaginatedAndSorted(page, 7, "fullName", "asc");
+            assertEquals(CUSTOMERS, result.getTotalElements());
+            result.getContent().forEach(c -> paged.add(c.getId()));
+        }
+        assertEquals(expected.stream().map(CustomerResponseDTO::getId).toList(), paged);
+    }
+
+    @Test
+    @Order(4)
+    void snapshotQueryReturnsTheLowestIdsAcrossShards() {
+        List<CustomerResponseDTO> snapshot = service.getCustomersForSnapshot(10);
+
+        assertEquals(created.stream().map(CustomerResponseDTO::getId).sorted().limit(10).toList(),
+                snapshot.stream().map(CustomerResponseDTO::getId).toList());
+        CustomerResponseDTO first = snapshot.get(0);
+        CustomerResponseDTO original = created.stream().filter(c -> c.getId().equals(first.getId())).findFirst().get();
+        assertEquals(original.getCustomerCode(), first.getCustomerCode());
+        assertEquals(original.getStatus(), first.getStatus());
+        assertEquals(original.getVersion(), first.getVersion());
+    }
+
+    @Test
+    @Order(5)
+    void rebalancedCustomersStayReachable() throws InterruptedException {
+        ShardRebalancer rebalancer = app.getBean(ShardRebalancer.class);
+        int[] before = app.getBean(ShardRouter.class).getAssignments();
+        int lastBucketOfShard1 = 0;
+        for (int bucket = 0; bucket < ShardRouter.BUCKETS; bucket++) {
+            if (before[bucket] == 1) {
+                lastBucketOfShard1 = bucket;
+            }
+        }
+
+        Map<String, Object> result = rebalancer.moveBuckets(0, lastBucketOfShard1, 2);
+
+        assertEquals(0, countOn(0));
+        assertEquals(0, countOn(1));
+        assertEquals(CUSTOMERS, countOn(2));
+        assertEquals(result.get("copiedRows"), result.get("removedFromSource"));
+        for (CustomerResponseDTO customer : created) {
+            assertEquals(customer.getCustomerCode(), service.getCustomerById(customer.getId()).getCustomerCode());
+            assertEquals(customer.getId(), service.getCustomerByCode(customer.getCustomerCode()).getId());
+        }
+        assertEquals(CUSTOMERS, service.getAllCustomers().size());
+    }
+
+    @Test
+    @Order(6)
+    void anUpdateJustBeforeTheSourceDeleteSurvivesTheMove() throws InterruptedException {
+        ShardRouter router = app.getBean(ShardRouter.class);
+        // By-id writes go to the customer's home shard while it still holds the row: pick one
+        // created on shard 2, which the previous test left holding everything
+        CustomerResponseDTO customer = created.stream()
+                .filter(c -> router.homeShardForId(c.getId()) == 2)
+                .findFirst().orElseThrow();
+        int bucket = ShardRouter.bucketFor(customer.getCustomerCode());
+        JdbcTemplate jdbcTemplate = app.getBean(JdbcTemplate.class);
+        AtomicReference<CustomerResponseDTO> written = new AtomicReference<>();
+        // Commits an update on the source after the last copy, as the rebalancer starts deleting there
+        JdbcTemplate updatingBeforeDelete = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int update(String sql, Object... args) {
+                beforeDelete(sql);
+                return super.update(sql, args);
+            }
+
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> args) {
+                beforeDelete(sql);
+                return super.batchUpdate(sql, args);
+            }
+
+            private void beforeDelete(String sql) {
+                if (sql.startsWith("DELETE FROM customers WHERE id") && written.get() == null) {
+                    written.set(service.partialUpdateCustomer(customer.getId(),
+                            new CustomerUpdateDTO(null, null, null, "9 Late Street", null), null, true));
+                }
+            }
+        };
+        ShardRebalancer rebalancer = new ShardRebalancer(updatingBeforeDelete, router,
+                app.getBean(ShardMapStore.class), app.getBean(ShardingProperties.class));
+
+        Map<String, Object> result = rebalancer.moveBuckets(bucket, bucket, 0);
+
+        assertEquals(1, result.get("recopiedBeforeDelete"));
+        assertEquals(result.get("copiedRows"), result.get("removedFromSource"));
+        assertEquals(0, (int) ShardContext.call(2, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM customers WHERE id = ?", Integer.class, customer.getId())));
+        Map<String, Object> moved = ShardContext.call(0, () -> jdbcTemplate.queryForMap(
+                "SELECT address, version FROM customers WHERE id = ?", customer.getId()));
+        assertEquals("9 Late Street", moved.get("address"));
+        assertEquals(written.get().getVersion(), ((Number) moved.get("version")).longValue());
+    }
+
+    private int countOn(int shard) {
+        JdbcTemplate jdbcTemplate = app.getBean(JdbcTemplate.class);
+        return ShardContext.call(shard,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Integer.class));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.productmanagement.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reads the catalog for the in-memory views (InventoryStatistics, ProductAnalytics,
+// ProductFacets, ProductAutocomplete) with one JDBC pass, and hands the same snapshot to
+// every view that reloads within share-millis of it, so their periodic reloads cost one
+// read rather than four.
+// A read that overlaps a write may or may not contain it, so views number the changes they
+// apply through changeApplied(), and a view refuses a snapshot whose read began before its
+// latest change; reload() then tries a fresh read, up to RELOAD_ATTEMPTS times.
+@Component
+public class CatalogLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogLoader.class);
+
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${product.catalog.share-millis:30000}")
+    private long shareMillis;
+
+    private final AtomicLong changes = new AtomicLong();
+
+    // Guarded by this. Soft, so the catalog is not held in memory longer than the views need it.
+    private SoftReference<CatalogSnapshot> latest = new SoftReference<>(null);
+
+    @Autowired
+    public CatalogLoader(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // The number a view records for a change it has just applied, for CatalogSnapshot.includesChange
+    public long changeApplied() {
+        return changes.incrementAndGet();
+    }
+
+    public void reload(String viewName, CatalogView view) {
+        CatalogSnapshot refused = null;
+        for (int attempt = 1; attempt <= RELOAD_ATTEMPTS; attempt++) {
+            CatalogSnapshot catalog;
+            try {
+                catalog = snapshotOtherThan(refused);
+            } catch (DataAccessException e) {
+                log.warn("{} reload failed: {}", viewName, e.getMessage());
+                return;
+            }
+            if (view.replaceWith(catalog)) {
+                return;
+            }
+            refused = catalog;
+        }
+        log.debug("{} reload kept overlapping writes, retrying on the next run", viewName);
+    }
+
+    // The shared snapshot while it is recent and not the one the view just refused, otherwise
+    // a fresh read. Views that reload together wait here for the first one's read.
+    private synchronized CatalogSnapshot snapshotOtherThan(CatalogSnapshot refused) {
+        CatalogSnapshot shared = latest.get();
+        if (shared != null && shared != refused && System.currentTimeMillis() - shared.getLoadedAt() < shareMillis) {
+            return shared;
+        }
+        CatalogSnapshot loaded = load();
+        latest = new SoftReference<>(loaded);
+        return loaded;
+    }
+
+    private CatalogSnapshot load() {
+        long changesBefore = changes.get();
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(count == null ? 0 : count.intValue(), changesBefore);
+        // Cents computed by the database, so no BigDecimal is built per row
+        jdbcTemplate.query("SELECT id, product_code, name, ROUND(price * 100), quantity, category_id FROM products",
+                rs -> {
+                    builder.add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4), rs.getInt(5),
+                                rs.getInt(6));
+                });
+        Map<Integer, String> categoryNames = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM categories", rs -> {
+            categoryNames.put(rs.getInt(1), rs.getString(2));
+        });
+        return builder.build(categoryNames, System.currentTimeMillis());
+    }
+}
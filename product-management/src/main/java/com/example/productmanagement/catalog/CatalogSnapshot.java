@@ -0,0 +1,148 @@
+package com.example.productmanagement.catalog;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// One read of what the in-memory views are built from: each product's id, code, name,
+// price in cents, quantity and category id, kept column by column, and the category names.
+// Immutable, so CatalogLoader can hand the same one to every view that reloads around the
+// same time.
+public class CatalogSnapshot {
+
+    // category_id of a product without a category, as JDBC reads a NULL
+    public static final int NO_CATEGORY = 0;
+
+    private final int size;
+    private final long[] ids;
+    private final String[] codes;
+    private final String[] names;
+    private final long[] priceCents;
+    private final int[] quantities;
+    private final int[] categoryIds;
+    private final Map<Integer, String> categoryNames;
+    // CatalogLoader's change number when the read began: every change numbered up to it
+    // had committed by then
+    private final long changesBefore;
+    private final long loadedAt;
+
+    private CatalogSnapshot(Builder builder, Map<Integer, String> categoryNames, long loadedAt) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.codes = builder.codes;
+        this.names = builder.names;
+        this.priceCents = builder.priceCents;
+        this.quantities = builder.quantities;
+        this.categoryIds = builder.categoryIds;
+        this.categoryNames = Collections.unmodifiableMap(new HashMap<>(categoryNames));
+        this.changesBefore = builder.changesBefore;
+        this.loadedAt = loadedAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public String code(int row) {
+        return codes[row];
+    }
+
+    public String name(int row) {
+        return names[row];
+    }
+
+    public long priceCents(int row) {
+        return priceCents[row];
+    }
+
+    public BigDecimal price(int row) {
+        return BigDecimal.valueOf(priceCents[row], 2);
+    }
+
+    public int quantity(int row) {
+        return quantities[row];
+    }
+
+    public int categoryId(int row) {
+        return categoryIds[row];
+    }
+
+    // Null for a product without a category
+    public String categoryName(int row) {
+        return categoryIds[row] == NO_CATEGORY ? null : categoryNames.get(categoryIds[row]);
+    }
+
+    public Map<Integer, String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    // Whether the read began after the change with this number committed; change 0 is "none yet"
+    public boolean includesChange(long change) {
+        return change <= changesBefore;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    // Grows like an ArrayList, one array per column
+    static class Builder {
+
+        private final long changesBefore;
+        private int size;
+        private long[] ids;
+        private String[] codes;
+        private String[] names;
+        private long[] priceCents;
+        private int[] quantities;
+        private int[] categoryIds;
+
+        Builder(int capacity, long changesBefore) {
+            this.changesBefore = changesBefore;
+            int initial = Math.max(capacity, 16);
+            // Sized from a COUNT taken just before the read; rows inserted in between grow it
+            ids = new long[initial];
+            codes = new String[initial];
+            names = new String[initial];
+            priceCents = new long[initial];
+            quantities = new int[initial];
+            categoryIds = new int[initial];
+        }
+
+        void add(long id, String code, String name, long price, int quantity, int categoryId) {
+            if (size == ids.length) {
+                resize(size + (size >> 1));
+            }
+            ids[size] = id;
+            codes[size] = code;
+            names[size] = name;
+            priceCents[size] = price;
+            quantities[size] = quantity;
+            categoryIds[size] = categoryId;
+            size++;
+        }
+
+        // The builder must not be used afterwards: the snapshot takes its arrays
+        CatalogSnapshot build(Map<Integer, String> categoryNames, long loadedAt) {
+            if (ids.length != size) {
+                resize(size);
+            }
+            return new CatalogSnapshot(this, categoryNames, loadedAt);
+        }
+
+        private void resize(int length) {
+            ids = Arrays.copyOf(ids, length);
+            codes = Arrays.copyOf(codes, length);
+            names = Arrays.copyOf(names, length);
+            priceCents = Arrays.copyOf(priceCents, length);
+            quantities = Arrays.copyOf(quantities, length);
+            categoryIds = Arrays.copyOf(categoryIds, length);
+        }
+    }
+}
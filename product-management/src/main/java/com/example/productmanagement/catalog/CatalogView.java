@@ -0,0 +1,9 @@
+package com.example.productmanagement.catalog;
+
+// An in-memory copy of the catalog that CatalogLoader.reload replaces with a fresh read
+public interface CatalogView {
+
+    // Replaces the copy with one built from the snapshot, unless a change reached the copy
+    // after the snapshot's read began; returns whether it did
+    boolean replaceWith(CatalogSnapshot catalog);
+}
@@ -0,0 +1,116 @@
+package com.example.productmanagement.catalog;
+
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.entity.StockMovement;
+
+import java.math.BigDecimal;
+
+// Published by ProductServiceImpl and StockService for every write to a product, inside the
+// write's transaction. The in-memory copies of the catalog, the category counts and the
+// stock ledger handle it with @TransactionalEventListener, so only committed writes reach
+// them. Carries the values as they were saved: the entity itself is still modified by JPA
+// and the form binder afterwards.
+public class ProductChangedEvent {
+
+    public enum Kind {
+        SAVED,
+        DELETED,
+        // The stock UPDATEs, which change the quantity without loading the product
+        QUANTITY_CHANGED
+    }
+
+    private final Kind kind;
+    private final Long productId;
+    // The saved product; null unless SAVED
+    private final String productCode;
+    private final String name;
+    private final BigDecimal price;
+    private final Integer quantity;
+    private final Integer categoryId;
+    private final String category;
+    // The category before the write; null for a new product and for quantity changes
+    private final String previousCategory;
+    private final int quantityDelta;
+    private final StockMovement.Reason reason;
+
+    private ProductChangedEvent(Kind kind, Long productId, Product saved, String previousCategory,
+                                int quantityDelta, StockMovement.Reason reason) {
+        this.kind = kind;
+        this.productId = productId;
+        this.productCode = saved == null ? null : saved.getProductCode();
+        this.name = saved == null ? null : saved.getName();
+        this.price = saved == null ? null : saved.getPrice();
+        this.quantity = saved == null ? null : saved.getQuantity();
+        this.categoryId = saved == null || saved.getCategoryRef() == null ? null : saved.getCategoryRef().getId();
+        this.category = saved == null ? null : saved.getCategory();
+        this.previousCategory = previousCategory;
+        this.quantityDelta = quantityDelta;
+        this.reason = reason;
+    }
+
+    // previousQuantity is 0 for a new product
+    public static ProductChangedEvent saved(Product saved, boolean created, String previousCategory,
+                                            int previousQuantity) {
+        return new ProductChangedEvent(Kind.SAVED, saved.getId(), saved, previousCategory,
+                saved.getQuantity() - previousQuantity,
+                created ? StockMovement.Reason.CREATE : StockMovement.Reason.EDIT);
+    }
+
+    public static ProductChangedEvent deleted(Long productId, String category, int quantity) {
+        return new ProductChangedEvent(Kind.DELETED, productId, null, category, -quantity,
+                StockMovement.Reason.DELETE);
+    }
+
+    public static ProductChangedEvent quantityChanged(Long productId, int delta, StockMovement.Reason reason) {
+        return new ProductChangedEvent(Kind.QUANTITY_CHANGED, productId, null, null, delta, reason);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getPreviousCategory() {
+        return previousCategory;
+    }
+
+    public int getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    public StockMovement.Reason getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{kind=" + kind + ", productId=" + productId + ", quantityDelta=" + quantityDelta + '}';
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.stats.ProductAnalytics;
+import com.example.productmanagement.stats.ProductColumns;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// JSON reporting over the in-memory columns. 503 until they have been loaded,
+// 404 for a category that does not exist.
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private ProductAnalytics productAnalytics;
+
+    // Count, total quantity, total value and average price of the matching products
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> summary(@RequestParam(required = false) String category,
+                                                       @RequestParam(required = false) BigDecimal minPrice,
+                                                       @RequestParam(required = false) BigDecimal maxPrice,
+                                                       @RequestParam(required = false) Integer minQuantity,
+                                                       @RequestParam(required = false) Integer maxQuantity) {
+        ProductColumns.Filter filter = filter(category, minPrice, maxPrice, minQuantity, maxQuantity);
+        if (filter == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No such category: " + category));
+        }
+        ProductColumns.Summary summary = productAnalytics.summarize(filter);
+        if (summary == null) {
+            return notReady();
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("count", summary.getCount());
+        response.put("totalQuantity", summary.getTotalQuantity());
+        response.put("totalValue", ProductAnalytics.fromCents(summary.getTotalValueCents()));
+        response.put("averagePrice", ProductAnalytics.fromCents(summary.getAveragePriceCents()));
+        return ResponseEntity.ok(response);
+    }
+
+    // Product count and stock value per category
+    @GetMapping("/categories")
+    public ResponseEntity<?> categories() {
+        Map<String, Object[]> byCategory = productAnalytics.byCategory();
+        if (byCategory == null) {
+            return notReady();
+        }
+        List<Map<String, Object>> response = new ArrayList<>();
+        byCategory.forEach((name, row) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("category", name);
+            entry.put("count", row[0]);
+            entry.put("value", row[1]);
+            response.add(entry);
+        });
+        return ResponseEntity.ok(response);
+    }
+
+    // The k products with the highest price, quantity or value (price * quantity)
+    @GetMapping("/top")
+    public ResponseEntity<?> top(@RequestParam(defaultValue = "value") String by,
+                                 @RequestParam(defaultValue = "10") int k,
+                                 @RequestParam(required = false) String category,
+                                 @RequestParam(required = false) BigDecimal minPrice,
+                                 @RequestParam(required = false) BigDecimal maxPrice,
+                                 @RequestParam(required = false) Integer minQuantity,
+                                 @RequestParam(required = false) Integer maxQuantity) {
+        ProductColumns.Filter filter = filter(category, minPrice, maxPrice, minQuantity, maxQuantity);
+        if (filter == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No such category: " + category));
+        }
+        ProductColumns.Metric metric = ProductColumns.Metric.valueOf(by.toUpperCase());
+        Map<Long, Object[]> top = productAnalytics.top(metric, Math.min(Math.max(k, 1), 1000), filter);
+        if (top == null) {
+            return notReady();
+        }
+        List<Map<String, Object>> response = new ArrayList<>();
+        top.forEach((id, row) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("productId", id);
+            entry.put("price", row[0]);
+            entry.put("quantity", row[1]);
+            entry.put("value", row[2]);
+            response.add(entry);
+        });
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    // Null for an unknown category
+    private ProductColumns.Filter filter(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                         Integer minQuantity, Integer maxQuantity) {
+        ProductColumns.Filter filter = ProductColumns.Filter.ALL;
+        if (category != null && !category.isEmpty()) {
+            int categoryId = productAnalytics.categoryIdOf(category);
+            if (categoryId < 0) {
+                return null;
+            }
+            filter = filter.withCategory(categoryId);
+        }
+        if (minPrice != null || maxPrice != null) {
+            filter = filter.withPriceCents(minPrice == null ? Long.MIN_VALUE : ProductAnalytics.toCents(minPrice),
+                                           maxPrice == null ? Long.MAX_VALUE : ProductAnalytics.toCents(maxPrice));
+        }
+        if (minQuantity != null || maxQuantity != null) {
+            filter = filter.withQuantity(minQuantity == null ? Integer.MIN_VALUE : minQuantity,
+                                         maxQuantity == null ? Integer.MAX_VALUE : maxQuantity);
+        }
+        return filter;
+    }
+
+    private static ResponseEntity<Map<String, Object>> notReady() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "Analytics are still loading"));
+    }
+}
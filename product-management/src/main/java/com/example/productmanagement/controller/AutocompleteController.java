@@ -0,0 +1,38 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.search.ProductAutocomplete;
+import com.example.productmanagement.search.ProductSuggestion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+// Suggestions for the search box as the user types, from memory: no query per keystroke.
+// 503 until the index has been built.
+@RestController
+@RequestMapping("/api/autocomplete")
+public class AutocompleteController {
+
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private ProductAutocomplete productAutocomplete;
+
+    // Products whose code, name or a word of the name starts with q, most in stock first
+    @GetMapping
+    public ResponseEntity<?> suggest(@RequestParam String q,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestion> suggestions = productAutocomplete.suggest(q, Math.min(Math.max(limit, 1), MAX_LIMIT));
+        if (suggestions == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Autocomplete is still loading"));
+        }
+        return ResponseEntity.ok(suggestions);
+    }
+}
@@ -2,17 +2,25 @@
 
 package com.example.productmanagement.controller;
 
+import com.example.productmanagement.degraded.DegradedReads;
 import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.service.ProductPaging;
 import com.example.productmanagement.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
 
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/categories")
@@ -21,10 +29,15 @@ public class CategoryController {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private DegradedReads degradedReads;
+    
     @GetMapping
     public String listCategories(Model model) {
-        List<String> categories = productService.getAllCategories();
-        model.addAttribute("categories", categories);
+        Map<String, Long> categoryCounts = degradedReads.read(productService::getCategoryCounts,
+                snapshot -> snapshot.categoryCounts());
+        model.addAttribute("categories", List.copyOf(categoryCounts.keySet()));
+        model.addAttribute("categoryCounts", categoryCounts);
         return "categories";
     }
     
@@ -33,13 +46,20 @@ public class CategoryController {
             @PathVariable String category,
             @RequestParam(required = false) String sortField,
             @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + ProductPaging.DEFAULT_PAGE_SIZE) int size,
             Model model) {
         
-        List<Product> products = productService.getProductsByCategory(category);
-        List<String> categories = productService.getAllCategories();
+        Pageable pageable = ProductPaging.of(sortField, sortDir, page, size);
+        Page<Product> productPage = degradedReads.read(() -> productService.getProductPage(category, pageable),
+                snapshot -> snapshot.page(category, pageable));
+        Map<String, Long> categoryCounts = degradedReads.read(productService::getCategoryCounts,
+                snapshot -> snapshot.categoryCounts());
         
-        model.addAttribute("products", products);
-        model.addAttribute("categories", categories);
+        ProductController.addPage(model, productPage,
+                "/categories/" + UriUtils.encodePathSegment(category, StandardCharsets.UTF_8));
+        model.addAttribute("categories", List.copyOf(categoryCounts.keySet()));
+        model.addAttribute("categoryCounts", categoryCounts);
         model.addAttribute("selectedCategory", category);
         model.addAttribute("sortField", sortField);
         model.addAttribute("sortDir", sortDir);
@@ -2,6 +2,8 @@ package com.example.productmanagement.controller;
 
 import com.example.productmanagement.entity.Product;
 import com.example.productmanagement.repository.StatisticsRepository;
+import com.example.productmanagement.stats.InventorySnapshot;
+import com.example.productmanagement.stats.InventoryStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -19,9 +21,24 @@ public class DashboardController {
     @Autowired
     private StatisticsRepository statisticsRepository;
     
+    @Autowired
+    private InventoryStatistics inventoryStatistics;
+    
     @GetMapping
     public String showDashboard(Model model) {
         try {
+            // Maintained in memory; the queries below only run until it has been seeded
+            InventorySnapshot stats = inventoryStatistics.snapshot();
+            if (stats != null) {
+                model.addAttribute("totalProducts", stats.getTotalProducts());
+                model.addAttribute("categoryData", stats.getCategoryData());
+                model.addAttribute("totalValue", stats.getTotalValue().setScale(2, RoundingMode.HALF_UP));
+                model.addAttribute("averagePrice", stats.getAveragePrice());
+                model.addAttribute("lowStockProducts", stats.getLowStockProducts());
+                model.addAttribute("recentProducts", stats.getRecentProducts());
+                return "dashboard";
+            }
+            
             // 1. Total products count
             Long totalProducts = statisticsRepository.getTotalProducts();
             model.addAttribute("totalProducts", totalProducts != null ? totalProducts : 0);
@@ -41,7 +58,7 @@ public class DashboardController {
                 averagePrice != null ? averagePrice.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
             
             // 5. Low stock alerts (quantity < 10)
-            List<Product> lowStockProducts = statisticsRepository.getLowStockProducts(10);
+            List<Product> lowStockProducts = statisticsRepository.getLowStockProducts(InventoryStatistics.LOW_STOCK_THRESHOLD);
             model.addAttribute("lowStockProducts", lowStockProducts);
             
             // 6. Recent products (last 5 added)
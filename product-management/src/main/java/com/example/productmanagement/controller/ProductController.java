@@ -1,24 +1,26 @@
 package com.example.productmanagement.controller;
 
+import com.example.productmanagement.degraded.DegradedReads;
 import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.search.FacetedPage;
+import com.example.productmanagement.service.ProductPaging;
 import com.example.productmanagement.service.ProductService;
 
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import com.example.productmanagement.repository.ProductRepository;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
-import org.springframework.data.domain.Sort;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/products")
@@ -26,53 +28,51 @@ public class ProductController {
     
     private final ProductService productService;
     private final ProductRepository productRepository;
+    private final DegradedReads degradedReads;
 
     @Autowired
-    public ProductController(ProductService productService, ProductRepository productRepository) {
+    public ProductController(ProductService productService, ProductRepository productRepository,
+                             DegradedReads degradedReads) {
         this.productService = productService;
         this.productRepository = productRepository; 
+        this.degradedReads = degradedReads;
     }
     
-    // List all products
+    // List all products, one page at a time
     @GetMapping
     public String listProducts(@RequestParam(required = false) String sortField,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(required = false) String filterCategory, Model model) {
-            // Tạo Sort object nếu có sortField
-        Sort sort = null;
-        if (sortField != null && !sortField.isEmpty()) {
-            sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortField).descending() : 
-                Sort.by(sortField).ascending();
-        }    
-        List<Product> products = productService.getAllProducts();
-        if (filterCategory != null && !filterCategory.isEmpty()) {
-            products = productService.getProductsByCategory(filterCategory);
-            if (sort != null) {
-                products = products.stream()
-                    .sorted((p1, p2) -> {
-                        // Manual sorting based on sortField
-                        // Implement based on your needs
-                        return 0;
-                    })
-                    .collect(Collectors.toList());
-            }
-        } else {
-            products = sort != null ? 
-                productService.getAllProducts(sort) : 
-                productService.getAllProducts();
-        }
+            @RequestParam(required = false) String filterCategory,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + ProductPaging.DEFAULT_PAGE_SIZE) int size,
+            Model model) {
+        Pageable pageable = ProductPaging.of(sortField, sortDir, page, size);
+        Page<Product> productPage = degradedReads.read(() -> productService.getProductPage(filterCategory, pageable),
+                snapshot -> snapshot.page(filterCategory, pageable));
         // Lấy danh sách categories cho filter
-        List<String> categories = productService.getAllCategories();
+        Map<String, Long> categoryCounts = degradedReads.read(productService::getCategoryCounts,
+                snapshot -> snapshot.categoryCounts());
 
-        model.addAttribute("products", products);
-        model.addAttribute("categories", categories);
+        addPage(model, productPage, "/products");
+        model.addAttribute("categories", List.copyOf(categoryCounts.keySet()));
+        model.addAttribute("categoryCounts", categoryCounts);
         model.addAttribute("sortField", sortField);
         model.addAttribute("sortDir", sortDir);
         model.addAttribute("filterCategory", filterCategory);
+        model.addAttribute("selectedCategory", filterCategory);
         return "product-list";  // Returns product-list.html
     }
     
+    // Model attributes for the page controls in product-list.html; pageUrl is the view being paged
+    static void addPage(Model model, Page<Product> productPage, String pageUrl) {
+        model.addAttribute("products", productPage.getContent());
+        model.addAttribute("currentPage", productPage.getNumber());
+        model.addAttribute("totalPages", productPage.getTotalPages());
+        model.addAttribute("totalItems", productPage.getTotalElements());
+        model.addAttribute("pageSize", productPage.getSize());
+        model.addAttribute("pageUrl", pageUrl);
+    }
+    
     // Show form for new product
     @GetMapping("/new")
     public String showNewForm(Model model) {
@@ -84,6 +84,7 @@ public class ProductController {
     // Show form for editing product
     @GetMapping("/edit/{id}")
     public String showEditForm(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
+        // Always live: the snapshot has no description, and saving a stale copy would overwrite newer values
         return productService.getProductById(id)
                 .map(product -> {
                     model.addAttribute("product", product);
@@ -128,27 +129,32 @@ public class ProductController {
         return "redirect:/products";
     }
     
-    // Search products
-    @GetMapping("/search")
-    public String searchProducts(@RequestParam("keyword") String keyword, Model model) {
-        List<Product> products = productService.searchProducts(keyword);
-        model.addAttribute("products", products);
-        model.addAttribute("keyword", keyword);
-        return "product-list";
-    }
-
     @GetMapping("/advanced-search")
     public String advancedSearch(
         @RequestParam(required = false) String name,
         @RequestParam(required = false) String category,
         @RequestParam(required = false) BigDecimal minPrice,
         @RequestParam(required = false) BigDecimal maxPrice,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "" + ProductPaging.DEFAULT_PAGE_SIZE) int size,
         Model model) {
     
-    List<Product> products = productService.searchAdvanced(name, category, minPrice, maxPrice);
-    model.addAttribute("products", products);
-    model.addAttribute("searchName", name);
-    model.addAttribute("searchCategory", category);
+    // The form sends its empty fields as empty strings
+    String nameFilter = name == null || name.isEmpty() ? null : name;
+    String categoryFilter = category == null || category.isBlank() ? null : category.trim();
+    // In id order, which is how the facet index returns matches
+    Pageable pageable = ProductPaging.of(null, "asc", page, size);
+    FacetedPage<Product> results = degradedReads.read(
+            () -> productService.searchFaceted(nameFilter, categoryFilter, minPrice, maxPrice, pageable),
+            snapshot -> FacetedPage.withoutFacets(
+                    snapshot.searchAdvanced(nameFilter, categoryFilter, minPrice, maxPrice, pageable)));
+    addPage(model, results.getPage(), "/products/advanced-search");
+    // Column headers re-sort the main list, as before
+    model.addAttribute("sortUrl", "/products");
+    model.addAttribute("categoryFacets", results.getCategoryCounts());
+    model.addAttribute("priceFacets", results.getPriceBands());
+    model.addAttribute("searchName", nameFilter);
+    model.addAttribute("searchCategory", categoryFilter);
     model.addAttribute("minPrice", minPrice);
     model.addAttribute("maxPrice", maxPrice);
     
@@ -157,18 +163,20 @@ public class ProductController {
     @GetMapping("/search")
     public String searchProducts(
     @RequestParam("keyword") String keyword,
+    @RequestParam(required = false) String sortField,
+    @RequestParam(defaultValue = "asc") String sortDir,
     @RequestParam(defaultValue = "0") int page,
-    @RequestParam(defaultValue = "10") int size,
+    @RequestParam(defaultValue = "" + ProductPaging.DEFAULT_PAGE_SIZE) int size,
     Model model) {
     
-    Page<Product> productPage = productService.searchProducts(keyword, page, size);
+    Pageable pageable = ProductPaging.of(sortField, sortDir, page, size);
+    Page<Product> productPage = degradedReads.read(() -> productService.searchProducts(keyword, pageable),
+            snapshot -> snapshot.search(keyword, pageable));
     
-    model.addAttribute("products", productPage.getContent());
-    model.addAttribute("currentPage", page);
-    model.addAttribute("totalPages", productPage.getTotalPages());
-    model.addAttribute("totalItems", productPage.getTotalElements());
-    model.addAttribute("pageSize", size);
+    addPage(model, productPage, "/products/search");
     model.addAttribute("keyword", keyword);
+    model.addAttribute("sortField", sortField);
+    model.addAttribute("sortDir", sortDir);
     
     return "product-list";
 }
@@ -0,0 +1,72 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.search.FullTextHit;
+import com.example.productmanagement.search.FullTextSearch;
+import com.example.productmanagement.search.SearchTerms;
+import com.example.productmanagement.service.ProductPaging;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Full-text search over names and descriptions, most relevant first. mode=boolean takes
+// MySQL's boolean syntax (+required -excluded prefix* "a phrase"). highlightedName and
+// snippet are HTML with the matched terms in <mark>.
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private FullTextSearch fullTextSearch;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> search(@RequestParam String q,
+                                                      @RequestParam(defaultValue = "natural") String mode,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "" + ProductPaging.DEFAULT_PAGE_SIZE) int size) {
+        SearchTerms.Mode searchMode = SearchTerms.Mode.valueOf(mode.toUpperCase());
+        // Unsorted: the order is relevance
+        PageRequest pageable = PageRequest.of(Math.max(page, 0),
+                size < 1 ? ProductPaging.DEFAULT_PAGE_SIZE : Math.min(size, ProductPaging.MAX_PAGE_SIZE));
+        Page<FullTextHit> hits = fullTextSearch.search(q, searchMode, pageable);
+
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (FullTextHit hit : hits.getContent()) {
+            Product product = hit.getProduct();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", product.getId());
+            entry.put("productCode", product.getProductCode());
+            entry.put("name", product.getName());
+            entry.put("price", product.getPrice());
+            entry.put("quantity", product.getQuantity());
+            entry.put("category", product.getCategory());
+            entry.put("highlightedName", hit.getHighlightedName());
+            entry.put("snippet", hit.getSnippet());
+            content.add(entry);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("content", content);
+        response.put("page", hits.getNumber());
+        response.put("size", hits.getSize());
+        response.put("totalElements", hits.getTotalElements());
+        response.put("totalPages", hits.getTotalPages());
+        response.put("fullTextIndex", fullTextSearch.usesFullTextIndex());
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.entity.StockMovement;
+import com.example.productmanagement.stock.StockLedger;
+import com.example.productmanagement.stock.StockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// JSON API for the order service: 200 when the change was made, 409 when there is not
+// enough stock, 404 for an unknown product
+@RestController
+@RequestMapping("/api/stock")
+public class StockController {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @PostMapping("/{productId}/reserve")
+    public ResponseEntity<Map<String, Object>> reserve(@PathVariable Long productId, @RequestParam int quantity) {
+        return respond(productId, stockService.reserve(productId, quantity));
+    }
+
+    @PostMapping("/{productId}/release")
+    public ResponseEntity<Map<String, Object>> release(@PathVariable Long productId, @RequestParam int quantity) {
+        return respond(productId, stockService.release(productId, quantity));
+    }
+
+    @PostMapping("/{productId}/adjust")
+    public ResponseEntity<Map<String, Object>> adjust(@PathVariable Long productId, @RequestParam int delta) {
+        return respond(productId, stockService.adjust(productId, delta));
+    }
+
+    // Units held in memory for hot products, not yet returned to the database
+    @GetMapping("/held")
+    public ResponseEntity<Map<Long, Integer>> held() {
+        return ResponseEntity.ok(stockService.getHeldUnits());
+    }
+
+    // Movements, newest first; the last second's may still be queued
+    @GetMapping("/{productId}/history")
+    public ResponseEntity<Map<String, Object>> history(@PathVariable Long productId,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "50") int size) {
+        Page<StockMovement> movements = stockLedger.history(productId,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 500)));
+        Map<String, Object> response = new HashMap<>();
+        response.put("movements", movements.getContent());
+        response.put("currentPage", movements.getNumber());
+        response.put("totalItems", movements.getTotalElements());
+        response.put("totalPages", movements.getTotalPages());
+        return ResponseEntity.ok(response);
+    }
+
+    // The quantity as of a point in time, reconstructed from the ledger
+    @GetMapping("/{productId}/quantity-at")
+    public ResponseEntity<Map<String, Object>> quantityAt(
+            @PathVariable Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return stockLedger.quantityAt(productId, at)
+                .map(quantity -> ResponseEntity.ok(Map.<String, Object>of("productId", productId, "at", at,
+                                                                          "quantity", quantity)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private static ResponseEntity<Map<String, Object>> respond(Long productId, StockService.Outcome outcome) {
+        HttpStatus status = switch (outcome) {
+            case APPLIED -> HttpStatus.OK;
+            case INSUFFICIENT_STOCK -> HttpStatus.CONFLICT;
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+        };
+        return ResponseEntity.status(status).body(Map.of("productId", productId, "outcome", outcome));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.productmanagement.degraded;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class DegradedModeConfig implements WebMvcConfigurer {
+
+    private final StaleResponseInterceptor staleResponseInterceptor;
+
+    @Autowired
+    public DegradedModeConfig(StaleResponseInterceptor staleResponseInterceptor) {
+        this.staleResponseInterceptor = staleResponseInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(staleResponseInterceptor);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.productmanagement.degraded;
+
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Stale-if-error for the catalog pages. Reads go to the database through a circuit breaker;
+// while the database fails or is over its latency budget, they are answered from a
+// periodically refreshed snapshot instead, and StaleResponseInterceptor marks those pages.
+@Component
+public class DegradedReads {
+
+    private static final Logger log = LoggerFactory.getLogger(DegradedReads.class);
+
+    // Request attribute holding the snapshot time of a page served from the snapshot
+    public static final String STALE_SINCE = DegradedReads.class.getName() + ".staleSince";
+
+    private final ProductService productService;
+    private final CircuitBreaker breaker;
+
+    @Value("${product.degraded.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.degraded.latency-budget-millis:2000}")
+    private long latencyBudgetMillis;
+
+    @Value("${product.degraded.snapshot-max-entries:500000}")
+    private int snapshotMaxEntries;
+
+    private volatile ProductSnapshot snapshot;
+
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong slowCalls = new AtomicLong();
+    private final AtomicLong staleResponses = new AtomicLong();
+
+    @Autowired
+    public DegradedReads(ProductService productService,
+                         @Value("${product.degraded.failure-threshold:3}") int failureThreshold,
+                         @Value("${product.degraded.open-millis:5000}") long openMillis) {
+        this.productService = productService;
+        this.breaker = new CircuitBreaker(failureThreshold, openMillis);
+    }
+
+    public <T> T read(Supplier<T> live, Function<ProductSnapshot, T> fromSnapshot) {
+        if (!enabled) {
+            return live.get();
+        }
+        ProductSnapshot current = snapshot;
+        if (!breaker.allowRequest()) {
+            // Without a snapshot there is nothing better than trying the database
+            return current != null ? serveStale(current, fromSnapshot) : live.get();
+        }
+
+        long started = System.nanoTime();
+        // An Error escaping live.get() is caught by neither handler; it still counts as a
+        // failure, so a HALF_OPEN trial is never left in flight
+        boolean settled = false;
+        try {
+            T result = live.get();
+            settled = true;
+            recordLatency(started);
+            return result;
+        } catch (DataAccessException | TransactionException e) {
+            settled = true;
+            failures.incrementAndGet();
+            breaker.onFailure();
+            if (current == null) {
+                throw e;
+            }
+            log.warn("Product read failed, serving snapshot from {}: {}", current.getTakenAt(), e.getMessage());
+            return serveStale(current, fromSnapshot);
+        } catch (RuntimeException e) {
+            settled = true;
+            recordLatency(started);
+            throw e;
+        } finally {
+            if (!settled) {
+                failures.incrementAndGet();
+                breaker.onFailure();
+            }
+        }
+    }
+
+    private void recordLatency(long started) {
+        if (System.nanoTime() - started > TimeUnit.MILLISECONDS.toNanos(latencyBudgetMillis)) {
+            slowCalls.incrementAndGet();
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
+    private <T> T serveStale(ProductSnapshot current, Function<ProductSnapshot, T> fromSnapshot) {
+        staleResponses.incrementAndGet();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(STALE_SINCE, current.getTakenAt(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return fromSnapshot.apply(current);
+    }
+
+    // Skipped while the breaker is open: the database is struggling and the old snapshot is kept
+    @Scheduled(fixedDelayString = "${product.degraded.snapshot-refresh-millis:60000}", initialDelay = 0)
+    public void refreshSnapshot() {
+        if (!enabled || breaker.getState() != CircuitBreaker.State.CLOSED) {
+            return;
+        }
+        LocalDateTime takenAt = LocalDateTime.now();
+        try {
+            // One capped pass in id order over the listed columns only; the extra row tells
+            // whether the catalog was larger than the snapshot may be
+            List<Product> products = productService.getProductsForSnapshot(snapshotMaxEntries + 1);
+            if (products.size() > snapshotMaxEntries) {
+                log.warn("Product snapshot truncated to the first {} products by id", snapshotMaxEntries);
+                products = products.subList(0, snapshotMaxEntries);
+            }
+            snapshot = new ProductSnapshot(products, takenAt);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Product snapshot refresh failed, keeping the one from {}: {}",
+                     snapshot == null ? "never" : snapshot.getTakenAt(), e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        ProductSnapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("state", breaker.getState());
+        stats.put("timesOpened", breaker.getTimesOpened());
+        stats.put("failures", failures.get());
+        stats.put("slowCalls", slowCalls.get());
+        stats.put("staleResponses", staleResponses.get());
+        stats.put("snapshotTakenAt", current == null ? null : current.getTakenAt());
+        stats.put("snapshotSize", current == null ? 0 : current.size());
+        return stats;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.productmanagement.degraded;
+
+import com.example.productmanagement.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+// Read-only copy of the products table, answering the catalog's read queries from memory.
+// Holds only what the list pages show, without description, so it is not used for the edit
+// form. Immutable once built; a refresh replaces the whole snapshot.
+public class ProductSnapshot {
+
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+    private final List<Product> products;
+    private final Map<String, Long> categoryCounts;
+    private final List<String> categories;
+    private final LocalDateTime takenAt;
+
+    // products must be in id order
+    public ProductSnapshot(List<Product> products, LocalDateTime takenAt) {
+        this.products = Collections.unmodifiableList(new ArrayList<>(products));
+        // Grouped and sorted like CategoryDictionary
+        Map<String, Long> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Product product : products) {
+            if (product.getCategory() != null) {
+                counts.merge(product.getCategory(), 1L, Long::sum);
+            }
+        }
+        this.categoryCounts = Collections.unmodifiableMap(counts);
+        this.categories = List.copyOf(counts.keySet());
+        this.takenAt = takenAt;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public List<Product> byCategory(String category) {
+        return filter(p -> category.equals(p.getCategory()));
+    }
+
+    public List<String> categories() {
+        return categories;
+    }
+
+    public Map<String, Long> categoryCounts() {
+        return categoryCounts;
+    }
+
+    public List<Product> search(String keyword) {
+        return filter(p -> contains(p.getName(), keyword));
+    }
+
+    public Page<Product> search(String keyword, Pageable pageable) {
+        return page(search(keyword), pageable);
+    }
+
+    public Page<Product> page(String category, Pageable pageable) {
+        List<Product> matches = category == null || category.isEmpty() ? products : byCategory(category);
+        return page(matches, pageable);
+    }
+
+    public List<Product> searchAdvanced(String name, String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        return filter(p -> (name == null || contains(p.getName(), name))
+                && (category == null || category.equals(p.getCategory()))
+                && (minPrice == null || p.getPrice().compareTo(minPrice) >= 0)
+                && (maxPrice == null || p.getPrice().compareTo(maxPrice) <= 0));
+    }
+
+    public Page<Product> searchAdvanced(String name, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                        Pageable pageable) {
+        return page(searchAdvanced(name, category, minPrice, maxPrice), pageable);
+    }
+
+    private static Page<Product> page(List<Product> matches, Pageable pageable) {
+        List<Product> sorted = matches;
+        if (pageable.getSort().isSorted()) {
+            sorted = new ArrayList<>(matches);
+            sorted.sort(comparator(pageable.getSort()));
+        }
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(new ArrayList<>(sorted.subList(from, to)), pageable, sorted.size());
+    }
+
+    private List<Product> filter(Predicate<Product> predicate) {
+        return products.stream().filter(predicate).toList();
+    }
+
+    private static boolean contains(String value, String part) {
+        return value != null && value.toLowerCase().contains(part.toLowerCase());
+    }
+
+    // Same ordering as the ORDER BY the repository would run; text ignores case like MySQL
+    private static Comparator<Product> comparator(Sort sort) {
+        Comparator<Product> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<Product> next = switch (order.getProperty()) {
+                case "productCode" -> Comparator.comparing(Product::getProductCode, String.CASE_INSENSITIVE_ORDER);
+                case "name" -> Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER);
+                case "price" -> Comparator.comparing(Product::getPrice);
+                case "quantity" -> Comparator.comparing(Product::getQuantity);
+                case "category", "categoryRef.name" -> Comparator.comparing(Product::getCategory,
+                        Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+                case "createdAt" -> Comparator.comparing(Product::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> BY_ID;
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result == null ? BY_ID : result.thenComparing(BY_ID);
+    }
+}
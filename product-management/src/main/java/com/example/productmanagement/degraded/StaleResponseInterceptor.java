@@ -0,0 +1,32 @@
+package com.example.productmanagement.degraded;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.time.LocalDateTime;
+
+// Marks pages rendered from the product snapshot, before the view writes the body:
+//   Warning: 110 product-management "Response is Stale"
+//   X-Snapshot-Taken-At: when the data was read from the database
+// and exposes "staleSince" to the templates for a banner.
+@Component
+public class StaleResponseInterceptor implements HandlerInterceptor {
+
+    public static final String SNAPSHOT_HEADER = "X-Snapshot-Taken-At";
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (request.getAttribute(DegradedReads.STALE_SINCE) instanceof LocalDateTime takenAt) {
+            response.addHeader(HttpHeaders.WARNING, "110 product-management \"Response is Stale\"");
+            response.addHeader(SNAPSHOT_HEADER, takenAt.toString());
+            if (modelAndView != null) {
+                modelAndView.addObject("staleSince", takenAt);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.productmanagement.entity;
+
+import jakarta.persistence.*;
+
+// One row per distinct category name; products reference it by id instead of
+// repeating the name on every row
+@Entity
+@Table(name = "categories")
+public class Category {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @Column(nullable = false, unique = true, length = 50)
+    private String name;
+    
+    // Constructors
+    public Category() {
+    }
+    
+    public Category(String name) {
+        this.name = name;
+    }
+    
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+    
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    @Override
+    public String toString() {
+        return "Category{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
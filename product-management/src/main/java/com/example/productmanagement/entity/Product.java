@@ -6,7 +6,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+// The category index serves the paged category views and the counts per category;
+// InnoDB appends the id, so the default ORDER BY id within a category needs no sort
+@Table(name = "products", indexes = @Index(name = "idx_products_category_id", columnList = "category_id"))
 public class Product {
     
     @Id
@@ -35,9 +37,13 @@ public class Product {
     @Column(nullable = false)
     private Integer quantity;
     
-    @NotBlank(message = "Category is required")
-    @Size(min = 2, max = 50, message = "Category must be 2-50 characters")
-    @Column(length = 50)
+    // Stored as an integer key into categories (see CategoryMigration)
+    @ManyToOne
+    @JoinColumn(name = "category_id", foreignKey = @ForeignKey(name = "fk_products_category"))
+    private Category categoryRef;
+    
+    // A name set by the form or the constructor, until ProductServiceImpl resolves it to categoryRef
+    @Transient
     private String category;
     
     @Size(max = 1000, message = "Description cannot exceed 1000 characters")
@@ -107,12 +113,26 @@ public class Product {
         this.quantity = quantity;
     }
     
+    // Validated here rather than on the field: a loaded product only has categoryRef
+    @NotBlank(message = "Category is required")
+    @Size(min = 2, max = 50, message = "Category must be 2-50 characters")
     public String getCategory() {
-        return category;
+        return categoryRef != null ? categoryRef.getName() : category;
     }
     
     public void setCategory(String category) {
         this.category = category;
+        if (categoryRef != null && !categoryRef.getName().equals(category)) {
+            categoryRef = null;
+        }
+    }
+    
+    public Category getCategoryRef() {
+        return categoryRef;
+    }
+    
+    public void setCategoryRef(Category categoryRef) {
+        this.categoryRef = categoryRef;
     }
     
     public String getDescription() {
@@ -139,7 +159,7 @@ public class Product {
                 ", name='" + name + '\'' +
                 ", price=" + price +
                 ", quantity=" + quantity +
-                ", category='" + category + '\'' +
+                ", category='" + getCategory() + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,83 @@
+package com.example.productmanagement.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One change to a product's quantity, appended by StockLedger and never updated.
+// product_id is not a foreign key: a deleted product keeps its history.
+@Entity
+@Table(name = "stock_movements",
+       indexes = @Index(name = "idx_stock_movements_product", columnList = "product_id, id"))
+public class StockMovement {
+    
+    public enum Reason {
+        OPENING,
+        CREATE,
+        EDIT,
+        DELETE,
+        RESERVE,
+        RELEASE,
+        ADJUST,
+        // Units a hot product's in-memory counter claimed from, or gave back to, the database
+        HOT_CLAIM,
+        HOT_RETURN
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Integer delta;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Reason reason;
+    
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getDelta() {
+        return delta;
+    }
+    
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+    
+    public void setReason(Reason reason) {
+        this.reason = reason;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.productmanagement.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A product's quantity after every movement up to lastMovementId, which occurred at asOf.
+// Written by StockLedger; a quantity at any later time is this plus the movements after it.
+@Entity
+@Table(name = "stock_snapshots",
+       indexes = @Index(name = "idx_stock_snapshots_product", columnList = "product_id, last_movement_id"))
+public class StockSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+    
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    
+    public Long getLastMovementId() {
+        return lastMovementId;
+    }
+    
+    public void setLastMovementId(Long lastMovementId) {
+        this.lastMovementId = lastMovementId;
+    }
+    
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+    
+    public void setAsOf(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.productmanagement.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+// Dictionary-encodes the old free-text products.category column: every distinct name
+// becomes a row in categories and each product gets its category_id. ddl-auto=update has
+// created the table and the new column by the time this runs, but never drops a column,
+// so the old one is dropped here once it is encoded. Does nothing when it is already gone.
+@Component
+public class CategoryMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory is only a dependency so that Hibernate's schema update runs first
+    @Autowired
+    public CategoryMigration(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!hasLegacyColumn()) {
+            return;
+        }
+        // Names are trimmed, and "Tools" and "tools" fold into one category like the unique
+        // name would have them. Compared through LOWER rather than the collation, which TRIM
+        // does not keep on every database; a rerun then finds every name already there.
+        int created = jdbcTemplate.update(
+                "INSERT INTO categories (name) " +
+                "SELECT MIN(TRIM(p.category)) FROM products p " +
+                "WHERE p.category IS NOT NULL AND TRIM(p.category) <> '' " +
+                "AND NOT EXISTS (SELECT 1 FROM categories c WHERE LOWER(c.name) = LOWER(TRIM(p.category))) " +
+                "GROUP BY LOWER(TRIM(p.category))");
+        int encoded = jdbcTemplate.update(
+                "UPDATE products SET category_id = " +
+                "(SELECT c.id FROM categories c WHERE LOWER(c.name) = LOWER(TRIM(products.category))) " +
+                "WHERE category_id IS NULL AND category IS NOT NULL AND TRIM(category) <> ''");
+        jdbcTemplate.execute("ALTER TABLE products DROP COLUMN category");
+        log.info("Moved products.category into categories: {} categories created, {} products encoded",
+                 created, encoded);
+    }
+
+    private boolean hasLegacyColumn() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(),
+                                                         "products", "category")) {
+                return columns.next();
+            }
+        }));
+    }
+}
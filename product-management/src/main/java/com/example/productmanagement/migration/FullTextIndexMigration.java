@@ -0,0 +1,81 @@
+package com.example.productmanagement.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+// Adds the FULLTEXT index on products(name, description) that MATCH ... AGAINST needs.
+// ddl-auto=update cannot declare one, so it is created here when missing. Only MySQL
+// has it: on any other database, such as H2 in tests, this does nothing and
+// FullTextSearch uses its LIKE fallback.
+@Component
+public class FullTextIndexMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(FullTextIndexMigration.class);
+
+    public static final String INDEX_NAME = "ft_products_name_description";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private boolean available;
+
+    // The EntityManagerFactory is only a dependency so that Hibernate's schema update runs first
+    @Autowired
+    public FullTextIndexMigration(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!isMySql()) {
+            return;
+        }
+        if (!hasIndex()) {
+            try {
+                // Builds the index over every existing row; takes a while on a large catalog
+                jdbcTemplate.execute("ALTER TABLE products ADD FULLTEXT INDEX " + INDEX_NAME + " (name, description)");
+                log.info("Created FULLTEXT index {} on products", INDEX_NAME);
+            } catch (DataAccessException e) {
+                log.warn("Could not create FULLTEXT index {}, full-text search will use LIKE: {}",
+                         INDEX_NAME, e.getMessage());
+                return;
+            }
+        }
+        available = true;
+    }
+
+    // Whether MATCH ... AGAINST can be used
+    public boolean isAvailable() {
+        return available;
+    }
+
+    private boolean isMySql() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql")));
+    }
+
+    private boolean hasIndex() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                                                           "products", false, false)) {
+                while (indexes.next()) {
+                    if (INDEX_NAME.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }));
+    }
+}
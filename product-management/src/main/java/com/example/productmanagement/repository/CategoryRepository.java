@@ -0,0 +1,23 @@
+package com.example.productmanagement.repository;
+
+import com.example.productmanagement.entity.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Integer> {
+    
+    // Case-insensitive under MySQL's default collation, so "tools" finds "Tools"
+    Optional<Category> findByName(String name);
+    
+    // Concurrent saves may introduce the same new category; the unique name makes the loser a no-op
+    @Modifying
+    @Query(value = "INSERT INTO categories (name) VALUES (:name) ON DUPLICATE KEY UPDATE name = name",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+}
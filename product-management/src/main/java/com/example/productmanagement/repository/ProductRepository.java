@@ -2,6 +2,7 @@ package com.example.productmanagement.repository;
 
 import com.example.productmanagement.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,13 +19,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Spring Data JPA generates implementation automatically!
     
     // Custom query methods (derived from method names)
-    List<Product> findByCategory(String category);
+    // Categories are matched on products.category_id; resolve the name with CategoryRepository
+    List<Product> findByCategoryRefId(Integer categoryId);
     
     List<Product> findByNameContaining(String keyword);
     
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     
-    List<Product> findByCategoryOrderByPriceAsc(String category);
+    List<Product> findByCategoryRefIdOrderByPriceAsc(Integer categoryId);
 
     List<Product> findAll(Sort sort);
 
@@ -41,33 +43,83 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // - existsById(Long id)
     @Query("SELECT p FROM Product p WHERE " +
        "(:name IS NULL OR p.name LIKE %:name%) AND " +
-       "(:category IS NULL OR p.category = :category) AND " +
+       "(:categoryId IS NULL OR p.categoryRef.id = :categoryId) AND " +
        "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
        "(:maxPrice IS NULL OR p.price <= :maxPrice)")
     List<Product> searchProducts(@Param("name") String name,
-                            @Param("category") String category,
+                            @Param("categoryId") Integer categoryId,
                             @Param("minPrice") BigDecimal minPrice,
                             @Param("maxPrice") BigDecimal maxPrice);
 
-    List<Product> searchAdvanced(String name, String category, BigDecimal minPrice, BigDecimal maxPrice);
-
     // 5.2
-    @Query("SELECT DISTINCT p.category FROM Product p WHERE p.category IS NOT NULL ORDER BY p.category")
+    @Query("SELECT c.name FROM Category c WHERE EXISTS (SELECT p.id FROM Product p WHERE p.categoryRef = c) ORDER BY c.name")
     List<String> findAllCategories();
 
+    // {category id, count}; grouped on the category_id index alone, without reading product rows
+    @Query("SELECT p.categoryRef.id, COUNT(p) FROM Product p WHERE p.categoryRef IS NOT NULL GROUP BY p.categoryRef.id")
+    List<Object[]> countByCategoryId();
+
+    // DegradedReads snapshot: what the catalog pages show, without description, in id order
+    @Query("SELECT p.id, p.productCode, p.name, p.price, p.quantity, c.name, p.createdAt " +
+           "FROM Product p LEFT JOIN p.categoryRef c ORDER BY p.id")
+    List<Object[]> findSnapshotRows(Pageable pageable);
+
+    // Stock changes are single conditional UPDATEs: no read-modify-write, the row lock lasts
+    // one statement, and the WHERE clause refuses to take a quantity below zero.
+    // They return the rows changed: 0 means no such product or not enough stock.
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount WHERE p.id = :id AND p.quantity >= :amount")
+    int reserveStock(@Param("id") Long id, @Param("amount") int amount);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :amount WHERE p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("amount") int amount);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :delta WHERE p.id = :id AND p.quantity + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+
     // 5.3
     Page<Product> findByNameContaining(String keyword, Pageable pageable);
-    Page<Product> findByCategory(String category, Pageable pageable);
+    Page<Product> findByCategoryRefId(Integer categoryId, Pageable pageable);
     
     // Thêm vào ProductRepository
     @Query("SELECT p FROM Product p WHERE " +
         "(:name IS NULL OR p.name LIKE %:name%) AND " +
-        "(:category IS NULL OR p.category = :category) AND " +
+        "(:categoryId IS NULL OR p.categoryRef.id = :categoryId) AND " +
         "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
         "(:maxPrice IS NULL OR p.price <= :maxPrice)")
     List<Product> searchAdvanced(@Param("name") String name,
-                                @Param("category") String category,
+                                @Param("categoryId") Integer categoryId,
                                 @Param("minPrice") BigDecimal minPrice,
                                 @Param("maxPrice") BigDecimal maxPrice,
                                 Sort sort);
+
+    // The same filters one page at a time, for when the facet index is not loaded
+    @Query("SELECT p FROM Product p WHERE " +
+        "(:name IS NULL OR p.name LIKE %:name%) AND " +
+        "(:categoryId IS NULL OR p.categoryRef.id = :categoryId) AND " +
+        "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+        "(:maxPrice IS NULL OR p.price <= :maxPrice)")
+    Page<Product> searchAdvanced(@Param("name") String name,
+                                 @Param("categoryId") Integer categoryId,
+                                 @Param("minPrice") BigDecimal minPrice,
+                                 @Param("maxPrice") BigDecimal maxPrice,
+                                 Pageable pageable);
+
+    // Full-text search, most relevant first. MySQL only: these need the FULLTEXT index that
+    // FullTextIndexMigration creates. The MATCH in the ORDER BY is the one in the WHERE,
+    // which MySQL evaluates once per row.
+    @Query(value = "SELECT * FROM products WHERE MATCH(name, description) AGAINST (:query IN NATURAL LANGUAGE MODE) " +
+                   "ORDER BY MATCH(name, description) AGAINST (:query IN NATURAL LANGUAGE MODE) DESC, id",
+           countQuery = "SELECT COUNT(*) FROM products " +
+                        "WHERE MATCH(name, description) AGAINST (:query IN NATURAL LANGUAGE MODE)",
+           nativeQuery = true)
+    Page<Product> searchFullText(@Param("query") String query, Pageable pageable);
+
+    @Query(value = "SELECT * FROM products WHERE MATCH(name, description) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(name, description) AGAINST (:query IN BOOLEAN MODE) DESC, id",
+           countQuery = "SELECT COUNT(*) FROM products WHERE MATCH(name, description) AGAINST (:query IN BOOLEAN MODE)",
+           nativeQuery = true)
+    Page<Product> searchFullTextBoolean(@Param("query") String query, Pageable pageable);
 }
@@ -25,7 +25,7 @@ public interface StatisticsRepository {
     @Query("SELECT AVG(p.price) FROM Product p")
     BigDecimal getAveragePrice();
     
-    @Query("SELECT p.category, COUNT(p) FROM Product p GROUP BY p.category ORDER BY COUNT(p) DESC")
+    @Query("SELECT c.name, g.n FROM Category c JOIN (SELECT p.categoryRef.id AS id, COUNT(p) AS n FROM Product p GROUP BY p.categoryRef.id) g ON g.id = c.id ORDER BY g.n DESC")
     List<Object[]> getProductsByCategory();
     
     @Query("SELECT p FROM Product p WHERE p.quantity < :threshold ORDER BY p.quantity ASC")
@@ -0,0 +1,28 @@
+package com.example.productmanagement.repository;
+
+import com.example.productmanagement.entity.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+// Read side of the ledger; StockLedger appends in JDBC batches
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+    
+    // Newest first
+    Page<StockMovement> findByProductIdOrderByIdDesc(Long productId, Pageable pageable);
+    
+    boolean existsByProductIdAndOccurredAtLessThanEqual(Long productId, LocalDateTime at);
+    
+    // The movements a snapshot does not include yet, up to a point in time
+    @Query("SELECT COALESCE(SUM(m.delta), 0) FROM StockMovement m " +
+           "WHERE m.productId = :productId AND m.id > :afterId AND m.occurredAt <= :at")
+    long sumDeltaAfter(@Param("productId") Long productId,
+                       @Param("afterId") long afterId,
+                       @Param("at") LocalDateTime at);
+}
@@ -0,0 +1,16 @@
+package com.example.productmanagement.repository;
+
+import com.example.productmanagement.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+    
+    // The newest snapshot taken at or before the given time
+    Optional<StockSnapshot> findFirstByProductIdAndAsOfLessThanEqualOrderByLastMovementIdDesc(Long productId,
+                                                                                              LocalDateTime at);
+}
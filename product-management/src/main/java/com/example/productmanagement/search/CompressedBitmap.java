@@ -0,0 +1,440 @@
+package com.example.productmanagement.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// A set of non-negative ints laid out the way Roaring bitmaps are: values are grouped into
+// blocks by their high 16 bits, and each block holds its low 16 bits either as a sorted
+// array (2 bytes a value, up to 4096 of them) or, once denser than that, as a fixed 8 KB
+// bitmap. Sparse and dense sets both stay small, and set operations run block by block:
+// two arrays are merged, an array is probed against a bitmap, two bitmaps are ANDed a word
+// at a time. Blocks are in key order, so iteration is in ascending order. Not thread-safe.
+public class CompressedBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key, new Container());
+        }
+        return containers[index].add((char) value);
+    }
+
+    public boolean remove(int value) {
+        int index = value < 0 ? -1 : indexOf((char) (value >>> 16));
+        if (index < 0 || !containers[index].remove((char) value)) {
+            return false;
+        }
+        if (containers[index].cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        int index = value < 0 ? -1 : indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container block = containers[i].and(other.containers[j]);
+                if (block.cardinality > 0) {
+                    result.insert(result.size, keys[i], block);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    // The cardinality of and(other), without building it
+    public int andCardinality(CompressedBitmap other) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.insert(result.size, keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.insert(result.size, other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.insert(result.size, keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    // The values that pass the test, as a new bitmap
+    public CompressedBitmap filter(IntPredicate test) {
+        CompressedBitmap result = new CompressedBitmap();
+        forEach(value -> {
+            if (test.test(value)) {
+                result.add(value);
+            }
+        });
+        return result;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    // Up to limit values in ascending order, starting with the offset-th. Whole blocks
+    // before the offset are skipped by their cardinality without being read.
+    public int[] slice(int offset, int limit) {
+        int[] out = new int[Math.max(0, Math.min(limit, cardinality() - Math.max(offset, 0)))];
+        int skip = Math.max(offset, 0);
+        int filled = 0;
+        for (int i = 0; i < size && filled < out.length; i++) {
+            Container block = containers[i];
+            if (skip >= block.cardinality) {
+                skip -= block.cardinality;
+                continue;
+            }
+            filled = block.copyTo(keys[i] << 16, skip, out, filled);
+            skip = 0;
+        }
+        return out;
+    }
+
+    private int indexOf(char key) {
+        // Values are mostly added in ascending order, so check the last block first
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Container block) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = block;
+        size++;
+    }
+
+    // One block: the sorted low bits while there are at most ARRAY_LIMIT of them, else a
+    // bitmap. A bitmap only turns back into an array at half the limit, so a block hovering
+    // around the limit does not convert on every change.
+    private static final class Container {
+
+        // Null in bitmap form
+        char[] values;
+        // Null in array form
+        long[] words;
+        int cardinality;
+
+        Container() {
+            values = new char[4];
+        }
+
+        private Container(char[] values, long[] words, int cardinality) {
+            this.values = values;
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static Container ofWords(long[] words, int cardinality) {
+            if (cardinality > ARRAY_LIMIT) {
+                return new Container(null, words, cardinality);
+            }
+            char[] values = new char[Math.max(cardinality, 1)];
+            new Container(null, words, cardinality).copyLow(values);
+            return new Container(values, null, cardinality);
+        }
+
+        boolean contains(char low) {
+            return values != null
+                    ? Arrays.binarySearch(values, 0, cardinality, low) >= 0
+                    : (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        boolean add(char low) {
+            if (values == null) {
+                long word = words[low >>> 6];
+                long bit = 1L << low;
+                if ((word & bit) != 0) {
+                    return false;
+                }
+                words[low >>> 6] = word | bit;
+                cardinality++;
+                return true;
+            }
+            int at = cardinality > 0 && values[cardinality - 1] < low
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, low);
+            if (at >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                words = new long[WORDS];
+                for (int i = 0; i < cardinality; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                values = null;
+                return add(low);
+            }
+            at = -at - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_LIMIT));
+            }
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (values == null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) == 0) {
+                    return false;
+                }
+                words[low >>> 6] &= ~bit;
+                if (--cardinality == ARRAY_LIMIT / 2) {
+                    values = new char[cardinality];
+                    copyLow(values);
+                    words = null;
+                }
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, low);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(values, at + 1, values, at, cardinality - at - 1);
+            cardinality--;
+            return true;
+        }
+
+        Container and(Container other) {
+            if (values == null && other.values == null) {
+                long[] result = new long[WORDS];
+                int count = 0;
+                for (int k = 0; k < WORDS; k++) {
+                    result[k] = words[k] & other.words[k];
+                    count += Long.bitCount(result[k]);
+                }
+                return ofWords(result, count);
+            }
+            Container small = values != null && (other.values == null || cardinality <= other.cardinality) ? this : other;
+            Container large = small == this ? other : this;
+            char[] result = new char[Math.max(small.cardinality, 1)];
+            int count = 0;
+            if (large.values == null) {
+                for (int i = 0; i < small.cardinality; i++) {
+                    char low = small.values[i];
+                    if ((large.words[low >>> 6] & (1L << low)) != 0) {
+                        result[count++] = low;
+                    }
+                }
+            } else {
+                int j = 0;
+                for (int i = 0; i < small.cardinality && j < large.cardinality; i++) {
+                    char low = small.values[i];
+                    while (j < large.cardinality && large.values[j] < low) {
+                        j++;
+                    }
+                    if (j < large.cardinality && large.values[j] == low) {
+                        result[count++] = low;
+                    }
+                }
+            }
+            return new Container(result, null, count);
+        }
+
+        int andCardinality(Container other) {
+            if (values == null && other.values == null) {
+                int count = 0;
+                for (int k = 0; k < WORDS; k++) {
+                    count += Long.bitCount(words[k] & other.words[k]);
+                }
+                return count;
+            }
+            Container small = values != null && (other.values == null || cardinality <= other.cardinality) ? this : other;
+            Container large = small == this ? other : this;
+            int count = 0;
+            if (large.values == null) {
+                for (int i = 0; i < small.cardinality; i++) {
+                    char low = small.values[i];
+                    count += (int) (large.words[low >>> 6] >>> low) & 1;
+                }
+            } else {
+                int j = 0;
+                for (int i = 0; i < small.cardinality && j < large.cardinality; i++) {
+                    char low = small.values[i];
+                    while (j < large.cardinality && large.values[j] < low) {
+                        j++;
+                    }
+                    if (j < large.cardinality && large.values[j] == low) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        Container or(Container other) {
+            if (values != null && other.values != null && cardinality + other.cardinality <= ARRAY_LIMIT) {
+                char[] result = new char[Math.max(cardinality + other.cardinality, 1)];
+                int i = 0;
+                int j = 0;
+                int count = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                        result[count++] = values[i++];
+                    } else if (i == cardinality || values[i] > other.values[j]) {
+                        result[count++] = other.values[j++];
+                    } else {
+                        result[count++] = values[i++];
+                        j++;
+                    }
+                }
+                return new Container(result, null, count);
+            }
+            long[] result = new long[WORDS];
+            setInto(result);
+            other.setInto(result);
+            int count = 0;
+            for (long word : result) {
+                count += Long.bitCount(word);
+            }
+            return ofWords(result, count);
+        }
+
+        Container copy() {
+            return new Container(values == null ? null : values.clone(), words == null ? null : words.clone(), cardinality);
+        }
+
+        void forEach(int base, IntConsumer action) {
+            if (values != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(base | values[i]);
+                }
+                return;
+            }
+            for (int k = 0; k < WORDS; k++) {
+                long word = words[k];
+                while (word != 0) {
+                    action.accept(base | (k << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        // Copies values from the skip-th on into out until it is full; returns the new fill
+        int copyTo(int base, int skip, int[] out, int filled) {
+            if (values != null) {
+                for (int i = skip; i < cardinality && filled < out.length; i++) {
+                    out[filled++] = base | values[i];
+                }
+                return filled;
+            }
+            for (int k = 0; k < WORDS && filled < out.length; k++) {
+                long word = words[k];
+                int bits = Long.bitCount(word);
+                if (skip >= bits) {
+                    skip -= bits;
+                    continue;
+                }
+                while (word != 0 && filled < out.length) {
+                    int low = (k << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        out[filled++] = base | low;
+                    }
+                }
+            }
+            return filled;
+        }
+
+        private void setInto(long[] target) {
+            if (values == null) {
+                for (int k = 0; k < WORDS; k++) {
+                    target[k] |= words[k];
+                }
+                return;
+            }
+            for (int i = 0; i < cardinality; i++) {
+                target[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        private void copyLow(char[] target) {
+            int count = 0;
+            for (int k = 0; k < WORDS; k++) {
+                long word = words[k];
+                while (word != 0) {
+                    target[count++] = (char) ((k << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.productmanagement.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// The advanced search as bitmaps over product ids: one per category, one per price band and
+// one per trigram of the lower-cased names. A search intersects the bitmaps of its filters,
+// and each facet count is one intersection cardinality. The name filter is a substring
+// match, like the LIKE it replaces: the trigram bitmaps narrow it to the products holding
+// every trigram of the text, and only those names are compared. Ids are AUTO_INCREMENT and
+// so fit in an int, which is what the bitmaps hold. Not thread-safe; ProductFacets guards it.
+public class FacetIndex {
+
+    // Category id of a product without one; real ids start at 1
+    public static final int NO_CATEGORY = 0;
+    // No category filter. Any other id without products, such as -2, matches nothing.
+    public static final int ANY_CATEGORY = -1;
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    // Band i holds prices from bandFloors[i] up to, not including, bandFloors[i + 1]
+    private final long[] bandFloors;
+    private final CompressedBitmap[] byBand;
+    private CompressedBitmap[] byCategory = new CompressedBitmap[0];
+    private final Map<Long, CompressedBitmap> byTrigram = new HashMap<>();
+    private final CompressedBitmap all = new CompressedBitmap();
+
+    // Indexed by product id, for the products in all
+    private String[] names = new String[0];
+    private long[] priceCents = new long[0];
+    private int[] categories = new int[0];
+
+    // The lower edges of the price bands after the first, ascending, in cents
+    public FacetIndex(long[] bandLimitsInCents) {
+        bandFloors = new long[bandLimitsInCents.length + 1];
+        bandFloors[0] = Long.MIN_VALUE;
+        for (int i = 0; i < bandLimitsInCents.length; i++) {
+            if (i > 0 && bandLimitsInCents[i] <= bandLimitsInCents[i - 1]) {
+                throw new IllegalArgumentException("Price bands must be ascending: " + Arrays.toString(bandLimitsInCents));
+            }
+            bandFloors[i + 1] = bandLimitsInCents[i];
+        }
+        byBand = new CompressedBitmap[bandFloors.length];
+        for (int i = 0; i < byBand.length; i++) {
+            byBand[i] = new CompressedBitmap();
+        }
+    }
+
+    public int size() {
+        return all.cardinality();
+    }
+
+    public int bandCount() {
+        return byBand.length;
+    }
+
+    // Adds the product, or replaces what was indexed for it
+    public void put(long id, String name, long priceInCents, int category) {
+        int doc = docOf(id);
+        remove(id);
+        if (doc >= names.length) {
+            int length = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(doc + 1, names.length * 2L));
+            names = Arrays.copyOf(names, length);
+            priceCents = Arrays.copyOf(priceCents, length);
+            categories = Arrays.copyOf(categories, length);
+        }
+        String lowerName = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        names[doc] = lowerName;
+        priceCents[doc] = priceInCents;
+        categories[doc] = category;
+        all.add(doc);
+        byBand[bandOf(priceInCents)].add(doc);
+        if (category >= byCategory.length) {
+            int length = Math.max(category + 1, byCategory.length * 2);
+            byCategory = Arrays.copyOf(byCategory, length);
+        }
+        if (byCategory[category] == null) {
+            byCategory[category] = new CompressedBitmap();
+        }
+        byCategory[category].add(doc);
+        for (int i = 0; i + 3 <= lowerName.length(); i++) {
+            byTrigram.computeIfAbsent(trigram(lowerName, i), t -> new CompressedBitmap()).add(doc);
+        }
+    }
+
+    public boolean remove(long id) {
+        int doc = id >= 0 && id < names.length ? (int) id : -1;
+        if (doc < 0 || !all.remove(doc)) {
+            return false;
+        }
+        byBand[bandOf(priceCents[doc])].remove(doc);
+        byCategory[categories[doc]].remove(doc);
+        String name = names[doc];
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            Long key = trigram(name, i);
+            CompressedBitmap postings = byTrigram.get(key);
+            if (postings != null && postings.remove(doc) && postings.isEmpty()) {
+                byTrigram.remove(key);
+            }
+        }
+        names[doc] = null;
+        return true;
+    }
+
+    // Products whose name contains text (ignoring case), in the category and within the
+    // inclusive price bounds, in id order from offset on. Null or empty text and the
+    // Long.MIN_VALUE / MAX_VALUE bounds leave that filter out.
+    public Result search(String text, int category, long minPriceCents, long maxPriceCents, int offset, int limit) {
+        CompressedBitmap textHits = text == null || text.isEmpty() ? null : textMatch(text.toLowerCase(Locale.ROOT));
+        CompressedBitmap categoryHits = category == ANY_CATEGORY ? null : categoryBitmap(category);
+        CompressedBitmap priceHits = minPriceCents == Long.MIN_VALUE && maxPriceCents == Long.MAX_VALUE
+                ? null : priceMatch(minPriceCents, maxPriceCents);
+
+        // Each facet is counted under the other filters but not its own, so a count is how
+        // many results picking that value instead would give
+        CompressedBitmap forCategories = and(textHits, priceHits);
+        CompressedBitmap forBands = and(textHits, categoryHits);
+        CompressedBitmap hits = and(forBands, priceHits);
+        if (hits == null) {
+            hits = all;
+        }
+
+        long[] categoryCounts = new long[byCategory.length];
+        for (int c = 0; c < byCategory.length; c++) {
+            categoryCounts[c] = count(byCategory[c], forCategories);
+        }
+        long[] bandCounts = new long[byBand.length];
+        for (int b = 0; b < byBand.length; b++) {
+            bandCounts[b] = count(byBand[b], forBands);
+        }
+        int[] page = hits.slice(offset, limit);
+        long[] ids = new long[page.length];
+        for (int i = 0; i < page.length; i++) {
+            ids[i] = page[i];
+        }
+        return new Result(ids, hits.cardinality(), categoryCounts, bandCounts);
+    }
+
+    private CompressedBitmap textMatch(String text) {
+        if (text.length() < 3) {
+            return all.filter(doc -> names[doc].contains(text));
+        }
+        List<CompressedBitmap> postings = new ArrayList<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            CompressedBitmap bitmap = byTrigram.get(trigram(text, i));
+            if (bitmap == null) {
+                return EMPTY;
+            }
+            postings.add(bitmap);
+        }
+        // Smallest first, so every intersection after the first is against a short list
+        postings.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+        CompressedBitmap candidates = postings.get(0);
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates = candidates.and(postings.get(i));
+        }
+        // Holding every trigram does not make the text a substring: "abcxbcd" has all of "abcd"'s
+        return candidates.filter(doc -> names[doc].contains(text));
+    }
+
+    // Bands entirely within the bounds are taken whole; only the two at the edges are checked price by price
+    private CompressedBitmap priceMatch(long min, long max) {
+        CompressedBitmap match = new CompressedBitmap();
+        for (int band = 0; band < byBand.length; band++) {
+            long low = bandFloors[band];
+            long high = band + 1 < bandFloors.length ? bandFloors[band + 1] - 1 : Long.MAX_VALUE;
+            if (high < min || low > max) {
+                continue;
+            }
+            CompressedBitmap inBand = low >= min && high <= max
+                    ? byBand[band]
+                    : byBand[band].filter(doc -> priceCents[doc] >= min && priceCents[doc] <= max);
+            match = match.or(inBand);
+        }
+        return match;
+    }
+
+    private CompressedBitmap categoryBitmap(int category) {
+        CompressedBitmap bitmap = category >= 0 && category < byCategory.length ? byCategory[category] : null;
+        return bitmap == null ? EMPTY : bitmap;
+    }
+
+    private int bandOf(long priceInCents) {
+        int band = Arrays.binarySearch(bandFloors, priceInCents);
+        return band >= 0 ? band : -band - 2;
+    }
+
+    // Null means no filter
+    private static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        return a == null ? b : b == null ? a : a.and(b);
+    }
+
+    private static long count(CompressedBitmap facet, CompressedBitmap within) {
+        if (facet == null) {
+            return 0;
+        }
+        return within == null ? facet.cardinality() : facet.andCardinality(within);
+    }
+
+    private static Long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    private static int docOf(long id) {
+        if (id < 0 || id >= Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Product id out of range: " + id);
+        }
+        return (int) id;
+    }
+
+    // Counts are indexed by category id and by band
+    public static class Result {
+
+        private final long[] ids;
+        private final long total;
+        private final long[] categoryCounts;
+        private final long[] bandCounts;
+
+        Result(long[] ids, long total, long[] categoryCounts, long[] bandCounts) {
+            this.ids = ids;
+            this.total = total;
+            this.categoryCounts = categoryCounts;
+            this.bandCounts = bandCounts;
+        }
+
+        public long[] getIds() {
+            return ids;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long[] getCategoryCounts() {
+            return categoryCounts;
+        }
+
+        public long[] getBandCounts() {
+            return bandCounts;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.productmanagement.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// One page of advanced search results with the facet counts of the whole result. The
+// counts are null when the page was served without the facet index: still loading,
+// disabled, or answered from the degraded-mode snapshot.
+public class FacetedPage<T> {
+
+    private final Page<T> page;
+    private final Map<String, Long> categoryCounts;
+    private final List<PriceBand> priceBands;
+
+    public FacetedPage(Page<T> page, Map<String, Long> categoryCounts, List<PriceBand> priceBands) {
+        this.page = page;
+        this.categoryCounts = categoryCounts;
+        this.priceBands = priceBands;
+    }
+
+    public static <T> FacetedPage<T> withoutFacets(Page<T> page) {
+        return new FacetedPage<>(page, null, null);
+    }
+
+    // The same counts and total around other content, e.g. the products behind a page of ids
+    public <U> FacetedPage<U> withContent(List<U> content) {
+        return new FacetedPage<>(new PageImpl<>(content, page.getPageable(), page.getTotalElements()),
+                categoryCounts, priceBands);
+    }
+
+    public Page<T> getPage() {
+        return page;
+    }
+
+    // Category name -> matching products, by name; categories without any are left out
+    public Map<String, Long> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    public List<PriceBand> getPriceBands() {
+        return priceBands;
+    }
+
+    // Bounds are inclusive, null when open
+    public static class PriceBand {
+
+        private final String label;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+        private final long count;
+
+        public PriceBand(String label, BigDecimal minPrice, BigDecimal maxPrice, long count) {
+            this.label = label;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.count = count;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public BigDecimal getMinPrice() {
+            return minPrice;
+        }
+
+        public BigDecimal getMaxPrice() {
+            return maxPrice;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
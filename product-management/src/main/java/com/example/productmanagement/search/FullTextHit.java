@@ -0,0 +1,30 @@
+package com.example.productmanagement.search;
+
+import com.example.productmanagement.entity.Product;
+
+// A full-text match with its name and a description snippet highlighted. Both are HTML:
+// escaped text with the matched terms in <mark>.
+public class FullTextHit {
+
+    private final Product product;
+    private final String highlightedName;
+    private final String snippet;
+
+    public FullTextHit(Product product, String highlightedName, String snippet) {
+        this.product = product;
+        this.highlightedName = highlightedName;
+        this.snippet = snippet;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public String getHighlightedName() {
+        return highlightedName;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+}
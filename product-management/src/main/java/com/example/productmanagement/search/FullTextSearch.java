@@ -0,0 +1,123 @@
+package com.example.productmanagement.search;
+
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.migration.FullTextIndexMigration;
+import com.example.productmanagement.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Relevance-ranked search over product names and descriptions. On MySQL it is MATCH ...
+// AGAINST on the FULLTEXT index, in natural language or boolean mode. Without the index,
+// which in practice means H2 in tests, the same terms become LIKE conditions, ranked by
+// where they match: in the name counts twice as much as in the description. Either way
+// each result comes with its name and a description snippet highlighted.
+@Component
+public class FullTextSearch {
+
+    private final ProductRepository productRepository;
+    private final FullTextIndexMigration fullTextIndex;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public FullTextSearch(ProductRepository productRepository, FullTextIndexMigration fullTextIndex,
+                          EntityManager entityManager) {
+        this.productRepository = productRepository;
+        this.fullTextIndex = fullTextIndex;
+        this.entityManager = entityManager;
+    }
+
+    public boolean usesFullTextIndex() {
+        return fullTextIndex.isAvailable();
+    }
+
+    // The pageable must be unsorted: results are in relevance order
+    public Page<FullTextHit> search(String query, SearchTerms.Mode mode, Pageable pageable) {
+        SearchTerms terms = SearchTerms.parse(query, mode);
+        if (terms.positive().isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Page<Product> products;
+        if (fullTextIndex.isAvailable()) {
+            products = mode == SearchTerms.Mode.BOOLEAN
+                    ? productRepository.searchFullTextBoolean(query, pageable)
+                    : productRepository.searchFullText(query, pageable);
+        } else {
+            products = searchWithLike(terms, pageable);
+        }
+        return products.map(product -> new FullTextHit(product, terms.highlight(product.getName()),
+                terms.snippet(product.getDescription())));
+    }
+
+    // Required terms must all match and excluded ones must not. Optional terms must match
+    // at least once when nothing is required, and otherwise only rank, as in MySQL.
+    private Page<Product> searchWithLike(SearchTerms terms, Pageable pageable) {
+        List<String> patterns = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        for (String term : terms.required()) {
+            conditions.add(matches(patterns, term));
+        }
+        if (terms.required().isEmpty()) {
+            List<String> any = new ArrayList<>();
+            for (String term : terms.optional()) {
+                any.add(matches(patterns, term));
+            }
+            conditions.add("(" + String.join(" OR ", any) + ")");
+        }
+        for (String term : terms.excluded()) {
+            conditions.add("NOT " + matches(patterns, term));
+        }
+        // Optional terms next to required ones add parameters the count does not have
+        int countParameters = patterns.size();
+        List<String> scores = new ArrayList<>();
+        for (String term : terms.positive()) {
+            int n = parameter(patterns, term);
+            scores.add("CASE WHEN " + inName(n) + " THEN 2 ELSE 0 END + CASE WHEN " + inDescription(n) + " THEN 1 ELSE 0 END");
+        }
+        String where = " WHERE " + String.join(" AND ", conditions);
+
+        TypedQuery<Product> select = entityManager.createQuery(
+                "SELECT p FROM Product p" + where + " ORDER BY " + String.join(" + ", scores) + " DESC, p.id", Product.class);
+        TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(p) FROM Product p" + where, Long.class);
+        for (int i = 0; i < patterns.size(); i++) {
+            select.setParameter(i + 1, patterns.get(i));
+            if (i < countParameters) {
+                count.setParameter(i + 1, patterns.get(i));
+            }
+        }
+        select.setFirstResult((int) pageable.getOffset());
+        select.setMaxResults(pageable.getPageSize());
+        return new PageImpl<>(select.getResultList(), pageable, count.getSingleResult());
+    }
+
+    private static String matches(List<String> patterns, String term) {
+        int n = parameter(patterns, term);
+        return "(" + inName(n) + " OR " + inDescription(n) + ")";
+    }
+
+    private static String inName(int n) {
+        return "LOWER(p.name) LIKE ?" + n + " ESCAPE '!'";
+    }
+
+    private static String inDescription(int n) {
+        return "LOWER(COALESCE(p.description, '')) LIKE ?" + n + " ESCAPE '!'";
+    }
+
+    // The position of the term's LIKE pattern among the query parameters, added if new
+    private static int parameter(List<String> patterns, String term) {
+        String pattern = "%" + term.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        int index = patterns.indexOf(pattern);
+        if (index < 0) {
+            patterns.add(pattern);
+            index = patterns.size() - 1;
+        }
+        return index + 1;
+    }
+}
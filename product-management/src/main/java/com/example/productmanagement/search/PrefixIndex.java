@@ -0,0 +1,216 @@
+package com.example.productmanagement.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Autocomplete over product codes and names: which products have a code, a name, or a word
+// of a name starting with what has been typed, best stocked first. The keys are one sorted,
+// front-coded array: each key stores only what follows the prefix it shares with the key
+// before it, and every 16th key is stored whole, so a lookup is a binary search over those
+// and a scan of one block of 16. The keys starting with a prefix are then one contiguous
+// range, and a segment tree over quantity yields that range's top products one at a time
+// without reading the rest of it. Immutable: ProductAutocomplete builds a new one on change.
+public final class PrefixIndex {
+
+    private static final int BLOCK = 16;
+
+    public static final PrefixIndex EMPTY = build(List.of());
+
+    private final ProductSuggestion[] products;
+    private final int size;
+    private final int maxKeyLength;
+    // Key i is the first shared[i] chars of key i - 1, then chars[suffixStart[i]] up to suffixStart[i + 1]
+    private final char[] chars;
+    private final int[] suffixStart;
+    private final char[] shared;
+    // The product each key belongs to, as an index into products
+    private final int[] productOf;
+    // Iterative segment tree: tree[size + i] is key i, every other node the best-ranked key below it
+    private final int[] tree;
+
+    private PrefixIndex(ProductSuggestion[] products, int size, int maxKeyLength, char[] chars, int[] suffixStart,
+                        char[] shared, int[] productOf) {
+        this.products = products;
+        this.size = size;
+        this.maxKeyLength = maxKeyLength;
+        this.chars = chars;
+        this.suffixStart = suffixStart;
+        this.shared = shared;
+        this.productOf = productOf;
+        this.tree = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    public static PrefixIndex build(Collection<ProductSuggestion> suggestions) {
+        ProductSuggestion[] products = suggestions.toArray(new ProductSuggestion[0]);
+        List<Key> keys = new ArrayList<>();
+        for (int p = 0; p < products.length; p++) {
+            String code = products[p].getProductCode();
+            if (code != null && !code.isEmpty()) {
+                keys.add(new Key(code.toLowerCase(Locale.ROOT), p));
+            }
+            // The name from the start of each word, so "chair" finds "Office Chair"
+            String name = products[p].getName() == null ? "" : products[p].getName().toLowerCase(Locale.ROOT);
+            for (int i = 0; i < name.length(); i++) {
+                if (Character.isLetterOrDigit(name.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1)))) {
+                    keys.add(new Key(name.substring(i), p));
+                }
+            }
+        }
+        Key[] sorted = keys.toArray(new Key[0]);
+        Arrays.sort(sorted, (a, b) -> a.text.compareTo(b.text));
+
+        int size = sorted.length;
+        StringBuilder chars = new StringBuilder();
+        int[] suffixStart = new int[size + 1];
+        char[] shared = new char[size];
+        int[] productOf = new int[size];
+        int maxKeyLength = 0;
+        String previous = "";
+        for (int i = 0; i < size; i++) {
+            String key = sorted[i].text;
+            int common = 0;
+            if (i % BLOCK != 0) {
+                int limit = Math.min(Math.min(previous.length(), key.length()), Character.MAX_VALUE);
+                while (common < limit && previous.charAt(common) == key.charAt(common)) {
+                    common++;
+                }
+            }
+            shared[i] = (char) common;
+            suffixStart[i] = chars.length();
+            chars.append(key, common, key.length());
+            productOf[i] = sorted[i].product;
+            maxKeyLength = Math.max(maxKeyLength, key.length());
+            previous = key;
+        }
+        suffixStart[size] = chars.length();
+        char[] packed = new char[chars.length()];
+        chars.getChars(0, chars.length(), packed, 0);
+        return new PrefixIndex(products, size, maxKeyLength, packed, suffixStart, shared, productOf);
+    }
+
+    public int productCount() {
+        return products.length;
+    }
+
+    // Up to limit products matching the prefix (ignoring case), most in stock first, ties by id
+    public List<ProductSuggestion> top(String prefix, int limit) {
+        String p = prefix.toLowerCase(Locale.ROOT);
+        int from = bound(p, false);
+        int to = bound(p, true);
+        if (p.isEmpty() || from >= to || limit < 1) {
+            return List.of();
+        }
+        // Each queued range's best key comes next once no other range has a better one.
+        // A product matching through several keys is taken once.
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compare(a[0], b[0]));
+        ranges.add(new int[] {best(from, to), from, to});
+        List<ProductSuggestion> result = new ArrayList<>(limit);
+        Set<Integer> taken = new HashSet<>();
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int key = range[0];
+            if (taken.add(productOf[key])) {
+                result.add(products[productOf[key]]);
+            }
+            if (range[1] < key) {
+                ranges.add(new int[] {best(range[1], key), range[1], key});
+            }
+            if (key + 1 < range[2]) {
+                ranges.add(new int[] {best(key + 1, range[2]), key + 1, range[2]});
+            }
+        }
+        return result;
+    }
+
+    // The first key at or after p or, for upper, the first past every key starting with p
+    private int bound(String p, boolean upper) {
+        int blocks = (size + BLOCK - 1) / BLOCK;
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int head = mid * BLOCK;
+            if (isPast(chars, suffixStart[head], suffixStart[head + 1] - suffixStart[head], p, upper)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+        // The bound is within the block before the first head past it
+        char[] key = new char[maxKeyLength];
+        int keyLength = 0;
+        int end = Math.min(size, low * BLOCK);
+        for (int i = (low - 1) * BLOCK; i < end; i++) {
+            keyLength = shared[i];
+            int suffixLength = suffixStart[i + 1] - suffixStart[i];
+            System.arraycopy(chars, suffixStart[i], key, keyLength, suffixLength);
+            keyLength += suffixLength;
+            if (isPast(key, 0, keyLength, p, upper)) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // Whether the key sorts at or after p; for upper, whether it sorts after p once cut to p's length
+    private static boolean isPast(char[] key, int offset, int length, String p, boolean upper) {
+        int compared = upper ? Math.min(length, p.length()) : length;
+        int common = Math.min(compared, p.length());
+        for (int i = 0; i < common; i++) {
+            char c = key[offset + i];
+            if (c != p.charAt(i)) {
+                return c > p.charAt(i);
+            }
+        }
+        return upper ? compared > p.length() : compared >= p.length();
+    }
+
+    private record Key(String text, int product) {
+    }
+
+    // The best-ranked key in [from, to)
+    private int best(int from, int to) {
+        int result = -1;
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                result = better(result, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                result = better(result, tree[--r]);
+            }
+        }
+        return result;
+    }
+
+    private int better(int a, int b) {
+        return a < 0 ? b : compare(a, b) <= 0 ? a : b;
+    }
+
+    // Negative when key a ranks first: more in stock, then lower id, then earlier key
+    private int compare(int a, int b) {
+        ProductSuggestion pa = products[productOf[a]];
+        ProductSuggestion pb = products[productOf[b]];
+        if (pa.getQuantity() != pb.getQuantity()) {
+            return Integer.compare(pb.getQuantity(), pa.getQuantity());
+        }
+        if (pa.getId() != pb.getId()) {
+            return Long.compare(pa.getId(), pb.getId());
+        }
+        return Integer.compare(a, b);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.productmanagement.search;
+
+import com.example.productmanagement.catalog.CatalogLoader;
+import com.example.productmanagement.catalog.CatalogSnapshot;
+import com.example.productmanagement.catalog.CatalogView;
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Name and code suggestions for the catalog's search box, from an immutable PrefixIndex
+// that lookups read without locking. Committed ProductChangedEvents change the list the
+// index is built from; a new index is built from it at most every rebuild-millis and
+// swapped in, so a burst of writes costs one rebuild. Quantity changes only update the
+// list: they reach the index with the next rebuild. The list is reloaded through
+// CatalogLoader every reload-millis to pick up writes made elsewhere.
+@Component
+public class ProductAutocomplete implements CatalogView {
+
+    private final CatalogLoader catalogLoader;
+
+    @Value("${product.autocomplete.enabled:true}")
+    private boolean enabled;
+
+    // Null until loaded
+    private volatile PrefixIndex index;
+
+    // Guarded by this; null until loaded
+    private Map<Long, ProductSuggestion> products;
+    private boolean dirty;
+    // CatalogLoader's number for the last save or delete applied
+    private long lastChange;
+
+    // Held while building, so an index built from an older list never replaces a newer one
+    private final Object buildLock = new Object();
+
+    @Autowired
+    public ProductAutocomplete(CatalogLoader catalogLoader) {
+        this.catalogLoader = catalogLoader;
+    }
+
+    // Null until the first index has been built
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        PrefixIndex current = index;
+        return current == null ? null : current.top(prefix.strip(), limit);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void productChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Long id = event.getProductId();
+        switch (event.getKind()) {
+            case SAVED -> {
+                ProductSuggestion suggestion = new ProductSuggestion(id, event.getProductCode(), event.getName(),
+                        event.getQuantity());
+                change(list -> list.put(id, suggestion));
+            }
+            case DELETED -> change(list -> list.remove(id));
+            case QUANTITY_CHANGED -> quantityChanged(id, event.getQuantityDelta());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.autocomplete.rebuild-millis:1000}")
+    public void rebuild() {
+        synchronized (buildLock) {
+            List<ProductSuggestion> current;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                current = new ArrayList<>(products.values());
+                dirty = false;
+            }
+            index = PrefixIndex.build(current);
+        }
+    }
+
+    // Loads on startup, then replaces the list with a fresh read
+    @Scheduled(fixedDelayString = "${product.autocomplete.reload-millis:300000}", initialDelay = 0)
+    public void reload() {
+        if (enabled) {
+            catalogLoader.reload("Product autocomplete", this);
+        }
+    }
+
+    @Override
+    public boolean replaceWith(CatalogSnapshot catalog) {
+        Map<Long, ProductSuggestion> loaded = new HashMap<>();
+        for (int row = 0; row < catalog.size(); row++) {
+            long id = catalog.id(row);
+            loaded.put(id, new ProductSuggestion(id, catalog.code(row), catalog.name(row), catalog.quantity(row)));
+        }
+        synchronized (this) {
+            if (!catalog.includesChange(lastChange)) {
+                return false;
+            }
+            products = loaded;
+            dirty = true;
+        }
+        rebuild();
+        return true;
+    }
+
+    // Reservations and adjustments change the ranking, not the keys, and arrive far more often
+    // than a rebuild or a reload could finish between them. So they neither mark the index
+    // dirty nor count as a change a reload must include: a reload that overlaps one may miss
+    // it, and the next reload corrects that.
+    private synchronized void quantityChanged(Long id, int delta) {
+        if (products != null) {
+            products.computeIfPresent(id, (key, suggestion) -> suggestion.withQuantity(suggestion.getQuantity() + delta));
+        }
+    }
+
+    private synchronized void change(Consumer<Map<Long, ProductSuggestion>> change) {
+        lastChange = catalogLoader.changeApplied();
+        if (products != null) {
+            change.accept(products);
+            dirty = true;
+        }
+    }
+}
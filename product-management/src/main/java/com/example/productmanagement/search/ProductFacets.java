@@ -0,0 +1,189 @@
+package com.example.productmanagement.search;
+
+import com.example.productmanagement.catalog.CatalogLoader;
+import com.example.productmanagement.catalog.CatalogSnapshot;
+import com.example.productmanagement.catalog.CatalogView;
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import com.example.productmanagement.stats.ProductAnalytics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// The advanced search, with its category and price band counts, answered from a FacetIndex
+// of name, price and category. Built from a CatalogLoader snapshot, kept current by committed
+// ProductChangedEvents, and reloaded every reload-millis to pick up writes made
+// elsewhere, in the same way as ProductAnalytics. Only the ids of a page come from here;
+// the products themselves are read from the database.
+@Component
+public class ProductFacets implements CatalogView {
+
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    private final CatalogLoader catalogLoader;
+
+    @Value("${product.search.facets-enabled:true}")
+    private boolean enabled;
+
+    // Where one price band ends and the next starts
+    @Value("${product.search.price-bands:10,50,100,500,1000}")
+    private List<BigDecimal> priceBandLimits;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; null until loaded
+    private FacetIndex index;
+    private final Map<Integer, String> categoryNames = new HashMap<>();
+    // CatalogLoader's number for the last save or delete applied
+    private long lastChange;
+
+    @Autowired
+    public ProductFacets(CatalogLoader catalogLoader) {
+        this.catalogLoader = catalogLoader;
+    }
+
+    // Quantities are not indexed: QUANTITY_CHANGED needs nothing
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void productChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long id = event.getProductId();
+        switch (event.getKind()) {
+            case SAVED -> {
+                long priceInCents = ProductAnalytics.toCents(event.getPrice());
+                int category = event.getCategoryId() != null ? event.getCategoryId() : FacetIndex.NO_CATEGORY;
+                write(index -> {
+                    index.put(id, event.getName(), priceInCents, category);
+                    if (event.getCategoryId() != null) {
+                        categoryNames.put(category, event.getCategory());
+                    }
+                });
+            }
+            case DELETED -> write(index -> index.remove(id));
+        }
+    }
+
+    // Ids of one page of matches in id order, or null until the index has loaded. A null or
+    // empty filter is left out; a category that does not exist matches nothing.
+    public FacetedPage<Long> search(String name, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                    Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return null;
+            }
+            int categoryId = category == null || category.isEmpty() ? FacetIndex.ANY_CATEGORY : categoryIdOf(category);
+            FacetIndex.Result result = index.search(name, categoryId,
+                    minPrice == null ? Long.MIN_VALUE : ProductAnalytics.toCents(minPrice),
+                    maxPrice == null ? Long.MAX_VALUE : ProductAnalytics.toCents(maxPrice),
+                    (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE), pageable.getPageSize());
+
+            List<Long> ids = new ArrayList<>(result.getIds().length);
+            for (long id : result.getIds()) {
+                ids.add(id);
+            }
+            Map<String, Long> categoryCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            long[] counts = result.getCategoryCounts();
+            for (int c = 0; c < counts.length; c++) {
+                String categoryName = categoryNames.get(c);
+                if (counts[c] > 0 && categoryName != null) {
+                    categoryCounts.put(categoryName, counts[c]);
+                }
+            }
+            Page<Long> page = new PageImpl<>(ids, pageable, result.getTotal());
+            return new FacetedPage<>(page, categoryCounts, priceBands(result.getBandCounts()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loads on startup, then replaces the index with a fresh read
+    @Scheduled(fixedDelayString = "${product.search.reload-millis:300000}", initialDelay = 0)
+    public void reload() {
+        if (enabled) {
+            catalogLoader.reload("Product facet index", this);
+        }
+    }
+
+    @Override
+    public boolean replaceWith(CatalogSnapshot catalog) {
+        FacetIndex loaded = new FacetIndex(bandLimitsInCents());
+        for (int row = 0; row < catalog.size(); row++) {
+            loaded.put(catalog.id(row), catalog.name(row), catalog.priceCents(row), catalog.categoryId(row));
+        }
+        lock.writeLock().lock();
+        try {
+            if (!catalog.includesChange(lastChange)) {
+                return false;
+            }
+            index = loaded;
+            categoryNames.clear();
+            categoryNames.putAll(catalog.getCategoryNames());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Under the read lock
+    private int categoryIdOf(String name) {
+        for (Map.Entry<Integer, String> entry : categoryNames.entrySet()) {
+            if (entry.getValue().equalsIgnoreCase(name.trim())) {
+                return entry.getKey();
+            }
+        }
+        return -2;
+    }
+
+    private List<FacetedPage.PriceBand> priceBands(long[] counts) {
+        List<FacetedPage.PriceBand> bands = new ArrayList<>(counts.length);
+        for (int b = 0; b < counts.length; b++) {
+            BigDecimal min = b == 0 ? null : priceBandLimits.get(b - 1);
+            BigDecimal next = b < priceBandLimits.size() ? priceBandLimits.get(b) : null;
+            String label = min == null ? "Under $" + plain(next)
+                    : next == null ? "$" + plain(min) + " and up"
+                    : "$" + plain(min) + " - $" + plain(next);
+            bands.add(new FacetedPage.PriceBand(label, min, next == null ? null : next.subtract(CENT), counts[b]));
+        }
+        return bands;
+    }
+
+    private long[] bandLimitsInCents() {
+        long[] limits = new long[priceBandLimits.size()];
+        for (int i = 0; i < limits.length; i++) {
+            limits[i] = ProductAnalytics.toCents(priceBandLimits.get(i));
+        }
+        return limits;
+    }
+
+    private static String plain(BigDecimal amount) {
+        return amount.stripTrailingZeros().toPlainString();
+    }
+
+    private void write(Consumer<FacetIndex> change) {
+        lock.writeLock().lock();
+        try {
+            lastChange = catalogLoader.changeApplied();
+            if (index != null) {
+                change.accept(index);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
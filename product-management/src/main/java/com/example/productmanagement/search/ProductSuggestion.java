@@ -0,0 +1,37 @@
+package com.example.productmanagement.search;
+
+// One autocomplete result: the product as it was when the index was built. Immutable.
+public class ProductSuggestion {
+
+    private final long id;
+    private final String productCode;
+    private final String name;
+    private final int quantity;
+
+    public ProductSuggestion(long id, String productCode, String name, int quantity) {
+        this.id = id;
+        this.productCode = productCode;
+        this.name = name;
+        this.quantity = quantity;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    ProductSuggestion withQuantity(int newQuantity) {
+        return new ProductSuggestion(id, productCode, name, newQuantity);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.productmanagement.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// A full-text query split into terms, read the way MySQL reads it in each mode, for the
+// LIKE fallback and for highlighting. Natural language: every word is optional. Boolean:
+// +word is required, -word excluded, word* a prefix, "a phrase" one term; the other
+// operators (> < ~ and parentheses) are dropped. Immutable.
+public class SearchTerms {
+
+    public enum Mode {
+        NATURAL,
+        BOOLEAN
+    }
+
+    private static final int SNIPPET_LENGTH = 160;
+    private static final int SNIPPET_LEAD = 40;
+
+    private final List<Term> terms;
+
+    private SearchTerms(List<Term> terms) {
+        this.terms = terms;
+    }
+
+    public static SearchTerms parse(String query, Mode mode) {
+        List<Term> terms = new ArrayList<>();
+        String text = query.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            // An operator only starts a word: the - in "usb-c" is part of it
+            boolean wordStart = i == 0 || Character.isWhitespace(text.charAt(i - 1)) || text.charAt(i - 1) == '(';
+            if (mode == Mode.BOOLEAN && wordStart && (c == '+' || c == '-')) {
+                Term term = readTerm(text, i + 1, c == '+' ? Term.Kind.REQUIRED : Term.Kind.EXCLUDED);
+                if (term != null) {
+                    terms.add(term);
+                }
+                i = term == null ? i + 1 : term.end;
+            } else if ((mode == Mode.BOOLEAN && c == '"') || Character.isLetterOrDigit(c)) {
+                Term term = readTerm(text, i, Term.Kind.OPTIONAL);
+                if (term != null) {
+                    terms.add(term);
+                }
+                i = term == null ? i + 1 : term.end;
+            } else {
+                i++;
+            }
+        }
+        return new SearchTerms(terms);
+    }
+
+    // The terms that add matches, required or optional
+    public List<String> positive() {
+        return terms.stream().filter(t -> t.kind != Term.Kind.EXCLUDED).map(t -> t.text).toList();
+    }
+
+    public List<String> required() {
+        return terms.stream().filter(t -> t.kind == Term.Kind.REQUIRED).map(t -> t.text).toList();
+    }
+
+    public List<String> optional() {
+        return terms.stream().filter(t -> t.kind == Term.Kind.OPTIONAL).map(t -> t.text).toList();
+    }
+
+    public List<String> excluded() {
+        return terms.stream().filter(t -> t.kind == Term.Kind.EXCLUDED).map(t -> t.text).toList();
+    }
+
+    // HTML-escaped text with each occurrence of a term at the start of a word in <mark>
+    public String highlight(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder html = new StringBuilder();
+        int copied = 0;
+        int i = 0;
+        while (i < text.length()) {
+            int length = i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1)) ? matchAt(lower, i) : 0;
+            if (length > 0) {
+                html.append(HtmlUtils.htmlEscape(text.substring(copied, i)))
+                    .append("<mark>").append(HtmlUtils.htmlEscape(text.substring(i, i + length))).append("</mark>");
+                i += length;
+                copied = i;
+            } else {
+                i++;
+            }
+        }
+        return html.append(HtmlUtils.htmlEscape(text.substring(copied))).toString();
+    }
+
+    // About SNIPPET_LENGTH chars of text around its first match, highlighted; its start when nothing matches
+    public String snippet(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int first = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if ((i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1))) && matchAt(lower, i) > 0) {
+                first = i;
+                break;
+            }
+        }
+        int from = Math.max(0, first - SNIPPET_LEAD);
+        int to = Math.min(text.length(), from + SNIPPET_LENGTH);
+        // Whole words at both ends
+        while (from > 0 && Character.isLetterOrDigit(text.charAt(from - 1)) && from < first) {
+            from++;
+        }
+        while (to < text.length() && Character.isLetterOrDigit(text.charAt(to)) && to > first) {
+            to--;
+        }
+        return (from > 0 ? "… " : "") + highlight(text.substring(from, to).strip()) + (to < text.length() ? " …" : "");
+    }
+
+    // The length of the longest positive term at i, 0 when none is
+    private int matchAt(String lower, int i) {
+        int longest = 0;
+        for (Term term : terms) {
+            if (term.kind != Term.Kind.EXCLUDED && term.text.length() > longest && lower.startsWith(term.text, i)) {
+                longest = term.text.length();
+            }
+        }
+        return longest;
+    }
+
+    // A word, a word*, or a "quoted phrase" starting at from; null when there is none
+    private static Term readTerm(String text, int from, Term.Kind kind) {
+        if (from < text.length() && text.charAt(from) == '"') {
+            int close = text.indexOf('"', from + 1);
+            int end = close < 0 ? text.length() : close;
+            String phrase = text.substring(from + 1, end).strip();
+            return phrase.isEmpty() ? null : new Term(phrase, kind, Math.min(text.length(), end + 1));
+        }
+        int end = from;
+        while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) {
+            end++;
+        }
+        if (end == from) {
+            return null;
+        }
+        // A trailing * makes it a prefix, which is how words are matched here anyway
+        int next = end < text.length() && text.charAt(end) == '*' ? end + 1 : end;
+        return new Term(text.substring(from, end), kind, next);
+    }
+
+    private static class Term {
+
+        enum Kind {
+            REQUIRED,
+            OPTIONAL,
+            EXCLUDED
+        }
+
+        final String text;
+        final Kind kind;
+        // Where parsing goes on after it
+        final int end;
+
+        Term(String text, Kind kind, int end) {
+            this.text = text;
+            this.kind = kind;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.productmanagement.service;
+
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import com.example.productmanagement.entity.Category;
+import com.example.productmanagement.repository.CategoryRepository;
+import com.example.productmanagement.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// The category names and their product counts, for the category dropdown and pages.
+// Loaded with one GROUP BY, then kept current by ProductChangedEvents: a committed write
+// moves one count, and the query only runs again when a write could not be applied,
+// or after max-age-millis to pick up writes from other applications.
+@Component
+public class CategoryDictionary {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${product.categories.cache-enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.categories.max-age-millis:600000}")
+    private long maxAgeMillis;
+
+    private volatile Entry entry;
+
+    // Guarded by this; lets a load tell whether a write committed while it ran
+    private long changes;
+
+    @Autowired
+    public CategoryDictionary(ProductRepository productRepository, CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    // Sorted by name
+    public List<String> categories() {
+        return List.copyOf(counts().keySet());
+    }
+
+    // Category -> product count, sorted by name
+    public Map<String, Long> counts() {
+        if (!enabled) {
+            return load();
+        }
+        Entry current = entry;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < maxAgeMillis) {
+            return current.counts;
+        }
+        long changesBefore;
+        synchronized (this) {
+            changesBefore = changes;
+        }
+        Map<String, Long> loaded = load();
+        synchronized (this) {
+            // A write that committed during the load may or may not be in it; keep it uncached
+            if (changes == changesBefore) {
+                entry = new Entry(loaded, System.currentTimeMillis());
+            }
+        }
+        return loaded;
+    }
+
+    // Both categories may be null: a new product has no previous one, a deleted one no
+    // current one, and a quantity change neither
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void productChanged(ProductChangedEvent event) {
+        if (!enabled || Objects.equals(event.getPreviousCategory(), event.getCategory())) {
+            return;
+        }
+        apply(event.getPreviousCategory(), event.getCategory());
+    }
+
+    private synchronized void apply(String previousCategory, String category) {
+        changes++;
+        Entry current = entry;
+        if (current == null) {
+            return;
+        }
+        Map<String, Long> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        counts.putAll(current.counts);
+        if (previousCategory != null) {
+            if (!counts.containsKey(previousCategory)) {
+                // The cache never saw this category: it is missing writes, so reload instead
+                entry = null;
+                return;
+            }
+            counts.computeIfPresent(previousCategory, (c, n) -> n == 1 ? null : n - 1);
+        }
+        if (category != null) {
+            counts.merge(category, 1L, Long::sum);
+        }
+        entry = new Entry(Collections.unmodifiableMap(counts), current.loadedAt);
+    }
+
+    private Map<String, Long> load() {
+        // Counts come from the category_id index; the categories table is small
+        Map<Integer, String> names = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            names.put(category.getId(), category.getName());
+        }
+        // Case-insensitive like the name column's collation, which also decides what a duplicate is
+        Map<String, Long> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Object[] row : productRepository.countByCategoryId()) {
+            String name = names.get((Integer) row[0]);
+            if (name != null) {
+                counts.merge(name, (Long) row[1], Long::sum);
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private static class Entry {
+
+        final Map<String, Long> counts;
+        final long loadedAt;
+
+        Entry(Map<String, Long> counts, long loadedAt) {
+            this.counts = counts;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
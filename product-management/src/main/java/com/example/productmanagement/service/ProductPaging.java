@@ -0,0 +1,35 @@
+package com.example.productmanagement.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+
+// Turns the list views' request parameters into a page request the database can serve
+// with an ORDER BY ... LIMIT, whatever the size of the catalog.
+public final class ProductPaging {
+
+    public static final int DEFAULT_PAGE_SIZE = 10;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Only these reach the ORDER BY; anything else sorts by id
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("id", "productCode", "name", "price", "quantity", "category", "createdAt");
+
+    private ProductPaging() {
+    }
+
+    public static Pageable of(String sortField, String sortDir, int page, int size) {
+        String field = sortField != null && SORTABLE_FIELDS.contains(sortField) ? sortField : "id";
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // Sorting by category means by its name, not by the key products store
+        Sort sort = Sort.by(direction, field.equals("category") ? "categoryRef.name" : field);
+        if (!field.equals("id")) {
+            // Ties need a fixed order, or rows could repeat or vanish between pages
+            sort = sort.and(Sort.by("id"));
+        }
+        int pageSize = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        return PageRequest.of(Math.max(page, 0), pageSize, sort);
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.productmanagement.service;
 
 import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.search.FacetedPage;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductService {
@@ -23,15 +26,25 @@ public interface ProductService {
 
     //new method
     List<Product> searchAdvanced(String name, String category, BigDecimal minPrice, BigDecimal maxPrice);
+    // One page of the same search, with category and price band counts when the facet index is loaded
+    FacetedPage<Product> searchFaceted(String name, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                       Pageable pageable);
 
     //5.2 
     List<String> getAllCategories();
+    Map<String, Long> getCategoryCounts();
 
     //5.3
     Page<Product> searchProducts(String keyword, int page, int size);
     Page<Product> getProductsByCategory(String category, int page, int size);
 
     List<Product> getAllProducts(Sort sort);
+    // The first limit products in id order, detached and without description, for the degraded-read snapshot
+    List<Product> getProductsForSnapshot(int limit);
     List<Product> searchProducts(String keyword, Sort sort);
 
+    // One page of the catalog, optionally within a category; see ProductPaging
+    Page<Product> getProductPage(String category, Pageable pageable);
+    Page<Product> searchProducts(String keyword, Pageable pageable);
+
 }
@@ -1,8 +1,14 @@
 package com.example.productmanagement.service;
 
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import com.example.productmanagement.entity.Category;
 import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.repository.CategoryRepository;
 import com.example.productmanagement.repository.ProductRepository;
+import com.example.productmanagement.search.FacetedPage;
+import com.example.productmanagement.search.ProductFacets;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
@@ -11,18 +17,34 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ProductServiceImpl implements ProductService {
     
     private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final ProductFacets productFacets;
+    private final ApplicationEventPublisher events;
     
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository,
+                              CategoryDictionary categoryDictionary, ProductFacets productFacets,
+                              ApplicationEventPublisher events) {
         this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.categoryDictionary = categoryDictionary;
+        this.productFacets = productFacets;
+        this.events = events;
     }
     
     @Override
@@ -38,12 +60,27 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public Product saveProduct(Product product) {
         // Validation logic can go here
-        return productRepository.save(product);
+        // Loads the row the save merges into anyway, so reading it costs no extra query.
+        // Read before the save: the merge copies the form's values into that same instance.
+        Optional<Product> previous = product.getId() == null ? Optional.empty()
+                : productRepository.findById(product.getId());
+        String previousCategory = previous.map(Product::getCategory).orElse(null);
+        int previousQuantity = previous.map(Product::getQuantity).orElse(0);
+        if (product.getCategoryRef() == null && product.getCategory() != null) {
+            product.setCategoryRef(resolveCategory(product.getCategory()));
+        }
+        Product saved = productRepository.save(product);
+        events.publishEvent(ProductChangedEvent.saved(saved, previous.isEmpty(), previousCategory, previousQuantity));
+        return saved;
     }
     
     @Override
     public void deleteProduct(Long id) {
+        Optional<Product> existing = productRepository.findById(id);
+        String category = existing.map(Product::getCategory).orElse(null);
+        int quantity = existing.map(Product::getQuantity).orElse(0);
         productRepository.deleteById(id);
+        events.publishEvent(ProductChangedEvent.deleted(id, category, quantity));
     }
     
     @Override
@@ -53,16 +90,45 @@ public class ProductServiceImpl implements ProductService {
     
     @Override
     public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+        Integer categoryId = categoryIdOf(category);
+        return categoryId == null ? List.of() : productRepository.findByCategoryRefId(categoryId);
     }
     @Override
     public List<Product> searchAdvanced(String name, String category, BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.searchAdvanced(name, category, minPrice, maxPrice);
+        Integer categoryId = category == null ? null : categoryIdOf(category);
+        if (category != null && categoryId == null) {
+            return List.of();
+        }
+        return productRepository.searchAdvanced(name, categoryId, minPrice, maxPrice, Sort.unsorted());
+    }
+
+    // Ids and counts from the facet index, then one query for the page's products. A product
+    // deleted in between is left off the page rather than shown as an empty row.
+    @Override
+    public FacetedPage<Product> searchFaceted(String name, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                              Pageable pageable) {
+        FacetedPage<Long> hits = productFacets.search(name, category, minPrice, maxPrice, pageable);
+        if (hits == null) {
+            Integer categoryId = category == null ? null : categoryIdOf(category);
+            if (category != null && categoryId == null) {
+                return FacetedPage.withoutFacets(Page.empty(pageable));
+            }
+            return FacetedPage.withoutFacets(productRepository.searchAdvanced(name, categoryId, minPrice, maxPrice, pageable));
+        }
+        List<Long> ids = hits.getPage().getContent();
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return hits.withContent(ids.stream().map(byId::get).filter(Objects::nonNull).toList());
     }
     //5.2
     @Override
     public List<String> getAllCategories() {
-        return productRepository.findAllCategories();
+        return categoryDictionary.categories();
+    }
+
+    @Override
+    public Map<String, Long> getCategoryCounts() {
+        return categoryDictionary.counts();
     }
     @Override
     public Page<Product> searchProducts(String keyword, int page, int size) {
@@ -72,16 +138,57 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Page<Product> getProductsByCategory(String category, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return productRepository.findByCategory(category, pageable);
+        return getProductPage(category, PageRequest.of(page, size));
     }
     @Override
     public List<Product> getAllProducts(Sort sort) {
         return productRepository.findAll(sort);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> getProductsForSnapshot(int limit) {
+        List<Product> products = new ArrayList<>();
+        for (Object[] row : productRepository.findSnapshotRows(PageRequest.of(0, limit))) {
+            Product product = new Product((String) row[1], (String) row[2], (BigDecimal) row[3], (Integer) row[4],
+                                          (String) row[5], null);
+            product.setId((Long) row[0]);
+            product.setCreatedAt((LocalDateTime) row[6]);
+            products.add(product);
+        }
+        return products;
+    }
+
     @Override
     public List<Product> searchProducts(String keyword, Sort sort) {
         return productRepository.findByNameContaining(keyword, sort);
     }
+
+    @Override
+    public Page<Product> getProductPage(String category, Pageable pageable) {
+        if (category == null || category.isEmpty()) {
+            return productRepository.findAll(pageable);
+        }
+        Integer categoryId = categoryIdOf(category);
+        return categoryId == null ? Page.empty(pageable) : productRepository.findByCategoryRefId(categoryId, pageable);
+    }
+
+    // Filters compare the integer key; a name that is not a category matches nothing
+    private Integer categoryIdOf(String name) {
+        return categoryRepository.findByName(name).map(Category::getId).orElse(null);
+    }
+
+    // Trimmed, and matched by the column's case-insensitive collation, so "tools " is not a new category
+    private Category resolveCategory(String name) {
+        String trimmed = name.trim();
+        return categoryRepository.findByName(trimmed).orElseGet(() -> {
+            categoryRepository.insertIfAbsent(trimmed);
+            return categoryRepository.findByName(trimmed).orElseThrow();
+        });
+    }
+
+    @Override
+    public Page<Product> searchProducts(String keyword, Pageable pageable) {
+        return productRepository.findByNameContaining(keyword, pageable);
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.productmanagement.stats;
+
+import com.example.productmanagement.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Everything the dashboard shows, as of one point in time. Immutable: the listed products
+// are read by id when the snapshot is built and never modified afterwards.
+public class InventorySnapshot {
+
+    private final long totalProducts;
+    private final long totalQuantity;
+    private final BigDecimal totalValue;
+    private final BigDecimal averagePrice;
+    private final List<Object[]> categoryData;
+    private final List<Product> lowStockProducts;
+    private final List<Product> recentProducts;
+    private final LocalDateTime builtAt;
+
+    public InventorySnapshot(long totalProducts, long totalQuantity, BigDecimal totalValue, BigDecimal averagePrice,
+                             List<Object[]> categoryData, List<Product> lowStockProducts,
+                             List<Product> recentProducts, LocalDateTime builtAt) {
+        this.totalProducts = totalProducts;
+        this.totalQuantity = totalQuantity;
+        this.totalValue = totalValue;
+        this.averagePrice = averagePrice;
+        this.categoryData = List.copyOf(categoryData);
+        this.lowStockProducts = List.copyOf(lowStockProducts);
+        this.recentProducts = List.copyOf(recentProducts);
+        this.builtAt = builtAt;
+    }
+
+    public long getTotalProducts() {
+        return totalProducts;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public BigDecimal getAveragePrice() {
+        return averagePrice;
+    }
+
+    // {category, count} pairs, largest category first, like StatisticsRepository.getProductsByCategory
+    public List<Object[]> getCategoryData() {
+        return categoryData;
+    }
+
+    public List<Product> getLowStockProducts() {
+        return lowStockProducts;
+    }
+
+    public List<Product> getRecentProducts() {
+        return recentProducts;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+}
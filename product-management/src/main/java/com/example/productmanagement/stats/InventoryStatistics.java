@@ -0,0 +1,273 @@
+package com.example.productmanagement.stats;
+
+import com.example.productmanagement.catalog.CatalogLoader;
+import com.example.productmanagement.catalog.CatalogSnapshot;
+import com.example.productmanagement.catalog.CatalogView;
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Dashboard statistics kept in memory instead of queried per page view. Seeded from the
+// products table, then updated by every committed ProductChangedEvent: running totals, counts per category and the low-stock products ordered by
+// quantity. Only id, category, price and quantity are kept per product; the few products
+// the dashboard lists are read by id when a snapshot is built. Reads get one immutable
+// snapshot, rebuilt only after a change. A periodic reload through CatalogLoader corrects
+// anything the events missed, such as writes made by other applications.
+@Component
+public class InventoryStatistics implements CatalogView {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryStatistics.class);
+
+    public static final int LOW_STOCK_THRESHOLD = 10;
+    private static final int LOW_STOCK_LIMIT = 10;
+    private static final int RECENT_LIMIT = 5;
+
+    private static final Comparator<Entry> BY_QUANTITY = Comparator.comparingInt((Entry e) -> e.quantity)
+            .thenComparingLong(e -> e.id);
+
+    private final ProductRepository productRepository;
+    private final CatalogLoader catalogLoader;
+
+    @Value("${product.stats.enabled:true}")
+    private boolean enabled;
+
+    // Guarded by this. Ids are assigned in insert order, so the highest ids are the newest products.
+    private final NavigableMap<Long, Entry> products = new TreeMap<>();
+    private final Map<String, Long> categoryCounts = new HashMap<>();
+    private final NavigableSet<Entry> lowStock = new TreeSet<>(BY_QUANTITY);
+    private long totalQuantity;
+    private BigDecimal totalValue = BigDecimal.ZERO;
+    private BigDecimal totalPrice = BigDecimal.ZERO;
+    // CatalogLoader's number for the last save or delete applied
+    private long lastChange;
+    // Every change, quantity changes included: tells whether a snapshot built outside the lock is still current
+    private long version;
+    private boolean seeded;
+
+    // Null until seeded and after every change; rebuilt by the next read
+    private volatile InventorySnapshot snapshot;
+
+    @Autowired
+    public InventoryStatistics(ProductRepository productRepository, CatalogLoader catalogLoader) {
+        this.productRepository = productRepository;
+        this.catalogLoader = catalogLoader;
+    }
+
+    // Null while disabled or not yet seeded: callers query the database instead
+    public InventorySnapshot snapshot() {
+        InventorySnapshot current = snapshot;
+        if (current != null || !enabled) {
+            return current;
+        }
+        long builtFrom;
+        long count;
+        long quantity;
+        BigDecimal value;
+        BigDecimal averagePrice;
+        List<Object[]> categoryData;
+        List<Long> lowStockIds;
+        List<Long> recentIds;
+        synchronized (this) {
+            if (snapshot != null || !seeded) {
+                return snapshot;
+            }
+            builtFrom = version;
+            count = products.size();
+            quantity = totalQuantity;
+            value = totalValue;
+            averagePrice = products.isEmpty()
+                    ? BigDecimal.ZERO
+                    : totalPrice.divide(BigDecimal.valueOf(products.size()), 2, RoundingMode.HALF_UP);
+            categoryData = new ArrayList<>(categoryCounts.size());
+            categoryCounts.forEach((category, n) -> categoryData.add(new Object[] {category, n}));
+            lowStockIds = first(lowStock.iterator(), LOW_STOCK_LIMIT);
+            recentIds = new ArrayList<>(RECENT_LIMIT);
+            for (Long id : products.descendingKeySet()) {
+                if (recentIds.size() == RECENT_LIMIT) {
+                    break;
+                }
+                recentIds.add(id);
+            }
+        }
+        categoryData.sort(Comparator.comparing((Object[] row) -> (Long) row[1]).reversed());
+
+        // At most LOW_STOCK_LIMIT + RECENT_LIMIT rows by primary key, outside the lock
+        List<Long> listed = new ArrayList<>(lowStockIds);
+        listed.addAll(recentIds);
+        Map<Long, Product> rows = new HashMap<>();
+        for (Product product : productRepository.findAllById(listed)) {
+            rows.put(product.getId(), product);
+        }
+        InventorySnapshot built = new InventorySnapshot(count, quantity, value, averagePrice, categoryData,
+                inOrder(lowStockIds, rows), inOrder(recentIds, rows), LocalDateTime.now());
+        synchronized (this) {
+            if (version == builtFrom) {
+                snapshot = built;
+            }
+        }
+        return built;
+    }
+
+    // After commit, so a rolled back write never reaches the statistics
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void productChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getKind()) {
+            case SAVED -> apply(event.getProductId(), Entry.of(event));
+            case DELETED -> apply(event.getProductId(), null);
+            case QUANTITY_CHANGED -> applyQuantity(event.getProductId(), event.getQuantityDelta());
+        }
+    }
+
+    private synchronized void apply(Long id, Entry current) {
+        Entry previous = products.remove(id);
+        if (previous != null) {
+            remove(previous);
+        }
+        if (current != null) {
+            add(current);
+        }
+        lastChange = catalogLoader.changeApplied();
+        version++;
+        snapshot = null;
+    }
+
+    private synchronized void applyQuantity(Long id, int delta) {
+        Entry previous = products.get(id);
+        if (previous == null) {
+            // Not seeded yet, or a product this instance never saw: the next reload has it
+            return;
+        }
+        remove(previous);
+        add(new Entry(previous.id, previous.category, previous.price, previous.quantity + delta));
+        // Not numbered as a change: reservations arrive far more often than the reload
+        // could finish between them. A reload that overlaps one may miss or repeat it, and
+        // the next reload corrects that.
+        version++;
+        snapshot = null;
+    }
+
+    private void add(Entry entry) {
+        products.put(entry.id, entry);
+        categoryCounts.merge(entry.category, 1L, Long::sum);
+        if (entry.quantity < LOW_STOCK_THRESHOLD) {
+            lowStock.add(entry);
+        }
+        totalQuantity += entry.quantity;
+        totalValue = totalValue.add(entry.value());
+        totalPrice = totalPrice.add(entry.price);
+    }
+
+    private void remove(Entry entry) {
+        categoryCounts.computeIfPresent(entry.category, (category, count) -> count == 1 ? null : count - 1);
+        lowStock.remove(entry);
+        totalQuantity -= entry.quantity;
+        totalValue = totalValue.subtract(entry.value());
+        totalPrice = totalPrice.subtract(entry.price);
+    }
+
+    private static List<Long> first(Iterator<Entry> it, int limit) {
+        List<Long> result = new ArrayList<>(limit);
+        while (it.hasNext() && result.size() < limit) {
+            result.add(it.next().id);
+        }
+        return result;
+    }
+
+    // A product deleted since the ids were taken is left out
+    private static List<Product> inOrder(List<Long> ids, Map<Long, Product> rows) {
+        List<Product> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = rows.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    // Seeds on startup, then replaces the running state with a fresh read
+    @Scheduled(fixedDelayString = "${product.stats.reconcile-millis:300000}", initialDelay = 0)
+    public void reconcile() {
+        if (enabled) {
+            catalogLoader.reload("Inventory statistics", this);
+        }
+    }
+
+    @Override
+    public synchronized boolean replaceWith(CatalogSnapshot catalog) {
+        if (!catalog.includesChange(lastChange)) {
+            return false;
+        }
+        long staleQuantity = totalQuantity;
+        BigDecimal staleValue = totalValue;
+        int staleCount = products.size();
+
+        products.clear();
+        categoryCounts.clear();
+        lowStock.clear();
+        totalQuantity = 0;
+        totalValue = BigDecimal.ZERO;
+        totalPrice = BigDecimal.ZERO;
+        for (int row = 0; row < catalog.size(); row++) {
+            add(new Entry(catalog.id(row), catalog.categoryName(row), catalog.price(row), catalog.quantity(row)));
+        }
+        if (seeded && (staleCount != products.size() || staleQuantity != totalQuantity
+                || staleValue.compareTo(totalValue) != 0)) {
+            log.info("Inventory statistics drifted from the database and were corrected: "
+                     + "products {} -> {}, quantity {} -> {}, value {} -> {}",
+                     staleCount, products.size(), staleQuantity, totalQuantity, staleValue, totalValue);
+        }
+        seeded = true;
+        version++;
+        snapshot = null;
+        return true;
+    }
+
+    // What the totals need of a product
+    private static final class Entry {
+        private final long id;
+        private final String category;
+        private final BigDecimal price;
+        private final int quantity;
+
+        private Entry(long id, String category, BigDecimal price, int quantity) {
+            this.id = id;
+            this.category = category;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        private static Entry of(ProductChangedEvent saved) {
+            return new Entry(saved.getProductId(), saved.getCategory(), saved.getPrice(), saved.getQuantity());
+        }
+
+        private BigDecimal value() {
+            return price.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.productmanagement.stats;
+
+import com.example.productmanagement.catalog.CatalogLoader;
+import com.example.productmanagement.catalog.CatalogSnapshot;
+import com.example.productmanagement.catalog.CatalogView;
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Reporting queries over price, quantity and category, answered from a ProductColumns copy
+// of the catalog instead of entities: about 20 bytes a product and no BigDecimal or
+// LocalDateTime per row. Built from a CatalogLoader snapshot, then kept current
+// by committed ProductChangedEvents, and reloaded every reload-millis
+// to pick up writes made elsewhere. Queries take a read lock, so they run in parallel.
+@Component
+public class ProductAnalytics implements CatalogView {
+
+    private final CatalogLoader catalogLoader;
+
+    @Value("${product.analytics.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; null until loaded
+    private ProductColumns columns;
+    private final Map<Integer, String> categoryNames = new HashMap<>();
+    // CatalogLoader's number for the last save or delete applied
+    private long lastChange;
+
+    @Autowired
+    public ProductAnalytics(CatalogLoader catalogLoader) {
+        this.catalogLoader = catalogLoader;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return columns != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Quantity changes are not counted as changes, as in InventoryStatistics
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void productChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long id = event.getProductId();
+        switch (event.getKind()) {
+            case SAVED -> {
+                long priceInCents = toCents(event.getPrice());
+                int category = event.getCategoryId() != null ? event.getCategoryId() : ProductColumns.NO_CATEGORY;
+                write(true, c -> {
+                    c.put(id, priceInCents, event.getQuantity(), category);
+                    if (event.getCategoryId() != null) {
+                        categoryNames.put(category, event.getCategory());
+                    }
+                });
+            }
+            case DELETED -> write(true, c -> c.remove(id));
+            case QUANTITY_CHANGED -> write(false, c -> c.addQuantity(id, event.getQuantityDelta()));
+        }
+    }
+
+    // All return null until the first load has finished
+
+    public ProductColumns.Summary summarize(ProductColumns.Filter filter) {
+        lock.readLock().lock();
+        try {
+            return columns == null ? null : columns.summarize(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Category name -> {count, value}, by name
+    public Map<String, Object[]> byCategory() {
+        lock.readLock().lock();
+        try {
+            if (columns == null) {
+                return null;
+            }
+            long[] counts = columns.countByCategory();
+            long[] values = columns.valueByCategory();
+            Map<String, Object[]> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int category = 0; category < counts.length; category++) {
+                if (counts[category] > 0) {
+                    String name = categoryNames.getOrDefault(category, category == ProductColumns.NO_CATEGORY ? "" : "#" + category);
+                    result.put(name, new Object[] {counts[category], fromCents(values[category])});
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Product id -> {price, quantity, value}, best first
+    public Map<Long, Object[]> top(ProductColumns.Metric metric, int k, ProductColumns.Filter filter) {
+        lock.readLock().lock();
+        try {
+            if (columns == null) {
+                return null;
+            }
+            Map<Long, Object[]> result = new LinkedHashMap<>();
+            for (long id : columns.top(metric, k, filter)) {
+                long price = columns.priceCentsOf(id);
+                int quantity = columns.quantityOf(id);
+                result.put(id, new Object[] {fromCents(price), quantity, fromCents(price * quantity)});
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The id behind a category name, or -1 when there is no such category
+    public int categoryIdOf(String name) {
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Integer, String> entry : categoryNames.entrySet()) {
+                if (entry.getValue().equalsIgnoreCase(name)) {
+                    return entry.getKey();
+                }
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loads on startup, then replaces the columns with a fresh read
+    @Scheduled(fixedDelayString = "${product.analytics.reload-millis:300000}", initialDelay = 0)
+    public void reload() {
+        if (enabled) {
+            catalogLoader.reload("Product analytics", this);
+        }
+    }
+
+    @Override
+    public boolean replaceWith(CatalogSnapshot catalog) {
+        // Built before taking the lock, so queries are not held up by it
+        ProductColumns loaded = new ProductColumns(catalog.size() + catalog.size() / 8);
+        for (int row = 0; row < catalog.size(); row++) {
+            loaded.put(catalog.id(row), catalog.priceCents(row), catalog.quantity(row), catalog.categoryId(row));
+        }
+        lock.writeLock().lock();
+        try {
+            if (!catalog.includesChange(lastChange)) {
+                return false;
+            }
+            columns = loaded;
+            categoryNames.clear();
+            categoryNames.putAll(catalog.getCategoryNames());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(boolean counted, Consumer<ProductColumns> change) {
+        lock.writeLock().lock();
+        try {
+            if (counted) {
+                lastChange = catalogLoader.changeApplied();
+            }
+            if (columns != null) {
+                change.accept(columns);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.productmanagement.stats;
+
+import java.util.Arrays;
+
+// The catalog's numeric columns as parallel primitive arrays: price in cents, quantity and
+// category id, one row per product. Aggregates are straight loops over those arrays, with
+// the filter turned into an all-ones or all-zeros mask by sign arithmetic instead of a
+// branch, so the loop has no branches to mispredict and the JIT can unroll it. Count and
+// value per category are kept up to date on every change instead of scanned for. Rows are
+// unordered: a removed row is replaced by the last one. Not thread-safe; ProductAnalytics
+// guards it.
+public class ProductColumns {
+
+    // Category id of a product without one; real ids start at 1
+    public static final int NO_CATEGORY = 0;
+
+    public enum Metric {
+        PRICE,
+        QUANTITY,
+        // price * quantity
+        VALUE
+    }
+
+    private long[] ids;
+    private long[] priceCents;
+    private int[] quantities;
+    private int[] categories;
+    private int size;
+
+    // Indexed by category id
+    private long[] countByCategory = new long[0];
+    private long[] valueByCategory = new long[0];
+
+    // Row + 1 for each product id, 0 when absent. Ids are AUTO_INCREMENT, so this is dense.
+    private int[] rowById = new int[0];
+
+    public ProductColumns(int capacity) {
+        int initial = Math.max(capacity, 16);
+        ids = new long[initial];
+        priceCents = new long[initial];
+        quantities = new int[initial];
+        categories = new int[initial];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(long id) {
+        return rowOf(id) >= 0;
+    }
+
+    // Adds the product, or overwrites its row
+    public void put(long id, long priceInCents, int quantity, int category) {
+        int row = rowOf(id);
+        if (row < 0) {
+            if (size == ids.length) {
+                grow();
+            }
+            row = size++;
+            ids[row] = id;
+            indexRow(id, row);
+        } else {
+            addToCategory(row, -1);
+        }
+        priceCents[row] = priceInCents;
+        quantities[row] = quantity;
+        categories[row] = category;
+        addToCategory(row, 1);
+    }
+
+    public boolean remove(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return false;
+        }
+        addToCategory(row, -1);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            priceCents[row] = priceCents[last];
+            quantities[row] = quantities[last];
+            categories[row] = categories[last];
+            rowById[(int) ids[row]] = row + 1;
+        }
+        rowById[(int) id] = 0;
+        return true;
+    }
+
+    public boolean addQuantity(long id, int delta) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return false;
+        }
+        quantities[row] += delta;
+        valueByCategory[categories[row]] += priceCents[row] * delta;
+        return true;
+    }
+
+    // The row accessors below are for products known to be present
+    public long priceCentsOf(long id) {
+        return priceCents[rowOf(id)];
+    }
+
+    public int quantityOf(long id) {
+        return quantities[rowOf(id)];
+    }
+
+    public Summary summarize(Filter filter) {
+        long count = 0;
+        long quantity = 0;
+        long price = 0;
+        long value = 0;
+        if (filter.matchesAll()) {
+            for (int i = 0; i < size; i++) {
+                quantity += quantities[i];
+                price += priceCents[i];
+                value += priceCents[i] * quantities[i];
+            }
+            return new Summary(size, quantity, price, value);
+        }
+        // x is within [lo, hi] when (x - lo) | (hi - x) is not negative; the price bounds are
+        // clamped so neither subtraction can overflow
+        long minPrice = Math.max(filter.minPriceCents, -(1L << 62));
+        long maxPrice = Math.min(filter.maxPriceCents, 1L << 62);
+        long minQuantity = filter.minQuantity;
+        long maxQuantity = filter.maxQuantity;
+        int category = filter.category;
+        int anyCategory = category < 0 ? -1 : 0;
+        for (int i = 0; i < size; i++) {
+            long p = priceCents[i];
+            int q = quantities[i];
+            // -1 when the category matches: d | -d is negative for any d but 0
+            int d = categories[i] ^ category;
+            int categoryMask = ~((d | -d) >> 31) | anyCategory;
+            long mask = ~(((p - minPrice) | (maxPrice - p) | (q - minQuantity) | (maxQuantity - q)) >> 63)
+                    & categoryMask;
+            count += mask & 1;
+            quantity += mask & q;
+            price += mask & p;
+            value += mask & (p * q);
+        }
+        return new Summary(count, quantity, price, value);
+    }
+
+    // Indexed by category id; may end in zeros
+    public long[] countByCategory() {
+        return countByCategory.clone();
+    }
+
+    // Indexed by category id, in cents
+    public long[] valueByCategory() {
+        return valueByCategory.clone();
+    }
+
+    // Ids of the k matching products with the largest metric, largest first, ties by id.
+    // A k-sized min-heap of row numbers: one pass, no boxing, O(n log k). Once the heap is
+    // full, most rows are turned away by one comparison with the smallest key in it.
+    public long[] top(Metric metric, int k, Filter filter) {
+        if (k < 1 || size == 0) {
+            return new long[0];
+        }
+        int[] heap = new int[Math.min(k, size)];
+        int heapSize = 0;
+        long floor = Long.MIN_VALUE;
+        for (int i = next(metric, 0, floor); i < size; i = next(metric, i + 1, floor)) {
+            if (!filter.matches(priceCents[i], quantities[i], categories[i])) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, metric);
+            } else if (greater(metric, i, heap[0])) {
+                heap[0] = i;
+                siftDown(heap, heapSize, metric);
+            } else {
+                continue;
+            }
+            if (heapSize == heap.length) {
+                floor = key(metric, heap[0]);
+            }
+        }
+        long[] result = new long[heapSize];
+        for (int n = heapSize; n > 0; n--) {
+            result[n - 1] = ids[heap[0]];
+            heap[0] = heap[n - 1];
+            siftDown(heap, n - 1, metric);
+        }
+        return result;
+    }
+
+    // The first row from "from" on whose key reaches floor; one tight loop per metric
+    private int next(Metric metric, int from, long floor) {
+        int i = from;
+        switch (metric) {
+            case PRICE -> {
+                while (i < size && priceCents[i] < floor) {
+                    i++;
+                }
+            }
+            case QUANTITY -> {
+                while (i < size && quantities[i] < floor) {
+                    i++;
+                }
+            }
+            case VALUE -> {
+                while (i < size && priceCents[i] * quantities[i] < floor) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private long key(Metric metric, int row) {
+        return switch (metric) {
+            case PRICE -> priceCents[row];
+            case QUANTITY -> quantities[row];
+            case VALUE -> priceCents[row] * quantities[row];
+        };
+    }
+
+    // Larger key first; on equal keys the lower id ranks higher
+    private boolean greater(Metric metric, int a, int b) {
+        long ka = key(metric, a);
+        long kb = key(metric, b);
+        return ka != kb ? ka > kb : ids[a] < ids[b];
+    }
+
+    private void siftUp(int[] heap, int index, Metric metric) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!greater(metric, heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize, Metric metric) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && greater(metric, heap[smallest], heap[left])) {
+                smallest = left;
+            }
+            if (right < heapSize && greater(metric, heap[smallest], heap[right])) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, smallest, index);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int t = heap[a];
+        heap[a] = heap[b];
+        heap[b] = t;
+    }
+
+    private void addToCategory(int row, int sign) {
+        int category = categories[row];
+        if (category >= countByCategory.length) {
+            int length = Math.max(category + 1, countByCategory.length * 2);
+            countByCategory = Arrays.copyOf(countByCategory, length);
+            valueByCategory = Arrays.copyOf(valueByCategory, length);
+        }
+        countByCategory[category] += sign;
+        valueByCategory[category] += sign * priceCents[row] * quantities[row];
+    }
+
+    private int rowOf(long id) {
+        return id >= 0 && id < rowById.length ? rowById[(int) id] - 1 : -1;
+    }
+
+    private void indexRow(long id, int row) {
+        if (id < 0 || id >= Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Product id out of range: " + id);
+        }
+        if (id >= rowById.length) {
+            rowById = Arrays.copyOf(rowById, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(id + 1, rowById.length * 2L)));
+        }
+        rowById[(int) id] = row + 1;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+    }
+
+    // Sums are in cents
+    public static class Summary {
+
+        private final long count;
+        private final long totalQuantity;
+        private final long totalPriceCents;
+        private final long totalValueCents;
+
+        Summary(long count, long totalQuantity, long totalPriceCents, long totalValueCents) {
+            this.count = count;
+            this.totalQuantity = totalQuantity;
+            this.totalPriceCents = totalPriceCents;
+            this.totalValueCents = totalValueCents;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalQuantity() {
+            return totalQuantity;
+        }
+
+        public long getTotalValueCents() {
+            return totalValueCents;
+        }
+
+        public long getAveragePriceCents() {
+            return count == 0 ? 0 : Math.round((double) totalPriceCents / count);
+        }
+    }
+
+    // Immutable; each with... method returns a narrower copy. Bounds are inclusive.
+    public static class Filter {
+
+        public static final Filter ALL = new Filter(-1, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        private final int category;
+        private final long minPriceCents;
+        private final long maxPriceCents;
+        private final int minQuantity;
+        private final int maxQuantity;
+
+        private Filter(int category, long minPriceCents, long maxPriceCents, int minQuantity, int maxQuantity) {
+            this.category = category;
+            this.minPriceCents = minPriceCents;
+            this.maxPriceCents = maxPriceCents;
+            this.minQuantity = minQuantity;
+            this.maxQuantity = maxQuantity;
+        }
+
+        public Filter withCategory(int category) {
+            return new Filter(category, minPriceCents, maxPriceCents, minQuantity, maxQuantity);
+        }
+
+        public Filter withPriceCents(long min, long max) {
+            return new Filter(category, min, max, minQuantity, maxQuantity);
+        }
+
+        public Filter withQuantity(int min, int max) {
+            return new Filter(category, minPriceCents, maxPriceCents, min, max);
+        }
+
+        boolean matchesAll() {
+            return category < 0 && minPriceCents == Long.MIN_VALUE && maxPriceCents == Long.MAX_VALUE
+                    && minQuantity == Integer.MIN_VALUE && maxQuantity == Integer.MAX_VALUE;
+        }
+
+        boolean matches(long priceInCents, int quantity, int productCategory) {
+            return priceInCents >= minPriceCents && priceInCents <= maxPriceCents
+                    && quantity >= minQuantity && quantity <= maxQuantity
+                    && (category < 0 || productCategory == category);
+        }
+    }
+}
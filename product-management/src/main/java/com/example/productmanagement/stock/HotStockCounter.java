@@ -0,0 +1,120 @@
+package com.example.productmanagement.stock;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// In-memory front for one very hot product. Units are claimed from the database in batches
+// with the same conditional UPDATE as any reservation, and reservations then take them from
+// a set of striped counters, so concurrent orders neither wait on the product's row lock nor
+// contend on one counter. Only claimed units are ever handed out, so the database quantity
+// can be low by what the front holds, but never high: no oversell, even with several
+// instances. flush() gives the held units back.
+public class HotStockCounter {
+
+    // The database side: take() must be the conditional UPDATE, all or nothing
+    public interface Store {
+
+        boolean take(int units);
+
+        void giveBack(int units);
+    }
+
+    // Stripes sit this many ints apart, so two of them never share a cache line
+    private static final int PADDING = 16;
+
+    private final Store store;
+    private final int stripes;
+    private final int batchSize;
+    private final AtomicIntegerArray held;
+
+    public HotStockCounter(Store store, int stripes, int batchSize) {
+        if (stripes < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("stripes and batchSize must be positive");
+        }
+        this.store = store;
+        this.stripes = stripes;
+        this.batchSize = batchSize;
+        this.held = new AtomicIntegerArray(stripes * PADDING);
+    }
+
+    public boolean reserve(int amount) {
+        int home = homeStripe();
+        for (int i = 0; i < stripes; i++) {
+            if (tryTake((home + i) % stripes, amount)) {
+                return true;
+            }
+        }
+        // Slow path, one thread at a time: pool what is left in every stripe and claim
+        // the rest from the database, a whole batch when it has that much
+        synchronized (this) {
+            int pooled = drain();
+            if (pooled < amount) {
+                int shortfall = amount - pooled;
+                int claim = Math.max(batchSize, shortfall);
+                if (store.take(claim)) {
+                    pooled += claim;
+                } else if (claim > shortfall && store.take(shortfall)) {
+                    pooled += shortfall;
+                } else {
+                    held.addAndGet(home * PADDING, pooled);
+                    return false;
+                }
+            }
+            held.addAndGet(home * PADDING, pooled - amount);
+            return true;
+        }
+    }
+
+    // Released units stay here for the next reservation until the next flush
+    public void release(int amount) {
+        held.addAndGet(homeStripe() * PADDING, amount);
+    }
+
+    // Returns every held unit to the database
+    public synchronized void flush() {
+        int units = drain();
+        if (units == 0) {
+            return;
+        }
+        try {
+            store.giveBack(units);
+        } catch (RuntimeException e) {
+            held.addAndGet(homeStripe() * PADDING, units);
+            throw e;
+        }
+    }
+
+    // Units claimed from the database and not yet reserved
+    public int held() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += held.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private boolean tryTake(int stripe, int amount) {
+        int index = stripe * PADDING;
+        while (true) {
+            int current = held.get(index);
+            if (current < amount) {
+                return false;
+            }
+            if (held.compareAndSet(index, current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    private int drain() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += held.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    // A thread keeps to one stripe, so its counter stays in its core's cache
+    private int homeStripe() {
+        return (int) (Thread.currentThread().threadId() % stripes);
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.productmanagement.stock;
+
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import com.example.productmanagement.entity.StockMovement;
+import com.example.productmanagement.entity.StockSnapshot;
+import com.example.productmanagement.repository.StockMovementRepository;
+import com.example.productmanagement.repository.StockSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Append-only history of every change to a product's quantity. Changes are queued after
+// their transaction commits and inserted in JDBC batches every flush-millis. Snapshots of
+// each changed product's quantity are taken every snapshot-millis, so a quantity at any
+// time is one snapshot plus the movements since it. Compaction deletes movements older
+// than retention-days once a snapshot covers them, and thins older snapshots to one per
+// product per day: history older than that is kept at daily resolution.
+// The current quantity is products.quantity itself; the ledger answers "when" and "why".
+// A crash loses the movements still queued, at most flush-millis worth. The queue holds at
+// most max-queued movements: past that, the committing thread writes the backlog itself.
+@Component
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final int DELETE_CHUNK = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final TransactionTemplate ownTransaction;
+
+    @Value("${product.ledger.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.ledger.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${product.ledger.max-queued:100000}")
+    private int maxQueued;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    // The queue's size, which ConcurrentLinkedQueue can only count by walking it
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Held while inserting a batch and while snapshotting, so a snapshot never skips
+    // the ids of a batch that is still being written
+    private final Object writeLock = new Object();
+
+    // The EntityManagerFactory is only a dependency so that Hibernate's schema update runs first
+    @Autowired
+    public StockLedger(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+                       StockMovementRepository movementRepository, StockSnapshotRepository snapshotRepository,
+                       PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        // After commit, the finished transaction's connection is still bound to the thread;
+        // a flush from there needs a transaction of its own for its inserts to be committed
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Products that had stock before the ledger existed start with one OPENING movement
+    @PostConstruct
+    public void openBalances() {
+        int opened = jdbcTemplate.update(
+                "INSERT INTO stock_movements (product_id, delta, reason, occurred_at) " +
+                "SELECT p.id, p.quantity, 'OPENING', ? FROM products p WHERE p.quantity <> 0 " +
+                "AND NOT EXISTS (SELECT 1 FROM stock_movements m WHERE m.product_id = p.id) " +
+                "AND NOT EXISTS (SELECT 1 FROM stock_snapshots s WHERE s.product_id = p.id)",
+                Timestamp.valueOf(LocalDateTime.now()));
+        if (opened > 0) {
+            log.info("Stock ledger opened with the current quantity of {} products", opened);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void productChanged(ProductChangedEvent event) {
+        record(event.getProductId(), event.getQuantityDelta(), event.getReason());
+    }
+
+    // Queues a movement that has already been committed
+    public void record(Long productId, int delta, StockMovement.Reason reason) {
+        if (delta == 0) {
+            return;
+        }
+        queue.add(new Pending(productId, delta, reason, LocalDateTime.now()));
+        if (queued.incrementAndGet() >= maxQueued) {
+            // The scheduled flush is falling behind: slow the writers down rather than let
+            // the queue grow without limit
+            flush();
+        }
+    }
+
+    // Movements committed but not yet written
+    public int queuedMovements() {
+        return queued.get();
+    }
+
+    @Scheduled(fixedDelayString = "${product.ledger.flush-millis:1000}")
+    @PreDestroy
+    public void flush() {
+        synchronized (writeLock) {
+            // Only flush removes from the queue, so the batch is always its head
+            List<Pending> batch = new ArrayList<>(batchSize);
+            Iterator<Pending> pending = queue.iterator();
+            while (pending.hasNext()) {
+                batch.add(pending.next());
+                if (batch.size() == batchSize) {
+                    if (!insert(batch)) {
+                        return;
+                    }
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insert(batch);
+            }
+        }
+    }
+
+    // Removes the batch from the queue only once it is written; a failed batch is retried next flush
+    private boolean insert(List<Pending> batch) {
+        try {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO stock_movements (product_id, delta, reason, occurred_at) VALUES (?, ?, ?, ?)",
+                    batch, batch.size(), (ps, pending) -> {
+                        ps.setLong(1, pending.productId);
+                        ps.setInt(2, pending.delta);
+                        ps.setString(3, pending.reason.name());
+                        ps.setTimestamp(4, Timestamp.valueOf(pending.occurredAt));
+                    });
+        } catch (DataAccessException e) {
+            log.warn("Stock ledger could not write {} movements, retrying: {}", batch.size(), e.getMessage());
+            return false;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            queue.poll();
+        }
+        queued.addAndGet(-batch.size());
+        return true;
+    }
+
+    // One snapshot for each product that moved since its last one: that snapshot's quantity
+    // plus the sum of the new movements, in a single INSERT ... SELECT
+    @Scheduled(fixedDelayString = "${product.ledger.snapshot-millis:3600000}",
+               initialDelayString = "${product.ledger.snapshot-millis:3600000}")
+    public void takeSnapshots() {
+        synchronized (writeLock) {
+            Long upTo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM stock_movements", Long.class);
+            if (upTo == null) {
+                return;
+            }
+            int taken = jdbcTemplate.update(
+                    "INSERT INTO stock_snapshots (product_id, quantity, last_movement_id, as_of) " +
+                    "SELECT m.product_id, COALESCE(MAX(s.quantity), 0) + SUM(m.delta), MAX(m.id), MAX(m.occurred_at) " +
+                    "FROM stock_movements m " +
+                    "LEFT JOIN (SELECT product_id, MAX(last_movement_id) AS last_id " +
+                    "           FROM stock_snapshots GROUP BY product_id) l ON l.product_id = m.product_id " +
+                    "LEFT JOIN stock_snapshots s ON s.product_id = l.product_id AND s.last_movement_id = l.last_id " +
+                    "WHERE m.id > COALESCE(l.last_id, 0) AND m.id <= ? " +
+                    "GROUP BY m.product_id", upTo);
+            log.debug("Stock ledger took {} snapshots up to movement {}", taken, upTo);
+        }
+    }
+
+    @Scheduled(cron = "${product.ledger.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        Timestamp horizon = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        // Movements at or before the newest snapshot older than the horizon: that snapshot has them
+        int movements = deleteInChunks(
+                "DELETE FROM stock_movements WHERE occurred_at < ? AND id <= " +
+                "(SELECT MAX(s.last_movement_id) FROM stock_snapshots s " +
+                " WHERE s.product_id = stock_movements.product_id AND s.as_of < ?) LIMIT " + DELETE_CHUNK,
+                horizon, horizon);
+        // Past the horizon, a product keeps only the last snapshot of each day
+        List<Long> thinned = jdbcTemplate.queryForList(
+                "SELECT s.id FROM stock_snapshots s WHERE s.as_of < ? AND EXISTS (" +
+                "SELECT 1 FROM stock_snapshots later WHERE later.product_id = s.product_id " +
+                "AND later.last_movement_id > s.last_movement_id AND later.as_of < ? " +
+                "AND CAST(later.as_of AS DATE) = CAST(s.as_of AS DATE))",
+                Long.class, horizon, horizon);
+        for (int from = 0; from < thinned.size(); from += DELETE_CHUNK) {
+            List<Long> chunk = thinned.subList(from, Math.min(from + DELETE_CHUNK, thinned.size()));
+            snapshotRepository.deleteAllByIdInBatch(chunk);
+        }
+        log.info("Stock ledger compacted: {} movements and {} snapshots older than {} days removed",
+                 movements, thinned.size(), retentionDays);
+    }
+
+    private int deleteInChunks(String sql, Object... args) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, args);
+            total += deleted;
+        } while (deleted == DELETE_CHUNK);
+        return total;
+    }
+
+    // The quantity at a point in time, or empty when the ledger has nothing for the product
+    // by then. Reads one snapshot and sums only the movements after it.
+    public Optional<Integer> quantityAt(Long productId, LocalDateTime at) {
+        Optional<StockSnapshot> snapshot =
+                snapshotRepository.findFirstByProductIdAndAsOfLessThanEqualOrderByLastMovementIdDesc(productId, at);
+        if (snapshot.isEmpty() && !movementRepository.existsByProductIdAndOccurredAtLessThanEqual(productId, at)) {
+            return Optional.empty();
+        }
+        long afterId = snapshot.map(StockSnapshot::getLastMovementId).orElse(0L);
+        long sinceSnapshot = movementRepository.sumDeltaAfter(productId, afterId, at);
+        return Optional.of((int) (snapshot.map(StockSnapshot::getQuantity).orElse(0) + sinceSnapshot));
+    }
+
+    public Page<StockMovement> history(Long productId, Pageable pageable) {
+        return movementRepository.findByProductIdOrderByIdDesc(productId, pageable);
+    }
+
+    private static class Pending {
+
+        final Long productId;
+        final int delta;
+        final StockMovement.Reason reason;
+        final LocalDateTime occurredAt;
+
+        Pending(Long productId, int delta, StockMovement.Reason reason, LocalDateTime occurredAt) {
+            this.productId = productId;
+            this.delta = delta;
+            this.reason = reason;
+            this.occurredAt = occurredAt;
+        }
+    }
+}
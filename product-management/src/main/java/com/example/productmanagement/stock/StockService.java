@@ -0,0 +1,154 @@
+package com.example.productmanagement.stock;
+
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import com.example.productmanagement.entity.StockMovement.Reason;
+import com.example.productmanagement.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+// Stock reservations for the order service. Each change is one conditional UPDATE in its
+// own short transaction, so concurrent orders can neither lose an update nor oversell.
+// Products listed in product.stock.hot-product-ids are served by a HotStockCounter instead,
+// which claims units in batches and gives back what it holds every flush-millis.
+// Quantities edited through the product form are set outright; for a hot product, correct
+// stock with adjust so the units its counter holds are not counted twice.
+@Service
+public class StockService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockService.class);
+
+    public enum Outcome {
+        APPLIED,
+        INSUFFICIENT_STOCK,
+        NOT_FOUND
+    }
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+
+    // Fixed at startup
+    private final Map<Long, HotStockCounter> hotCounters = new HashMap<>();
+
+    @Autowired
+    public StockService(ProductRepository productRepository, ApplicationEventPublisher events,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${product.stock.hot-product-ids:}") List<Long> hotProductIds,
+                        @Value("${product.stock.hot-stripes:8}") int stripes,
+                        @Value("${product.stock.hot-batch-size:50}") int batchSize) {
+        this.productRepository = productRepository;
+        this.events = events;
+        // Its own transaction even when called inside another: units a hot counter claimed
+        // must stay claimed if the caller rolls back
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (Long id : hotProductIds) {
+            hotCounters.put(id, new HotStockCounter(new DatabaseStore(id), stripes, batchSize));
+        }
+    }
+
+    public Outcome reserve(Long productId, int amount) {
+        requirePositive(amount);
+        HotStockCounter counter = hotCounters.get(productId);
+        if (counter != null) {
+            return counter.reserve(amount) ? Outcome.APPLIED : refused(productId);
+        }
+        return change(productId, -amount, Reason.RESERVE, () -> productRepository.reserveStock(productId, amount));
+    }
+
+    public Outcome release(Long productId, int amount) {
+        requirePositive(amount);
+        HotStockCounter counter = hotCounters.get(productId);
+        if (counter != null) {
+            counter.release(amount);
+            return Outcome.APPLIED;
+        }
+        return change(productId, amount, Reason.RELEASE, () -> productRepository.releaseStock(productId, amount));
+    }
+
+    // Restocks and corrections; a negative delta is refused if it would go below zero
+    public Outcome adjust(Long productId, int delta) {
+        return change(productId, delta, Reason.ADJUST, () -> productRepository.adjustStock(productId, delta));
+    }
+
+    // Units each hot product's counter holds, claimed from the database but not yet reserved
+    public Map<Long, Integer> getHeldUnits() {
+        Map<Long, Integer> held = new HashMap<>();
+        hotCounters.forEach((id, counter) -> held.put(id, counter.held()));
+        return held;
+    }
+
+    @Scheduled(fixedDelayString = "${product.stock.flush-millis:1000}")
+    @PreDestroy
+    public void flushHotCounters() {
+        hotCounters.forEach((id, counter) -> {
+            try {
+                counter.flush();
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Could not return held stock of product {}: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    private Outcome change(Long productId, int delta, Reason reason, IntSupplier update) {
+        return update(productId, delta, reason, update) ? Outcome.APPLIED : refused(productId);
+    }
+
+    private boolean update(Long productId, int delta, Reason reason, IntSupplier update) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (update.getAsInt() == 0) {
+                return false;
+            }
+            events.publishEvent(ProductChangedEvent.quantityChanged(productId, delta, reason));
+            return true;
+        }));
+    }
+
+    // Only looked up once the UPDATE matched no row, to tell the two reasons apart
+    private Outcome refused(Long productId) {
+        return productRepository.existsById(productId) ? Outcome.INSUFFICIENT_STOCK : Outcome.NOT_FOUND;
+    }
+
+    private static void requirePositive(int amount) {
+        if (amount < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+    }
+
+    private class DatabaseStore implements HotStockCounter.Store {
+
+        private final Long productId;
+
+        DatabaseStore(Long productId) {
+            this.productId = productId;
+        }
+
+        @Override
+        public boolean take(int units) {
+            return update(productId, -units, Reason.HOT_CLAIM, () -> productRepository.reserveStock(productId, units));
+        }
+
+        @Override
+        public void giveBack(int units) {
+            if (!update(productId, units, Reason.HOT_RETURN, () -> productRepository.releaseStock(productId, units))) {
+                log.warn("Product {} is gone; {} held units were not returned", productId, units);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.productmanagement.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.service.ProductService;
+
+// One read shared by the views that reload together, and a fresh one for a view that
+// refuses it because it has applied a later change
+class CatalogLoaderTest {
+
+    private static ConfigurableApplicationContext app;
+    private static CatalogLoader loader;
+    private static ProductService products;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                // Shared for the whole run, so only a refusal causes another read
+                .run("--spring.datasource.url=jdbc:h2:mem:catalog_loader;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                     "--product.catalog.share-millis=3600000");
+        loader = app.getBean(CatalogLoader.class);
+        products = app.getBean(ProductService.class);
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void viewsReloadingTogetherShareOneRead() {
+        products.saveProduct(new Product("CL001", "Shared lantern", new BigDecimal("12.34"), 3, "Lighting", null));
+        // As a view does once it has applied that save
+        long change = loader.changeApplied();
+        List<CatalogSnapshot> offered = new ArrayList<>();
+        CatalogView current = catalog -> {
+            offered.add(catalog);
+            return catalog.includesChange(change);
+        };
+        List<CatalogSnapshot> accepted = new ArrayList<>();
+        CatalogView other = catalog -> accepted.add(catalog);
+
+        loader.reload("Current view", current);
+        loader.reload("Other view", other);
+
+        CatalogSnapshot fresh = offered.get(offered.size() - 1);
+        assertTrue(fresh.includesChange(change));
+        assertEquals(1, accepted.size());
+        assertSame(fresh, accepted.get(0));
+        int row = rowOf(fresh, "CL001");
+        assertEquals("Shared lantern", fresh.name(row));
+        assertEquals(1234, fresh.priceCents(row));
+        assertEquals(new BigDecimal("12.34"), fresh.price(row));
+        assertEquals(3, fresh.quantity(row));
+        assertEquals("Lighting", fresh.categoryName(row));
+    }
+
+    @Test
+    void refusedReadsAreRetriedWithFreshOnesUpToTheLimit() {
+        List<CatalogSnapshot> offered = new ArrayList<>();
+        CatalogView refusing = catalog -> {
+            offered.add(catalog);
+            return false;
+        };
+
+        loader.reload("Refusing view", refusing);
+
+        assertEquals(3, offered.size());
+        assertNotSame(offered.get(0), offered.get(1));
+        assertNotSame(offered.get(1), offered.get(2));
+        long change = loader.changeApplied();
+        assertFalse(offered.get(2).includesChange(change));
+    }
+
+    private static int rowOf(CatalogSnapshot catalog, String code) {
+        for (int row = 0; row < catalog.size(); row++) {
+            if (code.equals(catalog.code(row))) {
+                return row;
+            }
+        }
+        throw new AssertionError(code + " not in the snapshot");
+    }
+}
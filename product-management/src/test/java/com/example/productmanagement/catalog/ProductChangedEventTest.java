@@ -0,0 +1,122 @@
+package com.example.productmanagement.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.entity.StockMovement;
+import com.example.productmanagement.search.ProductAutocomplete;
+import com.example.productmanagement.search.ProductFacets;
+import com.example.productmanagement.service.CategoryDictionary;
+import com.example.productmanagement.service.ProductService;
+import com.example.productmanagement.stats.InventoryStatistics;
+import com.example.productmanagement.stats.ProductAnalytics;
+import com.example.productmanagement.stock.StockLedger;
+import com.example.productmanagement.stock.StockService;
+
+// One event per write reaches every in-memory copy, and only once the write has committed
+class ProductChangedEventTest {
+
+    private static ConfigurableApplicationContext app;
+    private static ProductService products;
+    private static InventoryStatistics statistics;
+    private static ProductAnalytics analytics;
+    private static ProductFacets facets;
+    private static ProductAutocomplete autocomplete;
+    private static CategoryDictionary dictionary;
+    private static StockLedger ledger;
+
+    @BeforeAll
+    static void startApp() throws InterruptedException {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                .run("--spring.datasource.url=jdbc:h2:mem:product_events;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                     "--product.ledger.flush-millis=3600000");
+        products = app.getBean(ProductService.class);
+        statistics = app.getBean(InventoryStatistics.class);
+        analytics = app.getBean(ProductAnalytics.class);
+        facets = app.getBean(ProductFacets.class);
+        autocomplete = app.getBean(ProductAutocomplete.class);
+        dictionary = app.getBean(CategoryDictionary.class);
+        ledger = app.getBean(StockLedger.class);
+        // The startup loads run on the scheduler
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(statistics.snapshot() != null && analytics.isReady() && suggest("x") != null
+                 && facets.search(null, null, null, null, PageRequest.of(0, 1)) != null)) {
+            assertTrue(System.currentTimeMillis() < deadline, "in-memory copies did not load");
+            Thread.sleep(20);
+        }
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void committedWritesReachEveryCopy() {
+        long productsBefore = statistics.snapshot().getTotalProducts();
+
+        Product saved = products.saveProduct(product("EV001", "Eventful lamp", "Lighting", 12));
+        app.getBean(StockService.class).reserve(saved.getId(), 5);
+
+        assertEquals(productsBefore + 1, statistics.snapshot().getTotalProducts());
+        assertEquals(1L, analytics.byCategory().get("Lighting")[0]);
+        assertEquals(1, facets.search("Eventful", null, null, null, PageRequest.of(0, 10)).getPage().getTotalElements());
+        assertEquals(1L, dictionary.counts().get("Lighting"));
+        List<?> suggestions = suggest("Eventful");
+        assertEquals(1, suggestions.size());
+        ledger.flush();
+        List<StockMovement> history = ledger.history(saved.getId(), PageRequest.of(0, 10)).getContent();
+        assertEquals(List.of(StockMovement.Reason.RESERVE, StockMovement.Reason.CREATE),
+                     history.stream().map(StockMovement::getReason).toList());
+        assertEquals(7, autocomplete.suggest("EV001", 1).get(0).getQuantity());
+
+        products.deleteProduct(saved.getId());
+
+        assertEquals(productsBefore, statistics.snapshot().getTotalProducts());
+        assertNull(dictionary.counts().get("Lighting"));
+        assertTrue(suggest("Eventful").isEmpty());
+    }
+
+    @Test
+    void rolledBackWritesReachNone() {
+        long productsBefore = statistics.snapshot().getTotalProducts();
+        int queuedBefore = ledger.queuedMovements();
+
+        new TransactionTemplate(app.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            products.saveProduct(product("EV002", "Phantom kettle", "Kitchen", 3));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(productsBefore, statistics.snapshot().getTotalProducts());
+        assertNull(dictionary.counts().get("Kitchen"));
+        assertEquals(0, facets.search("Phantom", null, null, null, PageRequest.of(0, 10)).getPage().getTotalElements());
+        assertTrue(suggest("Phantom").isEmpty());
+        assertEquals(queuedBefore, ledger.queuedMovements());
+    }
+
+    // After the rebuild the scheduler would do within rebuild-millis
+    private static List<?> suggest(String prefix) {
+        autocomplete.rebuild();
+        return autocomplete.suggest(prefix, 10);
+    }
+
+    private static Product product(String code, String name, String category, int quantity) {
+        return new Product(code, name, new BigDecimal("19.90"), quantity, category, null);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.productmanagement.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.productmanagement.ProductManagementApplication;
+
+// The migration runs on every startup, so a second run, or one after a run that stopped
+// before dropping the column, must leave the data as a single clean run would
+class CategoryMigrationTest {
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static CategoryMigration migration;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                .run("--spring.datasource.url=jdbc:h2:mem:category_migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        DataSource dataSource = app.getBean(DataSource.class);
+        jdbc = new JdbcTemplate(dataSource);
+        migration = new CategoryMigration(dataSource, app.getBean(EntityManagerFactory.class));
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void legacyColumnIsEncodedOnceAndRerunsChangeNothing() {
+        // A database from before the categories table: names repeated, padded and in mixed case
+        jdbc.execute("ALTER TABLE products ADD COLUMN category VARCHAR(50)");
+        jdbc.update("INSERT INTO categories (name) VALUES ('Garden')");
+        legacyProduct("CM001", " Tools ");
+        legacyProduct("CM002", "tools");
+        legacyProduct("CM003", "Garden");
+        legacyProduct("CM004", "Lighting");
+        legacyProduct("CM005", null);
+        legacyProduct("CM006", "  ");
+
+        migration.migrate();
+        Map<String, Object> firstRun = state();
+        migration.migrate();
+
+        assertEquals(firstRun, state());
+        assertEquals(List.of("Garden", "Lighting", "Tools"), categoryNames());
+        assertEquals(categoryOf("CM001"), categoryOf("CM002"));
+        assertEquals("Garden", categoryOf("CM003"));
+        assertNull(categoryOf("CM005"));
+        assertNull(categoryOf("CM006"));
+        assertFalse(hasLegacyColumn());
+    }
+
+    @Test
+    void runStoppedBeforeTheDropIsCompletedWithoutDuplicates() {
+        // Categories created and products encoded, then the process died before the DROP
+        jdbc.execute("ALTER TABLE products ADD COLUMN category VARCHAR(50)");
+        jdbc.update("INSERT INTO categories (name) VALUES ('Kitchen')");
+        legacyProduct("CM101", "Kitchen");
+        jdbc.update("UPDATE products SET category_id = (SELECT id FROM categories WHERE name = 'Kitchen') "
+                    + "WHERE product_code = 'CM101'");
+        // A product written by the old version after the interrupted run
+        legacyProduct("CM102", "kitchen ");
+
+        migration.migrate();
+
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM categories WHERE name = 'Kitchen'", Integer.class));
+        assertEquals(categoryIdOf("CM101"), categoryIdOf("CM102"));
+        assertFalse(hasLegacyColumn());
+    }
+
+    private static void legacyProduct(String code, String category) {
+        jdbc.update("INSERT INTO products (product_code, name, price, quantity, category) VALUES (?, ?, 9.99, 1, ?)",
+                    code, "Legacy " + code, category);
+    }
+
+    private static Map<String, Object> state() {
+        return Map.of(
+                "categories", jdbc.queryForList("SELECT id, name FROM categories ORDER BY id"),
+                "products", jdbc.queryForList("SELECT product_code, category_id FROM products ORDER BY id"));
+    }
+
+    private static List<String> categoryNames() {
+        return jdbc.queryForList("SELECT name FROM categories WHERE name IN ('Garden', 'Lighting', 'Tools') ORDER BY name",
+                                 String.class);
+    }
+
+    private static String categoryOf(String code) {
+        return jdbc.queryForObject("SELECT c.name FROM products p LEFT JOIN categories c ON c.id = p.category_id "
+                                   + "WHERE p.product_code = ?", String.class, code);
+    }
+
+    private static Integer categoryIdOf(String code) {
+        return jdbc.queryForObject("SELECT category_id FROM products WHERE product_code = ?", Integer.class, code);
+    }
+
+    private static boolean hasLegacyColumn() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                                   + "WHERE table_name = 'products' AND column_name = 'category'", Integer.class) > 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.productmanagement.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CompressedBitmapTest {
+
+    @Test
+    void matchesABitSetAcrossSparseAndDenseBlocks() {
+        Random random = new Random(7);
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        // Block 0 dense in both, block 1 dense in a only, block 2 sparse in both
+        for (int i = 0; i < 40_000; i++) {
+            int value = random.nextInt(1 << 16);
+            assertEquals(!expectedA.get(value), a.add(value));
+            expectedA.set(value);
+            value = random.nextInt(1 << 16);
+            b.add(value);
+            expectedB.set(value);
+        }
+        for (int i = 0; i < 20_000; i++) {
+            int value = (1 << 16) + random.nextInt(1 << 16);
+            a.add(value);
+            expectedA.set(value);
+            value = (1 << 16) + random.nextInt(1 << 16);
+            if (i % 10 == 0) {
+                b.add(value);
+                expectedB.set(value);
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            int value = (2 << 16) + random.nextInt(1 << 16);
+            a.add(value);
+            expectedA.set(value);
+            value = (2 << 16) + random.nextInt(1 << 16);
+            b.add(value);
+            expectedB.set(value);
+        }
+        // Enough removals to turn block 1 of a back into an array
+        for (int i = 0; i < 60_000; i++) {
+            int value = (1 << 16) + random.nextInt(1 << 16);
+            assertEquals(expectedA.get(value), a.remove(value));
+            expectedA.clear(value);
+        }
+
+        assertEquals(expectedA.cardinality(), a.cardinality());
+        assertArrayEquals(expectedA.stream().toArray(), a.slice(0, Integer.MAX_VALUE));
+
+        BitSet and = (BitSet) expectedA.clone();
+        and.and(expectedB);
+        assertArrayEquals(and.stream().toArray(), a.and(b).slice(0, Integer.MAX_VALUE));
+        assertEquals(and.cardinality(), a.andCardinality(b));
+
+        BitSet or = (BitSet) expectedA.clone();
+        or.or(expectedB);
+        assertArrayEquals(or.stream().toArray(), a.or(b).slice(0, Integer.MAX_VALUE));
+
+        int[] all = expectedA.stream().toArray();
+        assertArrayEquals(Arrays.copyOfRange(all, 30_000, 30_025), a.slice(30_000, 25));
+        assertEquals(0, a.slice(all.length, 10).length);
+    }
+
+    @Test
+    void emptiedBlocksAreDropped() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(5);
+        bitmap.add(70_000);
+
+        assertTrue(bitmap.remove(5));
+        assertFalse(bitmap.remove(5));
+        assertFalse(bitmap.contains(5));
+        assertTrue(bitmap.contains(70_000));
+        assertTrue(bitmap.remove(70_000));
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.and(new CompressedBitmap()).cardinality());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.productmanagement.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class FacetIndexTest {
+
+    // Bands: under $10, $10 - $50, $50 and up
+    private final FacetIndex index = new FacetIndex(new long[] {1_000, 5_000});
+
+    @Test
+    void facetCountsLeaveOutTheirOwnFilter() {
+        index.put(1, "Red Chair", 900, 1);
+        index.put(2, "Blue Chair", 2_500, 1);
+        index.put(3, "Chair Cover", 2_500, 2);
+        index.put(4, "Table", 7_000, 1);
+        index.put(5, "Armchair", 6_000, 2);
+
+        FacetIndex.Result result = index.search("chair", 1, 1_000, 10_000, 0, 10);
+
+        assertArrayEquals(new long[] {2}, result.getIds());
+        assertEquals(1, result.getTotal());
+        // Chairs from $10 up, by category
+        assertEquals(1, result.getCategoryCounts()[1]);
+        assertEquals(2, result.getCategoryCounts()[2]);
+        // Chairs in category 1, by band
+        assertArrayEquals(new long[] {1, 1, 0}, result.getBandCounts());
+    }
+
+    @Test
+    void textMatchesSubstringsOnlyAndFollowsUpdates() {
+        index.put(1, "abcxbcd", 100, 1);
+        index.put(2, "xabcdx", 100, 1);
+        index.put(3, "ab", 100, 1);
+
+        assertArrayEquals(new long[] {2}, index.search("ABCD", FacetIndex.ANY_CATEGORY, Long.MIN_VALUE, Long.MAX_VALUE, 0, 10).getIds());
+        assertArrayEquals(new long[] {1, 2, 3}, index.search("ab", FacetIndex.ANY_CATEGORY, Long.MIN_VALUE, Long.MAX_VALUE, 0, 10).getIds());
+
+        index.put(2, "renamed", 6_000, 3);
+        index.remove(3);
+
+        assertEquals(0, index.search("abcd", FacetIndex.ANY_CATEGORY, Long.MIN_VALUE, Long.MAX_VALUE, 0, 10).getTotal());
+        FacetIndex.Result all = index.search(null, FacetIndex.ANY_CATEGORY, Long.MIN_VALUE, Long.MAX_VALUE, 1, 10);
+        assertArrayEquals(new long[] {2}, all.getIds());
+        assertEquals(2, all.getTotal());
+        assertArrayEquals(new long[] {1, 0, 1}, all.getBandCounts());
+        assertEquals(0, index.search(null, -2, Long.MIN_VALUE, Long.MAX_VALUE, 0, 10).getTotal());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.productmanagement.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.service.ProductService;
+
+// The LIKE fallback H2 gets instead of MATCH ... AGAINST: which products each mode finds,
+// and the order a match in the name (2) or the description (1) per term puts them in
+class FullTextSearchTest {
+
+    private static ConfigurableApplicationContext app;
+    private static FullTextSearch search;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                .run("--spring.datasource.url=jdbc:h2:mem:full_text_search;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        search = app.getBean(FullTextSearch.class);
+        ProductService products = app.getBean(ProductService.class);
+        products.saveProduct(product("FT001", "Ergonomic office chair", "Mesh back with adjustable lumbar support"));
+        products.saveProduct(product("FT002", "Plastic garden chair", "Stackable, for outdoor use"));
+        products.saveProduct(product("FT003", "Standing desk", "Pairs well with an ergonomic chair"));
+        products.saveProduct(product("FT004", "Lumbar pillow", "Memory foam cushion for any office chair"));
+        products.saveProduct(product("FT005", "Desk lamp", "Shade in 100% cotton_blend"));
+        products.saveProduct(product("FT006", "Floor lamp", "Shade in cottonXblend"));
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void naturalModeFindsAnyTermRankedByWhereItMatches() {
+        assertFalse(search.usesFullTextIndex());
+
+        // FT001 both in the name (4), FT002 chair in the name and FT003 both in the
+        // description (2 each, then by id), FT004 chair in the description (1)
+        Page<FullTextHit> hits = search.search("Ergonomic chair", SearchTerms.Mode.NATURAL, PageRequest.of(0, 10));
+
+        assertEquals(List.of("FT001", "FT002", "FT003", "FT004"), codes(hits));
+        assertEquals("<mark>Ergonomic</mark> office <mark>chair</mark>", hits.getContent().get(0).getHighlightedName());
+        assertEquals("Pairs well with an <mark>ergonomic</mark> <mark>chair</mark>", hits.getContent().get(2).getSnippet());
+
+        // Operators are plain text in natural mode: -plastic is one more optional term
+        assertEquals(List.of("FT002", "FT001", "FT003", "FT004"),
+                     codes(search.search("chair -plastic", SearchTerms.Mode.NATURAL, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void pagesFollowTheRanking() {
+        Page<FullTextHit> second = search.search("ergonomic chair", SearchTerms.Mode.NATURAL, PageRequest.of(1, 2));
+
+        assertEquals(4, second.getTotalElements());
+        assertEquals(2, second.getTotalPages());
+        assertEquals(List.of("FT003", "FT004"), codes(second));
+    }
+
+    @Test
+    void booleanModeRequiresAndExcludesTerms() {
+        assertEquals(List.of("FT001", "FT003", "FT004"),
+                     codes(search.search("+chair -plastic", SearchTerms.Mode.BOOLEAN, PageRequest.of(0, 10))));
+        // With a required term, an optional one only ranks: lumbar lifts FT004 above FT003
+        assertEquals(List.of("FT001", "FT004", "FT003"),
+                     codes(search.search("+chair lumbar -plastic", SearchTerms.Mode.BOOLEAN, PageRequest.of(0, 10))));
+        assertEquals(List.of("FT003", "FT005"),
+                     codes(search.search("+desk", SearchTerms.Mode.BOOLEAN, PageRequest.of(0, 10))));
+        assertEquals(List.of("FT005"),
+                     codes(search.search("+desk -standing", SearchTerms.Mode.BOOLEAN, PageRequest.of(0, 10))));
+        // Nothing to match, only to exclude
+        assertTrue(search.search("-plastic", SearchTerms.Mode.BOOLEAN, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void likeWildcardsInTermsAreMatchedLiterally() {
+        assertEquals(List.of("FT005"),
+                     codes(search.search("+\"cotton_blend\"", SearchTerms.Mode.BOOLEAN, PageRequest.of(0, 10))));
+    }
+
+    private static List<String> codes(Page<FullTextHit> hits) {
+        return hits.getContent().stream().map(hit -> hit.getProduct().getProductCode()).toList();
+    }
+
+    private static Product product(String code, String name, String description) {
+        return new Product(code, name, new BigDecimal("49.00"), 5, "Furniture", description);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.productmanagement.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PrefixIndexTest {
+
+    private static final String[] WORDS = {"office", "chair", "desk", "lamp", "led", "ledger", "cable", "usb", "usb-c", "café"};
+
+    @Test
+    void topMatchesAPlainScanOfCodesAndNameWords() {
+        Random random = new Random(11);
+        List<ProductSuggestion> products = new ArrayList<>();
+        for (long id = 1; id <= 3_000; id++) {
+            StringBuilder name = new StringBuilder();
+            for (int w = random.nextInt(3) + 1; w > 0; w--) {
+                name.append(WORDS[random.nextInt(WORDS.length)]).append(w > 1 ? " " : "");
+            }
+            products.add(new ProductSuggestion(id, "P" + (1000 + id), name.toString(), random.nextInt(50)));
+        }
+        PrefixIndex index = PrefixIndex.build(products);
+
+        for (String prefix : new String[] {"l", "le", "led", "ledg", "USB", "usb-", "p10", "p2999", "café", "chair d", "z", "office lamp x"}) {
+            String p = prefix.toLowerCase(Locale.ROOT);
+            List<ProductSuggestion> expected = products.stream()
+                    .filter(s -> s.getProductCode().toLowerCase(Locale.ROOT).startsWith(p) || wordStartsWith(s.getName(), p))
+                    .sorted(Comparator.comparingInt(ProductSuggestion::getQuantity).reversed()
+                            .thenComparingLong(ProductSuggestion::getId))
+                    .limit(7)
+                    .toList();
+            assertEquals(ids(expected), ids(index.top(prefix, 7)), prefix);
+        }
+    }
+
+    @Test
+    void emptyIndexAndPrefixFindNothing() {
+        assertEquals(List.of(), PrefixIndex.EMPTY.top("a", 5));
+        PrefixIndex index = PrefixIndex.build(List.of(new ProductSuggestion(1, "ABC", "Desk", 1)));
+        assertEquals(List.of(), index.top("", 5));
+        assertEquals(List.of(1L), ids(index.top("de", 5)));
+        assertEquals(List.of(), index.top("desks", 5));
+    }
+
+    private static boolean wordStartsWith(String name, String p) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(lower.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1)));
+            if (wordStart && lower.startsWith(p, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).toList();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.productmanagement.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.catalog.CatalogLoader;
+import com.example.productmanagement.catalog.CatalogSnapshot;
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.service.ProductService;
+import com.example.productmanagement.stock.StockService;
+
+// Reservations update the suggestions without holding up the reload that picks up writes
+// made elsewhere
+class ProductAutocompleteTest {
+
+    private static ConfigurableApplicationContext app;
+    private static ProductAutocomplete autocomplete;
+    private static ProductService products;
+    private static StockService stock;
+
+    @BeforeAll
+    static void startApp() throws InterruptedException {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                // Reloads and rebuilds only when the tests call them, and every reload a fresh read
+                .run("--spring.datasource.url=jdbc:h2:mem:product_autocomplete;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                     "--product.autocomplete.reload-millis=3600000",
+                     "--product.autocomplete.rebuild-millis=3600000",
+                     "--product.catalog.share-millis=0");
+        autocomplete = app.getBean(ProductAutocomplete.class);
+        products = app.getBean(ProductService.class);
+        stock = app.getBean(StockService.class);
+        // The startup load runs on the scheduler
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (autocomplete.suggest("x", 1) == null) {
+            assertTrue(System.currentTimeMillis() < deadline, "autocomplete did not load");
+            Thread.sleep(20);
+        }
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void reservationsDuringAReadDoNotDiscardIt() {
+        Long busyId = products.saveProduct(product("AC001", "Busy anvil", 1_000)).getId();
+        // Written by another application: only a reload finds it
+        new JdbcTemplate(app.getBean(DataSource.class)).update(
+                "INSERT INTO products (product_code, name, price, quantity) VALUES ('AC002', 'Quiet anchor', 4.50, 8)");
+        List<CatalogSnapshot> read = new ArrayList<>();
+        app.getBean(CatalogLoader.class).reload("Test", read::add);
+
+        // Committed after the read began, as they would be on a busy product
+        for (int i = 0; i < 20; i++) {
+            assertEquals(StockService.Outcome.APPLIED, stock.reserve(busyId, 1));
+        }
+
+        assertTrue(autocomplete.replaceWith(read.get(0)));
+        List<ProductSuggestion> found = autocomplete.suggest("Quiet", 10);
+        assertEquals(1, found.size());
+        assertEquals("AC002", found.get(0).getProductCode());
+
+        // A save is still a reason to refuse it
+        products.saveProduct(product("AC005", "Loud anvil", 1));
+        assertFalse(autocomplete.replaceWith(read.get(0)));
+    }
+
+    @Test
+    void quantityChangesReachTheIndexWithTheNextRebuild() {
+        Long id = products.saveProduct(product("AC003", "Steady bucket", 20)).getId();
+        autocomplete.rebuild();
+        assertEquals(20, autocomplete.suggest("AC003", 1).get(0).getQuantity());
+
+        stock.reserve(id, 5);
+        autocomplete.rebuild();
+        // Not a reason to rebuild on its own
+        assertEquals(20, autocomplete.suggest("AC003", 1).get(0).getQuantity());
+
+        products.saveProduct(product("AC004", "Steady barrow", 1));
+        autocomplete.rebuild();
+        assertEquals(15, autocomplete.suggest("AC003", 1).get(0).getQuantity());
+        assertEquals(2, autocomplete.suggest("Steady", 10).size());
+    }
+
+    private static Product product(String code, String name, int quantity) {
+        return new Product(code, name, new BigDecimal("9.99"), quantity, "Tools", null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.productmanagement.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SearchTermsTest {
+
+    @Test
+    void booleanModeReadsOperatorsAndPhrases() {
+        SearchTerms terms = SearchTerms.parse("+Chair -plastic ergo* \"lumbar support\" usb-c", SearchTerms.Mode.BOOLEAN);
+
+        assertEquals(List.of("chair"), terms.required());
+        assertEquals(List.of("plastic"), terms.excluded());
+        assertEquals(List.of("ergo", "lumbar support", "usb", "c"), terms.optional());
+
+        SearchTerms natural = SearchTerms.parse("+Chair -plastic", SearchTerms.Mode.NATURAL);
+        assertEquals(List.of("chair", "plastic"), natural.optional());
+        assertEquals(List.of(), natural.required());
+    }
+
+    @Test
+    void highlightsWordStartsAndEscapesTheRest() {
+        SearchTerms terms = SearchTerms.parse("chair ergo*", SearchTerms.Mode.BOOLEAN);
+
+        assertEquals("<mark>Chair</mark> &amp; <mark>ergo</mark>nomic armchair &lt;b&gt;",
+                terms.highlight("Chair & ergonomic armchair <b>"));
+    }
+
+    @Test
+    void snippetIsCutAroundTheFirstMatch() {
+        SearchTerms terms = SearchTerms.parse("lumbar", SearchTerms.Mode.NATURAL);
+        String description = "word ".repeat(60) + "adjustable lumbar support " + "more ".repeat(60);
+
+        String snippet = terms.snippet(description);
+
+        assertTrue(snippet.startsWith("… word"), snippet);
+        assertTrue(snippet.contains("adjustable <mark>lumbar</mark> support"), snippet);
+        assertTrue(snippet.endsWith("more …"), snippet);
+        assertTrue(snippet.length() < 200, snippet);
+        assertEquals("Short <mark>lumbar</mark> pad", terms.snippet("Short lumbar pad"));
+    }
+}
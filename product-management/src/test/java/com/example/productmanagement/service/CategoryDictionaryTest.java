@@ -0,0 +1,141 @@
+package com.example.productmanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.repository.CategoryRepository;
+import com.example.productmanagement.repository.ProductRepository;
+
+// The counts cache against a real database: writes move one count, and a load that overlaps
+// a write is returned but not cached
+class CategoryDictionaryTest {
+
+    private static ConfigurableApplicationContext app;
+    private static ProductService products;
+    private static ProductRepository productRepository;
+    private static CategoryRepository categoryRepository;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                // An argument, not a default property: the test application.properties would win over that
+                .run("--spring.datasource.url=jdbc:h2:mem:category_dictionary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        products = app.getBean(ProductService.class);
+        productRepository = app.getBean(ProductRepository.class);
+        categoryRepository = app.getBean(CategoryRepository.class);
+        products.saveProduct(product("CD001", "Tools"));
+        products.saveProduct(product("CD002", "Tools"));
+        products.saveProduct(product("CD003", "Garden"));
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void committedWritesMoveCountsWithoutAnotherQuery() {
+        AtomicInteger loads = new AtomicInteger();
+        CategoryDictionary dictionary = dictionary(countingLoads(loads, null));
+
+        Map<String, Long> loaded = dictionary.counts();
+        assertEquals(2L, loaded.get("Tools"));
+        assertEquals(1L, loaded.get("Garden"));
+        dictionary.productChanged(moved("Tools", "Garden"));
+        dictionary.productChanged(moved(null, "Lighting"));
+        dictionary.productChanged(moved("tools", null));
+
+        Map<String, Long> moved = dictionary.counts();
+        assertNull(moved.get("Tools"));
+        assertEquals(2L, moved.get("Garden"));
+        assertEquals(1L, moved.get("Lighting"));
+        assertEquals(1, loads.get());
+
+        // A previous category the cache never saw means it missed writes: the next read reloads
+        dictionary.productChanged(moved("Unseen", "Garden"));
+        dictionary.counts();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadOverlappingACommittedWriteIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        CategoryDictionary[] holder = new CategoryDictionary[1];
+        // The first load reads the counts, then a product is created and committed before it finishes
+        CategoryDictionary dictionary = dictionary(countingLoads(loads, () -> {
+            Product created = products.saveProduct(product("CD100", "Plumbing"));
+            holder[0].productChanged(moved(null, created.getCategory()));
+        }));
+        holder[0] = dictionary;
+
+        Map<String, Long> racing = dictionary.counts();
+        assertNull(racing.get("Plumbing"));
+        assertNull(ReflectionTestUtils.getField(dictionary, "entry"));
+
+        Map<String, Long> reloaded = dictionary.counts();
+        assertEquals(1L, reloaded.get("Plumbing"));
+        assertEquals(2, loads.get());
+
+        dictionary.counts();
+        assertEquals(2, loads.get());
+        assertFalse(dictionary.categories().isEmpty());
+    }
+
+    private static CategoryDictionary dictionary(ProductRepository repository) {
+        CategoryDictionary dictionary = new CategoryDictionary(repository, categoryRepository);
+        ReflectionTestUtils.setField(dictionary, "enabled", true);
+        ReflectionTestUtils.setField(dictionary, "maxAgeMillis", 600_000L);
+        return dictionary;
+    }
+
+    // The application's repository, counting the GROUP BY loads and running duringFirstLoad
+    // after the first one has read its rows
+    private static ProductRepository countingLoads(AtomicInteger loads, Runnable duringFirstLoad) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[] {ProductRepository.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(productRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("countByCategoryId")
+                            && loads.incrementAndGet() == 1 && duringFirstLoad != null) {
+                        duringFirstLoad.run();
+                    }
+                    return result;
+                });
+    }
+
+    // A product moving between categories; null for none, as for a new or deleted product
+    private static ProductChangedEvent moved(String from, String to) {
+        if (to == null) {
+            return ProductChangedEvent.deleted(0L, from, 0);
+        }
+        Product saved = product("CD999", to);
+        saved.setId(0L);
+        return ProductChangedEvent.saved(saved, from == null, from, 0);
+    }
+
+    private static Product product(String code, String category) {
+        return new Product(code, "Dictionary " + code, new BigDecimal("12.50"), 4, category, null);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.productmanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.entity.Product;
+
+// Pages walked one after another must cover every product exactly once, in a stable order
+class ProductPagingTest {
+
+    private static final String[] CATEGORIES = {"Cameras", "Audio", "Books"};
+    private static final int PRODUCTS = 23;
+
+    private static ConfigurableApplicationContext app;
+    private static ProductService products;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                // An argument, not a default property: the test application.properties would win over that
+                .run("--spring.datasource.url=jdbc:h2:mem:product_paging;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        products = app.getBean(ProductService.class);
+        for (int i = 0; i < PRODUCTS; i++) {
+            // Three prices and three categories: most rows tie on the sorted column
+            products.saveProduct(new Product(String.format("PG%03d", i), "Paging item " + i,
+                    new BigDecimal(10 + (i % 3) * 5), 5 + i, CATEGORIES[i % CATEGORIES.length], null));
+        }
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void requestParametersAreClampedAndUnknownFieldsSortById() {
+        Pageable pageable = ProductPaging.of("description; DROP TABLE products", "sideways", -3, 500);
+
+        assertEquals(0, pageable.getPageNumber());
+        assertEquals(ProductPaging.MAX_PAGE_SIZE, pageable.getPageSize());
+        assertEquals(Sort.by(Sort.Direction.ASC, "id"), pageable.getSort());
+        assertEquals(ProductPaging.DEFAULT_PAGE_SIZE, ProductPaging.of("name", "asc", 0, 0).getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")),
+                ProductPaging.of("price", "desc", 0, 10).getSort());
+    }
+
+    @Test
+    void tiedPricesAreBrokenByIdAcrossPages() {
+        List<Product> walked = walk(page -> products.getProductPage(null, ProductPaging.of("price", "desc", page, 4)));
+
+        assertEachOnce(walked, PRODUCTS);
+        assertSorted(walked, Comparator.comparing(Product::getPrice).reversed().thenComparing(Product::getId));
+    }
+
+    @Test
+    void categorySortUsesTheCategoryName() {
+        List<Product> walked = walk(page -> products.getProductPage(null, ProductPaging.of("category", "asc", page, 5)));
+
+        assertEachOnce(walked, PRODUCTS);
+        assertSorted(walked, Comparator.comparing(Product::getCategory).thenComparing(Product::getId));
+        assertEquals("Audio", walked.get(0).getCategory());
+        assertEquals("Cameras", walked.get(walked.size() - 1).getCategory());
+    }
+
+    @Test
+    void categoryAndKeywordPagesCountOnlyTheirMatches() {
+        Page<Product> audio = products.getProductPage("audio", ProductPaging.of("name", "asc", 0, 3));
+        assertEquals(8, audio.getTotalElements());
+        assertEquals(3, audio.getTotalPages());
+        assertTrue(audio.getContent().stream().allMatch(p -> p.getCategory().equals("Audio")));
+
+        List<Product> walked = walk(page -> products.getProductPage("Books", ProductPaging.of("quantity", "desc", page, 3)));
+        assertEquals(7, walked.size());
+        assertSorted(walked, Comparator.comparing(Product::getQuantity).reversed());
+
+        assertTrue(products.getProductPage("No such category", ProductPaging.of("id", "asc", 0, 10)).isEmpty());
+
+        // "item 1" matches 1 and 10-19
+        Page<Product> search = products.searchProducts("item 1", ProductPaging.of("name", "desc", 1, 4));
+        assertEquals(11, search.getTotalElements());
+        assertEquals(4, search.getContent().size());
+    }
+
+    private static List<Product> walk(Function<Integer, Page<Product>> pages) {
+        List<Product> walked = new ArrayList<>();
+        Page<Product> page = pages.apply(0);
+        walked.addAll(page.getContent());
+        while (page.hasNext()) {
+            page = pages.apply(page.getNumber() + 1);
+            walked.addAll(page.getContent());
+        }
+        return walked;
+    }
+
+    private static void assertEachOnce(List<Product> walked, int expected) {
+        Set<Long> ids = new HashSet<>();
+        walked.forEach(p -> ids.add(p.getId()));
+        assertEquals(expected, walked.size());
+        assertEquals(expected, ids.size());
+    }
+
+    private static void assertSorted(List<Product> walked, Comparator<Product> order) {
+        for (int i = 1; i < walked.size(); i++) {
+            assertTrue(order.compare(walked.get(i - 1), walked.get(i)) < 0,
+                    walked.get(i - 1) + " before " + walked.get(i));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.productmanagement.stats;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ProductColumnsTest {
+
+    @Test
+    void aggregatesMatchAPlainComputationAfterUpdatesAndRemovals() {
+        Random random = new Random(42);
+        ProductColumns columns = new ProductColumns(0);
+        Map<Long, long[]> expected = new HashMap<>();
+        for (long id = 1; id <= 50_000; id++) {
+            long[] row = {random.nextInt(100_000) + 1, random.nextInt(500), random.nextInt(20) + 1};
+            columns.put(id, row[0], (int) row[1], (int) row[2]);
+            expected.put(id, row);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            long id = random.nextInt(50_000) + 1;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    assertEquals(expected.remove(id) != null, columns.remove(id));
+                }
+                case 1 -> {
+                    if (expected.containsKey(id)) {
+                        expected.get(id)[1] += 5;
+                    }
+                    assertEquals(expected.containsKey(id), columns.addQuantity(id, 5));
+                }
+                default -> {
+                    long[] row = {random.nextInt(100_000) + 1, random.nextInt(500), random.nextInt(20) + 1};
+                    columns.put(id, row[0], (int) row[1], (int) row[2]);
+                    expected.put(id, row);
+                }
+            }
+        }
+
+        ProductColumns.Filter filter = ProductColumns.Filter.ALL.withCategory(7)
+                .withPriceCents(10_000, 60_000).withQuantity(0, 250);
+        long count = 0;
+        long quantity = 0;
+        long value = 0;
+        long price = 0;
+        for (long[] row : expected.values()) {
+            if (row[2] == 7 && row[0] >= 10_000 && row[0] <= 60_000 && row[1] <= 250) {
+                count++;
+                quantity += row[1];
+                value += row[0] * row[1];
+                price += row[0];
+            }
+        }
+        ProductColumns.Summary summary = columns.summarize(filter);
+        assertEquals(count, summary.getCount());
+        assertEquals(quantity, summary.getTotalQuantity());
+        assertEquals(value, summary.getTotalValueCents());
+        assertEquals(Math.round((double) price / count), summary.getAveragePriceCents());
+
+        assertEquals(expected.size(), columns.size());
+        assertEquals(expected.size(), columns.summarize(ProductColumns.Filter.ALL).getCount());
+
+        long[] byCategory = columns.countByCategory();
+        assertEquals(expected.values().stream().filter(row -> row[2] == 3).count(), byCategory[3]);
+        assertEquals(expected.values().stream().filter(row -> row[2] == 3).mapToLong(row -> row[0] * row[1]).sum(),
+                columns.valueByCategory()[3]);
+
+        long[] top = columns.top(ProductColumns.Metric.VALUE, 5, ProductColumns.Filter.ALL);
+        long[] expectedTop = expected.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, long[]> e) -> -e.getValue()[0] * e.getValue()[1])
+                        .thenComparing(Map.Entry::getKey))
+                .limit(5)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        assertArrayEquals(expectedTop, top);
+    }
+
+    @Test
+    void removingMovesTheLastRowIntoTheGap() {
+        ProductColumns columns = new ProductColumns(4);
+        columns.put(1, 100, 1, 1);
+        columns.put(2, 200, 2, 1);
+        columns.put(3, 300, 3, 2);
+
+        assertTrue(columns.remove(1));
+
+        assertFalse(columns.contains(1));
+        assertEquals(300, columns.priceCentsOf(3));
+        assertEquals(2, columns.quantityOf(2));
+        assertTrue(columns.addQuantity(3, 4));
+        assertEquals(7, columns.quantityOf(3));
+        assertFalse(columns.remove(1));
+        assertEquals(2, columns.size());
+    }
+
+    @Test
+    void topBreaksTiesByIdAndStopsAtWhatMatches() {
+        ProductColumns columns = new ProductColumns(4);
+        columns.put(5, 100, 10, 1);
+        columns.put(2, 100, 10, 1);
+        columns.put(9, 50, 10, 2);
+
+        assertArrayEquals(new long[] {2, 5}, columns.top(ProductColumns.Metric.PRICE, 2, ProductColumns.Filter.ALL));
+        assertArrayEquals(new long[] {9},
+                columns.top(ProductColumns.Metric.QUANTITY, 10, ProductColumns.Filter.ALL.withCategory(2)));
+        assertEquals(0, columns.top(ProductColumns.Metric.VALUE, 0, ProductColumns.Filter.ALL).length);
+    }
+}
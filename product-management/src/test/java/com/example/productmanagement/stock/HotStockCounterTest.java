@@ -0,0 +1,191 @@
+package com.example.productmanagement.stock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class HotStockCounterTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        FakeStore store = new FakeStore(20_000);
+        HotStockCounter counter = new HotStockCounter(store, 8, 50);
+        AtomicLong reserved = new AtomicLong();
+
+        long started = System.nanoTime();
+        int attempts = runConcurrently(5_000, () -> {
+            int amount = ThreadLocalRandom.current().nextInt(1, 4);
+            if (counter.reserve(amount)) {
+                reserved.addAndGet(amount);
+            }
+        });
+        double perSecond = attempts / ((System.nanoTime() - started) / 1e9);
+        counter.flush();
+
+        assertTrue(store.neverNegative.get());
+        assertEquals(20_000, reserved.get() + store.quantity.get());
+        // Every attempt after the stock ran out was refused, leaving less than one order
+        assertTrue(store.quantity.get() < 3, "left " + store.quantity.get());
+        assertEquals(0, counter.held());
+        assertTrue(perSecond > 5_000, perSecond + " reservations/s");
+    }
+
+    @Test
+    void releasesAndFlushesRaceReservationsWithoutLosingUnits() throws Exception {
+        FakeStore store = new FakeStore(5_000);
+        HotStockCounter counter = new HotStockCounter(store, 4, 20);
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong released = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                counter.flush();
+                Thread.onSpinWait();
+            }
+        });
+        flusher.start();
+
+        runConcurrently(2_000, () -> {
+            int amount = ThreadLocalRandom.current().nextInt(1, 4);
+            if (counter.reserve(amount)) {
+                reserved.addAndGet(amount);
+                // A cancelled order gives some of it back
+                if (ThreadLocalRandom.current().nextInt(4) == 0) {
+                    counter.release(amount);
+                    released.addAndGet(amount);
+                }
+            }
+        });
+        running.set(false);
+        flusher.join();
+        counter.flush();
+
+        assertTrue(store.neverNegative.get());
+        assertEquals(5_000, store.quantity.get() + reserved.get() - released.get());
+    }
+
+    @Test
+    void reservationPoolsStripesAndClaimsOnlyTheShortfallWhenLow() {
+        FakeStore store = new FakeStore(12);
+        HotStockCounter counter = new HotStockCounter(store, 4, 5);
+
+        assertTrue(counter.reserve(1));
+        assertEquals(4, counter.held());
+        assertEquals(7, store.quantity.get());
+
+        // 4 held, so a whole batch of 5 is claimed for the other 4
+        assertTrue(counter.reserve(8));
+        assertEquals(1, counter.held());
+        assertEquals(2, store.quantity.get());
+
+        // Only 2 left in the database: less than a batch, but enough for this order
+        assertTrue(counter.reserve(3));
+        assertEquals(0, counter.held());
+        assertEquals(0, store.quantity.get());
+
+        assertFalse(counter.reserve(1));
+    }
+
+    @Test
+    void refusedReservationKeepsWhatWasHeld() {
+        FakeStore store = new FakeStore(5);
+        HotStockCounter counter = new HotStockCounter(store, 2, 5);
+        assertTrue(counter.reserve(2));
+
+        assertFalse(counter.reserve(4));
+
+        assertEquals(3, counter.held());
+        assertTrue(counter.reserve(3));
+    }
+
+    @Test
+    void failedFlushKeepsTheUnitsForTheNextOne() {
+        FakeStore store = new FakeStore(10);
+        HotStockCounter counter = new HotStockCounter(store, 2, 10);
+        assertTrue(counter.reserve(4));
+        store.failGiveBack = true;
+
+        assertThrows(IllegalStateException.class, counter::flush);
+        assertEquals(6, counter.held());
+
+        store.failGiveBack = false;
+        counter.flush();
+        assertEquals(0, counter.held());
+        assertEquals(6, store.quantity.get());
+    }
+
+    // Runs the task the given number of times on each thread, all starting together
+    private static int runConcurrently(int perThread, Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    task.run();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        return THREADS * perThread;
+    }
+
+    // Behaves like the conditional UPDATE: takes all the units or none
+    private static class FakeStore implements HotStockCounter.Store {
+
+        final AtomicInteger quantity;
+        final AtomicBoolean neverNegative = new AtomicBoolean(true);
+        volatile boolean failGiveBack;
+
+        FakeStore(int quantity) {
+            this.quantity = new AtomicInteger(quantity);
+        }
+
+        @Override
+        public boolean take(int units) {
+            while (true) {
+                int current = quantity.get();
+                if (current < units) {
+                    return false;
+                }
+                if (quantity.compareAndSet(current, current - units)) {
+                    if (current - units < 0) {
+                        neverNegative.set(false);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void giveBack(int units) {
+            if (failGiveBack) {
+                throw new IllegalStateException("database down");
+            }
+            quantity.addAndGet(units);
+        }
+    }
+}
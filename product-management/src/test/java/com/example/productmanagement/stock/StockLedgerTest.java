@@ -0,0 +1,169 @@
+package com.example.productmanagement.stock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.catalog.ProductChangedEvent;
+import com.example.productmanagement.entity.StockMovement;
+
+// The ledger's own SQL on H2: every test uses its own product ids, since snapshots and
+// compaction work across the whole table
+class StockLedgerTest {
+
+    private static final int MAX_QUEUED = 50;
+
+    private static ConfigurableApplicationContext app;
+    private static StockLedger ledger;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                // Flushes, snapshots and compaction only when the tests call them
+                .run("--spring.datasource.url=jdbc:h2:mem:stock_ledger;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                     "--product.ledger.flush-millis=3600000",
+                     "--product.ledger.snapshot-millis=3600000",
+                     "--product.ledger.compaction-cron=-",
+                     "--product.ledger.retention-days=90",
+                     "--product.ledger.max-queued=" + MAX_QUEUED);
+        ledger = app.getBean(StockLedger.class);
+        jdbc = new JdbcTemplate(app.getBean(DataSource.class));
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void recordedMovementsAreWrittenOnFlush() {
+        ledger.record(1001L, 10, StockMovement.Reason.CREATE);
+        ledger.record(1001L, -3, StockMovement.Reason.RESERVE);
+        ledger.record(1001L, 0, StockMovement.Reason.EDIT);
+        assertEquals(0, movements(1001L));
+
+        ledger.flush();
+
+        List<StockMovement> history = ledger.history(1001L, PageRequest.of(0, 10)).getContent();
+        assertEquals(2, history.size());
+        assertEquals(StockMovement.Reason.RESERVE, history.get(0).getReason());
+        assertEquals(-3, history.get(0).getDelta());
+        assertEquals(Optional.of(7), ledger.quantityAt(1001L, LocalDateTime.now()));
+    }
+
+    @Test
+    void quantityAtReplaysFromTheLatestSnapshot() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        movement(2001L, 20, now.minusDays(3));
+        movement(2001L, -5, now.minusDays(2));
+        movement(2001L, 1, now.minusDays(1));
+
+        assertEquals(Optional.empty(), ledger.quantityAt(2001L, now.minusDays(4)));
+        assertEquals(Optional.of(15), ledger.quantityAt(2001L, now.minusDays(2)));
+
+        ledger.takeSnapshots();
+        movement(2001L, 4, now.minusHours(1));
+        ledger.takeSnapshots();
+        // A second run with nothing new adds nothing
+        ledger.takeSnapshots();
+
+        assertEquals(2, snapshots(2001L));
+        assertEquals(16, jdbc.queryForObject("SELECT quantity FROM stock_snapshots WHERE product_id = 2001 "
+                                             + "ORDER BY last_movement_id LIMIT 1", Integer.class));
+        assertEquals(Optional.of(20), ledger.quantityAt(2001L, now.minusDays(3)));
+        assertEquals(Optional.of(15), ledger.quantityAt(2001L, now.minusDays(2)));
+        assertEquals(Optional.of(16), ledger.quantityAt(2001L, now.minusDays(1)));
+        assertEquals(Optional.of(20), ledger.quantityAt(2001L, now));
+    }
+
+    @Test
+    void compactionKeepsTheQuantitiesAtDailyResolution() {
+        LocalDateTime day = LocalDate.now().minusDays(120).atTime(10, 0);
+        movement(3001L, 50, day.minusDays(30));
+        movement(3001L, -10, day.minusDays(30).plusHours(1));
+        ledger.takeSnapshots();
+        movement(3001L, -5, day);
+        ledger.takeSnapshots();
+        // Same day as the previous snapshot: only the later one survives compaction
+        movement(3001L, -2, day.plusHours(1));
+        ledger.takeSnapshots();
+        movement(3001L, -1, LocalDateTime.now());
+        assertEquals(3, snapshots(3001L));
+        Optional<Integer> endOfDay = ledger.quantityAt(3001L, day.plusHours(12));
+        Optional<Integer> monthBefore = ledger.quantityAt(3001L, day.minusDays(30).plusHours(12));
+        Optional<Integer> current = ledger.quantityAt(3001L, LocalDateTime.now());
+
+        ledger.compact();
+
+        assertEquals(1, movements(3001L));
+        assertEquals(2, snapshots(3001L));
+        assertEquals(Optional.of(33), endOfDay);
+        assertEquals(endOfDay, ledger.quantityAt(3001L, day.plusHours(12)));
+        assertEquals(Optional.of(40), monthBefore);
+        assertEquals(monthBefore, ledger.quantityAt(3001L, day.minusDays(30).plusHours(12)));
+        assertEquals(Optional.of(32), current);
+        assertEquals(current, ledger.quantityAt(3001L, LocalDateTime.now()));
+    }
+
+    @Test
+    void writersFlushThemselvesOnceTheQueueIsFull() {
+        for (int i = 0; i < 120; i++) {
+            ledger.record(4001L, 1, StockMovement.Reason.RELEASE);
+            assertTrue(ledger.queuedMovements() < MAX_QUEUED, ledger.queuedMovements() + " queued");
+        }
+        assertEquals(120, movements(4001L) + ledger.queuedMovements());
+
+        ledger.flush();
+
+        assertEquals(0, ledger.queuedMovements());
+        assertEquals(120, movements(4001L));
+    }
+
+    @Test
+    void writersFlushingAfterCommitCommitWhatTheyWrite() {
+        TransactionTemplate transaction = new TransactionTemplate(app.getBean(PlatformTransactionManager.class));
+        for (int i = 0; i < 120; i++) {
+            transaction.executeWithoutResult(status -> {
+                // Touch the connection, so the transaction holds one when the flush runs after commit
+                jdbc.queryForObject("SELECT COUNT(*) FROM stock_movements", Integer.class);
+                app.publishEvent(ProductChangedEvent.quantityChanged(5001L, 1, StockMovement.Reason.RESERVE));
+            });
+        }
+
+        assertTrue(movements(5001L) > 0);
+        assertEquals(120, movements(5001L) + ledger.queuedMovements());
+    }
+
+    private static void movement(Long productId, int delta, LocalDateTime at) {
+        jdbc.update("INSERT INTO stock_movements (product_id, delta, reason, occurred_at) VALUES (?, ?, 'ADJUST', ?)",
+                    productId, delta, Timestamp.valueOf(at));
+    }
+
+    private static int movements(Long productId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM stock_movements WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private static int snapshots(Long productId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM stock_snapshots WHERE product_id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.productmanagement.stock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.entity.Product;
+import com.example.productmanagement.repository.ProductRepository;
+import com.example.productmanagement.service.ProductService;
+
+// Concurrent orders against the real conditional UPDATE, for an ordinary and a hot product
+class StockServiceTest {
+
+    private static final int THREADS = 16;
+    // The fresh database numbers products from 1: the second one created is the hot one
+    private static final long HOT_PRODUCT_ID = 2;
+
+    private static ConfigurableApplicationContext app;
+    private static StockService stock;
+    private static ProductRepository productRepository;
+    private static Long plainId;
+
+    @BeforeAll
+    static void startApp() {
+        app = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .properties("server.port=0")
+                .run("--spring.datasource.url=jdbc:h2:mem:stock_service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                     "--product.stock.hot-product-ids=" + HOT_PRODUCT_ID,
+                     "--product.stock.hot-batch-size=25",
+                     // Flushed by the tests, not by the scheduler halfway through
+                     "--product.stock.flush-millis=3600000");
+        stock = app.getBean(StockService.class);
+        productRepository = app.getBean(ProductRepository.class);
+        ProductService products = app.getBean(ProductService.class);
+        plainId = products.saveProduct(product("ST001", 400)).getId();
+        Long hotId = products.saveProduct(product("ST002", 1_000)).getId();
+        assertEquals(HOT_PRODUCT_ID, hotId);
+    }
+
+    @AfterAll
+    static void stopApp() {
+        app.close();
+    }
+
+    @Test
+    void concurrentReservationsSellExactlyTheStock() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        // Twice as many attempts as units: the last half must all be refused
+        runConcurrently(800, () -> {
+            StockService.Outcome outcome = stock.reserve(plainId, 1);
+            if (outcome == StockService.Outcome.APPLIED) {
+                reserved.incrementAndGet();
+            } else {
+                assertEquals(StockService.Outcome.INSUFFICIENT_STOCK, outcome);
+            }
+        });
+
+        int left = quantity(plainId);
+        assertTrue(left >= 0, "quantity " + left);
+        assertEquals(400, reserved.get());
+        assertEquals(0, left);
+        assertEquals(StockService.Outcome.NOT_FOUND, stock.reserve(-1L, 1));
+    }
+
+    @Test
+    void hotCounterHandsOutOnlyClaimedUnitsAndFlushesTheRestBack() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        runConcurrently(600, () -> {
+            if (stock.reserve(HOT_PRODUCT_ID, 1) == StockService.Outcome.APPLIED) {
+                reserved.incrementAndGet();
+            }
+        });
+        assertEquals(600, reserved.get());
+
+        // Claimed in batches, so the table is short by what the counter still holds
+        int held = stock.getHeldUnits().get(HOT_PRODUCT_ID);
+        assertEquals(1_000 - 600 - held, quantity(HOT_PRODUCT_ID));
+
+        stock.flushHotCounters();
+
+        assertEquals(0, stock.getHeldUnits().get(HOT_PRODUCT_ID));
+        assertEquals(400, quantity(HOT_PRODUCT_ID));
+
+        // Drained to the last unit, and refused after
+        runConcurrently(500, () -> {
+            if (stock.reserve(HOT_PRODUCT_ID, 1) == StockService.Outcome.APPLIED) {
+                reserved.incrementAndGet();
+            }
+        });
+        stock.flushHotCounters();
+        assertEquals(1_000, reserved.get());
+        assertEquals(0, quantity(HOT_PRODUCT_ID));
+    }
+
+    private static int quantity(Long id) {
+        return productRepository.findById(id).orElseThrow().getQuantity();
+    }
+
+    private static void runConcurrently(int attempts, Runnable attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger remaining = new AtomicInteger(attempts);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    while (remaining.getAndDecrement() > 0) {
+                        attempt.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Product product(String code, int quantity) {
+        return new Product(code, "Stock " + code, new BigDecimal("5.00"), quantity, "Stock", null);
+    }
+}